@@ -46,4 +46,11 @@ public interface Messenger<M> {
      */
     public void sendMessage(final MessageScope messageScope, final M message);
 
+    /**
+     * Keeps the currently executing vertex active in the next iteration even if it is not sent any messages, which
+     * only matters to a {@link VertexProgram} that {@link VertexProgram.Features#supportsActiveVertices()}.
+     */
+    public default void keepActive() {
+    }
+
 }
@@ -26,6 +26,7 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import java.lang.reflect.Constructor;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Optional;
 import java.util.Set;
 
@@ -172,6 +173,18 @@ public interface VertexProgram<M> extends Cloneable {
      */
     public Set<MessageScope> getMessageScopes(final Memory memory);
 
+    /**
+     * The vertices that are active in the next iteration besides those that were sent a message or kept active in the
+     * iteration before, which is only used when the program {@link Features#supportsActiveVertices()}. It is called
+     * by the master before each iteration after the initial one. The default is no vertices.
+     *
+     * @param memory an immutable form of the {@link Memory}
+     * @return the vertices that the master activates for the next iteration
+     */
+    public default Iterator<Vertex> getActiveVertices(final Memory memory) {
+        return Collections.emptyIterator();
+    }
+
     /**
      * The set of {@link MapReduce} jobs that are associated with the {@link VertexProgram}.
      * This is not necessarily the exhaustive list over the life of the {@link GraphComputer}.
@@ -289,5 +302,27 @@ public interface VertexProgram<M> extends Cloneable {
         public default boolean requiresEdgePropertyRemoval() {
             return false;
         }
+
+        /**
+         * Determines if the program computes an acceptable result when a {@link GraphComputer} lets the messages that
+         * are sent in an iteration be received in that same iteration, and only executes a vertex when its messages
+         * changed since it was last executed. A {@link GraphComputer} that has such an asynchronous mode still
+         * executes every vertex in an iteration, and only delivers its messages in the next one, whenever the
+         * {@link VertexProgram#getMessageScopes(Memory)} differ from those of the iteration before it.
+         */
+        public default boolean supportsAsynchronousExecution() {
+            return false;
+        }
+
+        /**
+         * Determines if the program only has work to do at the active vertices after the initial iteration, where a
+         * vertex is active if it was sent a message in the iteration before, if it was kept active with
+         * {@link Messenger#keepActive()} in the iteration before or if it is one of the
+         * {@link VertexProgram#getActiveVertices(Memory)}. A {@link GraphComputer} may then not execute the vertices
+         * that are not active.
+         */
+        public default boolean supportsActiveVertices() {
+            return false;
+        }
     }
 }
@@ -52,6 +52,18 @@ import java.util.Map;
 import java.util.Set;
 
 /**
+ * Clusters the vertices by having each vertex take on the cluster that the most of its neighbors vote for until the
+ * clusters no longer change.
+ * <p/>
+ * When it is given the vertices that changed since it was last computed with {@link Builder#changed(Traversal.Admin)},
+ * it instead starts from the cluster that is already held by the property of each vertex and only has the vertices
+ * that the change reaches vote again. Those are the changed vertices and the vertices they vote for, which gather the
+ * votes of all their neighbors again, and whenever a vertex changes its cluster the vertices that it votes for vote
+ * again in the next round, so that only these vertices are executed after the first iteration on a
+ * {@link GraphComputer} that supports active vertices. The changed vertices are those that the traversal yields
+ * anything for, which should include both vertices of any edge that was added or removed, and a vertex that does not
+ * hold a cluster yet is always taken as changed.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class PeerPressureVertexProgram extends StaticVertexProgram<Pair<Serializable, Double>> {
@@ -67,9 +79,12 @@ public class PeerPressureVertexProgram extends StaticVertexProgram<Pair<Serializ
     private static final String DISTRIBUTE_VOTE = "gremlin.peerPressureVertexProgram.distributeVote";
     private static final String EDGE_TRAVERSAL = "gremlin.peerPressureVertexProgram.edgeTraversal";
     private static final String VOTE_TO_HALT = "gremlin.peerPressureVertexProgram.voteToHalt";
+    private static final String CHANGED_TRAVERSAL = "gremlin.peerPressureVertexProgram.changedTraversal";
+    private static final String AFFECTED = "gremlin.peerPressureVertexProgram.affected";
 
     private PureTraversal<Vertex, Edge> edgeTraversal = null;
     private PureTraversal<Vertex, ? extends Number> initialVoteStrengthTraversal = null;
+    private PureTraversal<Vertex, ?> changedTraversal = null;
     private int maxIterations = 30;
     private boolean distributeVote = false;
     private String property = CLUSTER;
@@ -84,6 +99,8 @@ public class PeerPressureVertexProgram extends StaticVertexProgram<Pair<Serializ
     public void loadState(final Graph graph, final Configuration configuration) {
         if (configuration.containsKey(INITIAL_VOTE_STRENGTH_TRAVERSAL))
             this.initialVoteStrengthTraversal = PureTraversal.loadState(configuration, INITIAL_VOTE_STRENGTH_TRAVERSAL, graph);
+        if (configuration.containsKey(CHANGED_TRAVERSAL))
+            this.changedTraversal = PureTraversal.loadState(configuration, CHANGED_TRAVERSAL, graph);
         if (configuration.containsKey(EDGE_TRAVERSAL)) {
             this.edgeTraversal = PureTraversal.loadState(configuration, EDGE_TRAVERSAL, graph);
             this.voteScope = MessageScope.Local.of(() -> this.edgeTraversal.get().clone());
@@ -104,11 +121,16 @@ public class PeerPressureVertexProgram extends StaticVertexProgram<Pair<Serializ
             this.edgeTraversal.storeState(configuration, EDGE_TRAVERSAL);
         if (null != this.initialVoteStrengthTraversal)
             this.initialVoteStrengthTraversal.storeState(configuration, INITIAL_VOTE_STRENGTH_TRAVERSAL);
+        if (null != this.changedTraversal)
+            this.changedTraversal.storeState(configuration, CHANGED_TRAVERSAL);
     }
 
     @Override
     public Set<VertexComputeKey> getVertexComputeKeys() {
-        return new HashSet<>(Arrays.asList(VertexComputeKey.of(this.property, false), VertexComputeKey.of(VOTE_STRENGTH, true)));
+        final Set<VertexComputeKey> keys = new HashSet<>(Arrays.asList(VertexComputeKey.of(this.property, false), VertexComputeKey.of(VOTE_STRENGTH, true)));
+        if (null != this.changedTraversal)
+            keys.add(VertexComputeKey.of(AFFECTED, true));
+        return keys;
     }
 
     @Override
@@ -120,6 +142,8 @@ public class PeerPressureVertexProgram extends StaticVertexProgram<Pair<Serializ
     public Set<MessageScope> getMessageScopes(final Memory memory) {
         final Set<MessageScope> VOTE_SCOPE = new HashSet<>(Collections.singletonList(this.voteScope));
         final Set<MessageScope> COUNT_SCOPE = new HashSet<>(Collections.singletonList(this.countScope));
+        if (null != this.changedTraversal)
+            return 1 == memory.getIteration() % 3 ? COUNT_SCOPE : VOTE_SCOPE;
         return this.distributeVote && memory.isInitialIteration() ? COUNT_SCOPE : VOTE_SCOPE;
     }
 
@@ -140,7 +164,9 @@ public class PeerPressureVertexProgram extends StaticVertexProgram<Pair<Serializ
 
     @Override
     public void execute(final Vertex vertex, Messenger<Pair<Serializable, Double>> messenger, final Memory memory) {
-        if (memory.isInitialIteration()) {
+        if (null != this.changedTraversal) {
+            this.executeIncrementally(vertex, messenger, memory);
+        } else if (memory.isInitialIteration()) {
             if (this.distributeVote) {
                 messenger.sendMessage(this.countScope, Pair.with('c', 1.0d));
             } else {
@@ -173,8 +199,83 @@ public class PeerPressureVertexProgram extends StaticVertexProgram<Pair<Serializ
         }
     }
 
+    /**
+     * Has the vertices that the change reaches vote again in rounds of three iterations, where the vertices that vote
+     * again first ask their neighbors for their votes, then the neighbors vote and then the vertices count the votes.
+     */
+    private void executeIncrementally(final Vertex vertex, final Messenger<Pair<Serializable, Double>> messenger, final Memory memory) {
+        final int iteration = memory.getIteration();
+        if (0 == iteration) {
+            final boolean changed;
+            synchronized (this.changedTraversal) {
+                // the program is shared by the workers, so they take turns at the traversal
+                changed = !vertex.property(this.property).isPresent() || TraversalUtil.test(vertex, this.changedTraversal.get());
+            }
+            if (changed) {
+                vertex.property(VertexProperty.Cardinality.single, AFFECTED, true);
+                messenger.sendMessage(this.voteScope, Pair.with('c', 1.0d));
+                messenger.keepActive();
+            }
+        } else if (1 == iteration % 3) {
+            if (vertex.property(AFFECTED).isPresent() || messenger.receiveMessages().hasNext()) {
+                vertex.property(VertexProperty.Cardinality.single, AFFECTED, true);
+                messenger.sendMessage(this.countScope, Pair.with('c', 1.0d));
+                messenger.keepActive();
+            }
+        } else if (2 == iteration % 3) {
+            if (messenger.receiveMessages().hasNext())
+                messenger.sendMessage(this.voteScope, new Pair<>(this.cluster(vertex), this.voteStrength(vertex)));
+            if (vertex.property(AFFECTED).isPresent())
+                messenger.keepActive();
+        } else {
+            // only the vertices that asked for them received all of the votes of their neighbors
+            final VertexProperty<Boolean> affected = vertex.property(AFFECTED);
+            if (!affected.isPresent()) return;
+            affected.remove();
+            final Serializable previousCluster = this.cluster(vertex);
+            final Map<Serializable, Double> votes = new HashMap<>();
+            votes.put(previousCluster, this.voteStrength(vertex));
+            messenger.receiveMessages().forEachRemaining(message -> MapHelper.incr(votes, message.getValue0(), message.getValue1()));
+            Serializable cluster = PeerPressureVertexProgram.largestCount(votes);
+            if (null == cluster) cluster = (Serializable) vertex.id();
+            vertex.property(VertexProperty.Cardinality.single, this.property, cluster);
+            if (!previousCluster.equals(cluster)) {
+                messenger.sendMessage(this.voteScope, Pair.with('c', 1.0d));
+                memory.add(VOTE_TO_HALT, false);
+            }
+        }
+    }
+
+    private Serializable cluster(final Vertex vertex) {
+        return vertex.<Serializable>property(this.property).orElse((Serializable) vertex.id());
+    }
+
+    private double voteStrength(final Vertex vertex) {
+        final VertexProperty<Double> voteStrength = vertex.property(VOTE_STRENGTH);
+        if (voteStrength.isPresent())
+            return voteStrength.value();
+        double strength = 1.0d;
+        if (null != this.initialVoteStrengthTraversal) {
+            synchronized (this.initialVoteStrengthTraversal) {
+                strength = TraversalUtil.apply(vertex, this.initialVoteStrengthTraversal.get()).doubleValue();
+            }
+        }
+        if (this.distributeVote)
+            strength = strength / IteratorUtils.count(TraversalUtil.applyAll(vertex, this.voteScope.getIncidentTraversal().get().asAdmin()));
+        vertex.property(VertexProperty.Cardinality.single, VOTE_STRENGTH, strength);
+        return strength;
+    }
+
     @Override
     public boolean terminate(final Memory memory) {
+        if (null != this.changedTraversal) {
+            // a round can only be the last once its votes are counted
+            final int iteration = memory.getIteration();
+            final boolean voteToHalt = iteration > 0 && 0 == iteration % 3 &&
+                    (memory.<Boolean>get(VOTE_TO_HALT) || iteration >= 3 * this.maxIterations);
+            memory.set(VOTE_TO_HALT, true);
+            return voteToHalt;
+        }
         final boolean voteToHalt = memory.<Boolean>get(VOTE_TO_HALT) || memory.getIteration() >= (this.distributeVote ? this.maxIterations + 1 : this.maxIterations);
         if (voteToHalt) {
             return true;
@@ -244,6 +345,15 @@ public class PeerPressureVertexProgram extends StaticVertexProgram<Pair<Serializ
             return this;
         }
 
+        /**
+         * Recomputes the clusters that the vertices already hold from the vertices that the traversal yields anything
+         * for, which are those that changed since they were last computed.
+         */
+        public Builder changed(final Traversal.Admin<Vertex, ?> changedTraversal) {
+            PureTraversal.storeState(this.configuration, CHANGED_TRAVERSAL, changedTraversal);
+            return this;
+        }
+
         /**
          * @deprecated As of release 3.2.0, replaced by {@link PeerPressureVertexProgram.Builder#edges(Traversal.Admin)}
          */
@@ -276,6 +386,17 @@ public class PeerPressureVertexProgram extends StaticVertexProgram<Pair<Serializ
             public boolean requiresVertexPropertyAddition() {
                 return true;
             }
+
+            @Override
+            public boolean supportsAsynchronousExecution() {
+                // the rounds of an incremental computation rely on each iteration only receiving the messages of the one before it
+                return null == changedTraversal;
+            }
+
+            @Override
+            public boolean supportsActiveVertices() {
+                return null != changedTraversal;
+            }
         };
     }
 }
@@ -44,10 +44,23 @@ import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Optional;
 import java.util.Set;
 
 /**
+ * Computes the PageRank of every vertex by passing it along the edges until it converges.
+ * <p/>
+ * When it is given the vertices that changed since it was last computed with {@link Builder#changed(Traversal.Admin)},
+ * it instead starts from the PageRank that is already held by the property of each vertex and only passes along the
+ * change to it. The vertices whose incoming edges changed gather the PageRank of their neighbors to work out how far
+ * their own is from converging, and each vertex passes on the difference until it is below the epsilon spread over all
+ * vertices, so that only the vertices that the change reaches are executed after the first iteration on a
+ * {@link GraphComputer} that supports active vertices. The changed vertices are those that the traversal yields
+ * anything for, which should include both vertices of any edge that was added or removed, and a vertex that does not
+ * hold a PageRank yet is always taken as changed. Where the change alters the total PageRank that teleports from the
+ * vertices, the difference that it makes to every vertex alike is not passed on.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class PageRankVertexProgram implements VertexProgram<Double> {
@@ -64,11 +77,18 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
     private static final String INITIAL_RANK_TRAVERSAL = "gremlin.pageRankVertexProgram.initialRankTraversal";
     private static final String TELEPORTATION_ENERGY = "gremlin.pageRankVertexProgram.teleportationEnergy";
     private static final String CONVERGENCE_ERROR = "gremlin.pageRankVertexProgram.convergenceError";
+    private static final String CHANGED_TRAVERSAL = "gremlin.pageRankVertexProgram.changedTraversal";
+    private static final String AFFECTED = "gremlin.pageRankVertexProgram.affected";
+    private static final String RESIDUAL = "gremlin.pageRankVertexProgram.residual";
+
+    // the iteration that an incremental computation first passes along the change to the PageRank in
+    private static final int INCREMENTAL_START = 3;
 
     private MessageScope.Local<Double> incidentMessageScope = MessageScope.Local.of(__::outE);
     private MessageScope.Local<Double> countMessageScope = MessageScope.Local.of(new MessageScope.Local.ReverseTraversalSupplier(this.incidentMessageScope));
     private PureTraversal<Vertex, Edge> edgeTraversal = null;
     private PureTraversal<Vertex, ? extends Number> initialRankTraversal = null;
+    private PureTraversal<Vertex, ?> changedTraversal = null;
     private double alpha = 0.85d;
     private double epsilon = 0.00001d;
     private int maxIterations = 20;
@@ -84,6 +104,8 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
     public void loadState(final Graph graph, final Configuration configuration) {
         if (configuration.containsKey(INITIAL_RANK_TRAVERSAL))
             this.initialRankTraversal = PureTraversal.loadState(configuration, INITIAL_RANK_TRAVERSAL, graph);
+        if (configuration.containsKey(CHANGED_TRAVERSAL))
+            this.changedTraversal = PureTraversal.loadState(configuration, CHANGED_TRAVERSAL, graph);
         if (configuration.containsKey(EDGE_TRAVERSAL)) {
             this.edgeTraversal = PureTraversal.loadState(configuration, EDGE_TRAVERSAL, graph);
             this.incidentMessageScope = MessageScope.Local.of(() -> this.edgeTraversal.get().clone());
@@ -96,6 +118,10 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
         this.vertexComputeKeys = new HashSet<>(Arrays.asList(
                 VertexComputeKey.of(this.property, false),
                 VertexComputeKey.of(EDGE_COUNT, true)));
+        if (null != this.changedTraversal) {
+            this.vertexComputeKeys.add(VertexComputeKey.of(AFFECTED, true));
+            this.vertexComputeKeys.add(VertexComputeKey.of(RESIDUAL, true));
+        }
         this.memoryComputeKeys = new HashSet<>(Arrays.asList(
                 MemoryComputeKey.of(TELEPORTATION_ENERGY, Operator.sum, true, true),
                 MemoryComputeKey.of(VERTEX_COUNT, Operator.sum, true, true),
@@ -113,6 +139,8 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
             this.edgeTraversal.storeState(configuration, EDGE_TRAVERSAL);
         if (null != this.initialRankTraversal)
             this.initialRankTraversal.storeState(configuration, INITIAL_RANK_TRAVERSAL);
+        if (null != this.changedTraversal)
+            this.changedTraversal.storeState(configuration, CHANGED_TRAVERSAL);
     }
 
     @Override
@@ -143,7 +171,10 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
     @Override
     public Set<MessageScope> getMessageScopes(final Memory memory) {
         final Set<MessageScope> set = new HashSet<>();
-        set.add(memory.isInitialIteration() ? this.countMessageScope : this.incidentMessageScope);
+        if (null != this.changedTraversal)
+            set.add(1 == memory.getIteration() ? this.countMessageScope : this.incidentMessageScope);
+        else
+            set.add(memory.isInitialIteration() ? this.countMessageScope : this.incidentMessageScope);
         return set;
     }
 
@@ -153,6 +184,8 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
             final PageRankVertexProgram clone = (PageRankVertexProgram) super.clone();
             if (null != this.initialRankTraversal)
                 clone.initialRankTraversal = this.initialRankTraversal.clone();
+            if (null != this.changedTraversal)
+                clone.changedTraversal = this.changedTraversal.clone();
             return clone;
         } catch (final CloneNotSupportedException e) {
             throw new IllegalStateException(e.getMessage(), e);
@@ -161,14 +194,16 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
 
     @Override
     public void setup(final Memory memory) {
-        memory.set(TELEPORTATION_ENERGY, null == this.initialRankTraversal ? 1.0d : 0.0d);
+        memory.set(TELEPORTATION_ENERGY, null == this.initialRankTraversal && null == this.changedTraversal ? 1.0d : 0.0d);
         memory.set(VERTEX_COUNT, 0.0d);
         memory.set(CONVERGENCE_ERROR, 1.0d);
     }
 
     @Override
     public void execute(final Vertex vertex, Messenger<Double> messenger, final Memory memory) {
-        if (memory.isInitialIteration()) {
+        if (null != this.changedTraversal) {
+            this.executeIncrementally(vertex, messenger, memory);
+        } else if (memory.isInitialIteration()) {
             messenger.sendMessage(this.countMessageScope, 1.0d);
             memory.add(VERTEX_COUNT, 1.0d);
         } else {
@@ -204,8 +239,69 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
         }
     }
 
+    private void executeIncrementally(final Vertex vertex, final Messenger<Double> messenger, final Memory memory) {
+        final int iteration = memory.getIteration();
+        if (0 == iteration) {
+            final VertexProperty<Number> previousPageRank = vertex.property(this.property);
+            final double pageRank = previousPageRank.isPresent() ? previousPageRank.value().doubleValue() : 0.0d;
+            memory.add(VERTEX_COUNT, 1.0d);
+            memory.add(TELEPORTATION_ENERGY, this.incidentEdges(vertex).hasNext() ? (1.0d - this.alpha) * pageRank : pageRank);
+            if (!previousPageRank.isPresent() || TraversalUtil.test(vertex, this.changedTraversal.get())) {
+                vertex.property(VertexProperty.Cardinality.single, AFFECTED, true);
+                messenger.sendMessage(this.incidentMessageScope, 1.0d);
+                messenger.keepActive();
+            }
+        } else if (1 == iteration) {
+            // the changed vertices and the vertices that they pass PageRank to ask for the PageRank passed to them
+            if (vertex.property(AFFECTED).isPresent() || messenger.receiveMessages().hasNext()) {
+                vertex.property(VertexProperty.Cardinality.single, AFFECTED, true);
+                messenger.sendMessage(this.countMessageScope, 1.0d);
+                messenger.keepActive();
+            }
+        } else if (2 == iteration) {
+            if (messenger.receiveMessages().hasNext())
+                messenger.sendMessage(this.incidentMessageScope, this.pageRank(vertex) / IteratorUtils.count(this.incidentEdges(vertex)));
+            if (vertex.property(AFFECTED).isPresent())
+                messenger.keepActive();
+        } else {
+            final double residual;
+            if (INCREMENTAL_START == iteration) {
+                // only the vertices that asked for it received all of the PageRank that is passed to them
+                if (!vertex.property(AFFECTED).isPresent()) return;
+                residual = memory.<Double>get(TELEPORTATION_ENERGY) / memory.<Double>get(VERTEX_COUNT) +
+                        this.alpha * IteratorUtils.reduce(messenger.receiveMessages(), 0.0d, (a, b) -> a + b) - this.pageRank(vertex);
+            } else {
+                residual = vertex.<Double>property(RESIDUAL).orElse(0.0d) +
+                        IteratorUtils.reduce(messenger.receiveMessages(), 0.0d, (a, b) -> a + b);
+            }
+            if (Math.abs(residual) > this.epsilon / memory.<Double>get(VERTEX_COUNT)) {
+                vertex.property(VertexProperty.Cardinality.single, this.property, this.pageRank(vertex) + residual);
+                vertex.property(VertexProperty.Cardinality.single, RESIDUAL, 0.0d);
+                memory.add(CONVERGENCE_ERROR, Math.abs(residual));
+                final long edgeCount = IteratorUtils.count(this.incidentEdges(vertex));
+                if (edgeCount > 0)
+                    messenger.sendMessage(this.incidentMessageScope, this.alpha * residual / edgeCount);
+            } else
+                vertex.property(VertexProperty.Cardinality.single, RESIDUAL, residual);
+        }
+    }
+
+    private double pageRank(final Vertex vertex) {
+        return vertex.<Number>property(this.property).orElse(0.0d).doubleValue();
+    }
+
+    private Iterator<Edge> incidentEdges(final Vertex vertex) {
+        return TraversalUtil.applyAll(vertex, this.incidentMessageScope.getIncidentTraversal().get().asAdmin());
+    }
+
     @Override
     public boolean terminate(final Memory memory) {
+        if (null != this.changedTraversal) {
+            final boolean terminate = memory.getIteration() >= INCREMENTAL_START &&
+                    (memory.<Double>get(CONVERGENCE_ERROR) < this.epsilon || memory.getIteration() >= INCREMENTAL_START + this.maxIterations);
+            memory.set(CONVERGENCE_ERROR, 0.0d);
+            return terminate;
+        }
         boolean terminate = memory.<Double>get(CONVERGENCE_ERROR) < this.epsilon || memory.getIteration() >= this.maxIterations;
         memory.set(CONVERGENCE_ERROR, 0.0d);
         return terminate;
@@ -258,6 +354,15 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
             return this;
         }
 
+        /**
+         * Recomputes the PageRank that the vertices already hold from the vertices that the traversal yields
+         * anything for, which are those that changed since it was last computed.
+         */
+        public Builder changed(final Traversal.Admin<Vertex, ?> changedTraversal) {
+            PureTraversal.storeState(this.configuration, CHANGED_TRAVERSAL, changedTraversal);
+            return this;
+        }
+
         /**
          * @deprecated As of release 3.2.0, replaced by {@link org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram.Builder#initialRank(Traversal.Admin)}
          */
@@ -298,6 +403,11 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
             public boolean requiresVertexPropertyAddition() {
                 return true;
             }
+
+            @Override
+            public boolean supportsActiveVertices() {
+                return null != changedTraversal;
+            }
         };
     }
 }
\ No newline at end of file
@@ -68,6 +68,7 @@ import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.structure.util.Host;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.util.function.MutableMetricsSupplier;
 import org.apache.tinkerpop.gremlin.util.iterator.EmptyIterator;
@@ -257,13 +258,7 @@ public final class TraversalVertexProgram implements VertexProgram<TraverserSet<
             this.haltedTraversers = null;
         // memory is distributed
         MemoryTraversalSideEffects.setMemorySideEffects(this.traversal.get(), memory, ProgramPhase.EXECUTE);
-        // if a barrier was completed in another worker, it is also completed here (ensure distributed barriers are synchronized)
-        final Set<String> completedBarriers = memory.get(COMPLETED_BARRIERS);
-        for (final String stepId : completedBarriers) {
-            final Step<?, ?> step = this.traversalMatrix.getStepById(stepId);
-            if (step instanceof Barrier)
-                ((Barrier) this.traversalMatrix.getStepById(stepId)).done();
-        }
+        this.completeBarriers(memory);
         // define halted traversers
         final VertexProperty<TraverserSet<Object>> property = vertex.property(HALTED_TRAVERSERS);
         final TraverserSet<Object> haltedTraversers;
@@ -308,6 +303,19 @@ public final class TraversalVertexProgram implements VertexProgram<TraverserSet<
         // save space by not having an empty halted traversers property
         if (this.returnHaltedTraversers || haltedTraversers.isEmpty())
             vertex.<TraverserSet>property(HALTED_TRAVERSERS).remove();
+        // local barrier traversers are stored at the vertex until the master traversal synchronizes the barrier
+        if (vertex.property(ACTIVE_TRAVERSERS).isPresent())
+            messenger.keepActive();
+    }
+
+    private void completeBarriers(final Memory memory) {
+        // if a barrier was completed in another worker, it is also completed here (ensure distributed barriers are synchronized)
+        final Set<String> completedBarriers = memory.get(COMPLETED_BARRIERS);
+        for (final String stepId : completedBarriers) {
+            final Step<?, ?> step = this.traversalMatrix.getStepById(stepId);
+            if (step instanceof Barrier)
+                ((Barrier) this.traversalMatrix.getStepById(stepId)).done();
+        }
     }
 
     @Override
@@ -355,8 +363,18 @@ public final class TraversalVertexProgram implements VertexProgram<TraverserSet<
         }
     }
 
+    @Override
+    public Iterator<Vertex> getActiveVertices(final Memory memory) {
+        // the traversers that the master sends back to the workers are processed at the vertices that host them
+        final TraverserSet<Object> activeTraversers = memory.get(ACTIVE_TRAVERSERS);
+        return IteratorUtils.map(activeTraversers.iterator(), traverser -> Host.getHostingVertex(traverser.get()));
+    }
+
     @Override
     public void workerIterationStart(final Memory memory) {
+        // a worker may not execute any vertices when only the active vertices are executed, so the barriers are also completed here
+        if (memory.exists(COMPLETED_BARRIERS))
+            this.completeBarriers(memory);
         // start collecting profile metrics
         if (this.profile) {
             this.iterationMetrics = new MutableMetrics("iteration" + memory.getIteration(), "Worker Iteration " + memory.getIteration());
@@ -449,6 +467,11 @@ public final class TraversalVertexProgram implements VertexProgram<TraverserSet<
             public boolean requiresVertexPropertyAddition() {
                 return true;
             }
+
+            @Override
+            public boolean supportsActiveVertices() {
+                return true;
+            }
         };
     }
 
@@ -27,6 +27,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Configuring;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TimesModulating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
@@ -36,6 +37,7 @@ import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -43,9 +45,16 @@ import java.util.Set;
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class PageRankVertexProgramStep extends VertexProgramStep implements TraversalParent, ByModulating, TimesModulating {
+public final class PageRankVertexProgramStep extends VertexProgramStep implements TraversalParent, ByModulating, TimesModulating, Configuring {
+
+    /**
+     * The option of {@code with()} that gives the traversal of the vertices that changed since the PageRank were last
+     * computed, so that they are recomputed from the PageRank that the vertices already hold.
+     */
+    public static final String CHANGED = "changed";
 
     private PureTraversal<Vertex, Edge> edgeTraversal;
+    private PureTraversal<Vertex, ?> changedTraversal = null;
     private String pageRankProperty = PageRankVertexProgram.PAGE_RANK;
     private int times = 20;
     private final double alpha;
@@ -73,13 +82,23 @@ public final class PageRankVertexProgramStep extends VertexProgramStep implement
     }
 
     @Override
-    public List<Traversal.Admin<Vertex, Edge>> getLocalChildren() {
-        return Collections.singletonList(this.edgeTraversal.get());
+    public void configure(final String key, final Object value) {
+        if (!CHANGED.equals(key) || !(value instanceof Traversal.Admin))
+            throw new IllegalArgumentException(String.format("The %s does not accept the option %s with %s", this.getClass().getSimpleName(), key, value));
+        this.changedTraversal = new PureTraversal<>((Traversal.Admin<Vertex, ?>) value);
+        this.integrateChild(this.changedTraversal.get());
+    }
+
+    @Override
+    public List<Traversal.Admin<Vertex, ?>> getLocalChildren() {
+        return null == this.changedTraversal ?
+                Collections.singletonList(this.edgeTraversal.get()) :
+                Arrays.asList(this.edgeTraversal.get(), this.changedTraversal.get());
     }
 
     @Override
     public String toString() {
-        return StringFactory.stepString(this, this.edgeTraversal.get(), this.pageRankProperty, this.times, new GraphFilter(this.computer));
+        return StringFactory.stepString(this, this.edgeTraversal.get(), null == this.changedTraversal ? null : this.changedTraversal.get(), this.pageRankProperty, this.times, new GraphFilter(this.computer));
     }
 
     @Override
@@ -91,6 +110,11 @@ public final class PageRankVertexProgramStep extends VertexProgramStep implement
                 .iterations(this.times + 1)
                 .alpha(this.alpha)
                 .edges(detachedTraversal);
+        if (null != this.changedTraversal) {
+            final Traversal.Admin<Vertex, ?> detachedChangedTraversal = this.changedTraversal.getPure();
+            detachedChangedTraversal.setStrategies(TraversalStrategies.GlobalCache.getStrategies(graph.getClass()));
+            builder.changed(detachedChangedTraversal);
+        }
         if (this.previousTraversalVertexProgram())
             builder.initialRank(new HaltedTraversersCountTraversal());
         return builder.create(graph);
@@ -105,6 +129,8 @@ public final class PageRankVertexProgramStep extends VertexProgramStep implement
     public PageRankVertexProgramStep clone() {
         final PageRankVertexProgramStep clone = (PageRankVertexProgramStep) super.clone();
         clone.edgeTraversal = this.edgeTraversal.clone();
+        if (null != this.changedTraversal)
+            clone.changedTraversal = this.changedTraversal.clone();
         return clone;
     }
 
@@ -112,10 +138,12 @@ public final class PageRankVertexProgramStep extends VertexProgramStep implement
     public void setTraversal(final Traversal.Admin<?, ?> parentTraversal) {
         super.setTraversal(parentTraversal);
         this.integrateChild(this.edgeTraversal.get());
+        if (null != this.changedTraversal)
+            this.integrateChild(this.changedTraversal.get());
     }
 
     @Override
     public int hashCode() {
-        return super.hashCode() ^ this.edgeTraversal.hashCode() ^ this.pageRankProperty.hashCode() ^ this.times;
+        return super.hashCode() ^ this.edgeTraversal.hashCode() ^ (null == this.changedTraversal ? 0 : this.changedTraversal.hashCode()) ^ this.pageRankProperty.hashCode() ^ this.times;
     }
 }
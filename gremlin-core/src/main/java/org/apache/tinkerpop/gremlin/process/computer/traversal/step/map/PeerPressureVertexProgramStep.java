@@ -27,6 +27,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Configuring;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TimesModulating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
@@ -36,6 +37,7 @@ import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -43,9 +45,16 @@ import java.util.Set;
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class PeerPressureVertexProgramStep extends VertexProgramStep implements TraversalParent, ByModulating, TimesModulating {
+public final class PeerPressureVertexProgramStep extends VertexProgramStep implements TraversalParent, ByModulating, TimesModulating, Configuring {
+
+    /**
+     * The option of {@code with()} that gives the traversal of the vertices that changed since the clusters were last
+     * computed, so that they are recomputed from the clusters that the vertices already hold.
+     */
+    public static final String CHANGED = "changed";
 
     private PureTraversal<Vertex, Edge> edgeTraversal;
+    private PureTraversal<Vertex, ?> changedTraversal = null;
     private String clusterProperty = PeerPressureVertexProgram.CLUSTER;
     private int times = 30;
 
@@ -56,7 +65,7 @@ public final class PeerPressureVertexProgramStep extends VertexProgramStep imple
 
     @Override
     public int hashCode() {
-        return super.hashCode() ^ this.edgeTraversal.hashCode() ^ this.clusterProperty.hashCode() ^ this.times;
+        return super.hashCode() ^ this.edgeTraversal.hashCode() ^ (null == this.changedTraversal ? 0 : this.changedTraversal.hashCode()) ^ this.clusterProperty.hashCode() ^ this.times;
     }
 
     @Override
@@ -76,13 +85,23 @@ public final class PeerPressureVertexProgramStep extends VertexProgramStep imple
     }
 
     @Override
-    public List<Traversal.Admin<Vertex, Edge>> getLocalChildren() {
-        return Collections.singletonList(this.edgeTraversal.get());
+    public void configure(final String key, final Object value) {
+        if (!CHANGED.equals(key) || !(value instanceof Traversal.Admin))
+            throw new IllegalArgumentException(String.format("The %s does not accept the option %s with %s", this.getClass().getSimpleName(), key, value));
+        this.changedTraversal = new PureTraversal<>((Traversal.Admin<Vertex, ?>) value);
+        this.integrateChild(this.changedTraversal.get());
+    }
+
+    @Override
+    public List<Traversal.Admin<Vertex, ?>> getLocalChildren() {
+        return null == this.changedTraversal ?
+                Collections.singletonList(this.edgeTraversal.get()) :
+                Arrays.asList(this.edgeTraversal.get(), this.changedTraversal.get());
     }
 
     @Override
     public String toString() {
-        return StringFactory.stepString(this, this.edgeTraversal.get(), this.clusterProperty, this.times, new GraphFilter(this.computer));
+        return StringFactory.stepString(this, this.edgeTraversal.get(), null == this.changedTraversal ? null : this.changedTraversal.get(), this.clusterProperty, this.times, new GraphFilter(this.computer));
     }
 
     @Override
@@ -93,6 +112,11 @@ public final class PeerPressureVertexProgramStep extends VertexProgramStep imple
                 .property(this.clusterProperty)
                 .maxIterations(this.times)
                 .edges(detachedTraversal);
+        if (null != this.changedTraversal) {
+            final Traversal.Admin<Vertex, ?> detachedChangedTraversal = this.changedTraversal.getPure();
+            detachedChangedTraversal.setStrategies(TraversalStrategies.GlobalCache.getStrategies(graph.getClass()));
+            builder.changed(detachedChangedTraversal);
+        }
         if (this.previousTraversalVertexProgram())
             builder.initialVoteStrength(new HaltedTraversersCountTraversal());
         return builder.create(graph);
@@ -107,6 +131,8 @@ public final class PeerPressureVertexProgramStep extends VertexProgramStep imple
     public PeerPressureVertexProgramStep clone() {
         final PeerPressureVertexProgramStep clone = (PeerPressureVertexProgramStep) super.clone();
         clone.edgeTraversal = this.edgeTraversal.clone();
+        if (null != this.changedTraversal)
+            clone.changedTraversal = this.changedTraversal.clone();
         return clone;
     }
 
@@ -114,5 +140,7 @@ public final class PeerPressureVertexProgramStep extends VertexProgramStep imple
     public void setTraversal(final Traversal.Admin<?, ?> parentTraversal) {
         super.setTraversal(parentTraversal);
         this.integrateChild(this.edgeTraversal.get());
+        if (null != this.changedTraversal)
+            this.integrateChild(this.changedTraversal.get());
     }
 }
@@ -36,6 +36,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.lambda.LoopTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.PredicateTraverser;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.TrueTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Configuring;
 import org.apache.tinkerpop.gremlin.process.traversal.step.FromToModulating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TimesModulating;
@@ -2656,6 +2657,25 @@ public interface GraphTraversal<S, E> extends Traversal<S, E> {
 
     ////
 
+    /**
+     * Provides an option to a step that is configured by a key and a value, such as the vertices that changed for
+     * {@link #pageRank()} and {@link #peerPressure()}.
+     *
+     * @param key   the option to configure
+     * @param value the value of the option
+     * @return the traversal with the modulated step
+     * @since 3.3.2
+     */
+    public default GraphTraversal<S, E> with(final String key, final Object value) {
+        this.asAdmin().getBytecode().addStep(Symbols.with, key, value);
+        if (!(this.asAdmin().getEndStep() instanceof Configuring))
+            throw new IllegalArgumentException("The with() step can only modulate a step that can be configured: " + this.asAdmin().getEndStep());
+        ((Configuring) this.asAdmin().getEndStep()).configure(key, value instanceof Traversal ? ((Traversal) value).asAdmin() : value);
+        return this;
+    }
+
+    ////
+
     /**
      * Iterates the traversal presumably for the generation of side-effects.
      */
@@ -2774,6 +2794,7 @@ public interface GraphTraversal<S, E> extends Traversal<S, E> {
         public static final String times = "times";
         public static final String as = "as";
         public static final String option = "option";
+        public static final String with = "with";
 
     }
 }
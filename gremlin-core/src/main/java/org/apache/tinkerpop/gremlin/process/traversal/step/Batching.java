@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.BatchStrategy;
+
+/**
+ * A {@code Batching} step is one that can hand its traversers to the next step an array at a time rather than one
+ * {@link Step#next()} at a time. The steps that follow a {@code Batching} step with a batch size greater than one
+ * (as set by {@link BatchStrategy}) read from it in batches, while every other step falls back to reading one
+ * traverser at a time.
+ */
+public interface Batching<S, E> extends Step<S, E> {
+
+    /**
+     * Fills the array with the next traversers of the step, starting at index {@code 0}.
+     *
+     * @return the number of traversers in the batch, which is {@code 0} only once the step has no more traversers
+     */
+    public int nextBatch(final Traverser.Admin<E>[] ends);
+
+    /**
+     * Sets the number of traversers that the next step reads from this step at a time.
+     */
+    public void setBatchSize(final int batchSize);
+
+    public int getBatchSize();
+}
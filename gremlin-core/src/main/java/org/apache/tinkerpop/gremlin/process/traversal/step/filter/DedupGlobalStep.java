@@ -29,6 +29,8 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.GraphComputing;
 import org.apache.tinkerpop.gremlin.process.traversal.step.PathProcessor;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Scoping;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BloomFilter;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.DedupSet;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalUtil;
@@ -53,7 +55,10 @@ import java.util.function.BinaryOperator;
 public final class DedupGlobalStep<S> extends FilterStep<S> implements TraversalParent, Scoping, GraphComputing, Barrier<Map<Object, Traverser.Admin<S>>>, ByModulating, PathProcessor {
 
     private Traversal.Admin<S, Object> dedupTraversal = null;
-    private Set<Object> duplicateSet = new HashSet<>();
+    private DedupSet duplicateSet = new DedupSet();
+    private BloomFilter approximateSet = null;
+    private long expectedSize = 0l;
+    private double errorRate;
     private boolean onGraphComputer = false;
     private final Set<String> dedupLabels;
     private Set<String> keepLabels;
@@ -71,14 +76,37 @@ public final class DedupGlobalStep<S> extends FilterStep<S> implements Traversal
         if (this.onGraphComputer && !this.executingAtMaster) return true;
         traverser.setBulk(1L);
         if (null == this.dedupLabels) {
-            return this.duplicateSet.add(TraversalUtil.applyNullable(traverser, this.dedupTraversal));
+            return this.add(TraversalUtil.applyNullable(traverser, this.dedupTraversal));
         } else {
             final List<Object> objects = new ArrayList<>(this.dedupLabels.size());
             this.dedupLabels.forEach(label -> objects.add(TraversalUtil.applyNullable((S) this.getScopeValue(Pop.last, label, traverser), this.dedupTraversal)));
-            return this.duplicateSet.add(objects);
+            return this.add(objects);
         }
     }
 
+    /**
+     * Has the step keep the objects it has seen in a {@link BloomFilter} of constant size rather than in a set. Objects
+     * that were not seen before are then filtered out at about the given error rate, for as long as no more than the
+     * expected number of distinct objects are seen.
+     */
+    public void setApproximate(final long expectedSize, final double errorRate) {
+        this.expectedSize = expectedSize;
+        this.errorRate = errorRate;
+        this.approximateSet = null;
+    }
+
+    public boolean isApproximate() {
+        return this.expectedSize > 0l;
+    }
+
+    private boolean add(final Object object) {
+        if (!this.isApproximate())
+            return this.duplicateSet.add(object);
+        if (null == this.approximateSet)
+            this.approximateSet = new BloomFilter(this.expectedSize, this.errorRate);
+        return this.approximateSet.add(object);
+    }
+
     @Override
     public void atMaster(final boolean atMaster) {
         this.executingAtMaster = atMaster;
@@ -99,7 +127,7 @@ public final class DedupGlobalStep<S> extends FilterStep<S> implements Traversal
             if (null == this.barrierIterator)
                 this.barrierIterator = this.barrier.entrySet().iterator();
             final Map.Entry<Object, Traverser.Admin<S>> entry = this.barrierIterator.next();
-            if (this.duplicateSet.add(entry.getKey()))
+            if (this.add(entry.getKey()))
                 return PathProcessor.processTraverserPathLabels(entry.getValue(), this.keepLabels);
         }
         return PathProcessor.processTraverserPathLabels(super.processNextStart(), this.keepLabels);
@@ -118,7 +146,8 @@ public final class DedupGlobalStep<S> extends FilterStep<S> implements Traversal
     @Override
     public DedupGlobalStep<S> clone() {
         final DedupGlobalStep<S> clone = (DedupGlobalStep<S>) super.clone();
-        clone.duplicateSet = new HashSet<>();
+        clone.duplicateSet = new DedupSet();
+        clone.approximateSet = null;
         if (null != this.dedupTraversal)
             clone.dedupTraversal = this.dedupTraversal.clone();
         return clone;
@@ -144,6 +173,8 @@ public final class DedupGlobalStep<S> extends FilterStep<S> implements Traversal
     public void reset() {
         super.reset();
         this.duplicateSet.clear();
+        if (null != this.approximateSet)
+            this.approximateSet.clear();
         this.barrier = null;
         this.barrierIterator = null;
     }
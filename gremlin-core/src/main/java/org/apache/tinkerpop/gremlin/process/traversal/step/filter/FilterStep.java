@@ -40,5 +40,18 @@ public abstract class FilterStep<S> extends AbstractStep<S, S> {
         }
     }
 
+    @Override
+    protected int processNextBatch(final Traverser.Admin<S>[] ends) {
+        final int starts = this.starts.next(ends);
+        int size = 0;
+        for (int i = 0; i < starts; i++) {
+            final Traverser.Admin<S> traverser = ends[i];
+            ends[i] = null;
+            if (this.filter(traverser))
+                ends[size++] = traverser;
+        }
+        return size;
+    }
+
     protected abstract boolean filter(final Traverser.Admin<S> traverser);
 }
@@ -18,16 +18,22 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal.step.filter;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -35,9 +41,10 @@ import java.util.Set;
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public class HasStep<S extends Element> extends FilterStep<S> implements HasContainerHolder {
+public class HasStep<S extends Element> extends FilterStep<S> implements HasContainerHolder, Batching<S, S> {
 
     private List<HasContainer> hasContainers;
+    private HasContainer[] testOrder = null;
 
     public HasStep(final Traversal.Admin traversal, final HasContainer... hasContainers) {
         super(traversal);
@@ -47,7 +54,14 @@ public class HasStep<S extends Element> extends FilterStep<S> implements HasCont
 
     @Override
     protected boolean filter(final Traverser.Admin<S> traverser) {
-        return HasContainer.testAll(traverser.get(), this.hasContainers);
+        if (null == this.testOrder)
+            this.testOrder = orderBySelectivity(this.hasContainers);
+        final S element = traverser.get();
+        for (final HasContainer hasContainer : this.testOrder) {
+            if (!hasContainer.test(element))
+                return false;
+        }
+        return true;
     }
 
     @Override
@@ -63,11 +77,13 @@ public class HasStep<S extends Element> extends FilterStep<S> implements HasCont
     @Override
     public void removeHasContainer(final HasContainer hasContainer) {
         this.hasContainers.remove(hasContainer);
+        this.testOrder = null;
     }
 
     @Override
     public void addHasContainer(final HasContainer hasContainer) {
         this.hasContainers.add(hasContainer);
+        this.testOrder = null;
     }
 
     @Override
@@ -79,6 +95,7 @@ public class HasStep<S extends Element> extends FilterStep<S> implements HasCont
     public HasStep<S> clone() {
         final HasStep<S> clone = (HasStep<S>) super.clone();
         clone.hasContainers = new ArrayList<>();
+        clone.testOrder = null;
         for (final HasContainer hasContainer : this.hasContainers) {
             clone.addHasContainer(hasContainer.clone());
         }
@@ -93,4 +110,26 @@ public class HasStep<S extends Element> extends FilterStep<S> implements HasCont
         }
         return result;
     }
+
+    /**
+     * Orders the containers so that the equality and {@code within()} tests, which are the most likely to filter, are
+     * tested first, with those on the id and label (which need no property lookup) ahead of the rest. The containers
+     * are otherwise kept in the order they were added in. As those tests never throw, a container that would throw on
+     * an element is never tested earlier than it was before.
+     */
+    private static HasContainer[] orderBySelectivity(final List<HasContainer> hasContainers) {
+        final List<HasContainer> ordered = new ArrayList<>(hasContainers);
+        ordered.sort(Comparator.comparingInt(HasStep::rank));
+        return ordered.toArray(new HasContainer[ordered.size()]);
+    }
+
+    private static int rank(final HasContainer hasContainer) {
+        if (hasContainer.getPredicate().getClass() != P.class ||
+                (Compare.eq != hasContainer.getBiPredicate() && Contains.within != hasContainer.getBiPredicate()))
+            return 2;
+        else if (hasContainer.getKey().equals(T.id.getAccessor()) || hasContainer.getKey().equals(T.label.getAccessor()))
+            return 0;
+        else
+            return 1;
+    }
 }
@@ -51,6 +51,23 @@ public abstract class FlatMapStep<S, E> extends AbstractStep<S, E> {
         }
     }
 
+    @Override
+    protected int processNextBatch(final Traverser.Admin<E>[] ends) {
+        int size = 0;
+        while (size < ends.length) {
+            if (this.iterator.hasNext()) {
+                ends[size++] = this.head.split(this.iterator.next(), this);
+            } else {
+                closeIterator();
+                if (size > 0 && !this.starts.hasNext())
+                    break;
+                this.head = this.starts.next();
+                this.iterator = this.flatMap(this.head);
+            }
+        }
+        return size;
+    }
+
     protected abstract Iterator<E> flatMap(final Traverser.Admin<S> traverser);
 
     @Override
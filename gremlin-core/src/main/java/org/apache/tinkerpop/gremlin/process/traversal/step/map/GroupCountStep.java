@@ -23,6 +23,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CountMap;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.MapHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
@@ -58,6 +59,23 @@ public final class GroupCountStep<S, E> extends ReducingBarrierStep<S, Map<E, Lo
         return map;
     }
 
+    @Override
+    protected Map<E, Long> reduceTraverser(final Map<E, Long> seed, final Traverser.Admin<S> traverser) {
+        final CountMap<E> counts = seed instanceof CountMap ? (CountMap<E>) seed : new CountMap<>(seed);
+        counts.incr(TraversalUtil.applyNullable(traverser, this.keyTraversal), traverser.bulk());
+        return counts;
+    }
+
+    @Override
+    public Map<E, Long> nextBarrier() {
+        return this.generateFinalResult(super.nextBarrier());
+    }
+
+    @Override
+    public Map<E, Long> generateFinalResult(final Map<E, Long> map) {
+        return map instanceof CountMap ? ((CountMap<E>) map).toMap() : map;
+    }
+
     @Override
     public void addLocalChild(final Traversal.Admin<?, ?> groupTraversal) {
         this.keyTraversal = this.integrateChild(groupTraversal);
@@ -112,8 +130,14 @@ public final class GroupCountStep<S, E> extends ReducingBarrierStep<S, Map<E, Lo
 
         @Override
         public Map<E, Long> apply(final Map<E, Long> mutatingSeed, final Map<E, Long> map) {
-            for (final Map.Entry<E, Long> entry : map.entrySet()) {
-                MapHelper.incr(mutatingSeed, entry.getKey(), entry.getValue());
+            if (mutatingSeed instanceof CountMap) {
+                for (final Map.Entry<E, Long> entry : map.entrySet()) {
+                    ((CountMap<E>) mutatingSeed).incr(entry.getKey(), entry.getValue());
+                }
+            } else {
+                for (final Map.Entry<E, Long> entry : map.entrySet()) {
+                    MapHelper.incr(mutatingSeed, entry.getKey(), entry.getValue());
+                }
             }
             return mutatingSeed;
         }
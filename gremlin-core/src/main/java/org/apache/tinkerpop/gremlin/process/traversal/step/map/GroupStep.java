@@ -91,6 +91,23 @@ public final class GroupStep<S, K, V> extends ReducingBarrierStep<S, Map<K, V>>
         return map;
     }
 
+    @Override
+    protected Map<K, V> reduceTraverser(final Map<K, V> seed, final Traverser.Admin<S> traverser) {
+        this.valueTraversal.reset();
+        this.valueTraversal.addStart(traverser);
+        final V value;
+        if (null == this.barrierStep) {
+            if (!this.valueTraversal.hasNext())
+                return seed;
+            value = this.valueTraversal.next();
+        } else if (this.barrierStep.hasNextBarrier())
+            value = (V) this.barrierStep.nextBarrier();
+        else
+            return seed;
+        ((GroupBiOperator<K, V>) this.reducingBiOperator).merge(seed, TraversalUtil.applyNullable(traverser, this.keyTraversal), value);
+        return seed;
+    }
+
     @Override
     public String toString() {
         return StringFactory.stepString(this, this.keyTraversal, this.valueTraversal);
@@ -157,16 +174,22 @@ public final class GroupStep<S, K, V> extends ReducingBarrierStep<S, Map<K, V>>
         @Override
         public Map<K, V> apply(final Map<K, V> mapA, final Map<K, V> mapB) {
             for (final K key : mapB.keySet()) {
-                V objectA = mapA.get(key);
-                final V objectB = mapB.get(key);
-                if (null == objectA)
-                    objectA = objectB;
-                else if (null != objectB)
-                    objectA = this.barrierAggregator.apply(objectA, objectB);
-                mapA.put(key, objectA);
+                this.merge(mapA, key, mapB.get(key));
             }
             return mapA;
         }
+
+        /**
+         * Merges a single value into the map, aggregating it with the value already held for the key, if any.
+         */
+        public void merge(final Map<K, V> map, final K key, final V value) {
+            V current = map.get(key);
+            if (null == current)
+                current = value;
+            else if (null != value)
+                current = this.barrierAggregator.apply(current, value);
+            map.put(key, current);
+        }
     }
 
 
@@ -37,6 +37,17 @@ public abstract class MapStep<S, E> extends AbstractStep<S, E> {
         return traverser.split(this.map(traverser), this);
     }
 
+    @Override
+    protected int processNextBatch(final Traverser.Admin<E>[] ends) {
+        final Traverser.Admin<S>[] starts = (Traverser.Admin[]) ends;
+        final int size = this.starts.next(starts);
+        for (int i = 0; i < size; i++) {
+            final Traverser.Admin<S> traverser = starts[i];
+            ends[i] = traverser.split(this.map(traverser), this);
+        }
+        return size;
+    }
+
     protected abstract E map(final Traverser.Admin<S> traverser);
 
 }
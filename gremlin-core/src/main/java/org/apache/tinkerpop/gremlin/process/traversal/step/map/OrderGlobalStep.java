@@ -27,6 +27,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ComparatorHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.CollectingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.OrderLimitStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.ProjectedTraverser;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
@@ -41,6 +42,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
@@ -70,9 +72,59 @@ public final class OrderGlobalStep<S, C extends Comparable> extends CollectingBa
 
     @Override
     public void processAllStarts() {
+        if (this.isLimited())
+            this.processTopStarts();
+        else {
+            while (this.starts.hasNext()) {
+                this.traverserSet.add(this.createProjectedTraverser(this.starts.next()));
+            }
+        }
+    }
+
+    /**
+     * When a limit is set by {@link OrderLimitStrategy}, only the best {@code limit} traversers (by bulk) are kept in
+     * a bounded heap whose top is the worst of them, so that memory is {@code O(limit)} and a start that is no better
+     * than the top is dropped without being stored. Ties are broken by arrival so that the traversers kept, once
+     * sorted, are the same as those a full sort followed by the range would have returned.
+     */
+    private void processTopStarts() {
+        if (!this.starts.hasNext())
+            return;
+        if (null == this.multiComparator) this.multiComparator = this.createMultiComparator();
+        final Comparator<Ranked<S>> worstFirst = (a, b) -> {
+            final int comparison = this.multiComparator.compare((C) b.traverser, (C) a.traverser);
+            return 0 != comparison ? comparison : Long.compare(b.arrival, a.arrival);
+        };
+        final PriorityQueue<Ranked<S>> heap = new PriorityQueue<>(worstFirst);
+        long arrival = 0L;
+        long bulk = 0L;
+        for (final Traverser.Admin<S> traverser : this.traverserSet) {
+            heap.add(new Ranked<>(traverser, arrival++));
+            bulk = bulk + traverser.bulk();
+        }
+        this.traverserSet.clear();
         while (this.starts.hasNext()) {
-            this.traverserSet.add(this.createProjectedTraverser(this.starts.next()));
+            final Ranked<S> ranked = new Ranked<>(this.createProjectedTraverser(this.starts.next()), arrival++);
+            if (bulk >= this.limit && (heap.isEmpty() || worstFirst.compare(ranked, heap.peek()) <= 0))
+                continue;
+            heap.add(ranked);
+            bulk = bulk + ranked.traverser.bulk();
+            while (!heap.isEmpty() && bulk - heap.peek().traverser.bulk() >= this.limit) {
+                bulk = bulk - heap.poll().traverser.bulk();
+            }
         }
+        final List<Ranked<S>> kept = new ArrayList<>(heap);
+        kept.sort(Comparator.comparingLong(ranked -> ranked.arrival));
+        for (final Ranked<S> ranked : kept) {
+            this.traverserSet.add(ranked.traverser);
+        }
+    }
+
+    private boolean isLimited() {
+        if (this.limit < 0 || Long.MAX_VALUE == this.limit)
+            return false;
+        if (null == this.multiComparator) this.multiComparator = this.createMultiComparator();
+        return !this.multiComparator.isShuffle();
     }
 
     public void setLimit(final long limit) {
@@ -167,6 +219,19 @@ public final class OrderGlobalStep<S, C extends Comparable> extends CollectingBa
 
     ////////////////
 
+    private static final class Ranked<S> {
+
+        private final Traverser.Admin<S> traverser;
+        private final long arrival;
+
+        private Ranked(final Traverser.Admin<S> traverser, final long arrival) {
+            this.traverser = traverser;
+            this.arrival = arrival;
+        }
+    }
+
+    ////////////////
+
     public static final class OrderBiOperator<S> implements BinaryOperator<TraverserSet<S>>, Serializable {
 
         private long limit;
@@ -21,6 +21,7 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.util;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.util.EmptyTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
@@ -43,6 +44,7 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
     protected ExpandableStepIterator<S> starts;
     protected Traverser.Admin<E> nextEnd = null;
     protected boolean traverserStepIdAndLabelsSetByChild = false;
+    protected int batchSize = 1;
 
     protected Step<?, S> previousStep = EmptyStep.instance();
     protected Step<E, ?> nextStep = EmptyStep.instance();
@@ -152,6 +154,49 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
         }
     }
 
+    /**
+     * Gets the next traversers of the step a batch at a time for the steps that are {@link Batching}. The batch is
+     * processed by {@link #processNextBatch(Traverser.Admin[])} and the traversers that are filtered out by it are
+     * removed before the batch is returned.
+     */
+    public int nextBatch(final Traverser.Admin<E>[] ends) {
+        if (null != this.nextEnd) {
+            try {
+                ends[0] = this.prepareTraversalForNextStep(this.nextEnd);
+                return 1;
+            } finally {
+                this.nextEnd = null;
+            }
+        }
+        try {
+            while (true) {
+                if (Thread.interrupted()) throw new TraversalInterruptedException();
+                final int processed = this.processNextBatch(ends);
+                int size = 0;
+                for (int i = 0; i < processed; i++) {
+                    final Traverser.Admin<E> traverser = ends[i];
+                    ends[i] = null;
+                    if (null != traverser.get() && 0 != traverser.bulk())
+                        ends[size++] = this.prepareTraversalForNextStep(traverser);
+                }
+                if (size > 0)
+                    return size;
+            }
+        } catch (final NoSuchElementException e) {
+            return 0;
+        }
+    }
+
+    public void setBatchSize(final int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("The batch size must be greater than zero: " + batchSize);
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
     @Override
     public <A, B> Traversal.Admin<A, B> getTraversal() {
         return this.traversal;
@@ -164,6 +209,17 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
 
     protected abstract Traverser.Admin<E> processNextStart() throws NoSuchElementException;
 
+    /**
+     * Processes the next batch of starts into the array, returning how many traversers were put in it, which may be
+     * none if they were all filtered. By default the batch is the single traverser of {@link #processNextStart()}.
+     *
+     * @throws NoSuchElementException if there are no more starts
+     */
+    protected int processNextBatch(final Traverser.Admin<E>[] ends) throws NoSuchElementException {
+        ends[0] = this.processNextStart();
+        return 1;
+    }
+
     @Override
     public String toString() {
         return StringFactory.stepString(this);
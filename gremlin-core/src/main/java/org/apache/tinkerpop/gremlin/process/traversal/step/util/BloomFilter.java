@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A Bloom filter that is used by {@link org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep}
+ * in its approximate mode. Its size is fixed by the expected number of distinct objects and the rate of false
+ * positives that is accepted for them, so an object may be wrongly taken as already seen but an object that was seen
+ * is never taken as new.
+ */
+public final class BloomFilter implements Serializable {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(final long expectedSize, final double errorRate) {
+        if (expectedSize < 1)
+            throw new IllegalArgumentException("The expected size must be greater than zero: " + expectedSize);
+        if (errorRate <= 0.0d || errorRate >= 1.0d)
+            throw new IllegalArgumentException("The error rate must be between zero and one: " + errorRate);
+        final long bitCount = Math.max(64l, (long) Math.ceil(-expectedSize * Math.log(errorRate) / (Math.log(2) * Math.log(2))));
+        this.bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (bitCount + 63) / 64)];
+        this.bitCount = (long) this.bits.length * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / expectedSize * Math.log(2)));
+    }
+
+    /**
+     * Adds the object to the filter.
+     *
+     * @return {@code true} if the object was certainly not in the filter before
+     */
+    public boolean add(final Object object) {
+        final long hash = hash(object);
+        final long hash2 = mix(hash) | 1l;
+        boolean added = false;
+        for (int i = 0; i < this.hashCount; i++) {
+            final long bit = Long.remainderUnsigned(hash + i * hash2, this.bitCount);
+            final int index = (int) (bit >>> 6);
+            final long mask = 1l << bit;
+            if (0l == (this.bits[index] & mask)) {
+                this.bits[index] = this.bits[index] | mask;
+                added = true;
+            }
+        }
+        return added;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.bits.length; i++) {
+            this.bits[i] = 0l;
+        }
+    }
+
+    private static long hash(final Object object) {
+        if (null == object)
+            return 0l;
+        else if (object instanceof Long || object instanceof Integer || object instanceof Short || object instanceof Byte)
+            return mix(((Number) object).longValue() ^ object.getClass().getName().hashCode());
+        else if (object instanceof Double)
+            return mix(Double.doubleToLongBits((Double) object));
+        else if (object instanceof String) {
+            // FNV-1a over the characters, as the 32-bit String hash code collides too often for large sets
+            long hash = 0xcbf29ce484222325l;
+            final String string = (String) object;
+            for (int i = 0; i < string.length(); i++) {
+                hash = (hash ^ string.charAt(i)) * 0x100000001b3l;
+            }
+            return mix(hash);
+        } else if (object instanceof Element)
+            return mix(hash(((Element) object).id()) ^ (object instanceof Vertex ? 1l : object instanceof Edge ? 2l : 3l));
+        else if (object instanceof List) {
+            long hash = 1l;
+            for (final Object item : (List) object) {
+                hash = 31 * hash + hash(item);
+            }
+            return mix(hash);
+        } else
+            return mix(object.hashCode());
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdl;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb34fe1a85ec5l;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.util.HashUtil;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * CountMap is a map of keys to {@code long} counts that are held in an open-addressed table of primitive counters, so
+ * that incrementing a count neither boxes it nor allocates an entry. It is the running map of
+ * {@link org.apache.tinkerpop.gremlin.process.traversal.step.map.GroupCountStep} and is turned into a {@link HashMap}
+ * with {@link #toMap()} (or when it is serialized) before it is handed out of the step.
+ */
+public final class CountMap<K> extends AbstractMap<K, Long> implements Serializable {
+
+    private static final Object NULL_KEY = new Object();
+
+    private Object[] keys;
+    private long[] counts;
+    private int size = 0;
+
+    public CountMap() {
+        this(16);
+    }
+
+    public CountMap(final Map<K, Long> map) {
+        this(map.size());
+        for (final Map.Entry<K, Long> entry : map.entrySet()) {
+            this.incr(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private CountMap(final int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity = capacity << 1;
+        }
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+    }
+
+    /**
+     * Adds to the count of the key, starting it at {@code 0} if the key is not yet in the map.
+     */
+    public void incr(final K key, final long count) {
+        final Object k = null == key ? NULL_KEY : key;
+        final int slot = this.slot(k);
+        if (null == this.keys[slot]) {
+            this.keys[slot] = k;
+            this.counts[slot] = count;
+            if (++this.size * 2 > this.keys.length)
+                this.resize();
+        } else
+            this.counts[slot] = this.counts[slot] + count;
+    }
+
+    public HashMap<K, Long> toMap() {
+        final HashMap<K, Long> map = new HashMap<>((int) (this.size / 0.75f) + 1);
+        for (int i = 0; i < this.keys.length; i++) {
+            if (null != this.keys[i])
+                map.put(key(this.keys[i]), this.counts[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return null != this.keys[this.slot(null == key ? NULL_KEY : key)];
+    }
+
+    @Override
+    public Long get(final Object key) {
+        final int slot = this.slot(null == key ? NULL_KEY : key);
+        return null == this.keys[slot] ? null : this.counts[slot];
+    }
+
+    @Override
+    public Long put(final K key, final Long value) {
+        final Object k = null == key ? NULL_KEY : key;
+        final int slot = this.slot(k);
+        if (null == this.keys[slot]) {
+            this.incr(key, value);
+            return null;
+        } else {
+            final long previous = this.counts[slot];
+            this.counts[slot] = value;
+            return previous;
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < this.keys.length; i++) {
+            this.keys[i] = null;
+            this.counts[i] = 0l;
+        }
+        this.size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<K, Long>> entrySet() {
+        return new AbstractSet<Map.Entry<K, Long>>() {
+            @Override
+            public Iterator<Map.Entry<K, Long>> iterator() {
+                return new Iterator<Map.Entry<K, Long>>() {
+                    private int next = this.advance(0);
+
+                    private int advance(int slot) {
+                        while (slot < keys.length && null == keys[slot]) {
+                            slot++;
+                        }
+                        return slot;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<K, Long> next() {
+                        if (!this.hasNext())
+                            throw new NoSuchElementException();
+                        final Map.Entry<K, Long> entry = new SimpleImmutableEntry<>(key(keys[this.next]), counts[this.next]);
+                        this.next = this.advance(this.next + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int slot(final Object key) {
+        final int mask = this.keys.length - 1;
+        int slot = HashUtil.mix(key.hashCode()) & mask;
+        while (null != this.keys[slot] && !this.keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        final Object[] oldKeys = this.keys;
+        final long[] oldCounts = this.counts;
+        this.keys = new Object[oldKeys.length << 1];
+        this.counts = new long[oldKeys.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (null != oldKeys[i]) {
+                final int slot = this.slot(oldKeys[i]);
+                this.keys[slot] = oldKeys[i];
+                this.counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static <K> K key(final Object key) {
+        return NULL_KEY == key ? null : (K) key;
+    }
+
+    private Object writeReplace() {
+        return this.toMap();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.HashUtil;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * DedupSet is the set of objects that {@link org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep}
+ * has already seen. {@code Long}, {@code Integer} and {@code Double} values, and the {@code Long} identifiers of
+ * vertices and edges, are kept in open-addressed tables of primitive {@code long}s, one table per kind so that values
+ * that are not {@code equals()} are never confused. Every other object is kept in a {@link HashSet}.
+ */
+public final class DedupSet implements Serializable {
+
+    private static final int LONGS = 0;
+    private static final int INTEGERS = 1;
+    private static final int DOUBLES = 2;
+    private static final int VERTEX_IDS = 3;
+    private static final int EDGE_IDS = 4;
+
+    private final LongSet[] primitives = new LongSet[5];
+    private final Set<Object> objects = new HashSet<>();
+
+    /**
+     * Adds the object to the set.
+     *
+     * @return {@code true} if the object was not already in the set
+     */
+    public boolean add(final Object object) {
+        if (object instanceof Long)
+            return this.primitives(LONGS).add((Long) object);
+        else if (object instanceof Integer)
+            return this.primitives(INTEGERS).add((Integer) object);
+        else if (object instanceof Double)
+            return this.primitives(DOUBLES).add(Double.doubleToLongBits((Double) object));
+        else if (object instanceof Vertex && ((Vertex) object).id() instanceof Long)
+            return this.primitives(VERTEX_IDS).add((Long) ((Vertex) object).id());
+        else if (object instanceof Edge && ((Edge) object).id() instanceof Long)
+            return this.primitives(EDGE_IDS).add((Long) ((Edge) object).id());
+        else
+            return this.objects.add(object);
+    }
+
+    public long size() {
+        long size = this.objects.size();
+        for (final LongSet set : this.primitives) {
+            if (null != set)
+                size = size + set.size;
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.primitives.length; i++) {
+            this.primitives[i] = null;
+        }
+        this.objects.clear();
+    }
+
+    private LongSet primitives(final int kind) {
+        if (null == this.primitives[kind])
+            this.primitives[kind] = new LongSet();
+        return this.primitives[kind];
+    }
+
+    /**
+     * An open-addressed set of {@code long}s where {@code 0} marks an empty slot, so that {@code 0} itself is tracked
+     * on its own.
+     */
+    private static final class LongSet implements Serializable {
+
+        private long[] values = new long[16];
+        private boolean hasZero = false;
+        private int size = 0;
+
+        private boolean add(final long value) {
+            if (0l == value) {
+                if (this.hasZero)
+                    return false;
+                this.hasZero = true;
+                this.size++;
+                return true;
+            }
+            final int slot = slot(this.values, value);
+            if (value == this.values[slot])
+                return false;
+            this.values[slot] = value;
+            if (++this.size * 2 > this.values.length)
+                this.resize();
+            return true;
+        }
+
+        private void resize() {
+            final long[] oldValues = this.values;
+            this.values = new long[oldValues.length << 1];
+            for (final long value : oldValues) {
+                if (0l != value)
+                    this.values[slot(this.values, value)] = value;
+            }
+        }
+
+        private static int slot(final long[] values, final long value) {
+            final int mask = values.length - 1;
+            int slot = HashUtil.mix(value) & mask;
+            while (0l != values[slot] && value != values[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -20,10 +20,14 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.util;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -32,6 +36,9 @@ public final class ExpandableStepIterator<S> implements Iterator<Traverser.Admin
 
     private final TraverserSet<S> traverserSet = new TraverserSet<>();
     private final Step<S, ?> hostStep;
+    private Traverser.Admin<S>[] batch = null;
+    private int batchIndex = 0;
+    private int batchEnd = 0;
 
     public ExpandableStepIterator(final Step<S, ?> hostStep) {
         this.hostStep = hostStep;
@@ -39,20 +46,59 @@ public final class ExpandableStepIterator<S> implements Iterator<Traverser.Admin
 
     @Override
     public boolean hasNext() {
-        return !this.traverserSet.isEmpty() || this.hostStep.getPreviousStep().hasNext();
+        if (this.batchIndex < this.batchEnd || !this.traverserSet.isEmpty())
+            return true;
+        final Step<?, S> previousStep = this.hostStep.getPreviousStep();
+        return isBatching(previousStep) ? this.nextBatch((Batching<?, S>) previousStep) : previousStep.hasNext();
     }
 
     @Override
     public Traverser.Admin<S> next() {
+        if (this.batchIndex < this.batchEnd)
+            return this.removeFromBatch();
         if (!this.traverserSet.isEmpty())
             return this.traverserSet.remove();
         /////////////
-        if (this.hostStep.getPreviousStep().hasNext())
-            return this.hostStep.getPreviousStep().next();
+        final Step<?, S> previousStep = this.hostStep.getPreviousStep();
+        if (isBatching(previousStep)) {
+            if (this.nextBatch((Batching<?, S>) previousStep))
+                return this.removeFromBatch();
+        } else if (previousStep.hasNext())
+            return previousStep.next();
         /////////////
         return this.traverserSet.remove();
     }
 
+    /**
+     * Fills the array with the next starts of the host step, reading them from the previous step a batch at a time
+     * if it is {@link Batching}.
+     *
+     * @return the number of starts in the array, which is always at least one
+     * @throws NoSuchElementException if there are no more starts
+     */
+    public int next(final Traverser.Admin<S>[] starts) throws NoSuchElementException {
+        int size = 0;
+        while (size < starts.length && this.batchIndex < this.batchEnd) {
+            starts[size++] = this.removeFromBatch();
+        }
+        while (size < starts.length && !this.traverserSet.isEmpty()) {
+            starts[size++] = this.traverserSet.remove();
+        }
+        if (0 == size) {
+            final Step<?, S> previousStep = this.hostStep.getPreviousStep();
+            if (previousStep instanceof Batching)
+                size = ((Batching<?, S>) previousStep).nextBatch(starts);
+            else {
+                while (size < starts.length && previousStep.hasNext()) {
+                    starts[size++] = previousStep.next();
+                }
+            }
+        }
+        if (0 == size)
+            throw FastNoSuchElementException.instance();
+        return size;
+    }
+
     public void add(final Iterator<Traverser.Admin<S>> iterator) {
         iterator.forEachRemaining(this.traverserSet::add);
     }
@@ -68,5 +114,27 @@ public final class ExpandableStepIterator<S> implements Iterator<Traverser.Admin
 
     public void clear() {
         this.traverserSet.clear();
+        if (null != this.batch)
+            Arrays.fill(this.batch, null);
+        this.batchIndex = 0;
+        this.batchEnd = 0;
+    }
+
+    private boolean nextBatch(final Batching<?, S> previousStep) {
+        if (null == this.batch || this.batch.length != previousStep.getBatchSize())
+            this.batch = new Traverser.Admin[previousStep.getBatchSize()];
+        this.batchIndex = 0;
+        this.batchEnd = previousStep.nextBatch(this.batch);
+        return this.batchEnd > 0;
+    }
+
+    private Traverser.Admin<S> removeFromBatch() {
+        final Traverser.Admin<S> traverser = this.batch[this.batchIndex];
+        this.batch[this.batchIndex++] = null;
+        return traverser;
+    }
+
+    private static boolean isBatching(final Step<?, ?> step) {
+        return step instanceof Batching && ((Batching) step).getBatchSize() > 1;
     }
 }
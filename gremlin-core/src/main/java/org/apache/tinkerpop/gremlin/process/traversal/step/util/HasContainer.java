@@ -18,6 +18,7 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal.step.util;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
 import org.apache.tinkerpop.gremlin.structure.Element;
@@ -41,12 +42,22 @@ public class HasContainer implements Serializable, Cloneable, Predicate<Element>
 
     private String key;
     private P predicate;
+    private KeyType keyType;
 
     private final boolean testingIdString;
 
+    /**
+     * The predicate as it was last specialized to the type of its value by {@link #compile(P)}, along with the
+     * {@link P} and value that it was compiled from, so that it is compiled again if either is replaced.
+     */
+    private transient Predicate<Object> compiledPredicate;
+    private transient P compiledFrom;
+    private transient Object compiledValue;
+
     public HasContainer(final String key, final P<?> predicate) {
         this.key = key;
         this.predicate = predicate;
+        this.keyType = KeyType.of(key);
 
         if (!this.key.equals(T.id.getAccessor()))
             testingIdString = false;
@@ -79,13 +90,13 @@ public class HasContainer implements Serializable, Cloneable, Predicate<Element>
         // it is OK to evaluate equality of ids via toString(), given that the test suite enforces the value of
         // id().toString() to be a first class representation of the identifier. a string test is only executed
         // if the predicate value is a String.  this allows stuff like: g.V().has(id,lt(10)) to work properly
-        if (this.key.equals(T.id.getAccessor()))
+        if (KeyType.ID == this.keyType)
             return testingIdString ? testIdAsString(element) : testId(element);
-        else if (this.key.equals(T.label.getAccessor()))
+        else if (KeyType.LABEL == this.keyType)
             return testLabel(element);
-        else if (element instanceof VertexProperty && this.key.equals(T.value.getAccessor()))
+        else if (KeyType.VALUE == this.keyType && element instanceof VertexProperty)
             return testValue((VertexProperty) element);
-        else if (element instanceof VertexProperty && this.key.equals(T.key.getAccessor()))
+        else if (KeyType.KEY == this.keyType && element instanceof VertexProperty)
             return testKey((VertexProperty) element);
         else {
             if (element instanceof Vertex) {
@@ -103,7 +114,7 @@ public class HasContainer implements Serializable, Cloneable, Predicate<Element>
     }
 
     protected boolean testId(Element element) {
-        return this.predicate.test(element.id());
+        return this.testObject(element.id());
     }
 
     protected boolean testIdAsString(Element element) {
@@ -115,7 +126,17 @@ public class HasContainer implements Serializable, Cloneable, Predicate<Element>
     }
 
     protected boolean testValue(Property property) {
-        return this.predicate.test(property.value());
+        return this.testObject(property.value());
+    }
+
+    private boolean testObject(final Object object) {
+        final Object value = this.predicate.getValue();
+        if (this.compiledFrom != this.predicate || this.compiledValue != value) {
+            this.compiledPredicate = compile(this.predicate);
+            this.compiledFrom = this.predicate;
+            this.compiledValue = value;
+        }
+        return null == this.compiledPredicate ? this.predicate.test(object) : this.compiledPredicate.test(object);
     }
 
     protected boolean testKey(Property property) {
@@ -148,6 +169,7 @@ public class HasContainer implements Serializable, Cloneable, Predicate<Element>
 
     public final void setKey(final String key) {
         this.key = key;
+        this.keyType = KeyType.of(key);
     }
 
     public final P<?> getPredicate() {
@@ -164,6 +186,61 @@ public class HasContainer implements Serializable, Cloneable, Predicate<Element>
 
     ////////////
 
+    /**
+     * Specializes a {@link Compare} against an integral literal so that integral values of any width are compared as
+     * {@code long}s, rather than being widened to {@code BigDecimal} when their class differs from that of the
+     * literal. Any other value falls back to the predicate, as does every other kind of predicate, for which
+     * {@code null} is returned.
+     */
+    private static Predicate<Object> compile(final P<?> predicate) {
+        if (predicate.getClass() != P.class || !(predicate.getBiPredicate() instanceof Compare) || !isIntegral(predicate.getValue()))
+            return null;
+        final Compare compare = (Compare) predicate.getBiPredicate();
+        final long literal = ((Number) predicate.getValue()).longValue();
+        final P<Object> fallback = (P<Object>) predicate;
+        switch (compare) {
+            case eq:
+                return object -> isIntegral(object) ? ((Number) object).longValue() == literal : fallback.test(object);
+            case neq:
+                return object -> isIntegral(object) ? ((Number) object).longValue() != literal : fallback.test(object);
+            case gt:
+                return object -> isIntegral(object) ? ((Number) object).longValue() > literal : fallback.test(object);
+            case gte:
+                return object -> isIntegral(object) ? ((Number) object).longValue() >= literal : fallback.test(object);
+            case lt:
+                return object -> isIntegral(object) ? ((Number) object).longValue() < literal : fallback.test(object);
+            case lte:
+                return object -> isIntegral(object) ? ((Number) object).longValue() <= literal : fallback.test(object);
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isIntegral(final Object object) {
+        return object instanceof Long || object instanceof Integer || object instanceof Short || object instanceof Byte;
+    }
+
+    /**
+     * The kind of key of the container, resolved once so that it is not compared against each {@link T} accessor on
+     * every test.
+     */
+    private enum KeyType {
+        ID, LABEL, VALUE, KEY, PROPERTY;
+
+        private static KeyType of(final String key) {
+            if (key.equals(T.id.getAccessor()))
+                return ID;
+            else if (key.equals(T.label.getAccessor()))
+                return LABEL;
+            else if (key.equals(T.value.getAccessor()))
+                return VALUE;
+            else if (key.equals(T.key.getAccessor()))
+                return KEY;
+            else
+                return PROPERTY;
+        }
+    }
+
     private void enforceHomogenousCollectionIfPresent(final Object predicateValue) {
         if (predicateValue instanceof Collection) {
             final Collection collection = (Collection) predicateValue;
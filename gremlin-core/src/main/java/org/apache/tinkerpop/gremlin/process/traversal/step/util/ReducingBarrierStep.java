@@ -54,6 +54,15 @@ public abstract class ReducingBarrierStep<S, E> extends AbstractStep<S, E> imple
 
     public abstract E projectTraverser(final Traverser.Admin<S> traverser);
 
+    /**
+     * Reduces a traverser into the running seed. By default the traverser is projected by
+     * {@link #projectTraverser(Traverser.Admin)} and that is reduced into the seed by the bi-operator, but a step can
+     * update the seed in place to avoid the projection.
+     */
+    protected E reduceTraverser(final E seed, final Traverser.Admin<S> traverser) {
+        return this.reducingBiOperator.apply(seed, this.projectTraverser(traverser));
+    }
+
     public void setReducingBiOperator(final BinaryOperator<E> reducingBiOperator) {
         this.reducingBiOperator = reducingBiOperator;
     }
@@ -81,7 +90,7 @@ public abstract class ReducingBarrierStep<S, E> extends AbstractStep<S, E> imple
         this.hasProcessedOnce = true;
         if (this.seed == null) this.seed = this.seedSupplier.get();
         while (this.starts.hasNext())
-            this.seed = this.reducingBiOperator.apply(this.seed, this.projectTraverser(this.starts.next()));
+            this.seed = this.reduceTraverser(this.seed, this.starts.next());
     }
 
     @Override
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.MapConfiguration;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BloomFilter;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code ApproximateDedupStrategy} is an opt-in strategy for the {@code dedup().count()} of a root traversal. It has
+ * the {@code dedup()} keep the objects it has seen in a {@link BloomFilter} of constant size rather than in a set. The
+ * count is then a slight under-count of the distinct objects, by about the {@code errorRate} for as long as no more
+ * than {@code expectedSize} distinct objects are seen.
+ *
+ * <pre>
+ * g.withStrategies(ApproximateDedupStrategy.build().expectedSize(100000000).errorRate(0.001).create()).E().values("sessionId").dedup().count()
+ * </pre>
+ */
+public final class ApproximateDedupStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
+
+    public static final String EXPECTED_SIZE = "expectedSize";
+    public static final String ERROR_RATE = "errorRate";
+
+    private static final long DEFAULT_EXPECTED_SIZE = 10000000l;
+    private static final double DEFAULT_ERROR_RATE = 0.01d;
+
+    private final long expectedSize;
+    private final double errorRate;
+
+    private ApproximateDedupStrategy(final long expectedSize, final double errorRate) {
+        if (expectedSize < 1)
+            throw new IllegalArgumentException("The expected size must be greater than zero: " + expectedSize);
+        if (errorRate <= 0.0d || errorRate >= 1.0d)
+            throw new IllegalArgumentException("The error rate must be between zero and one: " + errorRate);
+        this.expectedSize = expectedSize;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        // the filter is sized for a whole traversal and so is not given to the dedup() of every child traversal
+        if (TraversalHelper.onGraphComputer(traversal) || !(traversal.getParent() instanceof EmptyStep))
+            return;
+
+        for (final DedupGlobalStep<?> dedup : TraversalHelper.getStepsOfClass(DedupGlobalStep.class, traversal)) {
+            if (dedup.getNextStep() instanceof CountGlobalStep)
+                dedup.setApproximate(this.expectedSize, this.errorRate);
+        }
+    }
+
+    public long getExpectedSize() {
+        return this.expectedSize;
+    }
+
+    public double getErrorRate() {
+        return this.errorRate;
+    }
+
+    public static ApproximateDedupStrategy create(final Configuration configuration) {
+        return new ApproximateDedupStrategy(configuration.getLong(EXPECTED_SIZE, DEFAULT_EXPECTED_SIZE),
+                configuration.getDouble(ERROR_RATE, DEFAULT_ERROR_RATE));
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        final Map<String, Object> map = new HashMap<>();
+        map.put(STRATEGY, ApproximateDedupStrategy.class.getCanonicalName());
+        map.put(EXPECTED_SIZE, this.expectedSize);
+        map.put(ERROR_RATE, this.errorRate);
+        return new MapConfiguration(map);
+    }
+
+    public static Builder build() {
+        return new Builder();
+    }
+
+    public final static class Builder {
+
+        private long expectedSize = DEFAULT_EXPECTED_SIZE;
+        private double errorRate = DEFAULT_ERROR_RATE;
+
+        private Builder() {
+        }
+
+        public Builder expectedSize(final long expectedSize) {
+            this.expectedSize = expectedSize;
+            return this;
+        }
+
+        public Builder errorRate(final double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public ApproximateDedupStrategy create() {
+            return new ApproximateDedupStrategy(this.expectedSize, this.errorRate);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.MapConfiguration;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code BatchStrategy} is an opt-in strategy that has the {@link Batching} steps of a standard (OLTP) traversal
+ * hand their traversers to the next step in arrays of {@code batchSize}, which saves a call through the step pipeline
+ * for each traverser. As a step reads a whole batch from a {@link Batching} step at a time, the steps before a
+ * {@code limit()} may process up to a batch more traversers than would otherwise be needed.
+ *
+ * <pre>
+ * g.withStrategies(BatchStrategy.build().batchSize(256).create()).V().out().has("age", gt(30)).id()
+ * </pre>
+ */
+public final class BatchStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
+
+    public static final String BATCH_SIZE = "batchSize";
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final BatchStrategy INSTANCE = new BatchStrategy(DEFAULT_BATCH_SIZE);
+
+    private final int batchSize;
+
+    private BatchStrategy(final int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("The batch size must be greater than zero: " + batchSize);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+
+        for (final Step<?, ?> step : traversal.getSteps()) {
+            if (step instanceof Batching)
+                ((Batching) step).setBatchSize(this.batchSize);
+        }
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public static BatchStrategy create(final Configuration configuration) {
+        return new BatchStrategy(configuration.getInt(BATCH_SIZE, DEFAULT_BATCH_SIZE));
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        final Map<String, Object> map = new HashMap<>();
+        map.put(STRATEGY, BatchStrategy.class.getCanonicalName());
+        map.put(BATCH_SIZE, this.batchSize);
+        return new MapConfiguration(map);
+    }
+
+    public static BatchStrategy instance() {
+        return INSTANCE;
+    }
+
+    public static Builder build() {
+        return new Builder();
+    }
+
+    public final static class Builder {
+
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
+        private Builder() {
+        }
+
+        public Builder batchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public BatchStrategy create() {
+            return new BatchStrategy(this.batchSize);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.tinkerpop.gremlin.util;
+
+/**
+ * Spreads hash codes over the slots of open-addressed tables, which take the slot of a key from the low bits of its
+ * hash and probe the slots that follow it. Keys that differ only in their high bits, like identifiers that are
+ * multiples of a power of two, would otherwise all start in the same few slots and probe long runs of them.
+ */
+public final class HashUtil {
+
+    private HashUtil() {
+    }
+
+    /**
+     * Mixes every bit of the value into every bit of the hash with the finalizer of MurmurHash3, so that the low bits
+     * that pick the slot depend on the high bits of the value as much as on the low ones.
+     */
+    public static int mix(final long value) {
+        long hash = value;
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (hash ^ (hash >>> 33));
+    }
+}
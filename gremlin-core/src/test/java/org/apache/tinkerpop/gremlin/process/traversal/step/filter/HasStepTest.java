@@ -18,16 +18,28 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal.step.filter;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.StepTest;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.detached.DetachedVertex;
+import org.apache.tinkerpop.gremlin.structure.util.detached.DetachedVertexProperty;
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.BiPredicate;
 
 import static org.apache.tinkerpop.gremlin.process.traversal.P.eq;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.gt;
 import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
 import static org.junit.Assert.assertEquals;
@@ -112,4 +124,33 @@ public class HasStepTest extends StepTest {
             }
         }
     }
+
+    @Test
+    public void shouldCompareIntegralValuesOfAnyWidthLikeCompare() {
+        final List<Number> literals = Arrays.asList(5, 5l, (short) 5, (byte) 5);
+        final List<Object> ids = Arrays.asList(4, 5, 6, 4l, 5l, 6l, (short) 5, (byte) 6, 5.0d, 4.5d, 5.5f, new BigDecimal("5"), "5");
+        for (final Compare compare : Compare.values()) {
+            for (final Number literal : literals) {
+                final HasContainer hasContainer = new HasContainer(T.id.getAccessor(), new P<>((BiPredicate) compare, literal));
+                for (final Object id : ids) {
+                    final Vertex vertex = new DetachedVertex(id, "person", Collections.emptyMap());
+                    if (id instanceof String)
+                        assertEquals(compare.test(id, "5"), new HasContainer(T.id.getAccessor(), new P<>((BiPredicate) compare, "5")).test(vertex));
+                    else
+                        assertEquals(compare + " " + literal + " " + id, compare.test(id, literal), hasContainer.test(vertex));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldTestEqualityOfTheLabelBeforeOtherContainers() {
+        final Vertex vertex = new DetachedVertex(1l, "software", Collections.singletonMap("name",
+                Collections.singletonList(DetachedVertexProperty.build().setId(2l).setLabel("name").setValue("lop").create())));
+        // the name is a String that cannot be compared to a number, but the label is tested first
+        final Traversal.Admin<Vertex, Vertex> traversal = new DefaultGraphTraversal<>();
+        traversal.addStep(new HasStep<>(traversal, new HasContainer("name", gt(5)), new HasContainer(T.label.getAccessor(), eq("person"))));
+        traversal.addStart(traversal.getTraverserGenerator().generate(vertex, (Step) traversal.getStartStep(), 1l));
+        assertEquals(0, traversal.toList().size());
+    }
 }
@@ -22,13 +22,20 @@ import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.StepTest;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.Tree;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.OrderLimitStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
+import static org.junit.Assert.assertEquals;
 
 /**
  * @author Daniel Kuppitz (http://gremlin.guru)
@@ -64,4 +71,30 @@ public class OrderGlobalStepTest extends StepTest {
             __.inject(list).unfold().order().by(__.identity(), Order.shuffle).by().iterate();
         }
     }
+
+    @Test
+    public void shouldKeepTheSameTraversersAsAFullSortWhenLimited() {
+        final Random random = new Random(42);
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(random.nextInt(100));
+        }
+        for (final int limit : Arrays.asList(1, 7, 50, 999, 1000, 2000)) {
+            final List<Integer> sorted = __.inject(list).<Integer>unfold().barrier().order().by(i -> (Integer) i % 10, Order.decr).toList();
+            final Traversal.Admin<?, Integer> traversal = __.inject(list).<Integer>unfold().barrier().order().by(i -> (Integer) i % 10, Order.decr).limit(limit).asAdmin();
+            traversal.setStrategies(new DefaultTraversalStrategies().addStrategies(OrderLimitStrategy.instance()));
+            traversal.applyStrategies();
+            assertEquals(limit, TraversalHelper.getFirstStepOfAssignableClass(OrderGlobalStep.class, traversal).get().getLimit());
+            assertEquals(sorted.subList(0, Math.min(limit, sorted.size())), traversal.toList());
+        }
+    }
+
+    @Test
+    public void shouldNotLimitTheTraversersThatAReducingBarrierReduces() {
+        final Traversal.Admin<?, Tree> traversal = __.inject(3, 1, 2).order().by(Order.decr).tree().limit(1).asAdmin();
+        traversal.setStrategies(new DefaultTraversalStrategies().addStrategies(OrderLimitStrategy.instance()));
+        traversal.applyStrategies();
+        assertEquals(Long.MAX_VALUE, TraversalHelper.getFirstStepOfAssignableClass(OrderGlobalStep.class, traversal).get().getLimit());
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), traversal.next().keySet());
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CountMapTest {
+
+    @Test
+    public void shouldCountLikeAHashMap() {
+        final Random random = new Random(7);
+        final CountMap<Integer> counts = new CountMap<>();
+        final Map<Integer, Long> expected = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            final Integer key = 0 == i % 100 ? null : random.nextInt(1000);
+            final long count = random.nextInt(5) + 1;
+            counts.incr(key, count);
+            MapHelper.incr(expected, key, count);
+        }
+        assertEquals(expected.size(), counts.size());
+        assertEquals(expected, counts);
+        assertEquals(expected, counts.toMap());
+        assertTrue(counts.containsKey(null));
+        assertFalse(counts.containsKey(1000));
+        assertNull(counts.get(1000));
+        assertEquals(expected.get(null), counts.put(null, 1l));
+        assertEquals(Long.valueOf(1l), counts.get(null));
+    }
+
+    @Test
+    public void shouldCountKeysWhoseHashesOnlyDifferInTheirHighBits() {
+        final CountMap<Integer> counts = new CountMap<>();
+        for (int i = 0; i < 30000; i++) {
+            counts.incr((i % 3000) << 16, 1l);
+        }
+        assertEquals(3000, counts.size());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(Long.valueOf(10l), counts.get(i << 16));
+        }
+        assertNull(counts.get(3000 << 16));
+    }
+
+    @Test
+    public void shouldSerializeAsAHashMap() throws Exception {
+        final CountMap<String> counts = new CountMap<>();
+        counts.incr("a", 2l);
+        counts.incr("b", 3l);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(counts);
+        }
+        final Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(HashMap.class, copy.getClass());
+        assertEquals(counts, copy);
+    }
+
+    @Test
+    public void shouldNotLeakOutOfGroupCountStep() {
+        final List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.add(i % 17);
+        }
+        final Map<Integer, Long> counts = __.inject(numbers).<Integer>unfold().<Integer>groupCount().next();
+        assertEquals(HashMap.class, counts.getClass());
+        assertEquals(17, counts.size());
+        assertEquals(Long.valueOf(59l), counts.get(0));
+        assertEquals(HashMap.class, __.inject(numbers).<Integer>unfold().group().by(__.identity()).by(__.groupCount()).next().get(3).getClass());
+    }
+}
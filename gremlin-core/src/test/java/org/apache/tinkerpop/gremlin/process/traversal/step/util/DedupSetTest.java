@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.structure.util.detached.DetachedEdge;
+import org.apache.tinkerpop.gremlin.structure.util.detached.DetachedVertex;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DedupSetTest {
+
+    @Test
+    public void shouldAddLikeAHashSet() {
+        final Random random = new Random(11);
+        final DedupSet dedupSet = new DedupSet();
+        final Set<Object> expected = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            final int value = random.nextInt(2000) - 1000;
+            final Object object;
+            switch (i % 6) {
+                case 0:
+                    object = (long) value;
+                    break;
+                case 1:
+                    object = value;
+                    break;
+                case 2:
+                    object = value / 10.0d;
+                    break;
+                case 3:
+                    object = new DetachedVertex((long) value, "person", Collections.emptyMap());
+                    break;
+                case 4:
+                    object = new DetachedEdge((long) value, "knows", Collections.emptyMap(), 1l, "person", 2l, "person");
+                    break;
+                default:
+                    object = 0 == value % 7 ? null : String.valueOf(value);
+            }
+            assertEquals(expected.add(object), dedupSet.add(object));
+        }
+        assertEquals(expected.size(), dedupSet.size());
+    }
+
+    @Test
+    public void shouldKeepKindsApart() {
+        final DedupSet dedupSet = new DedupSet();
+        final List<Object> objects = Arrays.asList(0l, 0, 0.0d, -0.0d, new DetachedVertex(0l, "person", Collections.emptyMap()), "0");
+        for (final Object object : objects) {
+            assertTrue(dedupSet.add(object));
+        }
+        for (final Object object : objects) {
+            assertFalse(dedupSet.add(object));
+        }
+        dedupSet.clear();
+        assertEquals(0l, dedupSet.size());
+        assertTrue(dedupSet.add(0l));
+    }
+}
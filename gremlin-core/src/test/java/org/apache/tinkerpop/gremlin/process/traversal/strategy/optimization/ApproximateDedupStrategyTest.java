@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Scope;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ApproximateDedupStrategyTest {
+
+    @Test
+    public void shouldOnlyApproximateADedupThatIsCounted() {
+        assertTrue(isApproximate(applyApproximateDedupStrategy(__.dedup().count(), 1000l, 0.01d)));
+        assertFalse(isApproximate(applyApproximateDedupStrategy(__.dedup(), 1000l, 0.01d)));
+        assertFalse(isApproximate(applyApproximateDedupStrategy(__.dedup().fold().count(), 1000l, 0.01d)));
+    }
+
+    @Test
+    public void shouldCountDistinctObjectsWithinTheErrorRate() {
+        final List<Long> numbers = new ArrayList<>();
+        for (long i = 0; i < 200000; i++) {
+            numbers.add(i % 50000);
+        }
+        final long count = applyApproximateDedupStrategy(__.inject(numbers).unfold().dedup().count(), 50000l, 0.01d).next();
+        assertTrue(count <= 50000l);
+        assertTrue(count > 50000l * 0.99d);
+        assertEquals(Long.valueOf(50000l), applyApproximateDedupStrategy(__.inject(numbers).unfold().dedup().fold().count(Scope.local), 50000l, 0.01d).next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowAnErrorRateOfOne() {
+        ApproximateDedupStrategy.build().errorRate(1.0d).create();
+    }
+
+    private static <S, E> Traversal.Admin<S, E> applyApproximateDedupStrategy(final Traversal<S, E> traversal, final long expectedSize, final double errorRate) {
+        traversal.asAdmin().setStrategies(new DefaultTraversalStrategies().addStrategies(ApproximateDedupStrategy.build().expectedSize(expectedSize).errorRate(errorRate).create()));
+        traversal.asAdmin().applyStrategies();
+        return traversal.asAdmin();
+    }
+
+    private static boolean isApproximate(final Traversal.Admin<?, ?> traversal) {
+        return TraversalHelper.getFirstStepOfAssignableClass(DedupGlobalStep.class, traversal).get().isApproximate();
+    }
+}
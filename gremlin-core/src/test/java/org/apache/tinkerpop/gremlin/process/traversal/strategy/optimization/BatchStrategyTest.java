@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.P.gt;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.neq;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class BatchStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public int batchSize;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        return Arrays.asList(new Object[][]{{1}, {2}, {7}, {64}, {1000}});
+    }
+
+    @Test
+    public void shouldSetTheBatchSizeOfBatchingSteps() {
+        final Traversal.Admin<?, ?> traversal = applyBatchStrategy(__.inject(1).is(gt(0)).map(t -> t.get()).limit(1));
+        traversal.getSteps().stream().filter(step -> step instanceof Batching).forEach(step -> assertEquals(this.batchSize, ((Batching) step).getBatchSize()));
+        assertEquals(2, traversal.getSteps().stream().filter(step -> step instanceof Batching).count());
+    }
+
+    @Test
+    public void shouldReturnTheSameTraversersInBatches() {
+        final List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            numbers.add(i % 50);
+        }
+        assertEquals(numbers(numbers).toList(), applyBatchStrategy(numbers(numbers)).toList());
+        assertEquals(numbers(numbers).barrier().toList(), applyBatchStrategy(numbers(numbers).barrier()).toList());
+        assertEquals(numbers(numbers).limit(3).toList(), applyBatchStrategy(numbers(numbers).limit(3)).toList());
+        assertEquals(numbers(numbers).count().next(), applyBatchStrategy(numbers(numbers).count()).next());
+    }
+
+    @Test
+    public void shouldReturnTheSameTraversersInBatchesWithinChildren() {
+        final Traversal.Admin<?, ?> traversal = applyBatchStrategy(__.inject(1, 2, 3, 4, 5, 6).filter(__.<Integer, Integer>map(t -> t.get() * 2).is(gt(4))).not(__.is(5)).map(t -> t.get()));
+        assertEquals(Arrays.asList(3, 4, 6), traversal.toList());
+    }
+
+    private Traversal.Admin<?, ?> applyBatchStrategy(final Traversal<?, ?> traversal) {
+        traversal.asAdmin().setStrategies(new DefaultTraversalStrategies().addStrategies(BatchStrategy.build().batchSize(this.batchSize).create()));
+        traversal.asAdmin().applyStrategies();
+        if (this.batchSize > 1)
+            assertTrue(traversal.asAdmin().getSteps().stream().anyMatch(step -> step instanceof Batching && ((Batching) step).getBatchSize() > 1));
+        return traversal.asAdmin();
+    }
+
+    private static GraphTraversal<?, Integer> numbers(final List<Integer> numbers) {
+        return __.inject(numbers).<Integer>unfold()
+                .is(neq(7))
+                .<Integer>flatMap(t -> Arrays.asList(t.get(), t.get() + 100).iterator())
+                .<Integer>map(t -> t.get() * 3)
+                .filter(t -> t.get() % 2 == 0)
+                .is(gt(30));
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.tinkerpop.gremlin.util;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertTrue;
+
+public class HashUtilTest {
+
+    @Test
+    public void shouldSpreadValuesThatOnlyDifferInTheirHighBitsOverTheSlots() {
+        final int mask = 2047;
+        for (final long stride : new long[]{1, 1024, 1L << 20, 1L << 40}) {
+            final Set<Integer> slots = new HashSet<>();
+            for (long i = 0; i < 1024; i++) {
+                slots.add(HashUtil.mix(i * stride) & mask);
+            }
+            // uniformly random slots would leave about 800 of the 1024 values in a slot of their own
+            assertTrue(String.format("%s slots for a stride of %s", slots.size(), stride), slots.size() > 700);
+        }
+    }
+}
@@ -36,7 +36,8 @@ def toPythonMap = ["global": "global_",
                    "from": "from_",
                    "list": "list_",
                    "set": "set_",
-                   "all": "all_"]
+                   "all": "all_",
+                   "with": "with_"]
 def toJavaMap = toPythonMap.collectEntries{k,v -> [(v):k]}
 def toPython = { symbol -> toPythonMap.getOrDefault(symbol, symbol) }
 def toJava = { symbol -> toJavaMap.getOrDefault(symbol, symbol) }
@@ -144,6 +144,22 @@ class OrderLimitStrategy(TraversalStrategy):
         TraversalStrategy.__init__(self)
 
 
+class BatchStrategy(TraversalStrategy):
+    def __init__(self, batch_size=None):
+        TraversalStrategy.__init__(self)
+        if batch_size is not None:
+            self.configuration["batchSize"] = batch_size
+
+
+class ApproximateDedupStrategy(TraversalStrategy):
+    def __init__(self, expected_size=None, error_rate=None):
+        TraversalStrategy.__init__(self)
+        if expected_size is not None:
+            self.configuration["expectedSize"] = expected_size
+        if error_rate is not None:
+            self.configuration["errorRate"] = error_rate
+
+
 class PathProcessorStrategy(TraversalStrategy):
     def __init__(self):
         TraversalStrategy.__init__(self)
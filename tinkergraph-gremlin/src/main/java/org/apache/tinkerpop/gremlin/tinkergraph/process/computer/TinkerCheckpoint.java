@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the state of a {@link TinkerGraphComputer} to a directory as Gryo every so many iterations of its
+ * {@link VertexProgram}, so that a computation that did not complete can be resumed from its latest checkpoint by
+ * submitting the same vertex program over the same graph again. The first checkpoint holds all of the
+ * {@link TinkerMemory} and the compute keys of every vertex, and each checkpoint after it only holds the memory keys
+ * and the vertices whose values were changed since the one before it, so the checkpoints are replayed in order to
+ * resume. The messages that are pending at a checkpoint are held as each vertex would receive them.
+ * <p/>
+ * A checkpoint is written to a temporary file that is only renamed once it is complete, so a checkpoint that was
+ * being written when the JVM stopped is ignored. The checkpoints are deleted once the vertex program terminates.
+ * <p/>
+ * Each checkpoint starts with a hash of the configuration that the vertex program stores, and the checkpoints are only
+ * resumed by a vertex program with the same hash. A vertex program that can not store its configuration, like a
+ * traversal with lambdas, can only resume checkpoints when that is forced with
+ * {@link TinkerGraphComputer#GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_FORCE_RESUME}.
+ */
+final class TinkerCheckpoint {
+
+    private static final Pattern CHECKPOINT = Pattern.compile("checkpoint\\.(\\d+)\\.kryo");
+
+    private final TinkerGraph graph;
+    private final File directory;
+    private final int interval;
+    private final VertexProgram<?> vertexProgram;
+    private final MessageCombiner combiner;
+    private final Kryo kryo;
+    private final String configurationHash;
+    private final boolean forceResume;
+
+    // whether the directory has a checkpoint with the whole state that later checkpoints can be written on top of
+    private boolean started = false;
+
+    TinkerCheckpoint(final TinkerGraph graph, final File directory, final int interval, final VertexProgram<?> vertexProgram,
+                     final boolean forceResume) throws IOException {
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IOException(String.format("Could not create the directory %s", directory));
+        if (!directory.isDirectory())
+            throw new IOException(String.format("The checkpoint location %s is not a directory", directory));
+        this.graph = graph;
+        this.directory = directory;
+        this.interval = interval;
+        this.vertexProgram = vertexProgram;
+        this.combiner = vertexProgram.getMessageCombiner().orElse(null);
+        this.kryo = graph.io(IoCore.gryo()).mapper().create().createMapper();
+        this.configurationHash = hash(vertexProgram);
+        this.forceResume = forceResume;
+    }
+
+    /**
+     * Restores the memory, the compute keys and the pending messages from the checkpoints in the directory and gets
+     * whether there were any to restore.
+     */
+    public boolean resume(final TinkerMemory memory, final TinkerGraphComputerView view, final TinkerMessageBoard messageBoard) throws IOException {
+        final TreeMap<Integer, File> checkpoints = this.checkpoints();
+        if (checkpoints.isEmpty()) return false;
+        final Map<String, Object> values = new HashMap<>();
+        for (final Map.Entry<Integer, File> checkpoint : checkpoints.entrySet()) {
+            try (final Input input = new Input(new FileInputStream(checkpoint.getValue()), 65536)) {
+                this.readHeader(input, view, checkpoint.getValue());
+                final int size = input.readInt(true);
+                for (int i = 0; i < size; i++) {
+                    values.put(input.readString(), this.kryo.readClassAndObject(input));
+                }
+                view.readCheckpoint(this.kryo, input);
+                // only the messages of the latest checkpoint are still pending
+                if (checkpoint.getKey().equals(checkpoints.lastKey()))
+                    this.readMessages(input, view, messageBoard);
+            }
+        }
+        memory.restore(checkpoints.lastKey(), values);
+        memory.getChangedKeys().clear();
+        this.started = true;
+        return true;
+    }
+
+    /**
+     * Writes a checkpoint if the iteration that the memory is at is one that a checkpoint should be written for.
+     */
+    public void write(final TinkerMemory memory, final TinkerGraphComputerView view, final TinkerMessageBoard messageBoard) throws IOException {
+        final int iteration = memory.getIteration();
+        if (0 != iteration % this.interval) return;
+        final boolean all = !this.started;
+        final List<String> keys = new ArrayList<>();
+        for (final String key : all ? memory.currentMap.keySet() : memory.getChangedKeys()) {
+            if (memory.currentMap.containsKey(key)) keys.add(key);
+        }
+        final File temporary = new File(this.directory, String.format("checkpoint.%d.kryo.tmp", iteration));
+        try (final Output output = new Output(new FileOutputStream(temporary), 65536)) {
+            output.writeString(this.vertexProgram.getClass().getName());
+            output.writeInt(view.getVertices().length, true);
+            output.writeString(this.configurationHash);
+            output.writeInt(keys.size(), true);
+            for (final String key : keys) {
+                output.writeString(key);
+                this.kryo.writeClassAndObject(output, memory.currentMap.get(key));
+            }
+            view.writeCheckpoint(this.kryo, output, all);
+            this.writeMessages(output, view, messageBoard);
+        }
+        Files.move(temporary.toPath(), new File(this.directory, String.format("checkpoint.%d.kryo", iteration)).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        memory.getChangedKeys().removeAll(keys);
+        this.started = true;
+    }
+
+    /**
+     * Deletes the checkpoints once there is no longer a computation to resume.
+     */
+    public void delete() throws IOException {
+        for (final File file : this.checkpoints().values()) {
+            Files.deleteIfExists(file.toPath());
+        }
+        this.started = false;
+    }
+
+    private void writeMessages(final Output output, final TinkerGraphComputerView view, final TinkerMessageBoard messageBoard) {
+        for (final TinkerVertex vertex : view.getVertices()) {
+            final Iterator<?> messages = new TinkerMessenger(vertex, messageBoard, this.vertexProgram.getMessageCombiner()).receiveMessages();
+            if (!messages.hasNext()) continue;
+            final List<Object> list = new ArrayList<>();
+            messages.forEachRemaining(list::add);
+            output.writeBoolean(true);
+            this.kryo.writeClassAndObject(output, vertex.id());
+            output.writeInt(list.size(), true);
+            for (final Object message : list) {
+                this.kryo.writeClassAndObject(output, message);
+            }
+        }
+        output.writeBoolean(false);
+    }
+
+    private void readMessages(final Input input, final TinkerGraphComputerView view, final TinkerMessageBoard messageBoard) {
+        // the messages are already as the vertices receive them, so they are sent again directly to each vertex
+        while (input.readBoolean()) {
+            final Object vertexId = this.kryo.readClassAndObject(input);
+            final Vertex vertex = TinkerHelper.getVertices(this.graph).get(vertexId);
+            final int size = input.readInt(true);
+            for (int i = 0; i < size; i++) {
+                final Object message = this.kryo.readClassAndObject(input);
+                if (null != vertex)
+                    messageBoard.sendMessage(MessageScope.Global.instance(), vertex, message, this.combiner);
+            }
+        }
+        messageBoard.completeIteration();
+    }
+
+    private void readHeader(final Input input, final TinkerGraphComputerView view, final File file) {
+        final String vertexProgram = input.readString();
+        final int vertices = input.readInt(true);
+        if (!vertexProgram.equals(this.vertexProgram.getClass().getName()) || vertices != view.getVertices().length)
+            throw new IllegalStateException(String.format(
+                    "The checkpoint %s is of %s over %s vertices and can not resume %s over %s vertices",
+                    file, vertexProgram, vertices, this.vertexProgram.getClass().getName(), view.getVertices().length));
+        final String configurationHash = input.readString();
+        if (!configurationHash.equals(this.configurationHash))
+            throw new IllegalStateException(String.format(
+                    "The checkpoint %s was written for another configuration of %s than the one to resume", file, vertexProgram));
+        if (this.configurationHash.isEmpty() && !this.forceResume)
+            throw new IllegalStateException(String.format(
+                    "The configuration of %s can not be stored to compare it with the one that the checkpoint %s was written for - set %s to resume it anyway",
+                    vertexProgram, file, TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_FORCE_RESUME));
+    }
+
+    /**
+     * Gets a hash of the configuration that the vertex program stores, or an empty string if it can not be stored.
+     * A value that is not a string, number or boolean, like a traversal with lambdas that is stored by reference, is
+     * not stored in a way that can be compared.
+     */
+    private static String hash(final VertexProgram<?> vertexProgram) {
+        final BaseConfiguration configuration = new BaseConfiguration();
+        configuration.setDelimiterParsingDisabled(true);
+        try {
+            vertexProgram.storeState(configuration);
+        } catch (final Exception ex) {
+            return "";
+        }
+        final TreeMap<String, String> values = new TreeMap<>();
+        final Iterator<String> keys = configuration.getKeys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            final Object value = configuration.getProperty(key);
+            final Collection<?> parts = value instanceof Collection ? (Collection<?>) value : Collections.singletonList(value);
+            for (final Object part : parts) {
+                if (!(part instanceof String || part instanceof Number || part instanceof Boolean))
+                    return "";
+            }
+            values.put(key, parts.toString());
+        }
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (final Map.Entry<String, String> entry : values.entrySet()) {
+                digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return new BigInteger(1, digest.digest()).toString(16);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    private TreeMap<Integer, File> checkpoints() {
+        final TreeMap<Integer, File> checkpoints = new TreeMap<>();
+        final File[] files = this.directory.listFiles();
+        if (null != files) {
+            for (final File file : files) {
+                final Matcher matcher = CHECKPOINT.matcher(file.getName());
+                if (matcher.matches())
+                    checkpoints.put(Integer.parseInt(matcher.group(1)), file);
+            }
+        }
+        return checkpoints;
+    }
+}
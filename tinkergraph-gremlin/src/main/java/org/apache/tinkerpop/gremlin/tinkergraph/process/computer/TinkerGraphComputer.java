@@ -23,6 +23,7 @@ import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
 import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
 import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
 import org.apache.tinkerpop.gremlin.process.computer.traversal.strategy.optimization.GraphFilterStrategy;
 import org.apache.tinkerpop.gremlin.process.computer.util.ComputerGraph;
@@ -37,8 +38,11 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.util.function.TriConsumer;
 
+import java.io.File;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -49,6 +53,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -56,23 +61,71 @@ import java.util.concurrent.ThreadFactory;
  */
 public final class TinkerGraphComputer implements GraphComputer {
 
+    /**
+     * The directory that the state of a vertex program is written to every so many iterations, so that a computation
+     * that did not complete can be resumed from there by submitting it again. By default no checkpoints are written.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_LOCATION = "gremlin.tinkergraph.computer.checkpointLocation";
+
+    /**
+     * The number of iterations of a vertex program between each checkpoint.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL = "gremlin.tinkergraph.computer.checkpointInterval";
+
+    /**
+     * Resumes from the checkpoints of a vertex program whose configuration can not be stored, like a traversal with
+     * lambdas, which can then not be compared to the configuration that the checkpoints were written for. This is
+     * {@code false} by default, so that such checkpoints are refused.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_FORCE_RESUME = "gremlin.tinkergraph.computer.checkpointForceResume";
+
+    /**
+     * Lets the messages of a {@link VertexProgram} that supports asynchronous execution be received in the iteration
+     * that they are sent in and only executes the vertices that were sent messages, which is {@code false} by default.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_ASYNCHRONOUS = "gremlin.tinkergraph.computer.asynchronous";
+
+    /**
+     * The number of messages that are not combined and of map emits that are held in memory before they are spilled
+     * to disk, which is {@code 0} by default so that they are never spilled.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD = "gremlin.tinkergraph.computer.spillThreshold";
+
+    /**
+     * The directory that spilled messages and map emits are written to, which is the temporary directory of the JVM
+     * by default.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_SPILL_LOCATION = "gremlin.tinkergraph.computer.spillLocation";
+
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 10;
+
     static {
         // GraphFilters are expensive w/ TinkerGraphComputer as everything is already in memory
         TraversalStrategies.GlobalCache.registerStrategies(TinkerGraphComputer.class,
                 TraversalStrategies.GlobalCache.getStrategies(GraphComputer.class).clone().removeStrategies(GraphFilterStrategy.class));
     }
 
+    // the number of partitions of the map emits that each worker reduces on average, so that the workers stay busy
+    // when some partitions hold more keys than others
+    private static final int PARTITIONS_PER_WORKER = 4;
+
     private ResultGraph resultGraph = null;
     private Persist persist = null;
 
     private VertexProgram<?> vertexProgram;
     private final TinkerGraph graph;
     private TinkerMemory memory;
-    private final TinkerMessageBoard messageBoard = new TinkerMessageBoard();
+    private TinkerMessageBoard messageBoard;
     private boolean executed = false;
     private final Set<MapReduce> mapReducers = new HashSet<>();
     private int workers = Runtime.getRuntime().availableProcessors();
     private final GraphFilter graphFilter = new GraphFilter();
+    private String checkpointLocation;
+    private int checkpointInterval;
+    private boolean checkpointForceResume;
+    private boolean asynchronous;
+    private long spillThreshold;
+    private String spillLocation;
 
     private final ThreadFactory threadFactoryBoss = new BasicThreadFactory.Builder().namingPattern(TinkerGraphComputer.class.getSimpleName() + "-boss").build();
 
@@ -84,6 +137,12 @@ public final class TinkerGraphComputer implements GraphComputer {
 
     public TinkerGraphComputer(final TinkerGraph graph) {
         this.graph = graph;
+        this.checkpointLocation = graph.configuration().getString(GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_LOCATION, null);
+        this.checkpointInterval = graph.configuration().getInt(GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL, DEFAULT_CHECKPOINT_INTERVAL);
+        this.checkpointForceResume = graph.configuration().getBoolean(GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_FORCE_RESUME, false);
+        this.asynchronous = graph.configuration().getBoolean(GREMLIN_TINKERGRAPH_COMPUTER_ASYNCHRONOUS, false);
+        this.spillThreshold = graph.configuration().getLong(GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD, 0L);
+        this.spillLocation = graph.configuration().getString(GREMLIN_TINKERGRAPH_COMPUTER_SPILL_LOCATION, System.getProperty("java.io.tmpdir"));
     }
 
     @Override
@@ -128,6 +187,23 @@ public final class TinkerGraphComputer implements GraphComputer {
         return this;
     }
 
+    @Override
+    public GraphComputer configure(final String key, final Object value) {
+        if (GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_LOCATION.equals(key))
+            this.checkpointLocation = null == value ? null : value.toString();
+        else if (GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL.equals(key))
+            this.checkpointInterval = value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+        else if (GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_FORCE_RESUME.equals(key))
+            this.checkpointForceResume = value instanceof Boolean ? (Boolean) value : Boolean.parseBoolean(value.toString());
+        else if (GREMLIN_TINKERGRAPH_COMPUTER_ASYNCHRONOUS.equals(key))
+            this.asynchronous = value instanceof Boolean ? (Boolean) value : Boolean.parseBoolean(value.toString());
+        else if (GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD.equals(key))
+            this.spillThreshold = value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+        else if (GREMLIN_TINKERGRAPH_COMPUTER_SPILL_LOCATION.equals(key))
+            this.spillLocation = value.toString();
+        return this;
+    }
+
     @Override
     public Future<ComputerResult> submit() {
         // a graph computer can only be executed once
@@ -151,6 +227,8 @@ public final class TinkerGraphComputer implements GraphComputer {
         // ensure requested workers are not larger than supported workers
         if (this.workers > this.features().getMaxWorkers())
             throw GraphComputer.Exceptions.computerRequiresMoreWorkersThanSupported(this.workers, this.features().getMaxWorkers());
+        if (this.checkpointInterval < 1)
+            throw new IllegalArgumentException(String.format("The %s must be at least 1: %s", GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL, this.checkpointInterval));
 
         // initialize the memory
         this.memory = new TinkerMemory(this.vertexProgram, this.mapReducers);
@@ -158,15 +236,38 @@ public final class TinkerGraphComputer implements GraphComputer {
             final long time = System.currentTimeMillis();
             final TinkerGraphComputerView view = TinkerHelper.createGraphComputerView(this.graph, this.graphFilter, null != this.vertexProgram ? this.vertexProgram.getVertexComputeKeys() : Collections.emptySet());
             final TinkerWorkerPool workers = new TinkerWorkerPool(this.graph, this.memory, this.workers);
+            TinkerSpill spill = null;
             try {
+                if (this.spillThreshold > 0)
+                    spill = new TinkerSpill(this.graph, new File(this.spillLocation), this.spillThreshold, this.workers);
+                this.messageBoard = new TinkerMessageBoard<>(view, spill);
                 if (null != this.vertexProgram) {
-                    // execute the vertex program
+                    final TinkerCheckpoint checkpoint = null == this.checkpointLocation ? null :
+                            new TinkerCheckpoint(this.graph, new File(this.checkpointLocation), this.checkpointInterval, this.vertexProgram, this.checkpointForceResume);
+                    // a program that does not support asynchronous execution is always executed in supersteps
+                    final boolean asynchronous = this.asynchronous && this.vertexProgram.getFeatures().supportsAsynchronousExecution();
+                    // a program that only has work to do at its active vertices only executes those after the first iteration
+                    final boolean activeVertices = this.vertexProgram.getFeatures().supportsActiveVertices();
+                    if (asynchronous || activeVertices) this.messageBoard.trackActiveVertices();
+                    // execute the vertex program, continuing from the latest checkpoint if there is one
                     this.vertexProgram.setup(this.memory);
+                    if (null != checkpoint) checkpoint.resume(this.memory, view, this.messageBoard);
+                    Set<MessageScope> previousMessageScopes = null;
+                    // the first iteration executes every vertex, also when it is resumed from a checkpoint
+                    boolean first = true;
                     while (true) {
                         if (Thread.interrupted()) throw new TraversalInterruptedException();
                         this.memory.completeSubRound();
+                        boolean barrier = true;
+                        if (asynchronous) {
+                            // the first iteration that the program sends messages with other scopes in is a barrier
+                            final Set<MessageScope> messageScopes = this.vertexProgram.getMessageScopes(this.memory);
+                            barrier = !messageScopes.equals(previousMessageScopes);
+                            this.messageBoard.startAsynchronousIteration(barrier);
+                            previousMessageScopes = messageScopes;
+                        }
                         workers.setVertexProgram(this.vertexProgram);
-                        workers.executeVertexProgram((vertices, vertexProgram, workerMemory) -> {
+                        final TriConsumer<Iterator<Vertex>, VertexProgram, TinkerWorkerMemory> worker = (vertices, vertexProgram, workerMemory) -> {
                             vertexProgram.workerIterationStart(workerMemory.asImmutable());
                             while (vertices.hasNext()) {
                                 final Vertex vertex = vertices.next();
@@ -178,7 +279,14 @@ public final class TinkerGraphComputer implements GraphComputer {
                             }
                             vertexProgram.workerIterationEnd(workerMemory.asImmutable());
                             workerMemory.complete();
-                        });
+                        };
+                        if (!first && (activeVertices || !barrier))
+                            workers.executeVertexProgram(this.messageBoard.getActiveVertices(activeVertices ?
+                                    this.vertexProgram.getActiveVertices(this.memory.asImmutable()) :
+                                    Collections.emptyIterator()), worker);
+                        else
+                            workers.executeVertexProgram(worker);
+                        first = false;
                         this.messageBoard.completeIteration();
                         this.memory.completeSubRound();
                         if (this.vertexProgram.terminate(this.memory)) {
@@ -186,47 +294,51 @@ public final class TinkerGraphComputer implements GraphComputer {
                             break;
                         } else {
                             this.memory.incrIteration();
+                            if (null != checkpoint) checkpoint.write(this.memory, view, this.messageBoard);
                         }
                     }
+                    if (null != checkpoint) checkpoint.delete();
                     view.complete(); // drop all transient vertex compute keys
                 }
 
                 // execute mapreduce jobs
                 for (final MapReduce mapReduce : mapReducers) {
-                    final TinkerMapEmitter<?, ?> mapEmitter = new TinkerMapEmitter<>(mapReduce.doStage(MapReduce.Stage.REDUCE));
-                    final SynchronizedIterator<Vertex> vertices = new SynchronizedIterator<>(this.graph.vertices());
+                    // the emits of each worker are split into partitions of keys that the workers then each reduce
+                    final TinkerMapEmitter mapEmitter = new TinkerMapEmitter<>(mapReduce.doStage(MapReduce.Stage.REDUCE),
+                            (Comparator) mapReduce.getMapKeySort().orElse(null), spill, this.workers * PARTITIONS_PER_WORKER);
                     workers.setMapReduce(mapReduce);
-                    workers.executeMapReduce(workerMapReduce -> {
+                    workers.executeMapReduce((vertices, workerMapReduce) -> {
                         workerMapReduce.workerStart(MapReduce.Stage.MAP);
-                        while (true) {
+                        while (vertices.hasNext()) {
                             if (Thread.interrupted()) throw new TraversalInterruptedException();
-                            final Vertex vertex = vertices.next();
-                            if (null == vertex) break;
-                            workerMapReduce.map(ComputerGraph.mapReduce(vertex), mapEmitter);
+                            workerMapReduce.map(ComputerGraph.mapReduce(vertices.next()), mapEmitter);
                         }
                         workerMapReduce.workerEnd(MapReduce.Stage.MAP);
+                        mapEmitter.combine(workerMapReduce);
                     });
                     // sort results if a map output sort is defined
                     mapEmitter.complete(mapReduce);
 
-                    // no need to run combiners as this is single machine
                     if (mapReduce.doStage(MapReduce.Stage.REDUCE)) {
                         final TinkerReduceEmitter<?, ?> reduceEmitter = new TinkerReduceEmitter<>();
-                        final SynchronizedIterator<Map.Entry<?, Queue<?>>> keyValues = new SynchronizedIterator((Iterator) mapEmitter.reduceMap.entrySet().iterator());
+                        final AtomicInteger partitions = new AtomicInteger(0);
                         workers.executeMapReduce(workerMapReduce -> {
                             workerMapReduce.workerStart(MapReduce.Stage.REDUCE);
-                            while (true) {
-                                if (Thread.interrupted()) throw new TraversalInterruptedException();
-                                final Map.Entry<?, Queue<?>> entry = keyValues.next();
-                                if (null == entry) break;
-                                workerMapReduce.reduce(entry.getKey(), entry.getValue().iterator(), reduceEmitter);
+                            int partition;
+                            while ((partition = partitions.getAndIncrement()) < mapEmitter.getPartitions()) {
+                                final Iterator<Map.Entry<?, Queue<?>>> entries = mapEmitter.reduceEntries(partition);
+                                while (entries.hasNext()) {
+                                    if (Thread.interrupted()) throw new TraversalInterruptedException();
+                                    final Map.Entry<?, Queue<?>> entry = entries.next();
+                                    workerMapReduce.reduce(entry.getKey(), entry.getValue().iterator(), reduceEmitter);
+                                }
                             }
                             workerMapReduce.workerEnd(MapReduce.Stage.REDUCE);
                         });
                         reduceEmitter.complete(mapReduce); // sort results if a reduce output sort is defined
                         mapReduce.addResultToMemory(this.memory, reduceEmitter.reduceQueue.iterator());
                     } else {
-                        mapReduce.addResultToMemory(this.memory, mapEmitter.mapQueue.iterator());
+                        mapReduce.addResultToMemory(this.memory, mapEmitter.mapEntries());
                     }
                 }
                 // update runtime and return the newly computed graph
@@ -244,6 +356,7 @@ public final class TinkerGraphComputer implements GraphComputer {
                 throw new RuntimeException(ex);
             } finally {
                 workers.close();
+                if (null != spill) spill.close();
             }
         });
         this.computerService.shutdown();
@@ -255,19 +368,6 @@ public final class TinkerGraphComputer implements GraphComputer {
         return StringFactory.graphComputerString(this);
     }
 
-    private static class SynchronizedIterator<V> {
-
-        private final Iterator<V> iterator;
-
-        public SynchronizedIterator(final Iterator<V> iterator) {
-            this.iterator = iterator;
-        }
-
-        public synchronized V next() {
-            return this.iterator.hasNext() ? this.iterator.next() : null;
-        }
-    }
-
     @Override
     public Features features() {
         return new Features() {
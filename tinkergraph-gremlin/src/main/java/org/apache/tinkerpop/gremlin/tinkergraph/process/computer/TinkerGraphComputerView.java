@@ -22,7 +22,6 @@ import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
 import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
 import org.apache.tinkerpop.gremlin.structure.Edge;
-import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.T;
@@ -34,15 +33,19 @@ import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertexProperty;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -51,16 +54,16 @@ public final class TinkerGraphComputerView {
 
     private final TinkerGraph graph;
     protected final Map<String, VertexComputeKey> computeKeys;
-    private Map<Element, Map<String, List<VertexProperty<?>>>> computeProperties;
+    private final Map<String, ComputeValues> computeValues = new HashMap<>();
     private final Set<Object> legalVertices = new HashSet<>();
     private final Map<Object, Set<Object>> legalEdges = new HashMap<>();
     private final GraphFilter graphFilter;
+    private final TinkerVertex[] vertices;
 
     public TinkerGraphComputerView(final TinkerGraph graph, final GraphFilter graphFilter, final Set<VertexComputeKey> computeKeys) {
         this.graph = graph;
         this.computeKeys = new HashMap<>();
         computeKeys.forEach(key -> this.computeKeys.put(key.getKey(), key));
-        this.computeProperties = new ConcurrentHashMap<>();
         this.graphFilter = graphFilter;
         if (this.graphFilter.hasFilter()) {
             graph.vertices().forEachRemaining(vertex -> {
@@ -76,19 +79,36 @@ public final class TinkerGraphComputerView {
                 }
             });
         }
+        // the vertices are numbered so that the state of the computation can be held in arrays indexed by vertex
+        this.vertices = IteratorUtils.stream(graph.vertices()).filter(this::legalVertex).toArray(TinkerVertex[]::new);
+        for (int i = 0; i < this.vertices.length; i++) {
+            TinkerHelper.setOrdinal(this.vertices[i], i);
+        }
+        this.computeKeys.keySet().forEach(key -> this.computeValues.put(key, new ComputeValues(key, this.vertices.length)));
+    }
+
+    /**
+     * Gets the vertices of the graph that are in the view, where a vertex is at the position of its
+     * {@link #ordinal(Vertex)}.
+     */
+    public TinkerVertex[] getVertices() {
+        return this.vertices;
+    }
+
+    /**
+     * Gets the position of the vertex in the {@link #getVertices()} of the view or -1 if it is not in the view.
+     */
+    public int ordinal(final Vertex vertex) {
+        final Vertex tinkerVertex = vertex instanceof TinkerVertex ? vertex : TinkerHelper.getVertices(this.graph).get(vertex.id());
+        if (null == tinkerVertex) return -1;
+        final int ordinal = TinkerHelper.getOrdinal((TinkerVertex) tinkerVertex);
+        return ordinal >= 0 && ordinal < this.vertices.length && this.vertices[ordinal] == tinkerVertex ? ordinal : -1;
     }
 
     public <V> Property<V> addProperty(final TinkerVertex vertex, final String key, final V value) {
         ElementHelper.validateProperty(key, value);
         if (isComputeKey(key)) {
-            final TinkerVertexProperty<V> property = new TinkerVertexProperty<V>((TinkerVertex) vertex, key, value) {
-                @Override
-                public void remove() {
-                    removeProperty(vertex, key, this);
-                }
-            };
-            this.addValue(vertex, key, property);
-            return property;
+            return this.computeValues.get(key).add(this.ordinalOf(vertex), value);
         } else {
             throw GraphComputer.Exceptions.providedKeyIsNotAnElementComputeKey(key);
         }
@@ -96,25 +116,32 @@ public final class TinkerGraphComputerView {
 
     public List<VertexProperty<?>> getProperty(final TinkerVertex vertex, final String key) {
         // if the vertex property is already on the vertex, use that.
-        final List<VertexProperty<?>> vertexProperty = this.getValue(vertex, key);
-        return vertexProperty.isEmpty() ? (List) TinkerHelper.getProperties(vertex).getOrDefault(key, Collections.emptyList()) : vertexProperty;
+        final ComputeValues values = this.computeValues.get(key);
+        final List<VertexProperty<?>> vertexProperty = null == values ? Collections.emptyList() : values.get(this.ordinalOf(vertex));
+        return vertexProperty.isEmpty() ? (List) TinkerHelper.getProperties(vertex, key) : vertexProperty;
         //return isComputeKey(key) ? this.getValue(vertex, key) : (List) TinkerHelper.getProperties(vertex).getOrDefault(key, Collections.emptyList());
     }
 
     public List<Property> getProperties(final TinkerVertex vertex) {
         final List<Property> list = new ArrayList<>();
-        for (final List<VertexProperty> properties : TinkerHelper.getProperties(vertex).values()) {
-            list.addAll(properties);
+        final int ordinal = this.ordinal(vertex);
+        for (final Map.Entry<String, List<VertexProperty>> properties : TinkerHelper.getProperties(vertex).entrySet()) {
+            // as with getProperty(), the values that were computed for a key hide the ones the vertex already had
+            final ComputeValues values = -1 == ordinal ? null : this.computeValues.get(properties.getKey());
+            if (null == values || values.get(ordinal).isEmpty())
+                list.addAll(properties.getValue());
         }
-        for (final List<VertexProperty<?>> properties : this.computeProperties.getOrDefault(vertex, Collections.emptyMap()).values()) {
-            list.addAll(properties);
+        if (-1 != ordinal) {
+            for (final ComputeValues values : this.computeValues.values()) {
+                list.addAll(values.get(ordinal));
+            }
         }
         return list;
     }
 
     public void removeProperty(final TinkerVertex vertex, final String key, final VertexProperty property) {
         if (isComputeKey(key)) {
-            this.removeValue(vertex, key, property);
+            this.computeValues.get(key).remove(this.ordinalOf(vertex), property);
         } else {
             throw GraphComputer.Exceptions.providedKeyIsNotAnElementComputeKey(key);
         }
@@ -131,11 +158,34 @@ public final class TinkerGraphComputerView {
     protected void complete() {
         // remove all transient properties from the vertices
         for (final VertexComputeKey computeKey : this.computeKeys.values()) {
-            if (computeKey.isTransient()) {
-                for (final Map<String, List<VertexProperty<?>>> properties : this.computeProperties.values()) {
-                    properties.remove(computeKey.getKey());
-                }
-            }
+            if (computeKey.isTransient())
+                this.computeValues.get(computeKey.getKey()).clear();
+        }
+    }
+
+    /**
+     * Writes the values of the compute keys to a {@link TinkerCheckpoint}, either for every vertex or only for those
+     * vertices whose values may have changed since the last checkpoint.
+     */
+    protected void writeCheckpoint(final Kryo kryo, final Output output, final boolean all) {
+        output.writeInt(this.computeValues.size(), true);
+        for (final ComputeValues values : this.computeValues.values()) {
+            output.writeString(values.key);
+            values.write(kryo, output, all);
+        }
+    }
+
+    /**
+     * Reads the values of the compute keys from a {@link TinkerCheckpoint} in place of those that the vertices have.
+     */
+    protected void readCheckpoint(final Kryo kryo, final Input input) {
+        final int size = input.readInt(true);
+        for (int i = 0; i < size; i++) {
+            final String key = input.readString();
+            final ComputeValues values = this.computeValues.get(key);
+            if (null == values)
+                throw new IllegalStateException(String.format("The checkpoint has values for %s which is not a compute key of the vertex program", key));
+            values.read(kryo, input);
         }
     }
 
@@ -193,17 +243,18 @@ public final class TinkerGraphComputerView {
 
     private void addPropertiesToOriginalGraph() {
         TinkerHelper.dropGraphComputerView(this.graph);
-        this.computeProperties.forEach((element, properties) -> {
-            properties.forEach((key, vertexProperties) -> {
-                vertexProperties.forEach(vertexProperty -> {
-                    final VertexProperty<?> newVertexProperty = ((Vertex) element).property(VertexProperty.Cardinality.list, vertexProperty.key(), vertexProperty.value(), T.id, vertexProperty.id());
+        for (int ordinal = 0; ordinal < this.vertices.length; ordinal++) {
+            final Vertex vertex = this.vertices[ordinal];
+            for (final ComputeValues values : this.computeValues.values()) {
+                values.get(ordinal).forEach(vertexProperty -> {
+                    final VertexProperty<?> newVertexProperty = vertex.property(VertexProperty.Cardinality.list, vertexProperty.key(), vertexProperty.value(), T.id, vertexProperty.id());
                     vertexProperty.properties().forEachRemaining(property -> {
                         newVertexProperty.property(property.key(), property.value());
                     });
                 });
-            });
-        });
-        this.computeProperties.clear();
+            }
+        }
+        this.computeValues.values().forEach(ComputeValues::clear);
     }
 
     //////////////////////
@@ -212,20 +263,200 @@ public final class TinkerGraphComputerView {
         return this.computeKeys.containsKey(key);
     }
 
-    private void addValue(final Vertex vertex, final String key, final VertexProperty property) {
-        final Map<String, List<VertexProperty<?>>> elementProperties = this.computeProperties.computeIfAbsent(vertex, k -> new HashMap<>());
-        elementProperties.compute(key, (k, v) -> {
-            if (null == v) v = new ArrayList<>();
-            v.add(property);
-            return v;
-        });
+    private int ordinalOf(final Vertex vertex) {
+        final int ordinal = this.ordinal(vertex);
+        if (-1 == ordinal)
+            throw new IllegalStateException(String.format("The vertex %s is not in the view of the graph computer", vertex.id()));
+        return ordinal;
+    }
+
+    /**
+     * The values of a compute key, which are held by the {@link #ordinal(Vertex)} of their vertex along with the
+     * identifier of their vertex property. The vertex property is only created when it is read, unless the vertex has
+     * more than one value for the key or the vertex property was given properties of its own, in which case the
+     * vertex properties themselves are held instead of the value.
+     */
+    private final class ComputeValues {
+
+        private final String key;
+        private final Object[] ids;
+        private final Object[] values;
+        // whether the values of a vertex may have changed since the last checkpoint, which they may have whenever
+        // they were written or a value that can be changed in place was read
+        private final boolean[] changed;
+
+        private ComputeValues(final String key, final int size) {
+            this.key = key;
+            this.ids = new Object[size];
+            this.values = new Object[size];
+            this.changed = new boolean[size];
+        }
+
+        private <V> VertexProperty<V> add(final int ordinal, final V value) {
+            final Object id = TinkerHelper.getNextVertexPropertyId(graph);
+            this.changed[ordinal] = true;
+            if (null == this.values[ordinal]) {
+                this.ids[ordinal] = id;
+                this.values[ordinal] = value;
+                return this.materialize(ordinal, id, value);
+            }
+            final VertexProperty<V> vertexProperty = this.materialize(ordinal, id, value);
+            this.properties(ordinal).add(vertexProperty);
+            return vertexProperty;
+        }
+
+        private List<VertexProperty<?>> get(final int ordinal) {
+            final Object value = this.values[ordinal];
+            if (null == value)
+                return Collections.emptyList();
+            if (!isImmutable(value)) this.changed[ordinal] = true;
+            if (value instanceof Properties)
+                return ((Properties) value).list;
+            else
+                return Collections.singletonList(this.materialize(ordinal, this.ids[ordinal], value));
+        }
+
+        private void remove(final int ordinal, final VertexProperty<?> vertexProperty) {
+            final Object value = this.values[ordinal];
+            this.changed[ordinal] = true;
+            if (value instanceof Properties) {
+                final List<VertexProperty<?>> list = ((Properties) value).list;
+                list.remove(vertexProperty);
+                if (list.isEmpty()) this.values[ordinal] = null;
+            } else if (null != value && vertexProperty.id().equals(this.ids[ordinal])) {
+                this.values[ordinal] = null;
+            }
+            if (null == this.values[ordinal]) this.ids[ordinal] = null;
+        }
+
+        private void clear() {
+            for (int i = 0; i < this.values.length; i++) {
+                if (null != this.values[i]) this.changed[i] = true;
+            }
+            Arrays.fill(this.ids, null);
+            Arrays.fill(this.values, null);
+        }
+
+        private void write(final Kryo kryo, final Output output, final boolean all) {
+            int count = 0;
+            for (int i = 0; i < this.values.length; i++) {
+                if (all ? null != this.values[i] : this.changed[i]) count++;
+            }
+            output.writeInt(count, true);
+            for (int ordinal = 0; ordinal < this.values.length; ordinal++) {
+                if (!(all ? null != this.values[ordinal] : this.changed[ordinal])) continue;
+                kryo.writeClassAndObject(output, vertices[ordinal].id());
+                final Object value = this.values[ordinal];
+                if (value instanceof Properties) {
+                    final List<VertexProperty<?>> list = ((Properties) value).list;
+                    output.writeInt(list.size(), true);
+                    for (final VertexProperty<?> vertexProperty : list) {
+                        kryo.writeClassAndObject(output, vertexProperty.id());
+                        kryo.writeClassAndObject(output, vertexProperty.value());
+                        final List<Property<Object>> properties = IteratorUtils.list(vertexProperty.properties());
+                        output.writeInt(properties.size(), true);
+                        for (final Property<Object> property : properties) {
+                            output.writeString(property.key());
+                            kryo.writeClassAndObject(output, property.value());
+                        }
+                    }
+                } else if (null != value) {
+                    output.writeInt(1, true);
+                    kryo.writeClassAndObject(output, this.ids[ordinal]);
+                    kryo.writeClassAndObject(output, value);
+                    output.writeInt(0, true);
+                } else {
+                    output.writeInt(0, true);
+                }
+            }
+            Arrays.fill(this.changed, false);
+        }
+
+        private void read(final Kryo kryo, final Input input) {
+            final int count = input.readInt(true);
+            for (int i = 0; i < count; i++) {
+                final Object vertexId = kryo.readClassAndObject(input);
+                final Vertex vertex = TinkerHelper.getVertices(graph).get(vertexId);
+                if (null == vertex)
+                    throw new IllegalStateException(String.format("The checkpoint has values for the vertex %s which is not in the graph", vertexId));
+                final int ordinal = ordinalOf(vertex);
+                this.ids[ordinal] = null;
+                this.values[ordinal] = null;
+                final int size = input.readInt(true);
+                for (int j = 0; j < size; j++) {
+                    final Object id = kryo.readClassAndObject(input);
+                    final Object value = kryo.readClassAndObject(input);
+                    final int propertiesSize = input.readInt(true);
+                    if (1 == size && 0 == propertiesSize) {
+                        this.ids[ordinal] = id;
+                        this.values[ordinal] = value;
+                        continue;
+                    }
+                    final VertexProperty<Object> vertexProperty = this.materialize(ordinal, id, value);
+                    this.properties(ordinal).add(vertexProperty);
+                    for (int k = 0; k < propertiesSize; k++) {
+                        vertexProperty.property(input.readString(), kryo.readClassAndObject(input));
+                    }
+                }
+            }
+            Arrays.fill(this.changed, false);
+        }
+
+        /**
+         * Gets the vertex properties of the vertex for the key, which are held from then on in place of the value.
+         */
+        private List<VertexProperty<?>> properties(final int ordinal) {
+            final Object value = this.values[ordinal];
+            if (value instanceof Properties) return ((Properties) value).list;
+            final Properties properties = new Properties();
+            if (null != value) properties.list.add(this.materialize(ordinal, this.ids[ordinal], value));
+            this.values[ordinal] = properties;
+            return properties.list;
+        }
+
+        private void hold(final int ordinal, final VertexProperty<?> vertexProperty) {
+            final Object value = this.values[ordinal];
+            this.changed[ordinal] = true;
+            if (value instanceof Properties) {
+                final List<VertexProperty<?>> list = ((Properties) value).list;
+                for (int i = 0; i < list.size(); i++) {
+                    if (list.get(i).equals(vertexProperty)) list.set(i, vertexProperty);
+                }
+            } else if (null != value && vertexProperty.id().equals(this.ids[ordinal])) {
+                final Properties properties = new Properties();
+                properties.list.add(vertexProperty);
+                this.values[ordinal] = properties;
+            }
+        }
+
+        private <V> VertexProperty<V> materialize(final int ordinal, final Object id, final V value) {
+            final TinkerVertex vertex = vertices[ordinal];
+            return new TinkerVertexProperty<V>(id, vertex, this.key, value) {
+                @Override
+                public void remove() {
+                    removeProperty(vertex, key(), this);
+                }
+
+                @Override
+                public <U> Property<U> property(final String key, final U value) {
+                    // a vertex property with properties of its own is held as it is
+                    ComputeValues.this.hold(ordinal, this);
+                    return super.property(key, value);
+                }
+            };
+        }
     }
 
-    private void removeValue(final Vertex vertex, final String key, final VertexProperty property) {
-        this.computeProperties.<List<Map<String, VertexProperty<?>>>>getOrDefault(vertex, Collections.emptyMap()).get(key).remove(property);
+    /**
+     * Determines if a value can not be changed other than by writing the compute key again.
+     */
+    private static boolean isImmutable(final Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Long ||
+                value instanceof Double || value instanceof Float || value instanceof Boolean ||
+                value instanceof Short || value instanceof Byte || value instanceof Character || value instanceof Enum;
     }
 
-    private List<VertexProperty<?>> getValue(final Vertex vertex, final String key) {
-        return this.computeProperties.getOrDefault(vertex, Collections.emptyMap()).getOrDefault(key, Collections.emptyList());
+    private static final class Properties {
+        private final List<VertexProperty<?>> list = new ArrayList<>(2);
     }
-}
\ No newline at end of file
+}
@@ -20,56 +20,366 @@ package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
 
 import org.apache.tinkerpop.gremlin.process.computer.KeyValue;
 import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
 
+import java.io.File;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
+ * Collects what the map stage of a {@link MapReduce} emits. Each worker emits to its own keys, which are split into
+ * partitions by their hash, so that the workers never contend while they emit and can then each reduce whole
+ * partitions, merging the keys of that partition from every worker. When the {@link MapReduce} has a combine stage,
+ * each worker combines the values of its keys once it has mapped all of its vertices. The keys are only sorted when
+ * the {@link MapReduce} has a map key sort, in which case they are reduced in that order.
+ * <p/>
+ * With a {@link TinkerSpill}, a worker that holds more emits than its share of the spill threshold writes them to a
+ * run, sorted by the map key sort or otherwise by the hash of their keys, and the runs are merged back as the emits are
+ * read. The values of a key that are reduced together are merged into memory at once.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public final class TinkerMapEmitter<K, V> implements MapReduce.MapEmitter<K, V> {
 
-    public Map<K, Queue<V>> reduceMap;
-    public Queue<KeyValue<K, V>> mapQueue;
     private final boolean doReduce;
+    private final Comparator<K> keySort;
+    private final TinkerSpill spill;
+    private final int partitions;
+
+    private final Queue<Emits<K, V>> emits = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Emits<K, V>> local;
+    private final Queue<File> runs = new ConcurrentLinkedQueue<>();
+    // the keys in order when they are sorted or spilled, which the workers all reduce from at once
+    private Iterator<Map.Entry<K, Queue<V>>> shared = null;
 
     public TinkerMapEmitter(final boolean doReduce) {
+        this(doReduce, null, null, 1);
+    }
+
+    TinkerMapEmitter(final boolean doReduce, final Comparator<K> keySort, final TinkerSpill spill, final int partitions) {
         this.doReduce = doReduce;
-        if (this.doReduce)
-            this.reduceMap = new ConcurrentHashMap<>();
-        else
-            this.mapQueue = new ConcurrentLinkedQueue<>();
+        this.keySort = keySort;
+        this.spill = spill;
+        this.partitions = partitions;
+        this.local = ThreadLocal.withInitial(() -> {
+            final Emits<K, V> emits = new Emits<>(this.doReduce ? this.partitions : 0);
+            this.emits.add(emits);
+            return emits;
+        });
     }
 
     @Override
     public void emit(K key, V value) {
+        final Emits<K, V> emits = this.local.get();
         if (this.doReduce)
-            this.reduceMap.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(value);
+            emits.add(this.partition(key), key, value);
         else
-            this.mapQueue.add(new KeyValue<>(key, value));
+            emits.add(new KeyValue<>(key, value));
+        if (null != this.spill && emits.count >= this.spill.getWorkerThreshold())
+            this.spill(emits);
+    }
+
+    /**
+     * Combines the values that the current worker emitted for each of its keys if the {@link MapReduce} has a
+     * combine stage, which is called by the worker once it has mapped all of its vertices.
+     */
+    protected void combine(final MapReduce<K, V, K, V, ?> mapReduce) {
+        if (!this.doReduce || !mapReduce.doStage(MapReduce.Stage.COMBINE)) return;
+        final Emits<K, V> emits = this.local.get();
+        final Map<K, Queue<V>>[] partitions = emits.partitions;
+        emits.reset();
+        mapReduce.workerStart(MapReduce.Stage.COMBINE);
+        for (final Map<K, Queue<V>> partition : partitions) {
+            for (final Map.Entry<K, Queue<V>> entry : partition.entrySet()) {
+                mapReduce.combine(entry.getKey(), entry.getValue().iterator(), (key, value) -> emits.add(this.partition(key), key, value));
+            }
+        }
+        mapReduce.workerEnd(MapReduce.Stage.COMBINE);
     }
 
     protected void complete(final MapReduce<K, V, ?, ?, ?> mapReduce) {
-        if (!this.doReduce && mapReduce.getMapKeySort().isPresent()) {
-            final Comparator<K> comparator = mapReduce.getMapKeySort().get();
-            final List<KeyValue<K, V>> list = new ArrayList<>(this.mapQueue);
-            Collections.sort(list, Comparator.comparing(KeyValue::getKey, comparator));
-            this.mapQueue.clear();
-            this.mapQueue.addAll(list);
-        } else if (mapReduce.getMapKeySort().isPresent()) {
-            final Comparator<K> comparator = mapReduce.getMapKeySort().get();
-            final List<Map.Entry<K, Queue<V>>> list = new ArrayList<>();
-            list.addAll(this.reduceMap.entrySet());
-            Collections.sort(list, Comparator.comparing(Map.Entry::getKey, comparator));
-            this.reduceMap = new LinkedHashMap<>();
-            list.forEach(entry -> this.reduceMap.put(entry.getKey(), entry.getValue()));
+        if (!this.runs.isEmpty()) {
+            // the emits that are still held are spilled too so that all of them are merged from the runs
+            for (final Emits<K, V> emits : this.emits) {
+                this.spill(emits);
+            }
+        }
+        if (this.doReduce && (!this.runs.isEmpty() || null != this.keySort))
+            this.shared = this.runs.isEmpty() ? this.sortedEntries().iterator() : new MergingIterator(true);
+    }
+
+    public int getPartitions() {
+        return this.partitions;
+    }
+
+    /**
+     * Gets the keys of the partition with all the values that were emitted for them. When the keys are sorted or
+     * spilled, every partition instead takes the next keys of all of them in order, so that the workers that reduce
+     * the partitions still share the work.
+     */
+    protected Iterator<Map.Entry<K, Queue<V>>> reduceEntries(final int partition) {
+        if (null != this.shared)
+            return new SharedIterator<>(this.shared);
+        final Map<K, Queue<V>> entries = new HashMap<>();
+        for (final Emits<K, V> emits : this.emits) {
+            for (final Map.Entry<K, Queue<V>> entry : emits.partitions[partition].entrySet()) {
+                final Queue<V> values = entries.get(entry.getKey());
+                if (null == values)
+                    entries.put(entry.getKey(), entry.getValue());
+                else
+                    values.addAll(entry.getValue());
+            }
+        }
+        return entries.entrySet().iterator();
+    }
+
+    /**
+     * Gets the keys and values in the order that they are to be added to the memory.
+     */
+    protected Iterator<KeyValue<K, V>> mapEntries() {
+        if (!this.runs.isEmpty())
+            return IteratorUtils.flatMap(new MergingIterator(null != this.keySort),
+                    entry -> IteratorUtils.map(entry.getValue().iterator(), value -> new KeyValue<>(entry.getKey(), value)));
+        final List<KeyValue<K, V>> keyValues = new ArrayList<>();
+        for (final Emits<K, V> emits : this.emits) {
+            keyValues.addAll(emits.keyValues);
+        }
+        if (null != this.keySort)
+            keyValues.sort((a, b) -> this.keySort.compare(a.getKey(), b.getKey()));
+        return keyValues.iterator();
+    }
+
+    private int partition(final K key) {
+        final int hash = Objects.hashCode(key);
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % this.partitions;
+    }
+
+    private List<Map.Entry<K, Queue<V>>> sortedEntries() {
+        final List<Map.Entry<K, Queue<V>>> entries = new ArrayList<>();
+        for (int i = 0; i < this.partitions; i++) {
+            this.reduceEntries(i).forEachRemaining(entries::add);
+        }
+        entries.sort((a, b) -> this.keySort.compare(a.getKey(), b.getKey()));
+        return entries;
+    }
+
+    private Comparator<K> runOrder() {
+        return null != this.keySort ? this.keySort : Comparator.comparingInt(Objects::hashCode);
+    }
+
+    /**
+     * Writes what a worker emitted so far to a run, each key followed by the values that were emitted for it.
+     */
+    private void spill(final Emits<K, V> emits) {
+        if (0 == emits.count) return;
+        final List<Map.Entry<K, ? extends Iterable<V>>> entries = new ArrayList<>();
+        if (this.doReduce) {
+            for (final Map<K, Queue<V>> partition : emits.partitions) {
+                entries.addAll(partition.entrySet());
+            }
+        } else {
+            for (final KeyValue<K, V> keyValue : emits.keyValues) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(keyValue.getKey(), Collections.singletonList(keyValue.getValue())));
+            }
+        }
+        if (this.doReduce || null != this.keySort) {
+            final Comparator<K> order = this.runOrder();
+            entries.sort((a, b) -> order.compare(a.getKey(), b.getKey()));
+        }
+        final File run = this.spill.newRun("emits");
+        final Kryo kryo = this.spill.kryo();
+        try (final Output output = this.spill.write(run)) {
+            for (final Map.Entry<K, ? extends Iterable<V>> entry : entries) {
+                final List<V> values = new ArrayList<>();
+                entry.getValue().forEach(values::add);
+                output.writeBoolean(true);
+                kryo.writeClassAndObject(output, entry.getKey());
+                output.writeInt(values.size(), true);
+                for (final V value : values) {
+                    kryo.writeClassAndObject(output, value);
+                }
+            }
+            output.writeBoolean(false);
+        }
+        this.runs.add(run);
+        emits.reset();
+    }
+
+    /**
+     * What a single worker emitted, either split into partitions of keys with their values or in the order that it
+     * was emitted when there is no reduce.
+     */
+    private static final class Emits<K, V> {
+        private final int size;
+        private Map<K, Queue<V>>[] partitions;
+        private List<KeyValue<K, V>> keyValues;
+        private long count;
+
+        private Emits(final int size) {
+            this.size = size;
+            this.reset();
+        }
+
+        private void add(final int partition, final K key, final V value) {
+            Queue<V> values = this.partitions[partition].get(key);
+            if (null == values) {
+                values = new ArrayDeque<>(2);
+                this.partitions[partition].put(key, values);
+            }
+            values.add(value);
+            this.count++;
+        }
+
+        private void add(final KeyValue<K, V> keyValue) {
+            this.keyValues.add(keyValue);
+            this.count++;
+        }
+
+        private void reset() {
+            this.partitions = new Map[this.size];
+            for (int i = 0; i < this.size; i++) {
+                this.partitions[i] = new HashMap<>();
+            }
+            this.keyValues = new ArrayList<>();
+            this.count = 0;
+        }
+    }
+
+    /**
+     * Takes the elements of an iterator that is shared by many workers one at a time.
+     */
+    private static final class SharedIterator<E> implements Iterator<E> {
+        private final Iterator<E> iterator;
+        private E next = null;
+
+        private SharedIterator(final Iterator<E> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (null == this.next) {
+                synchronized (this.iterator) {
+                    if (this.iterator.hasNext())
+                        this.next = this.iterator.next();
+                }
+            }
+            return null != this.next;
+        }
+
+        @Override
+        public E next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            final E next = this.next;
+            this.next = null;
+            return next;
+        }
+    }
+
+    /**
+     * Reads the keys of a run one after another along with their values.
+     */
+    private final class RunReader {
+        private final Input input;
+        private final Kryo kryo;
+        private K key;
+        private Queue<V> values;
+
+        private RunReader(final File run, final Kryo kryo) {
+            this.input = spill.read(run);
+            this.kryo = kryo;
+        }
+
+        private boolean advance() {
+            if (!this.input.readBoolean()) {
+                this.input.close();
+                return false;
+            }
+            this.key = (K) this.kryo.readClassAndObject(this.input);
+            final int size = this.input.readInt(true);
+            this.values = new ArrayDeque<>(size);
+            for (int i = 0; i < size; i++) {
+                this.values.add((V) this.kryo.readClassAndObject(this.input));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Merges the runs in the order that they were sorted in, either combining the keys that are equal across the
+     * runs, where keys that are the same in that order are grouped by equality, or taking the runs one at a time.
+     */
+    private final class MergingIterator implements Iterator<Map.Entry<K, Queue<V>>> {
+
+        private final boolean merge;
+        private final Comparator<K> order = runOrder();
+        private final PriorityQueue<RunReader> readers;
+        private final List<RunReader> remaining = new ArrayList<>();
+        private Iterator<Map.Entry<K, Queue<V>>> group = Collections.emptyIterator();
+
+        private MergingIterator(final boolean merge) {
+            this.merge = merge;
+            this.readers = new PriorityQueue<>(Comparator.comparing((RunReader reader) -> reader.key, this.order));
+            // a single kryo reads all the runs, as the entries are taken from the iterator by one worker at a time
+            final Kryo kryo = spill.createKryo();
+            for (final File run : runs) {
+                final RunReader reader = new RunReader(run, kryo);
+                if (merge) {
+                    if (reader.advance()) this.readers.add(reader);
+                } else
+                    this.remaining.add(reader);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.group.hasNext()) {
+                if (!this.merge) {
+                    if (this.remaining.isEmpty()) return false;
+                    final RunReader reader = this.remaining.get(0);
+                    if (reader.advance())
+                        this.group = Collections.singletonMap(reader.key, reader.values).entrySet().iterator();
+                    else
+                        this.remaining.remove(0);
+                    continue;
+                }
+                if (this.readers.isEmpty()) return false;
+                final K key = this.readers.peek().key;
+                final Map<K, Queue<V>> group = new LinkedHashMap<>();
+                while (!this.readers.isEmpty() && 0 == this.order.compare(this.readers.peek().key, key)) {
+                    final RunReader reader = this.readers.poll();
+                    final Queue<V> values = group.get(reader.key);
+                    if (null == values)
+                        group.put(reader.key, reader.values);
+                    else
+                        values.addAll(reader.values);
+                    if (reader.advance()) this.readers.add(reader);
+                }
+                this.group = group.entrySet().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<K, Queue<V>> next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            return this.group.next();
         }
     }
 }
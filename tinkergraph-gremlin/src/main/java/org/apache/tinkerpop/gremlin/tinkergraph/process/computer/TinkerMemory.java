@@ -46,6 +46,8 @@ public final class TinkerMemory implements Memory.Admin {
     private final AtomicInteger iteration = new AtomicInteger(0);
     private final AtomicLong runtime = new AtomicLong(0l);
     private boolean inExecute = false;
+    // the keys that were set or added to since the last checkpoint of the computation
+    private final Set<String> changedKeys = ConcurrentHashMap.newKeySet();
 
     public TinkerMemory(final VertexProgram<?> vertexProgram, final Set<MapReduce> mapReducers) {
         this.currentMap = new ConcurrentHashMap<>();
@@ -123,6 +125,7 @@ public final class TinkerMemory implements Memory.Admin {
         if (this.inExecute)
             throw Memory.Exceptions.memorySetOnlyDuringVertexProgramSetUpAndTerminate(key);
         this.currentMap.put(key, value);
+        this.changedKeys.add(key);
     }
 
     @Override
@@ -131,6 +134,23 @@ public final class TinkerMemory implements Memory.Admin {
         if (!this.inExecute)
             throw Memory.Exceptions.memoryAddOnlyDuringVertexProgramExecute(key);
         this.currentMap.compute(key, (k, v) -> null == v ? value : this.memoryKeys.get(key).getReducer().apply(v, value));
+        this.changedKeys.add(key);
+    }
+
+    /**
+     * Gets the keys that were set or added to since the keys were last cleared by a {@link TinkerCheckpoint}.
+     */
+    protected Set<String> getChangedKeys() {
+        return this.changedKeys;
+    }
+
+    /**
+     * Restores the memory to the state it was in at the end of an iteration from a {@link TinkerCheckpoint}.
+     */
+    protected void restore(final int iteration, final Map<String, Object> values) {
+        this.currentMap.putAll(values);
+        this.previousMap = new ConcurrentHashMap<>(this.currentMap);
+        this.iteration.set(iteration);
     }
 
     @Override
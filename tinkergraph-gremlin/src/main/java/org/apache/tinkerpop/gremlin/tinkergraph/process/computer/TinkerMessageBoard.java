@@ -18,29 +18,513 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
 
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
 import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
 
-import java.util.HashSet;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntSupplier;
 
 /**
+ * Holds the messages of a {@link TinkerGraphComputer} for each {@link MessageScope}, addressed by the
+ * {@link TinkerGraphComputerView#ordinal(Vertex)} of the receiving vertex. With a {@link MessageCombiner} the
+ * messages to a vertex are combined as they are sent into a single slot. Without one, each worker appends the
+ * messages it sends to a buffer of its own, and the buffers are grouped by vertex once the iteration is complete.
+ * <p/>
+ * In an asynchronous iteration the messages are sent to the inboxes that are being received from, where the slot of a
+ * vertex only holds the messages that it sent when it was last executed, so that a vertex always receives the latest
+ * messages of the vertices that are adjacent to it. Only {@link MessageScope.Local} messages are asynchronous, as
+ * those are held at the vertex that sends them.
+ * <p/>
+ * When the active vertices are tracked, the vertices that a message is sent to are marked as active so that only they
+ * are executed in the next iteration, along with the vertices that are kept active.
+ * <p/>
+ * With a {@link TinkerSpill}, a worker that holds more messages than its share of the spill threshold writes them to
+ * a run sorted by vertex, and once the iteration is complete the runs are merged into a single memory-mapped run where
+ * the messages to a vertex are next to each other. Only the messages that are not combined are spilled, as there is
+ * otherwise at most one message for each vertex.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 final class TinkerMessageBoard<M> {
 
-    public Map<MessageScope, Map<Vertex,Queue<M>>> sendMessages = new ConcurrentHashMap<>();
-    public Map<MessageScope, Map<Vertex, Queue<M>>> receiveMessages = new ConcurrentHashMap<>();
-    public Set<MessageScope> previousMessageScopes = new HashSet<>();
-    public Set<MessageScope> currentMessageScopes = new HashSet<>();
+    /**
+     * The number of locks that the slots of a combining inbox are striped over.
+     */
+    private static final int STRIPES = 256;
+
+    private final TinkerGraphComputerView view;
+    private final TinkerSpill spill;
+    private Map<MessageScope, Inbox<M>> sendMessages = new ConcurrentHashMap<>();
+    private Map<MessageScope, Inbox<M>> receiveMessages = new ConcurrentHashMap<>();
+
+    // the inboxes that were read in the last iteration, whose slots are cleared and used again rather than allocated
+    private Map<MessageScope, Inbox<M>> spareMessages = new ConcurrentHashMap<>();
+
+    private boolean asynchronous = false;
+    private volatile int iteration = 0;
+    // the vertices that are active in this iteration and those that are activated for the next iteration
+    private boolean[] active = null;
+    private boolean[] nextActive = null;
+
+    TinkerMessageBoard(final TinkerGraphComputerView view, final TinkerSpill spill) {
+        this.view = view;
+        this.spill = spill;
+    }
+
+    /**
+     * Starts an iteration where the messages that are sent are received at once, unless the iteration is a barrier,
+     * in which case they are only received in the next iteration as they would otherwise be.
+     */
+    public void startAsynchronousIteration(final boolean barrier) {
+        this.asynchronous = true;
+        if (!barrier) this.sendMessages = this.receiveMessages;
+    }
+
+    public boolean isAsynchronous() {
+        return this.asynchronous;
+    }
+
+    /**
+     * Starts to track the vertices that are sent messages or kept active, which are the vertices that are active in
+     * the next iteration.
+     */
+    public void trackActiveVertices() {
+        if (null == this.active) {
+            this.active = new boolean[this.view.getVertices().length];
+            this.nextActive = new boolean[this.view.getVertices().length];
+        }
+    }
+
+    public boolean tracksActiveVertices() {
+        return null != this.active;
+    }
+
+    /**
+     * Marks the vertex as active in the next iteration if the active vertices are tracked.
+     */
+    public void activate(final Vertex vertex) {
+        if (null == this.nextActive) return;
+        final int ordinal = this.view.ordinal(vertex);
+        if (-1 != ordinal) this.nextActive[ordinal] = true;
+    }
+
+    /**
+     * Gets the vertices that are active in this iteration, which are those that were activated in the last iteration
+     * and the given vertices, in the order of the view.
+     */
+    public TinkerVertex[] getActiveVertices(final Iterator<Vertex> vertices) {
+        while (vertices.hasNext()) {
+            final int ordinal = this.view.ordinal(vertices.next());
+            if (-1 != ordinal) this.active[ordinal] = true;
+        }
+        int count = 0;
+        for (final boolean active : this.active) {
+            if (active) count++;
+        }
+        final TinkerVertex[] activeVertices = new TinkerVertex[count];
+        for (int i = 0, j = 0; j < count; i++) {
+            if (this.active[i]) activeVertices[j++] = this.view.getVertices()[i];
+        }
+        return activeVertices;
+    }
+
+    public void sendMessage(final MessageScope messageScope, final Vertex vertex, final M message, final MessageCombiner<M> combiner) {
+        final int ordinal = this.view.ordinal(vertex);
+        // a vertex that is not in the view is never executed, so it would never read the message
+        if (-1 == ordinal) return;
+        Inbox<M> inbox = this.sendMessages.get(messageScope);
+        if (null == inbox)
+            inbox = this.sendMessages.computeIfAbsent(messageScope, scope -> this.createInbox(scope, combiner));
+        inbox.add(ordinal, message);
+    }
+
+    public Set<MessageScope> receiveMessageScopes() {
+        return this.receiveMessages.keySet();
+    }
+
+    public Iterator<M> receiveMessages(final MessageScope messageScope, final Vertex vertex) {
+        final Inbox<M> inbox = this.receiveMessages.get(messageScope);
+        if (null == inbox) return Collections.emptyIterator();
+        final int ordinal = this.view.ordinal(vertex);
+        return -1 == ordinal ? Collections.emptyIterator() : inbox.messages(ordinal);
+    }
 
     public void completeIteration() {
-        this.receiveMessages = this.sendMessages;
+        this.sendMessages.values().forEach(Inbox::complete);
+        if (this.sendMessages != this.receiveMessages) {
+            // the inboxes of the iteration before the last that were not used again are discarded
+            this.spareMessages.values().forEach(Inbox::close);
+            this.spareMessages = this.receiveMessages;
+            this.receiveMessages = this.sendMessages;
+        }
         this.sendMessages = new ConcurrentHashMap<>();
-        this.previousMessageScopes = this.currentMessageScopes;
-        this.currentMessageScopes = new HashSet<>();
+        if (null != this.active) {
+            final boolean[] active = this.active;
+            this.active = this.nextActive;
+            Arrays.fill(active, false);
+            this.nextActive = active;
+        }
+        this.iteration++;
+    }
+
+    private Inbox<M> createInbox(final MessageScope messageScope, final MessageCombiner<M> combiner) {
+        if (this.asynchronous && messageScope instanceof MessageScope.Local)
+            return new LatestInbox<>(this.view.getVertices().length, combiner, () -> this.iteration);
+        final Inbox<M> spare = this.spareMessages.remove(messageScope);
+        if (null != combiner && spare instanceof CombiningInbox) {
+            ((CombiningInbox<M>) spare).clear();
+            return spare;
+        }
+        final int size = this.view.getVertices().length;
+        return null == combiner ? new BufferedInbox<>(size, this.spill) : new CombiningInbox<>(size, combiner);
+    }
+
+    private interface Inbox<M> {
+
+        public void add(final int ordinal, final M message);
+
+        public Iterator<M> messages(final int ordinal);
+
+        /**
+         * Prepares the messages to be read once all of them are sent.
+         */
+        public void complete();
+
+        /**
+         * Releases what the messages are held in once they are no longer read.
+         */
+        public default void close() {
+        }
+    }
+
+    private static final class CombiningInbox<M> implements Inbox<M> {
+
+        private final Object[] slots;
+        private final Object[] locks = new Object[STRIPES];
+        private final MessageCombiner<M> combiner;
+
+        private CombiningInbox(final int size, final MessageCombiner<M> combiner) {
+            this.slots = new Object[size];
+            this.combiner = combiner;
+            for (int i = 0; i < STRIPES; i++) {
+                this.locks[i] = new Object();
+            }
+        }
+
+        @Override
+        public void add(final int ordinal, final M message) {
+            // combiners may change the message they combine into, so the slot is locked rather than swapped
+            synchronized (this.locks[ordinal & (STRIPES - 1)]) {
+                final M current = (M) this.slots[ordinal];
+                this.slots[ordinal] = null == current ? message : this.combiner.combine(current, message);
+            }
+        }
+
+        @Override
+        public Iterator<M> messages(final int ordinal) {
+            final M message = (M) this.slots[ordinal];
+            return null == message ? Collections.emptyIterator() : IteratorUtils.of(message);
+        }
+
+        @Override
+        public void complete() {
+        }
+
+        private void clear() {
+            Arrays.fill(this.slots, null);
+        }
+    }
+
+    private static final class LatestInbox<M> implements Inbox<M> {
+
+        private final AtomicReferenceArray<Latest> slots;
+        private final MessageCombiner<M> combiner;
+        private final IntSupplier iteration;
+
+        private LatestInbox(final int size, final MessageCombiner<M> combiner, final IntSupplier iteration) {
+            this.slots = new AtomicReferenceArray<>(size);
+            this.combiner = combiner;
+            this.iteration = iteration;
+        }
+
+        @Override
+        public void add(final int ordinal, final M message) {
+            // only the vertex itself sends the messages that are held at its slot, so the slot is not contended
+            final int iteration = this.iteration.getAsInt();
+            final Latest latest = this.slots.get(ordinal);
+            if (null == latest || latest.iteration != iteration)
+                this.slots.set(ordinal, new Latest(iteration, new Object[]{message}));
+            else if (null != this.combiner)
+                this.slots.set(ordinal, new Latest(iteration, new Object[]{this.combiner.combine((M) latest.messages[0], message)}));
+            else {
+                final Object[] messages = Arrays.copyOf(latest.messages, latest.messages.length + 1);
+                messages[latest.messages.length] = message;
+                this.slots.set(ordinal, new Latest(iteration, messages));
+            }
+        }
+
+        @Override
+        public Iterator<M> messages(final int ordinal) {
+            final Latest latest = this.slots.get(ordinal);
+            if (null == latest) return Collections.emptyIterator();
+            return 1 == latest.messages.length ? IteratorUtils.of((M) latest.messages[0]) : (Iterator<M>) Arrays.asList(latest.messages).iterator();
+        }
+
+        @Override
+        public void complete() {
+        }
+    }
+
+    /**
+     * The messages that a vertex sent in the iteration that it was last executed in.
+     */
+    private static final class Latest {
+        private final int iteration;
+        private final Object[] messages;
+
+        private Latest(final int iteration, final Object[] messages) {
+            this.iteration = iteration;
+            this.messages = messages;
+        }
+    }
+
+    private static final class BufferedInbox<M> implements Inbox<M> {
+
+        private final int size;
+        private final TinkerSpill spill;
+        private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<Buffer> buffer = ThreadLocal.withInitial(() -> {
+            final Buffer buffer = new Buffer();
+            this.buffers.add(buffer);
+            return buffer;
+        });
+        private final Queue<File> runs = new ConcurrentLinkedQueue<>();
+
+        // the messages grouped by vertex, where those to a vertex are from its offset up to the offset of the next
+        private int[] offsets = null;
+        private Object[] messages = null;
+
+        // the messages grouped by vertex in a run when they were spilled, where the offsets are positions in the run
+        private File run = null;
+        private TinkerSpill.MappedRun mappedRun = null;
+        private long[] runOffsets = null;
+
+        private BufferedInbox(final int size, final TinkerSpill spill) {
+            this.size = size;
+            this.spill = spill;
+        }
+
+        @Override
+        public void add(final int ordinal, final M message) {
+            final Buffer buffer = this.buffer.get();
+            buffer.add(ordinal, message);
+            if (null != this.spill && buffer.count >= this.spill.getWorkerThreshold())
+                this.spill(buffer);
+        }
+
+        @Override
+        public Iterator<M> messages(final int ordinal) {
+            if (null != this.mappedRun)
+                return this.spilledMessages(ordinal);
+            final int start = this.offsets[ordinal];
+            final int end = this.offsets[ordinal + 1];
+            if (start == end) return Collections.emptyIterator();
+            if (start + 1 == end) return IteratorUtils.of((M) this.messages[start]);
+            return new Iterator<M>() {
+                private int position = start;
+
+                @Override
+                public boolean hasNext() {
+                    return this.position < end;
+                }
+
+                @Override
+                public M next() {
+                    if (this.position >= end) throw FastNoSuchElementException.instance();
+                    return (M) BufferedInbox.this.messages[this.position++];
+                }
+            };
+        }
+
+        private Iterator<M> spilledMessages(final int ordinal) {
+            final long start = this.runOffsets[ordinal];
+            final long end = this.runOffsets[ordinal + 1];
+            if (start == end) return Collections.emptyIterator();
+            final Kryo kryo = this.spill.kryo();
+            final Input input = this.mappedRun.input(start);
+            final List<M> messages = new ArrayList<>();
+            while (input.total() < end - start) {
+                messages.add((M) kryo.readClassAndObject(input));
+            }
+            return messages.iterator();
+        }
+
+        @Override
+        public void complete() {
+            if (!this.runs.isEmpty()) {
+                for (final Buffer buffer : this.buffers) {
+                    if (buffer.count > 0) this.spill(buffer);
+                }
+                this.buffers.clear();
+                this.merge();
+                return;
+            }
+            final int[] offsets = new int[this.size + 1];
+            int count = 0;
+            for (final Buffer buffer : this.buffers) {
+                for (int i = 0; i < buffer.count; i++) {
+                    offsets[buffer.ordinals[i] + 1]++;
+                }
+                count = count + buffer.count;
+            }
+            for (int i = 0; i < this.size; i++) {
+                offsets[i + 1] = offsets[i + 1] + offsets[i];
+            }
+            final int[] positions = Arrays.copyOf(offsets, this.size);
+            final Object[] messages = new Object[count];
+            for (final Buffer buffer : this.buffers) {
+                for (int i = 0; i < buffer.count; i++) {
+                    messages[positions[buffer.ordinals[i]]++] = buffer.messages[i];
+                }
+            }
+            this.offsets = offsets;
+            this.messages = messages;
+            this.buffers.clear();
+        }
+
+        @Override
+        public void close() {
+            if (null != this.run) {
+                this.mappedRun = null;
+                this.spill.delete(this.run);
+            }
+        }
+
+        /**
+         * Writes the messages of the buffer to a run in the order of the vertices they are sent to, where each message
+         * is preceded by its vertex and its length so that the runs can be merged without reading the messages.
+         */
+        private void spill(final Buffer buffer) {
+            // the ordinal and the position of each message are sorted at once, which keeps the order they were sent in
+            final long[] order = new long[buffer.count];
+            for (int i = 0; i < buffer.count; i++) {
+                order[i] = ((long) buffer.ordinals[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            final File run = this.spill.newRun("messages");
+            final Kryo kryo = this.spill.kryo();
+            final Output message = new Output(1024, -1);
+            try (final Output output = this.spill.write(run)) {
+                for (final long entry : order) {
+                    message.clear();
+                    kryo.writeClassAndObject(message, buffer.messages[(int) entry]);
+                    output.writeInt((int) (entry >>> 32), true);
+                    output.writeInt(message.position(), true);
+                    output.writeBytes(message.getBuffer(), 0, message.position());
+                }
+                output.writeInt(-1, true);
+            }
+            this.runs.add(run);
+            buffer.clear();
+        }
+
+        /**
+         * Merges the runs into a single run where the messages to each vertex are next to each other.
+         */
+        private void merge() {
+            final PriorityQueue<RunReader> readers = new PriorityQueue<>(Comparator.comparingInt((RunReader reader) -> reader.ordinal));
+            for (final File run : this.runs) {
+                final RunReader reader = new RunReader(this.spill.read(run));
+                if (reader.advance()) readers.add(reader);
+                else reader.input.close();
+            }
+            final long[] offsets = new long[this.size + 1];
+            final File merged = this.spill.newRun("messages");
+            int next = 0;
+            try (final Output output = this.spill.write(merged)) {
+                while (!readers.isEmpty()) {
+                    final RunReader reader = readers.poll();
+                    while (next <= reader.ordinal) {
+                        offsets[next++] = output.total();
+                    }
+                    output.writeBytes(reader.input.readBytes(reader.length));
+                    if (reader.advance()) readers.add(reader);
+                    else reader.input.close();
+                }
+                while (next <= this.size) {
+                    offsets[next++] = output.total();
+                }
+            }
+            for (final File run : this.runs) {
+                this.spill.delete(run);
+            }
+            this.runs.clear();
+            this.run = merged;
+            this.mappedRun = this.spill.map(merged);
+            this.runOffsets = offsets;
+        }
+    }
+
+    /**
+     * Reads the vertices and the lengths of the messages of a run, leaving each message to be copied.
+     */
+    private static final class RunReader {
+        private final Input input;
+        private int ordinal;
+        private int length;
+
+        private RunReader(final Input input) {
+            this.input = input;
+        }
+
+        private boolean advance() {
+            this.ordinal = this.input.readInt(true);
+            if (-1 == this.ordinal) return false;
+            this.length = this.input.readInt(true);
+            return true;
+        }
+    }
+
+    /**
+     * The messages sent by one worker in the order that they were sent.
+     */
+    private static final class Buffer {
+        private int[] ordinals = new int[16];
+        private Object[] messages = new Object[16];
+        private int count = 0;
+
+        private void add(final int ordinal, final Object message) {
+            if (this.count == this.ordinals.length) {
+                this.ordinals = Arrays.copyOf(this.ordinals, this.count * 2);
+                this.messages = Arrays.copyOf(this.messages, this.count * 2);
+            }
+            this.ordinals[this.count] = ordinal;
+            this.messages[this.count++] = message;
+        }
+
+        private void clear() {
+            Arrays.fill(this.messages, 0, this.count, null);
+            this.count = 0;
+        }
     }
 }
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoMapper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A temporary directory that a {@link TinkerGraphComputer} writes the messages and map emits to that do not fit in
+ * its {@link TinkerGraphComputer#GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD}. They are written as Gryo to run files
+ * that are each sorted as they are written, so that the runs can be merged back in order when they are read. The
+ * directory is deleted once the computation completes.
+ */
+final class TinkerSpill implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 1 << 30;
+
+    private final File directory;
+    private final long threshold;
+    private final int workers;
+    private final GryoMapper mapper;
+    private final ThreadLocal<Kryo> kryo;
+    private final AtomicInteger runs = new AtomicInteger(0);
+
+    TinkerSpill(final TinkerGraph graph, final File location, final long threshold, final int workers) throws IOException {
+        if (!location.exists() && !location.mkdirs())
+            throw new IOException(String.format("Could not create the directory %s", location));
+        this.directory = Files.createTempDirectory(location.toPath(), "tinker-spill").toFile();
+        this.threshold = threshold;
+        this.workers = workers;
+        this.mapper = graph.io(IoCore.gryo()).mapper().create();
+        this.kryo = ThreadLocal.withInitial(this.mapper::createMapper);
+    }
+
+    /**
+     * Gets the number of messages or map emits that are held in memory before they are spilled.
+     */
+    public long getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * Gets the number of messages that each worker holds in memory before it spills them.
+     */
+    public long getWorkerThreshold() {
+        return Math.max(1, this.threshold / this.workers);
+    }
+
+    /**
+     * Gets the {@code Kryo} of the current thread.
+     */
+    public Kryo kryo() {
+        return this.kryo.get();
+    }
+
+    public Kryo createKryo() {
+        return this.mapper.createMapper();
+    }
+
+    public File newRun(final String name) {
+        return new File(this.directory, String.format("%s.%d.kryo", name, this.runs.getAndIncrement()));
+    }
+
+    public Output write(final File run) {
+        try {
+            return new Output(new FileOutputStream(run), 65536);
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Could not spill to %s", run), ex);
+        }
+    }
+
+    public Input read(final File run) {
+        try {
+            return new Input(new FileInputStream(run), 65536);
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Could not read the spilled run %s", run), ex);
+        }
+    }
+
+    /**
+     * Memory-maps a run so that it can be read from any offset by many workers at once.
+     */
+    public MappedRun map(final File run) {
+        try (final FileChannel channel = FileChannel.open(run.toPath(), StandardOpenOption.READ)) {
+            final long length = channel.size();
+            final ByteBuffer[] chunks = new ByteBuffer[(int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            for (int i = 0; i < chunks.length; i++) {
+                final long position = (long) i * CHUNK_SIZE;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, length - position));
+            }
+            return new MappedRun(chunks, length);
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Could not map the spilled run %s", run), ex);
+        }
+    }
+
+    public void delete(final File run) {
+        try {
+            Files.deleteIfExists(run.toPath());
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Could not delete the spilled run %s", run), ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        final File[] files = this.directory.listFiles();
+        if (null != files) {
+            for (final File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        Files.deleteIfExists(this.directory.toPath());
+    }
+
+    /**
+     * A run that is mapped into memory in chunks, as a run may be larger than a single mapping can be.
+     */
+    static final class MappedRun {
+
+        private final ByteBuffer[] chunks;
+        private final long length;
+
+        private MappedRun(final ByteBuffer[] chunks, final long length) {
+            this.chunks = chunks;
+            this.length = length;
+        }
+
+        public Input input(final long position) {
+            return new Input(new MappedInputStream(position), 4096);
+        }
+
+        /**
+         * Reads the mapped run from an offset, crossing from one mapped chunk to the next as needed.
+         */
+        private final class MappedInputStream extends InputStream {
+
+            private long position;
+
+            private MappedInputStream(final long position) {
+                this.position = position;
+            }
+
+            @Override
+            public int read() {
+                if (this.position >= length)
+                    return -1;
+                final int b = chunks[(int) (this.position / CHUNK_SIZE)].get((int) (this.position % CHUNK_SIZE)) & 0xff;
+                this.position++;
+                return b;
+            }
+
+            @Override
+            public int read(final byte[] bytes, final int offset, final int count) {
+                if (this.position >= length)
+                    return -1;
+                final ByteBuffer chunk = chunks[(int) (this.position / CHUNK_SIZE)].duplicate();
+                chunk.position((int) (this.position % CHUNK_SIZE));
+                final int read = Math.min(count, chunk.remaining());
+                chunk.get(bytes, offset, read);
+                this.position = this.position + read;
+                return read;
+            }
+        }
+    }
+}
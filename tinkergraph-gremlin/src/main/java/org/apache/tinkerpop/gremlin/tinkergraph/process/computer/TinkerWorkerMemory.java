@@ -19,8 +19,11 @@
 
 package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
 
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.computer.Memory;
 import org.apache.tinkerpop.gremlin.process.computer.MemoryComputeKey;
+import org.apache.tinkerpop.gremlin.process.computer.util.MemoryHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -28,18 +31,23 @@ import java.util.Set;
 import java.util.function.BinaryOperator;
 
 /**
+ * The memory of a single worker of a {@link TinkerGraphComputer}, which reduces the values that the worker adds to
+ * each key locally and only adds the result to the {@link TinkerMemory} once the worker completes its iteration, so
+ * that the workers do not contend on the keys that every vertex adds to. The sums, minimums and maximums of
+ * {@code long} and {@code int} values, as well as the conjunctions and disjunctions of {@code boolean} values, are
+ * reduced without boxing them.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public final class TinkerWorkerMemory implements Memory.Admin {
 
     private final TinkerMemory mainMemory;
-    private final Map<String, Object> workerMemory = new HashMap<>();
-    private final Map<String, BinaryOperator<Object>> reducers = new HashMap<>();
+    private final Map<String, Accumulator> accumulators = new HashMap<>();
 
     public TinkerWorkerMemory(final TinkerMemory mainMemory) {
         this.mainMemory = mainMemory;
         for (final MemoryComputeKey key : this.mainMemory.memoryKeys.values()) {
-            this.reducers.put(key.getKey(), key.clone().getReducer());
+            this.accumulators.put(key.getKey(), Accumulator.of(key.clone().getReducer()));
         }
     }
 
@@ -90,9 +98,11 @@ public final class TinkerWorkerMemory implements Memory.Admin {
 
     @Override
     public void add(final String key, final Object value) {
-        this.mainMemory.checkKeyValue(key, value);
-        final Object v = this.workerMemory.get(key);
-        this.workerMemory.put(key, null == v ? value : this.reducers.get(key).apply(v, value));
+        final Accumulator accumulator = this.accumulators.get(key);
+        if (null == accumulator)
+            throw GraphComputer.Exceptions.providedKeyIsNotAMemoryComputeKey(key);
+        MemoryHelper.validateValue(value);
+        accumulator.add(value);
     }
 
     @Override
@@ -101,9 +111,154 @@ public final class TinkerWorkerMemory implements Memory.Admin {
     }
 
     protected void complete() {
-        for (final Map.Entry<String, Object> entry : this.workerMemory.entrySet()) {
-            this.mainMemory.add(entry.getKey(), entry.getValue());
+        for (final Map.Entry<String, Accumulator> entry : this.accumulators.entrySet()) {
+            final Accumulator accumulator = entry.getValue();
+            if (!accumulator.isEmpty()) {
+                this.mainMemory.add(entry.getKey(), accumulator.get());
+                accumulator.clear();
+            }
+        }
+    }
+
+    /**
+     * Reduces the values that are added to a key with the reducer of the key.
+     */
+    private static class Accumulator {
+
+        protected final BinaryOperator<Object> reducer;
+        private Object value = null;
+
+        private Accumulator(final BinaryOperator<Object> reducer) {
+            this.reducer = reducer;
+        }
+
+        private static Accumulator of(final BinaryOperator<Object> reducer) {
+            if (reducer == Operator.sum || reducer == Operator.sumLong || reducer == Operator.min || reducer == Operator.max)
+                return new NumberAccumulator((Operator) reducer);
+            else if (reducer == Operator.and || reducer == Operator.or)
+                return new BooleanAccumulator((Operator) reducer);
+            else
+                return new Accumulator(reducer);
+        }
+
+        public void add(final Object value) {
+            this.value = null == this.value ? value : this.reducer.apply(this.value, value);
+        }
+
+        public boolean isEmpty() {
+            return null == this.value;
+        }
+
+        public Object get() {
+            return this.value;
+        }
+
+        public void clear() {
+            this.value = null;
+        }
+    }
+
+    /**
+     * Reduces {@code long} or {@code int} values as a {@code long} for as long as they are all of the same class, and
+     * any other values with the reducer, which gives the same result as reducing all of them with the reducer would.
+     */
+    private static final class NumberAccumulator extends Accumulator {
+
+        private Class<?> type = null;
+        private long primitive;
+
+        private NumberAccumulator(final Operator operator) {
+            super(operator);
+        }
+
+        @Override
+        public void add(final Object value) {
+            final Class<?> type = value.getClass();
+            if (type == this.type) {
+                final long number = ((Number) value).longValue();
+                if (this.reducer == Operator.min)
+                    this.primitive = Math.min(this.primitive, number);
+                else if (this.reducer == Operator.max)
+                    this.primitive = Math.max(this.primitive, number);
+                else
+                    this.primitive = this.primitive + number;
+            } else if (super.isEmpty() && null == this.type &&
+                    (Long.class == type || (Integer.class == type && this.reducer != Operator.sumLong))) {
+                this.type = type;
+                this.primitive = ((Number) value).longValue();
+            } else {
+                if (null != this.type) {
+                    super.add(this.get());
+                    this.type = null;
+                }
+                super.add(value);
+            }
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return null == this.type && super.isEmpty();
+        }
+
+        @Override
+        public Object get() {
+            // an int sum overflows as it would have as an int, so it is narrowed once at the end
+            if (Integer.class == this.type)
+                return (int) this.primitive;
+            return Long.class == this.type ? (Object) this.primitive : super.get();
+        }
+
+        @Override
+        public void clear() {
+            this.type = null;
+            super.clear();
+        }
+    }
+
+    /**
+     * Reduces {@code boolean} values as a {@code boolean}, and any other values with the reducer.
+     */
+    private static final class BooleanAccumulator extends Accumulator {
+
+        private boolean present = false;
+        private boolean primitive;
+
+        private BooleanAccumulator(final Operator operator) {
+            super(operator);
+        }
+
+        @Override
+        public void add(final Object value) {
+            if (value instanceof Boolean && super.isEmpty()) {
+                final boolean bool = (Boolean) value;
+                if (!this.present) {
+                    this.present = true;
+                    this.primitive = bool;
+                } else
+                    this.primitive = this.reducer == Operator.and ? this.primitive && bool : this.primitive || bool;
+            } else {
+                if (this.present) {
+                    super.add(this.primitive);
+                    this.present = false;
+                }
+                super.add(value);
+            }
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !this.present && super.isEmpty();
+        }
+
+        @Override
+        public Object get() {
+            return this.present ? (Object) this.primitive : super.get();
+        }
+
+        @Override
+        public void clear() {
+            this.present = false;
+            super.clear();
         }
-        this.workerMemory.clear();
     }
 }
@@ -26,20 +26,31 @@ import org.apache.tinkerpop.gremlin.process.computer.util.VertexProgramPool;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 import org.apache.tinkerpop.gremlin.util.function.TriConsumer;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
+ * Runs the workers of a {@link TinkerGraphComputer}. The vertices of the graph are split into chunks of about the
+ * same number of vertices and edges, so that a vertex with many edges makes up a chunk of its own, and the workers
+ * take the chunks from a shared cursor, the largest first, until there are none left in the iteration. A worker that
+ * is given cheap chunks thus takes more of them rather than waiting for a worker that was given expensive ones.
+ * When only some of the vertices are to be executed in an iteration, only those are chunked in the same way.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  * @author Stephen Mallette (http://stephen.genoprime.com)
  */
@@ -47,6 +58,12 @@ public final class TinkerWorkerPool implements AutoCloseable {
 
     private static final BasicThreadFactory THREAD_FACTORY_WORKER = new BasicThreadFactory.Builder().namingPattern("tinker-worker-%d").build();
 
+    /**
+     * The number of chunks to split the vertices into for each worker, which is enough for the workers to even out
+     * while each chunk is still large enough that taking it from the cursor costs little.
+     */
+    private static final int CHUNKS_PER_WORKER = 16;
+
     private final int numberOfWorkers;
     private final ExecutorService workerPool;
     private final CompletionService<Object> completionService;
@@ -54,7 +71,8 @@ public final class TinkerWorkerPool implements AutoCloseable {
     private VertexProgramPool vertexProgramPool;
     private MapReducePool mapReducePool;
     private final Queue<TinkerWorkerMemory> workerMemoryPool = new ConcurrentLinkedQueue<>();
-    private final List<List<Vertex>> workerVertices = new ArrayList<>();
+    private final Vertex[] vertices;
+    private final int[][] chunks;
 
     public TinkerWorkerPool(final TinkerGraph graph, final TinkerMemory memory, final int numberOfWorkers) {
         this.numberOfWorkers = numberOfWorkers;
@@ -62,26 +80,9 @@ public final class TinkerWorkerPool implements AutoCloseable {
         this.completionService = new ExecutorCompletionService<>(this.workerPool);
         for (int i = 0; i < this.numberOfWorkers; i++) {
             this.workerMemoryPool.add(new TinkerWorkerMemory(memory));
-            this.workerVertices.add(new ArrayList<>());
-        }
-        int batchSize = TinkerHelper.getVertices(graph).size() / this.numberOfWorkers;
-        if (0 == batchSize)
-            batchSize = 1;
-        int counter = 0;
-        int index = 0;
-
-        List<Vertex> currentWorkerVertices = this.workerVertices.get(index);
-        final Iterator<Vertex> iterator = graph.vertices();
-        while (iterator.hasNext()) {
-            final Vertex vertex = iterator.next();
-            if (counter++ < batchSize || index == this.workerVertices.size() - 1) {
-                currentWorkerVertices.add(vertex);
-            } else {
-                currentWorkerVertices = this.workerVertices.get(++index);
-                currentWorkerVertices.add(vertex);
-                counter = 1;
-            }
         }
+        this.vertices = TinkerHelper.getGraphComputerView(graph).getVertices();
+        this.chunks = chunk(this.vertices, this.numberOfWorkers * CHUNKS_PER_WORKER);
     }
 
     public void setVertexProgram(final VertexProgram vertexProgram) {
@@ -93,13 +94,23 @@ public final class TinkerWorkerPool implements AutoCloseable {
     }
 
     public void executeVertexProgram(final TriConsumer<Iterator<Vertex>, VertexProgram, TinkerWorkerMemory> worker) throws InterruptedException {
+        this.executeVertexProgram(this.vertices, this.chunks, worker);
+    }
+
+    /**
+     * Executes the vertex program on only the given vertices of the graph.
+     */
+    public void executeVertexProgram(final Vertex[] vertices, final TriConsumer<Iterator<Vertex>, VertexProgram, TinkerWorkerMemory> worker) throws InterruptedException {
+        this.executeVertexProgram(vertices, chunk(vertices, this.numberOfWorkers * CHUNKS_PER_WORKER), worker);
+    }
+
+    private void executeVertexProgram(final Vertex[] vertices, final int[][] chunks, final TriConsumer<Iterator<Vertex>, VertexProgram, TinkerWorkerMemory> worker) throws InterruptedException {
+        final AtomicInteger cursor = new AtomicInteger(0);
         for (int i = 0; i < this.numberOfWorkers; i++) {
-            final int index = i;
             this.completionService.submit(() -> {
                 final VertexProgram vp = this.vertexProgramPool.take();
                 final TinkerWorkerMemory workerMemory = this.workerMemoryPool.poll();
-                final List<Vertex> vertices = this.workerVertices.get(index);
-                worker.accept(vertices.iterator(), vp, workerMemory);
+                worker.accept(new ChunkIterator(vertices, chunks, cursor), vp, workerMemory);
                 this.vertexProgramPool.offer(vp);
                 this.workerMemoryPool.offer(workerMemory);
                 return null;
@@ -116,6 +127,14 @@ public final class TinkerWorkerPool implements AutoCloseable {
         }
     }
 
+    /**
+     * Maps the vertices of the graph, with each worker taking chunks of them as it goes.
+     */
+    public void executeMapReduce(final BiConsumer<Iterator<Vertex>, MapReduce> worker) throws InterruptedException {
+        final AtomicInteger cursor = new AtomicInteger(0);
+        this.executeMapReduce(mr -> worker.accept(new ChunkIterator(this.vertices, this.chunks, cursor), mr));
+    }
+
     public void executeMapReduce(final Consumer<MapReduce> worker) throws InterruptedException {
         for (int i = 0; i < this.numberOfWorkers; i++) {
             this.completionService.submit(() -> {
@@ -136,6 +155,66 @@ public final class TinkerWorkerPool implements AutoCloseable {
         }
     }
 
+    /**
+     * Splits the vertices into ranges of the array that each hold about the same number of vertices and edges, and
+     * orders the ranges from the largest to the smallest.
+     */
+    private static int[][] chunk(final Vertex[] vertices, final int count) {
+        final long[] weights = new long[vertices.length];
+        long total = 0;
+        for (int i = 0; i < vertices.length; i++) {
+            weights[i] = 1 + TinkerHelper.getDegree((TinkerVertex) vertices[i]);
+            total = total + weights[i];
+        }
+        final long target = Math.max(1, total / count);
+        final List<long[]> chunks = new ArrayList<>(count + 1);
+        int start = 0;
+        long weight = 0;
+        for (int i = 0; i < vertices.length; i++) {
+            weight = weight + weights[i];
+            if (weight >= target || i == vertices.length - 1) {
+                chunks.add(new long[]{start, i + 1, weight});
+                start = i + 1;
+                weight = 0;
+            }
+        }
+        chunks.sort(Comparator.comparingLong((long[] chunk) -> chunk[2]).reversed());
+        return chunks.stream().map(chunk -> new int[]{(int) chunk[0], (int) chunk[1]}).toArray(int[][]::new);
+    }
+
+    /**
+     * Iterates the vertices of the chunks that it takes from the cursor one after another.
+     */
+    private static final class ChunkIterator implements Iterator<Vertex> {
+        private final Vertex[] vertices;
+        private final int[][] chunks;
+        private final AtomicInteger cursor;
+        private int position = 0;
+        private int end = 0;
+
+        private ChunkIterator(final Vertex[] vertices, final int[][] chunks, final AtomicInteger cursor) {
+            this.vertices = vertices;
+            this.chunks = chunks;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.position < this.end) return true;
+            final int chunk = this.cursor.getAndIncrement();
+            if (chunk >= this.chunks.length) return false;
+            this.position = this.chunks[chunk][0];
+            this.end = this.chunks[chunk][1];
+            return true;
+        }
+
+        @Override
+        public Vertex next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            return this.vertices[this.position++];
+        }
+    }
+
     public void closeNow() throws Exception {
         this.workerPool.shutdownNow();
     }
@@ -29,8 +29,11 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
+import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -38,11 +41,20 @@ import java.util.NoSuchElementException;
 public final class TinkerCountGlobalStep<S extends Element> extends AbstractStep<S, Long> {
 
     private final Class<S> elementClass;
+    private final Set<String> labels;
     private boolean done = false;
 
     public TinkerCountGlobalStep(final Traversal.Admin traversal, final Class<S> elementClass) {
+        this(traversal, elementClass, null);
+    }
+
+    /**
+     * Counts only the elements with any of the labels, unless {@code labels} is {@code null}.
+     */
+    public TinkerCountGlobalStep(final Traversal.Admin traversal, final Class<S> elementClass, final Set<String> labels) {
         super(traversal);
         this.elementClass = elementClass;
+        this.labels = labels;
     }
 
     @Override
@@ -50,22 +62,35 @@ public final class TinkerCountGlobalStep<S extends Element> extends AbstractStep
         if (!this.done) {
             this.done = true;
             final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-            return this.getTraversal().getTraverserGenerator().generate(Vertex.class.isAssignableFrom(this.elementClass) ?
-                            (long) TinkerHelper.getVertices(graph).size() :
-                            (long) TinkerHelper.getEdges(graph).size(),
-                    (Step) this, 1L);
+            final long count;
+            if (TinkerHelper.hasUncommittedChanges(graph) || (null == this.labels && graph.features().graph().supportsTransactions())) {
+                // the label index and the size of the graph include changes that the calling thread should not see
+                final Iterator<Element> elements = Vertex.class.isAssignableFrom(this.elementClass) ? (Iterator) graph.vertices() : (Iterator) graph.edges();
+                count = IteratorUtils.count(null == this.labels ? elements : IteratorUtils.filter(elements, e -> this.labels.contains(e.label())));
+            } else if (null != this.labels)
+                count = TinkerHelper.countLabelIndex(graph, this.elementClass, this.labels);
+            else
+                count = Vertex.class.isAssignableFrom(this.elementClass) ?
+                        (long) TinkerHelper.getVertices(graph).size() :
+                        (long) TinkerHelper.getEdges(graph).size();
+            return this.getTraversal().getTraverserGenerator().generate(count, (Step) this, 1L);
         } else
             throw FastNoSuchElementException.instance();
     }
 
     @Override
     public String toString() {
-        return StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase());
+        return null == this.labels ?
+                StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase()) :
+                StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase(), this.labels);
     }
 
     @Override
     public int hashCode() {
-        return super.hashCode() ^ this.elementClass.hashCode();
+        int result = super.hashCode() ^ this.elementClass.hashCode();
+        if (null != this.labels)
+            result = result ^ this.labels.hashCode();
+        return result;
     }
 
     @Override
@@ -19,6 +19,7 @@
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
@@ -26,18 +27,26 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.javatuples.Pair;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
 
 /**
@@ -47,6 +56,9 @@ import java.util.stream.Collectors;
 public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E> implements HasContainerHolder {
 
     private final List<HasContainer> hasContainers = new ArrayList<>();
+    private String orderKey = null;
+    private boolean orderDescending = false;
+    private long orderLimit = Long.MAX_VALUE;
 
     public TinkerGraphStep(final GraphStep<S, E> originalGraphStep) {
         super(originalGraphStep.getTraversal(), originalGraphStep.getReturnClass(), originalGraphStep.isStartStep(), originalGraphStep.getIds());
@@ -61,42 +73,220 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
 
     private Iterator<? extends Edge> edges() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-        final HasContainer indexedContainer = getIndexKey(Edge.class);
         // ids are present, filter on them first
         if (null == this.ids)
             return Collections.emptyIterator();
         else if (this.ids.length > 0)
             return this.iteratorList(graph.edges(this.ids));
-        else
-            return null == indexedContainer ?
-                    this.iteratorList(graph.edges()) :
-                    TinkerHelper.queryEdgeIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).stream()
-                            .filter(edge -> HasContainer.testAll(edge, this.hasContainers))
-                            .collect(Collectors.<Edge>toList()).iterator();
+        else if (TinkerHelper.hasUncommittedChanges(graph))
+            return this.iteratorList(graph.edges());
+        final boolean ordered = this.isOrderIndexed(Edge.class) &&
+                this.isOrderComplete(TinkerHelper.countEdgeIndex(graph, this.orderKey), TinkerHelper.getEdges(graph).size());
+        final List<Edge> indexed = this.lookupIndices(graph, Edge.class, !ordered);
+        if (null != indexed)
+            return indexed.stream()
+                    .filter(edge -> HasContainer.testAll(edge, this.hasContainers))
+                    .collect(Collectors.<Edge>toList()).iterator();
+        else if (ordered) {
+            final Range range = this.getRange(this.orderKey);
+            return this.iteratorLimit(TinkerHelper.sortedEdgeIndex(graph, this.orderKey, range.from, range.fromInclusive, range.to, range.toInclusive, this.orderDescending));
+        } else {
+            final String rangeKey = getRangeIndexKey(Edge.class);
+            if (null == rangeKey)
+                return this.iteratorList(graph.edges());
+            final Range range = this.getRange(rangeKey);
+            return this.iteratorList(TinkerHelper.queryEdgeIndex(graph, rangeKey, range.from, range.fromInclusive, range.to, range.toInclusive).iterator());
+        }
     }
 
     private Iterator<? extends Vertex> vertices() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-        final HasContainer indexedContainer = getIndexKey(Vertex.class);
         // ids are present, filter on them first
         if (null == this.ids)
             return Collections.emptyIterator();
         else if (this.ids.length > 0)
             return this.iteratorList(graph.vertices(this.ids));
+        else if (TinkerHelper.hasUncommittedChanges(graph))
+            return this.iteratorList(graph.vertices());
+        final boolean ordered = this.isOrderIndexed(Vertex.class) &&
+                this.isOrderComplete(TinkerHelper.countVertexIndex(graph, this.orderKey), TinkerHelper.getVertices(graph).size());
+        final List<Vertex> indexed = this.lookupIndices(graph, Vertex.class, !ordered);
+        if (null != indexed)
+            return IteratorUtils.filter(indexed.iterator(), vertex -> HasContainer.testAll(vertex, this.hasContainers));
+        else if (ordered) {
+            final Range range = this.getRange(this.orderKey);
+            return this.iteratorLimit(TinkerHelper.sortedVertexIndex(graph, this.orderKey, range.from, range.fromInclusive, range.to, range.toInclusive, this.orderDescending));
+        } else {
+            final String rangeKey = getRangeIndexKey(Vertex.class);
+            if (null == rangeKey)
+                return this.iteratorList(graph.vertices());
+            final Range range = this.getRange(rangeKey);
+            return this.iteratorList(TinkerHelper.queryVertexIndex(graph, rangeKey, range.from, range.fromInclusive, range.to, range.toInclusive).iterator());
+        }
+    }
+
+    /**
+     * Plans a lookup of the elements that satisfy the equality predicates on indexed keys. The number of elements
+     * for each key/value pair is known by the indices, so the lookup either uses the composite index with the fewest
+     * elements for its tuple or, if a single key index has no more elements than that, intersects all of the single
+     * key lookups starting from the one with the fewest elements. The label index is used instead if it has fewer
+     * elements for the labels than either of those.
+     *
+     * @return the candidate elements or {@code null} if no index applies
+     */
+    private <E extends Element> List<E> lookupIndices(final TinkerGraph graph, final Class<E> indexedClass, final boolean useLabels) {
+        final Set<String> indexedKeys = graph.getIndexedKeys(indexedClass);
+        final List<Pair<HasContainer, Long>> single = new ArrayList<>();
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (hasContainer.getBiPredicate() == Compare.eq && indexedKeys.contains(hasContainer.getKey()))
+                single.add(Pair.with(hasContainer, TinkerHelper.countIndex(graph, indexedClass, hasContainer.getKey(), hasContainer.getValue())));
+        }
+        single.sort(Comparator.comparing(Pair::getValue1));
+
+        List<String> compositeKeys = null;
+        List<Object> compositeValues = null;
+        long compositeCount = Long.MAX_VALUE;
+        for (final List<String> keys : graph.getCompositeIndexedKeys(indexedClass)) {
+            final List<Object> values = this.getEqualityValues(keys);
+            if (null == values) continue;
+            final long count = TinkerHelper.countCompositeIndex(graph, indexedClass, keys, values);
+            if (count < compositeCount) {
+                compositeKeys = keys;
+                compositeValues = values;
+                compositeCount = count;
+            }
+        }
+
+        final Set<String> labels = useLabels ? getLabelValues(this.hasContainers, false) : null;
+        if (null != labels && labels.isEmpty())
+            return Collections.emptyList();
+        else if (null != labels && TinkerHelper.countLabelIndex(graph, indexedClass, labels) <
+                Math.min(compositeCount, single.isEmpty() ? Long.MAX_VALUE : single.get(0).getValue1()))
+            return TinkerHelper.queryLabelIndex(graph, indexedClass, labels);
+        else if (null != compositeKeys && (single.isEmpty() || compositeCount <= single.get(0).getValue1()))
+            return TinkerHelper.queryCompositeIndex(graph, indexedClass, compositeKeys, compositeValues);
+        else if (single.isEmpty())
+            return null;
+        else if (single.size() == 1)
+            return (List<E>) (Vertex.class.isAssignableFrom(indexedClass) ?
+                    TinkerHelper.queryVertexIndex(graph, single.get(0).getValue0().getKey(), single.get(0).getValue0().getValue()) :
+                    TinkerHelper.queryEdgeIndex(graph, single.get(0).getValue0().getKey(), single.get(0).getValue0().getValue()));
         else
-            return null == indexedContainer ?
-                    this.iteratorList(graph.vertices()) :
-                    IteratorUtils.filter(TinkerHelper.queryVertexIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).iterator(),
-                            vertex -> HasContainer.testAll(vertex, this.hasContainers));
+            return TinkerHelper.queryIndex(graph, indexedClass,
+                    single.stream().map(p -> p.getValue0().getKey()).collect(Collectors.toList()),
+                    single.stream().map(p -> p.getValue0().getValue()).collect(Collectors.toList()));
     }
 
-    private HasContainer getIndexKey(final Class<? extends Element> indexedClass) {
-        final Set<String> indexedKeys = ((TinkerGraph) this.getTraversal().getGraph().get()).getIndexedKeys(indexedClass);
+    /**
+     * Gets the labels allowed by all the {@code eq()} and {@code within()} predicates on the label, which is an empty
+     * set if no label could pass them all, or {@code null} if there are no such predicates. Predicates of any other
+     * kind are ignored unless {@code strict} is set, in which case {@code null} is returned for them.
+     */
+    public static Set<String> getLabelValues(final List<HasContainer> hasContainers, final boolean strict) {
+        Set<String> labels = null;
+        for (final HasContainer hasContainer : hasContainers) {
+            if (!hasContainer.getKey().equals(T.label.getAccessor())) {
+                if (strict) return null;
+                continue;
+            }
+            final Set<String> allowed = new HashSet<>();
+            if (hasContainer.getBiPredicate() == Compare.eq && hasContainer.getValue() instanceof String)
+                allowed.add((String) hasContainer.getValue());
+            else if (hasContainer.getBiPredicate() == Contains.within && hasContainer.getValue() instanceof Collection) {
+                for (final Object label : (Collection<?>) hasContainer.getValue()) {
+                    if (label instanceof String)
+                        allowed.add((String) label);
+                }
+            } else if (strict)
+                return null;
+            else
+                continue;
+            if (null == labels)
+                labels = allowed;
+            else
+                labels.retainAll(allowed);
+        }
+        return labels;
+    }
 
-        final Iterator<HasContainer> itty = IteratorUtils.filter(hasContainers.iterator(),
-                c -> c.getPredicate().getBiPredicate() == Compare.eq && indexedKeys.contains(c.getKey()));
-        return itty.hasNext() ? itty.next() : null;
+    /**
+     * Gets the value of the first equality predicate on each of the keys or {@code null} if a key has none.
+     */
+    private List<Object> getEqualityValues(final List<String> keys) {
+        final List<Object> values = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            final Optional<HasContainer> hasContainer = this.hasContainers.stream()
+                    .filter(c -> c.getBiPredicate() == Compare.eq && c.getKey().equals(key))
+                    .findFirst();
+            if (!hasContainer.isPresent()) return null;
+            values.add(hasContainer.get().getValue());
+        }
+        return values;
+    }
 
+    /**
+     * Gets the first key with a {@link TinkerGraph.IndexType#SORTED} index that has a range predicate on it.
+     */
+    private String getRangeIndexKey(final Class<? extends Element> indexedClass) {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (isRangePredicate(hasContainer) && graph.getIndexType(hasContainer.getKey(), indexedClass) == TinkerGraph.IndexType.SORTED)
+                return hasContainer.getKey();
+        }
+        return null;
+    }
+
+    /**
+     * Folds all the range predicates on the key into the narrowest bounds. A {@code between()} or {@code inside()}
+     * arrives here as two containers as {@link AndP} is split in {@link #addHasContainer(HasContainer)}.
+     */
+    private Range getRange(final String key) {
+        final Range range = new Range();
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (!isRangePredicate(hasContainer) || !hasContainer.getKey().equals(key))
+                continue;
+            final Object value = hasContainer.getValue();
+            final BiPredicate<?, ?> biPredicate = hasContainer.getBiPredicate();
+            final boolean inclusive = biPredicate == Compare.gte || biPredicate == Compare.lte;
+            if (biPredicate == Compare.gt || biPredicate == Compare.gte) {
+                final int c = null == range.from ? 1 : TinkerHelper.compareIndexValues(value, range.from);
+                if (c > 0 || (c == 0 && !inclusive)) {
+                    range.from = value;
+                    range.fromInclusive = inclusive;
+                }
+            } else {
+                final int c = null == range.to ? -1 : TinkerHelper.compareIndexValues(value, range.to);
+                if (c < 0 || (c == 0 && !inclusive)) {
+                    range.to = value;
+                    range.toInclusive = inclusive;
+                }
+            }
+        }
+        return range;
+    }
+
+    private static boolean isRangePredicate(final HasContainer hasContainer) {
+        final BiPredicate<?, ?> biPredicate = hasContainer.getBiPredicate();
+        return (biPredicate == Compare.gt || biPredicate == Compare.gte || biPredicate == Compare.lt || biPredicate == Compare.lte)
+                && null != hasContainer.getValue();
+    }
+
+    private boolean isOrderIndexed(final Class<? extends Element> indexedClass) {
+        return null != this.orderKey &&
+                ((TinkerGraph) this.getTraversal().getGraph().get()).getIndexType(this.orderKey, indexedClass) == TinkerGraph.IndexType.SORTED;
+    }
+
+    /**
+     * Elements without a value for the order key would have caused the downstream {@code order()} to fail, so the
+     * index may only stand in for a full scan if they are filtered by a predicate on that key or if every element is
+     * in the index.
+     */
+    private boolean isOrderComplete(final long indexed, final long total) {
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (hasContainer.getKey().equals(this.orderKey))
+                return true;
+        }
+        return indexed >= total;
     }
 
     @Override
@@ -109,6 +299,20 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
                     StringFactory.stepString(this, this.returnClass.getSimpleName().toLowerCase(), Arrays.toString(this.ids), this.hasContainers);
     }
 
+    /**
+     * Takes elements that pass the {@link HasContainer}s from an iterator that is in the order of the following
+     * {@code order()} until there are as many as the following {@code range()} could keep.
+     */
+    private <E extends Element> Iterator<E> iteratorLimit(final Iterator<E> iterator) {
+        final Set<E> set = new LinkedHashSet<>();
+        while (iterator.hasNext() && set.size() < this.orderLimit) {
+            final E e = iterator.next();
+            if (HasContainer.testAll(e, this.hasContainers))
+                set.add(e);
+        }
+        return set.iterator();
+    }
+
     private <E extends Element> Iterator<E> iteratorList(final Iterator<E> iterator) {
         final List<E> list = new ArrayList<>();
         while (iterator.hasNext()) {
@@ -134,8 +338,29 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
             this.hasContainers.add(hasContainer);
     }
 
+    /**
+     * Informs this step that it is followed by an {@code order().by(key)} and a {@code range()} that keeps at most
+     * {@code limit} elements so that it may produce fewer elements when the key has a
+     * {@link TinkerGraph.IndexType#SORTED} index. The following steps still sort and limit what is produced.
+     */
+    public void setOrderLimit(final String orderKey, final boolean orderDescending, final long orderLimit) {
+        this.orderKey = orderKey;
+        this.orderDescending = orderDescending;
+        this.orderLimit = orderLimit;
+    }
+
     @Override
     public int hashCode() {
-        return super.hashCode() ^ this.hasContainers.hashCode();
+        int result = super.hashCode() ^ this.hasContainers.hashCode();
+        if (null != this.orderKey)
+            result = result ^ this.orderKey.hashCode() ^ Boolean.hashCode(this.orderDescending) ^ Long.hashCode(this.orderLimit);
+        return result;
+    }
+
+    private static final class Range {
+        private Object from = null;
+        private boolean fromInclusive = false;
+        private Object to = null;
+        private boolean toInclusive = false;
     }
 }
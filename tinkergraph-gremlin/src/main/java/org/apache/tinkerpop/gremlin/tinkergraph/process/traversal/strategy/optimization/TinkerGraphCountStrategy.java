@@ -23,6 +23,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.MapStep;
@@ -36,6 +37,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversal
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
 
 import java.util.Collections;
 import java.util.List;
@@ -43,13 +45,15 @@ import java.util.Set;
 
 /**
  * This strategy will do a direct {@link org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper#getVertices}
- * size call if the traversal is a count of the vertices and edges of the graph or a one-to-one map chain thereof.
+ * size call if the traversal is a count of the vertices and edges of the graph or a one-to-one map chain thereof. A
+ * count of the elements with some labels is answered by the label index in the same way.
  *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  * @example <pre>
  * g.V().count()               // is replaced by TinkerCountGlobalStep
  * g.V().map(out()).count()    // is replaced by TinkerCountGlobalStep
  * g.E().label().count()       // is replaced by TinkerCountGlobalStep
+ * g.V().hasLabel('person').count() // is replaced by TinkerCountGlobalStep
  * </pre>
  */
 public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
@@ -69,7 +73,19 @@ public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<Tr
                 0 != ((GraphStep) steps.get(0)).getIds().length ||
                 !(steps.get(steps.size() - 1) instanceof CountGlobalStep))
             return;
-        for (int i = 1; i < steps.size() - 1; i++) {
+        // label filters directly on the graph step can be answered by the label index
+        Set<String> labels = null;
+        int start = 1;
+        for (; start < steps.size() - 1 && steps.get(start) instanceof HasStep; start++) {
+            final Set<String> allowed = TinkerGraphStep.getLabelValues(((HasStep<?>) steps.get(start)).getHasContainers(), true);
+            if (null == allowed)
+                return;
+            if (null == labels)
+                labels = allowed;
+            else
+                labels.retainAll(allowed);
+        }
+        for (int i = start; i < steps.size() - 1; i++) {
             final Step current = steps.get(i);
             if (!(current instanceof MapStep ||
                     current instanceof IdentityStep ||
@@ -81,7 +97,7 @@ public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<Tr
         }
         final Class<? extends Element> elementClass = ((GraphStep<?, ?>) steps.get(0)).getReturnClass();
         TraversalHelper.removeAllSteps(traversal);
-        traversal.addStep(new TinkerCountGlobalStep<>(traversal, elementClass));
+        traversal.addStep(new TinkerCountGlobalStep<>(traversal, elementClass, labels));
     }
 
     @Override
@@ -18,17 +18,25 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.javatuples.Pair;
+
+import java.util.Comparator;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -60,9 +68,26 @@ public final class TinkerGraphStepStrategy extends AbstractTraversalStrategy<Tra
                 }
                 currentStep = currentStep.getNextStep();
             }
+            if (currentStep instanceof OrderGlobalStep && currentStep.getNextStep() instanceof RangeGlobalStep)
+                applyOrderLimit(tinkerGraphStep, (OrderGlobalStep<?, ?>) currentStep, (RangeGlobalStep<?>) currentStep.getNextStep());
         }
     }
 
+    /**
+     * If the graph step is followed by {@code order().by(key)} and then a {@code range()}, the graph step may be able
+     * to use a {@link TinkerGraph.IndexType#SORTED} index to produce only as many elements as the range keeps.
+     */
+    private static void applyOrderLimit(final TinkerGraphStep<?, ?> tinkerGraphStep, final OrderGlobalStep<?, ?> orderGlobalStep,
+                                        final RangeGlobalStep<?> rangeGlobalStep) {
+        if (orderGlobalStep.getComparators().size() != 1 || rangeGlobalStep.getHighRange() == -1)
+            return;
+        final Pair<? extends Traversal.Admin<?, ?>, ? extends Comparator<?>> comparator = orderGlobalStep.getComparators().get(0);
+        if (comparator.getValue0() instanceof ElementValueTraversal &&
+                (comparator.getValue1() == Order.incr || comparator.getValue1() == Order.decr))
+            tinkerGraphStep.setOrderLimit(((ElementValueTraversal<?>) comparator.getValue0()).getPropertyKey(),
+                    comparator.getValue1() == Order.decr, rangeGlobalStep.getHighRange());
+    }
+
     public static TinkerGraphStepStrategy instance() {
         return INSTANCE;
     }
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The edges of a single {@link TinkerVertex} in one direction, used when the graph is configured with
+ * {@link TinkerGraph#GREMLIN_TINKERGRAPH_ADJACENCY} as {@code compact}.  Edges are grouped by the interned identifier
+ * of their label (see {@link TinkerDictionary}) into growable arrays, so that there is no per-edge entry object as
+ * there is with the {@code Set} used by the default adjacency.  Removal is linear in the number of edges with the
+ * same label, and only copies the edges with that label if an iterator has read them.
+ */
+final class TinkerAdjacency {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private int[] labelIds = new int[1];
+    private Edge[][] edges = new Edge[1][];
+    // the edges with the label of a slot are those of its array from its start for its size
+    private int[] starts = new int[1];
+    private int[] sizes = new int[1];
+    // whether an iterator may be reading the array of a slot, in which case the array is copied before it is shifted
+    private boolean[] shared = new boolean[1];
+    private int labelCount = 0;
+
+    public void add(final int labelId, final Edge edge) {
+        int slot = this.slot(labelId);
+        if (-1 == slot) {
+            if (this.labelCount == this.labelIds.length) {
+                final int capacity = this.labelCount << 1;
+                this.labelIds = Arrays.copyOf(this.labelIds, capacity);
+                this.edges = Arrays.copyOf(this.edges, capacity);
+                this.starts = Arrays.copyOf(this.starts, capacity);
+                this.sizes = Arrays.copyOf(this.sizes, capacity);
+                this.shared = Arrays.copyOf(this.shared, capacity);
+            }
+            slot = this.labelCount++;
+            this.labelIds[slot] = labelId;
+            this.edges[slot] = new Edge[INITIAL_CAPACITY];
+        }
+        Edge[] labelEdges = this.edges[slot];
+        final int start = this.starts[slot];
+        final int size = this.sizes[slot];
+        // an edge is only ever added past the edges that an iterator has read, so a shared array may be appended to
+        if (start + size == labelEdges.length) {
+            final Edge[] grown = new Edge[size + (size >> 1) + 1];
+            System.arraycopy(labelEdges, start, grown, 0, size);
+            this.edges[slot] = labelEdges = grown;
+            this.starts[slot] = 0;
+            this.shared[slot] = false;
+        }
+        labelEdges[this.starts[slot] + size] = edge;
+        this.sizes[slot] = size + 1;
+    }
+
+    public boolean remove(final int labelId, final Edge edge) {
+        final int slot = this.slot(labelId);
+        if (-1 == slot) return false;
+        Edge[] labelEdges = this.edges[slot];
+        final int start = this.starts[slot];
+        final int end = start + this.sizes[slot];
+        for (int i = start; i < end; i++) {
+            if (labelEdges[i] == edge) {
+                if (this.shared[slot]) {
+                    // the iterators keep reading the old array, and later removals shift the new one in place
+                    final Edge[] copy = new Edge[labelEdges.length];
+                    System.arraycopy(labelEdges, start, copy, start, end - start);
+                    this.edges[slot] = labelEdges = copy;
+                    this.shared[slot] = false;
+                }
+                // the shorter side of the removed edge is shifted so that removing the edges in order is linear
+                if (i - start < end - i - 1) {
+                    System.arraycopy(labelEdges, start, labelEdges, start + 1, i - start);
+                    labelEdges[start] = null;
+                    this.starts[slot] = start + 1;
+                } else {
+                    System.arraycopy(labelEdges, i + 1, labelEdges, i, end - i - 1);
+                    labelEdges[end - 1] = null;
+                }
+                this.sizes[slot] = end - start - 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Iterates the edges with the given label identifiers, or all edges if none are given.  The edges of a label are
+     * read as they are when the iterator reaches them so no copy of the edges is made.
+     */
+    public Iterator<Edge> iterator(final int... labelIds) {
+        return new AdjacencyIterator(labelIds);
+    }
+
+    /**
+     * Creates an adjacency with the same edges that can be changed independently of this one.
+     */
+    public TinkerAdjacency copy() {
+        final TinkerAdjacency copy = new TinkerAdjacency();
+        copy.labelIds = this.labelIds.clone();
+        copy.edges = new Edge[this.edges.length][];
+        for (int slot = 0; slot < this.labelCount; slot++) {
+            copy.edges[slot] = this.edges[slot].clone();
+        }
+        copy.starts = this.starts.clone();
+        copy.sizes = this.sizes.clone();
+        copy.shared = new boolean[this.shared.length];
+        copy.labelCount = this.labelCount;
+        return copy;
+    }
+
+    public int size() {
+        int size = 0;
+        for (int slot = 0; slot < this.labelCount; slot++) {
+            size = size + this.sizes[slot];
+        }
+        return size;
+    }
+
+    private int slot(final int labelId) {
+        for (int slot = 0; slot < this.labelCount; slot++) {
+            if (this.labelIds[slot] == labelId)
+                return slot;
+        }
+        return -1;
+    }
+
+    private final class AdjacencyIterator implements Iterator<Edge> {
+
+        private final int[] filter;
+
+        private int slot = -1;
+        private Edge[] current;
+        private int index = 0;
+        private int end = 0;
+
+        private AdjacencyIterator(final int[] filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.index >= this.end) {
+                if (!this.advance()) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Edge next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            return this.current[this.index++];
+        }
+
+        private boolean advance() {
+            final TinkerAdjacency adjacency = TinkerAdjacency.this;
+            while (++this.slot < adjacency.labelCount) {
+                if (this.accepts(adjacency.labelIds[this.slot])) {
+                    adjacency.shared[this.slot] = true;
+                    this.current = adjacency.edges[this.slot];
+                    this.index = adjacency.starts[this.slot];
+                    this.end = this.index + adjacency.sizes[this.slot];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean accepts(final int labelId) {
+            if (this.filter.length == 0) return true;
+            for (final int id : this.filter) {
+                if (id == labelId) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,561 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.io.GraphReader;
+import org.apache.tinkerpop.gremlin.structure.util.Attachable;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads vertices and edges into a {@link TinkerGraph} in far less time than {@link TinkerGraph#addVertex(Object...)}
+ * and {@link Vertex#addEdge(String, Vertex, Object...)} take for them one at a time. Elements are given as columnar
+ * batches, or read from a {@link GraphReader}, and are created by a pool of worker threads. The maps of the graph are
+ * sized for the expected number of elements up front and the indices are only brought up to date with the loaded
+ * elements when the loader is closed, in one parallel pass rather than one element and key at a time.
+ * <p/>
+ * The loader is meant to be used by a single thread while nothing else changes the graph, and the loaded elements are
+ * not found through the indices until {@link #close()} is called. It cannot be used with a graph that has
+ * transactions. With the "log" {@link TinkerGraph#GREMLIN_TINKERGRAPH_GRAPH_FORMAT}, the loaded elements are
+ * persisted by writing a snapshot of the graph on close rather than by appending each of them to the log.
+ */
+public final class TinkerBulkLoader implements AutoCloseable {
+
+    private static final BasicThreadFactory THREAD_FACTORY_WORKER = new BasicThreadFactory.Builder().namingPattern("tinker-loader-%d").build();
+
+    private final TinkerGraph graph;
+    private final int workers;
+    private final int batchSize;
+    private final ExecutorService workerPool;
+
+    // the loaded elements that are to be indexed on close
+    private final List<TinkerVertex[]> loadedVertices = new ArrayList<>();
+    private final List<TinkerEdge[]> loadedEdges = new ArrayList<>();
+    private boolean closed = false;
+
+    private TinkerBulkLoader(final TinkerGraph graph, final Builder builder) {
+        if (null != graph.transaction)
+            throw new IllegalStateException("A TinkerGraph with transactions cannot be bulk loaded");
+        if (TinkerHelper.inComputerMode(graph))
+            throw new IllegalStateException("A TinkerGraph cannot be bulk loaded while a graph computer is processing it");
+
+        this.graph = graph;
+        this.workers = builder.workers;
+        this.batchSize = builder.batchSize;
+        this.workerPool = Executors.newFixedThreadPool(this.workers, THREAD_FACTORY_WORKER);
+        if (builder.expectedVertices > 0)
+            graph.vertices = presize(graph.vertices, graph.vertexIdManager, builder.expectedVertices);
+        if (builder.expectedEdges > 0)
+            graph.edges = presize(graph.edges, graph.edgeIdManager, builder.expectedEdges);
+    }
+
+    public static Builder build() {
+        return new Builder();
+    }
+
+    /**
+     * Adds a batch of vertices, one for each label. The identifiers are generated if {@code ids} is {@code null}, as
+     * they are for the vertices whose identifier in it is {@code null}. Each entry of {@code properties} is the
+     * column of values of one property key, where a {@code null} value means that the vertex has no such property.
+     *
+     * @param ids        the identifiers of the vertices or {@code null}
+     * @param labels     the labels of the vertices, which may be {@code null} for the default label
+     * @param properties the property keys mapped to their values for each vertex
+     */
+    public void addVertices(final Object[] ids, final String[] labels, final Map<String, Object[]> properties) {
+        this.validateBatch(labels, properties, ids);
+        final TinkerVertex[] vertices = new TinkerVertex[labels.length];
+        this.loadedVertices.add(vertices);
+        this.runPartitioned(labels.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                final TinkerVertex vertex = this.loadVertex(null == ids ? null : ids[i], labels[i]);
+                vertices[i] = vertex;
+                for (final Map.Entry<String, Object[]> column : properties.entrySet()) {
+                    final Object value = column.getValue()[i];
+                    if (null != value)
+                        this.loadVertexProperty(vertex, null, column.getKey(), value);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a batch of edges, one for each label, between vertices that are already in the graph. The identifiers are
+     * generated if {@code ids} is {@code null}, as they are for the edges whose identifier in it is {@code null}.
+     * Each entry of {@code properties} is the column of values of one property key, where a {@code null} value
+     * means that the edge has no such property.
+     *
+     * @param ids           the identifiers of the edges or {@code null}
+     * @param labels        the labels of the edges
+     * @param outVertexIds  the identifiers of the vertices that the edges go out of
+     * @param inVertexIds   the identifiers of the vertices that the edges go into
+     * @param properties    the property keys mapped to their values for each edge
+     */
+    public void addEdges(final Object[] ids, final String[] labels, final Object[] outVertexIds, final Object[] inVertexIds,
+                         final Map<String, Object[]> properties) {
+        if (null == outVertexIds)
+            throw Graph.Exceptions.argumentCanNotBeNull("outVertexIds");
+        if (null == inVertexIds)
+            throw Graph.Exceptions.argumentCanNotBeNull("inVertexIds");
+        this.validateBatch(labels, properties, ids, outVertexIds, inVertexIds);
+        final TinkerEdge[] edges = new TinkerEdge[labels.length];
+        this.loadedEdges.add(edges);
+        try {
+            this.runPartitioned(labels.length, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    final TinkerEdge edge = this.loadEdge(null == ids ? null : ids[i], labels[i],
+                            this.findVertex(outVertexIds[i], Collections.emptyMap()),
+                            this.findVertex(inVertexIds[i], Collections.emptyMap()));
+                    edges[i] = edge;
+                    for (final Map.Entry<String, Object[]> column : properties.entrySet()) {
+                        final Object value = column.getValue()[i];
+                        if (null != value)
+                            loadProperty(edge, column.getKey(), value);
+                    }
+                }
+            });
+        } finally {
+            // the edges that were created before a row failed are in the graph and so must be in their vertices too
+            this.attach(Collections.singletonList(edges));
+        }
+    }
+
+    /**
+     * Reads a graph with the {@link GraphReader}, which must support
+     * {@link GraphReader#readVertices(InputStream, java.util.function.Function, java.util.function.Function, Direction)}.
+     * The input is decoded by the calling thread in batches that the workers add, each with the edges that go out of
+     * its vertices to vertices that are already in the graph, so that a batch is let go of once it is added. The
+     * calling thread waits for the workers rather than decoding more than two batches per worker ahead of them. The
+     * edges that go to a vertex that was not added by then are added once all the vertices are. The identifiers of
+     * the elements are kept if the graph allows them.
+     *
+     * @param inputStream a stream of the graph as written by the {@link org.apache.tinkerpop.gremlin.structure.io.GraphWriter}
+     *                    that goes with the reader
+     * @param reader      the reader to decode the stream with
+     */
+    public void readGraph(final InputStream inputStream, final GraphReader reader) throws IOException {
+        this.checkOpen();
+
+        // the vertices whose identifier was not allowed by the graph, by the identifier that the edges refer to
+        final Map<Object, TinkerVertex> replaced = new ConcurrentHashMap<>();
+        final Queue<PendingEdge> pendingEdges = new ConcurrentLinkedQueue<>();
+        final List<TinkerEdge[]> edgeBatches = Collections.synchronizedList(new ArrayList<>());
+        try {
+            final Deque<Future<?>> futures = new ArrayDeque<>();
+            try {
+                final Iterator<Vertex> iterator = reader.readVertices(inputStream, Attachable::get, null, null);
+                while (iterator.hasNext()) {
+                    final List<Vertex> batch = new ArrayList<>(this.batchSize);
+                    while (iterator.hasNext() && batch.size() < this.batchSize) {
+                        batch.add(iterator.next());
+                    }
+                    final TinkerVertex[] vertices = new TinkerVertex[batch.size()];
+                    this.loadedVertices.add(vertices);
+                    if (futures.size() >= this.workers * 2)
+                        await(Collections.singletonList(futures.removeFirst()));
+                    futures.add(this.workerPool.submit(() -> {
+                        for (int i = 0; i < vertices.length; i++) {
+                            vertices[i] = this.readVertex(batch.get(i), replaced);
+                            this.readVertexProperties(batch.get(i), vertices[i]);
+                        }
+                        this.readEdges(batch, vertices, replaced, pendingEdges, edgeBatches);
+                    }));
+                }
+            } finally {
+                await(new ArrayList<>(futures));
+            }
+
+            final List<PendingEdge> pending = new ArrayList<>(pendingEdges);
+            pendingEdges.clear();
+            final TinkerEdge[] edges = new TinkerEdge[pending.size()];
+            edgeBatches.add(edges);
+            this.runPartitioned(pending.size(), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    final PendingEdge pendingEdge = pending.get(i);
+                    final TinkerEdge edge = this.loadEdge(pendingEdge.id, pendingEdge.label, pendingEdge.outVertex,
+                            this.findVertex(pendingEdge.inVertexId, replaced));
+                    edges[i] = edge;
+                    for (int p = 0; p < pendingEdge.keyValues.length; p = p + 2) {
+                        loadProperty(edge, (String) pendingEdge.keyValues[p], pendingEdge.keyValues[p + 1]);
+                    }
+                }
+            });
+        } finally {
+            // as with addEdges(), the edges of a batch that failed part way are attached as far as they were read
+            this.loadedEdges.addAll(edgeBatches);
+            this.attach(edgeBatches);
+        }
+    }
+
+    /**
+     * Adds the loaded elements to the label index and the indices of the graph and, if the graph is persisted to a
+     * log, writes a snapshot of it. The loader cannot be used after it is closed.
+     */
+    @Override
+    public void close() {
+        if (this.closed) return;
+        this.closed = true;
+        try {
+            final List<Runnable> tasks = new ArrayList<>();
+            for (final TinkerVertex[] vertices : this.loadedVertices) {
+                tasks.add(() -> {
+                    for (final TinkerVertex vertex : vertices) {
+                        // a batch that failed part way has no vertex for the rows that were not loaded
+                        if (null == vertex) continue;
+                        this.graph.vertexLabelIndex.add(vertex);
+                        if (null != this.graph.vertexIndex) this.graph.vertexIndex.index(vertex);
+                    }
+                });
+            }
+            for (final TinkerEdge[] edges : this.loadedEdges) {
+                tasks.add(() -> {
+                    for (final TinkerEdge edge : edges) {
+                        // as with the vertices, a batch that failed part way has no edge for the rows not loaded
+                        if (null == edge) continue;
+                        this.graph.edgeLabelIndex.add(edge);
+                        if (null != this.graph.edgeIndex) this.graph.edgeIndex.index(edge);
+                    }
+                });
+            }
+            this.run(tasks);
+        } finally {
+            this.workerPool.shutdown();
+            this.loadedVertices.clear();
+            this.loadedEdges.clear();
+        }
+        if (null != this.graph.writeAheadLog)
+            this.graph.writeAheadLog.close();
+    }
+
+    private TinkerVertex readVertex(final Vertex starVertex, final Map<Object, TinkerVertex> replaced) {
+        final boolean allowed = this.graph.vertexIdManager.allow(starVertex.id());
+        final TinkerVertex vertex = this.loadVertex(allowed ? starVertex.id() : null, starVertex.label());
+        if (!allowed) replaced.put(starVertex.id(), vertex);
+        return vertex;
+    }
+
+    private void readVertexProperties(final Vertex starVertex, final TinkerVertex vertex) {
+        final Iterator<VertexProperty<Object>> vertexProperties = starVertex.properties();
+        while (vertexProperties.hasNext()) {
+            final VertexProperty<Object> starVertexProperty = vertexProperties.next();
+            final Object id = this.graph.vertexPropertyIdManager.allow(starVertexProperty.id()) ? starVertexProperty.id() : null;
+            final TinkerVertexProperty<?> vertexProperty = this.loadVertexProperty(vertex, id, starVertexProperty.key(), starVertexProperty.value());
+            starVertexProperty.properties().forEachRemaining(p -> loadProperty(vertexProperty, p.key(), p.value()));
+        }
+    }
+
+    /**
+     * Adds the edges that go out of the vertices of the batch to the vertices that are already in the graph, which
+     * are the ones that each edge is added from as it holds the properties of the edge just as the vertex it goes into
+     * does. The other edges are kept as pending edges without the batch that they were read from.
+     */
+    private void readEdges(final List<Vertex> batch, final TinkerVertex[] vertices, final Map<Object, TinkerVertex> replaced,
+                           final Queue<PendingEdge> pendingEdges, final List<TinkerEdge[]> edgeBatches) {
+        final List<TinkerEdge> edges = new ArrayList<>();
+        try {
+            for (int i = 0; i < vertices.length; i++) {
+                final Iterator<Edge> starEdges = batch.get(i).edges(Direction.OUT);
+                while (starEdges.hasNext()) {
+                    final Edge starEdge = starEdges.next();
+                    final Object id = this.graph.edgeIdManager.allow(starEdge.id()) ? starEdge.id() : null;
+                    final Object inVertexId = starEdge.inVertex().id();
+                    final TinkerVertex inVertex = this.loadedVertex(inVertexId, replaced);
+                    if (null == inVertex) {
+                        final List<Object> keyValues = new ArrayList<>();
+                        starEdge.properties().forEachRemaining(p -> {
+                            keyValues.add(p.key());
+                            keyValues.add(p.value());
+                        });
+                        pendingEdges.add(new PendingEdge(id, starEdge.label(), vertices[i], inVertexId, keyValues.toArray()));
+                    } else {
+                        final TinkerEdge edge = this.loadEdge(id, starEdge.label(), vertices[i], inVertex);
+                        edges.add(edge);
+                        starEdge.properties().forEachRemaining(p -> loadProperty(edge, p.key(), p.value()));
+                    }
+                }
+            }
+        } finally {
+            edgeBatches.add(edges.toArray(new TinkerEdge[edges.size()]));
+        }
+    }
+
+    /**
+     * Gets the vertex that the input refers to by the identifier if it was added to the graph by now.
+     */
+    private TinkerVertex loadedVertex(final Object id, final Map<Object, TinkerVertex> replaced) {
+        if (!this.graph.vertexIdManager.allow(id)) return replaced.get(id);
+        return (TinkerVertex) TinkerGraph.getElement(this.graph.vertices, this.graph.vertexIdManager, id);
+    }
+
+    private TinkerVertex loadVertex(final Object id, final String label) {
+        if (null != label) ElementHelper.validateLabel(label);
+        final Object idValue = null == id ?
+                this.graph.vertexIdManager.getNextId(this.graph) :
+                this.graph.vertexIdManager.convert(id);
+        final TinkerVertex vertex = new TinkerVertex(idValue, null == label ? Vertex.DEFAULT_LABEL : label, this.graph);
+        if (null != this.graph.vertices.putIfAbsent(idValue, vertex))
+            throw Graph.Exceptions.vertexWithIdAlreadyExists(idValue);
+        return vertex;
+    }
+
+    private TinkerVertexProperty<?> loadVertexProperty(final TinkerVertex vertex, final Object id, final String key, final Object value) {
+        ElementHelper.validateProperty(key, value);
+        final Object idValue = null == id ?
+                this.graph.vertexPropertyIdManager.getNextId(this.graph) :
+                this.graph.vertexPropertyIdManager.convert(id);
+        final TinkerVertexProperty<?> vertexProperty = new TinkerVertexProperty<>(idValue, vertex, TinkerHelper.internKey(this.graph, key), value);
+        if (null == vertex.properties) vertex.properties = new TinkerProperties<>();
+        vertex.properties.add(vertexProperty);
+        return vertexProperty;
+    }
+
+    private TinkerEdge loadEdge(final Object id, final String label, final TinkerVertex outVertex, final TinkerVertex inVertex) {
+        ElementHelper.validateLabel(label);
+        final Object idValue = null == id ?
+                this.graph.edgeIdManager.getNextId(this.graph) :
+                this.graph.edgeIdManager.convert(id);
+        final TinkerEdge edge = new TinkerEdge(idValue, outVertex, label, inVertex);
+        if (null != this.graph.edges.putIfAbsent(idValue, edge))
+            throw Graph.Exceptions.edgeWithIdAlreadyExists(idValue);
+        return edge;
+    }
+
+    private void loadProperty(final TinkerEdge edge, final String key, final Object value) {
+        ElementHelper.validateProperty(key, value);
+        if (null == edge.properties) edge.properties = new TinkerProperties<>();
+        edge.properties.put(new TinkerProperty<>(edge, TinkerHelper.internKey(this.graph, key), value));
+    }
+
+    private void loadProperty(final TinkerVertexProperty<?> vertexProperty, final String key, final Object value) {
+        ElementHelper.validateProperty(key, value);
+        if (null == vertexProperty.properties) vertexProperty.properties = new TinkerProperties<>();
+        vertexProperty.properties.put(new TinkerProperty<>(vertexProperty, TinkerHelper.internKey(this.graph, key), value));
+    }
+
+    private TinkerVertex findVertex(final Object id, final Map<Object, TinkerVertex> replaced) {
+        final TinkerVertex replacement = replaced.get(id);
+        if (null != replacement) return replacement;
+        final TinkerVertex vertex = (TinkerVertex) TinkerGraph.getElement(this.graph.vertices, this.graph.vertexIdManager, id);
+        if (null == vertex)
+            throw new IllegalStateException(String.format("Could not find vertex with id [%s] to create an edge to", id));
+        return vertex;
+    }
+
+    /**
+     * Adds the edges to the vertices they connect, where each worker only changes the vertices that hash to it so
+     * that no two workers change the same vertex.
+     */
+    private void attach(final List<TinkerEdge[]> edgeBatches) {
+        final List<Runnable> tasks = new ArrayList<>(this.workers);
+        for (int w = 0; w < this.workers; w++) {
+            final int worker = w;
+            tasks.add(() -> {
+                for (final TinkerEdge[] edges : edgeBatches) {
+                    for (final TinkerEdge edge : edges) {
+                        if (null == edge) continue;
+                        if (this.owns(worker, edge.outVertex))
+                            TinkerHelper.addOutEdge((TinkerVertex) edge.outVertex, edge.label, edge);
+                        if (this.owns(worker, edge.inVertex))
+                            TinkerHelper.addInEdge((TinkerVertex) edge.inVertex, edge.label, edge);
+                    }
+                }
+            });
+        }
+        this.run(tasks);
+    }
+
+    private boolean owns(final int worker, final Vertex vertex) {
+        return Math.floorMod(vertex.hashCode(), this.workers) == worker;
+    }
+
+    private void runPartitioned(final int count, final RangeConsumer consumer) {
+        final int partitionSize = Math.max(1, (count + this.workers - 1) / this.workers);
+        final List<Runnable> tasks = new ArrayList<>(this.workers);
+        for (int from = 0; from < count; from += partitionSize) {
+            final int start = from;
+            final int end = Math.min(count, from + partitionSize);
+            tasks.add(() -> consumer.accept(start, end));
+        }
+        this.run(tasks);
+    }
+
+    private void run(final List<Runnable> tasks) {
+        final List<Future<?>> futures = new ArrayList<>(tasks.size());
+        for (final Runnable task : tasks) {
+            futures.add(this.workerPool.submit(task));
+        }
+        await(futures);
+    }
+
+    /**
+     * Waits for every task, also once one of them has failed, so that nothing is still loading elements when the
+     * failure is handled.
+     */
+    private static void await(final List<Future<?>> futures) {
+        Throwable failure = null;
+        boolean interrupted = false;
+        for (final Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    if (null == failure) failure = ex.getCause();
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while bulk loading the graph", failure);
+        }
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (null != failure)
+            throw new IllegalStateException(failure);
+    }
+
+    private void validateBatch(final String[] labels, final Map<String, Object[]> properties, final Object[]... columns) {
+        this.checkOpen();
+        if (null == labels)
+            throw Graph.Exceptions.argumentCanNotBeNull("labels");
+        for (final Object[] column : columns) {
+            if (null != column && column.length != labels.length)
+                throw new IllegalArgumentException(String.format("Expected %s values in each column but found %s", labels.length, column.length));
+        }
+        for (final Map.Entry<String, Object[]> column : properties.entrySet()) {
+            if (column.getValue().length != labels.length)
+                throw new IllegalArgumentException(String.format("Expected %s values for the %s property but found %s",
+                        labels.length, column.getKey(), column.getValue().length));
+        }
+    }
+
+    private void checkOpen() {
+        if (this.closed)
+            throw new IllegalStateException("The bulk loader has been closed");
+    }
+
+    private static <E> Map<Object, E> presize(final Map<Object, E> elements, final TinkerGraph.IdManager<?> idManager,
+                                              final int expected) {
+        final Map<Object, E> presized = TinkerGraph.createElementMap(idManager, (int) Math.min((long) elements.size() + expected, Integer.MAX_VALUE));
+        presized.putAll(elements);
+        return presized;
+    }
+
+    /**
+     * An edge that was read before the vertex that it goes into was added to the graph.
+     */
+    private static final class PendingEdge {
+        private final Object id;
+        private final String label;
+        private final TinkerVertex outVertex;
+        private final Object inVertexId;
+        private final Object[] keyValues;
+
+        private PendingEdge(final Object id, final String label, final TinkerVertex outVertex, final Object inVertexId,
+                            final Object[] keyValues) {
+            this.id = id;
+            this.label = label;
+            this.outVertex = outVertex;
+            this.inVertexId = inVertexId;
+            this.keyValues = keyValues;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeConsumer {
+        void accept(final int from, final int to);
+    }
+
+    public static final class Builder {
+
+        private int expectedVertices = 0;
+        private int expectedEdges = 0;
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private int batchSize = 10000;
+
+        private Builder() {
+        }
+
+        /**
+         * The number of vertices that are to be loaded, which the graph is sized for up front.
+         */
+        public Builder expectedVertices(final int expectedVertices) {
+            this.expectedVertices = expectedVertices;
+            return this;
+        }
+
+        /**
+         * The number of edges that are to be loaded, which the graph is sized for up front.
+         */
+        public Builder expectedEdges(final int expectedEdges) {
+            this.expectedEdges = expectedEdges;
+            return this;
+        }
+
+        /**
+         * The number of threads that load elements, which is the number of available processors by default.
+         */
+        public Builder workers(final int workers) {
+            if (workers < 1)
+                throw new IllegalArgumentException("The number of workers must be at least 1");
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * The number of vertices that {@link TinkerBulkLoader#readGraph(InputStream, GraphReader)} hands to a worker at a time,
+         * which is 10000 by default.
+         */
+        public Builder batchSize(final int batchSize) {
+            if (batchSize < 1)
+                throw new IllegalArgumentException("The batch size must be at least 1");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public TinkerBulkLoader create(final TinkerGraph graph) {
+            return new TinkerBulkLoader(graph, this);
+        }
+    }
+}
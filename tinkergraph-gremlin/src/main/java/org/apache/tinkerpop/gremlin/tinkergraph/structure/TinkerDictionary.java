@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A graph-wide dictionary that interns {@code String} values (e.g. edge labels) to dense {@code int} identifiers so
+ * that per-element structures can refer to them with a primitive rather than a reference.
+ */
+final class TinkerDictionary {
+
+    /**
+     * The identifier returned by {@link #id(String)} for a value that has never been interned.
+     */
+    static final int NOT_FOUND = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // values are rarely added, so they are copied on write to let them be read without a lock
+    private final List<String> values = new CopyOnWriteArrayList<>();
+
+    /**
+     * Gets the identifier for the value, assigning the next available one if the value has not been seen before.
+     */
+    public int intern(final String value) {
+        final Integer id = this.ids.get(value);
+        return null == id ? this.add(value) : id;
+    }
+
+    /**
+     * Gets the identifier for the value or {@link #NOT_FOUND} if the value has not been interned.
+     */
+    public int id(final String value) {
+        final Integer id = this.ids.get(value);
+        return null == id ? NOT_FOUND : id;
+    }
+
+    /**
+     * Gets the value for the identifier.
+     */
+    public String value(final int id) {
+        return this.values.get(id);
+    }
+
+    /**
+     * Gets the instance of the value that was interned first, so that all the equal values can share one instance.
+     */
+    public String canonical(final String value) {
+        return this.values.get(this.intern(value));
+    }
+
+    public int size() {
+        return this.values.size();
+    }
+
+    private synchronized int add(final String value) {
+        Integer id = this.ids.get(value);
+        if (null == id) {
+            id = this.values.size();
+            this.values.add(value);
+            this.ids.put(value, id);
+        }
+        return id;
+    }
+}
@@ -29,18 +29,15 @@ import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public final class TinkerEdge extends TinkerElement implements Edge {
 
-    protected Map<String, Property> properties;
+    protected TinkerProperties<Property> properties;
     protected final Vertex inVertex;
     protected final Vertex outVertex;
 
@@ -53,47 +50,65 @@ public final class TinkerEdge extends TinkerElement implements Edge {
 
     @Override
     public <V> Property<V> property(final String key, final V value) {
+        final TinkerGraph graph = (TinkerGraph) this.graph();
+        final TinkerEdge edge = TinkerTransaction.write(graph, this);
+        if (edge != this) return edge.property(key, value);
         if (this.removed) throw elementAlreadyRemoved(Edge.class, id);
         ElementHelper.validateProperty(key, value);
         final Property oldProperty = super.property(key);
-        final Property<V> newProperty = new TinkerProperty<>(this, key, value);
-        if (null == this.properties) this.properties = new HashMap<>();
-        this.properties.put(key, newProperty);
+        final Property<V> newProperty = new TinkerProperty<>(this.canonical(), TinkerHelper.internKey(graph, key), value);
+        if (null == this.properties) this.properties = new TinkerProperties<>();
+        this.properties.put(newProperty);
         TinkerHelper.autoUpdateIndex(this, key, value, oldProperty.isPresent() ? oldProperty.value() : null);
+        // the properties of a new edge are logged with the edge itself once it is in the graph
+        if (null != graph.writeAheadLog && null == graph.transaction && graph.edges.get(this.id) == this) graph.writeAheadLog.addEdgeProperty(this, key, value);
         return newProperty;
 
     }
 
     @Override
     public <V> Property<V> property(final String key) {
-        return null == this.properties ? Property.<V>empty() : this.properties.getOrDefault(key, Property.<V>empty());
+        final TinkerEdge edge = TinkerTransaction.read((TinkerGraph) this.graph(), this);
+        if (edge != this) return edge.property(key);
+        final Property<V> property = null == this.properties ? null : this.properties.get(key);
+        return null == property ? Property.<V>empty() : property;
     }
 
     @Override
     public Set<String> keys() {
-        return null == this.properties ? Collections.emptySet() : this.properties.keySet();
+        final TinkerEdge edge = TinkerTransaction.read((TinkerGraph) this.graph(), this);
+        if (edge != this) return edge.keys();
+        return null == this.properties ? Collections.emptySet() : this.properties.keys();
     }
 
     @Override
     public void remove() {
+        final TinkerGraph graph = (TinkerGraph) this.graph();
+        final TinkerEdge edge = TinkerTransaction.write(graph, this);
+        if (edge != this) {
+            edge.remove();
+            return;
+        }
         final TinkerVertex outVertex = (TinkerVertex) this.outVertex;
         final TinkerVertex inVertex = (TinkerVertex) this.inVertex;
 
-        if (null != outVertex && null != outVertex.outEdges) {
-            final Set<Edge> edges = outVertex.outEdges.get(this.label());
-            if (null != edges)
-                edges.remove(this);
-        }
-        if (null != inVertex && null != inVertex.inEdges) {
-            final Set<Edge> edges = inVertex.inEdges.get(this.label());
-            if (null != edges)
-                edges.remove(this);
-        }
+        TinkerHelper.removeOutEdge(outVertex, this.label(), this);
+        TinkerHelper.removeInEdge(inVertex, this.label(), this);
 
         TinkerHelper.removeElementIndex(this);
-        ((TinkerGraph) this.graph()).edges.remove(this.id());
+        // with transactions the edge stays in the graph for other threads until the removal is committed
+        if (null == graph.transaction) graph.edges.remove(this.id());
         this.properties = null;
         this.removed = true;
+        if (null != graph.writeAheadLog && null == graph.transaction) graph.writeAheadLog.removeEdge(this);
+    }
+
+    @Override
+    protected TinkerEdge copy() {
+        final TinkerEdge copy = new TinkerEdge(this.id, this.outVertex, this.label, this.inVertex);
+        if (null != this.properties) copy.properties = new TinkerProperties<>(this.properties);
+        copy.removed = this.removed;
+        return copy;
     }
 
     @Override
@@ -114,7 +129,7 @@ public final class TinkerEdge extends TinkerElement implements Edge {
 
     @Override
     public Iterator<Vertex> vertices(final Direction direction) {
-        if (removed) return Collections.emptyIterator();
+        if (TinkerTransaction.read((TinkerGraph) this.graph(), this).removed) return Collections.emptyIterator();
         switch (direction) {
             case OUT:
                 return IteratorUtils.of(this.outVertex);
@@ -132,11 +147,8 @@ public final class TinkerEdge extends TinkerElement implements Edge {
 
     @Override
     public <V> Iterator<Property<V>> properties(final String... propertyKeys) {
-        if (null == this.properties) return Collections.emptyIterator();
-        if (propertyKeys.length == 1) {
-            final Property<V> property = this.properties.get(propertyKeys[0]);
-            return null == property ? Collections.emptyIterator() : IteratorUtils.of(property);
-        } else
-            return (Iterator) this.properties.entrySet().stream().filter(entry -> ElementHelper.keyExists(entry.getKey(), propertyKeys)).map(entry -> entry.getValue()).collect(Collectors.toList()).iterator();
+        final TinkerEdge edge = TinkerTransaction.read((TinkerGraph) this.graph(), this);
+        if (edge != this) return edge.properties(propertyKeys);
+        return null == this.properties ? Collections.emptyIterator() : (Iterator) this.properties.iterator(propertyKeys);
     }
 }
@@ -30,6 +30,32 @@ public abstract class TinkerElement implements Element {
     protected final String label;
     protected boolean removed = false;
 
+    /**
+     * Whether the element was added by a transaction that has not been committed, in which case only that
+     * transaction can see it. See {@link TinkerTransaction}.
+     */
+    protected boolean pending = false;
+
+    /**
+     * The copy of the element that holds the changes of the transaction that is writing to the graph, or on such a
+     * copy, the element that it is a copy of.
+     */
+    protected TinkerElement working = null;
+    protected TinkerElement original = null;
+
+    /**
+     * The commit that added the element to the graph or, on a committed state of an element, the commit that
+     * published that state. See {@link TinkerTransaction}.
+     */
+    protected long version = 0;
+
+    /**
+     * On an element, the state that was last committed for it, which is {@code null} until the element is first
+     * changed by a transaction, and on a committed state, the state that was committed before it, which is
+     * {@code null} when that is the state that the element was added with.
+     */
+    protected volatile TinkerElement committed = null;
+
     protected TinkerElement(final Object id, final String label) {
         this.id = id;
         this.label = label;
@@ -56,6 +82,19 @@ public abstract class TinkerElement implements Element {
         return ElementHelper.areEqual(this, object);
     }
 
+    /**
+     * Gets the element that this is a {@link #working} copy of or else this element itself, which is the one that
+     * should be referenced by anything that outlives the transaction.
+     */
+    protected TinkerElement canonical() {
+        return null == this.original ? this : this.original;
+    }
+
+    /**
+     * Creates a {@link #working} copy of the element whose state can be changed without affecting this element.
+     */
+    protected abstract TinkerElement copy();
+
     protected static IllegalStateException elementAlreadyRemoved(final Class<? extends Element> clazz, final Object id) {
         return new IllegalStateException(String.format("%s with id %s was removed.", clazz.getSimpleName(), id));
     }
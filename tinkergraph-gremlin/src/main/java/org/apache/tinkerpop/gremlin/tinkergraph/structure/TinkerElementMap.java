@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.util.HashUtil;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * The map of a {@link TinkerGraph} from the identifiers of its vertices or edges to the elements when the identifiers
+ * are managed by {@link TinkerGraph.DefaultIdManager#LONG} or {@link TinkerGraph.DefaultIdManager#INTEGER}. The
+ * identifiers are kept as primitive {@code long} values in an open-addressing table rather than as the boxed keys of
+ * hash map entries, so that {@link #get(long)} neither allocates nor follows a chain of entries.
+ * <p/>
+ * Like the {@code ConcurrentHashMap} that is used for other identifiers, any number of threads may read the map while
+ * it is changed. Changes are serialized and a removed identifier leaves a marker in its slot, so that an entry never
+ * moves while it is in a table. The table is replaced by a larger one, without the markers, as it fills up.
+ */
+final class TinkerElementMap<E> extends AbstractMap<Object, E> {
+
+    private static final Object REMOVED = new Object();
+    private static final int MINIMUM_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final boolean integerIds;
+    private volatile Table table;
+    private volatile int size = 0;
+
+    // the number of slots that hold an element or a removed marker, which is only read and written by writers
+    private int used = 0;
+
+    TinkerElementMap(final boolean integerIds, final int expectedSize) {
+        this.integerIds = integerIds;
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * Gets the element with the identifier, which is converted to a {@code long} or an {@code int} as the
+     * {@link TinkerGraph.IdManager} of the map would convert it, without boxing it again.
+     */
+    public E lookup(final Number id) {
+        return this.get(this.integerIds ? id.intValue() : id.longValue());
+    }
+
+    public E get(final long id) {
+        final Table table = this.table;
+        final int mask = table.values.length() - 1;
+        for (int i = hash(id, mask); ; i = (i + 1) & mask) {
+            final Object value = table.values.get(i);
+            if (null == value)
+                return null;
+            if (table.keys.get(i) == id)
+                return REMOVED == value ? null : (E) value;
+        }
+    }
+
+    @Override
+    public E get(final Object key) {
+        return this.isKey(key) ? this.get(((Number) key).longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return null != this.get(key);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public synchronized E put(final Object key, final E value) {
+        return this.put(this.toId(key), value, false);
+    }
+
+    @Override
+    public synchronized E putIfAbsent(final Object key, final E value) {
+        return this.put(this.toId(key), value, true);
+    }
+
+    @Override
+    public synchronized E remove(final Object key) {
+        if (!this.isKey(key)) return null;
+        final Table table = this.table;
+        final int slot = this.slot(table, ((Number) key).longValue());
+        final Object value = table.values.get(slot);
+        if (null == value || REMOVED == value) return null;
+        table.values.set(slot, REMOVED);
+        this.size--;
+        return (E) value;
+    }
+
+    @Override
+    public synchronized boolean remove(final Object key, final Object value) {
+        if (null == value || !value.equals(this.get(key))) return false;
+        this.remove(key);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.table = new Table(MINIMUM_CAPACITY);
+        this.size = 0;
+        this.used = 0;
+    }
+
+    @Override
+    public Collection<E> values() {
+        return new AbstractCollection<E>() {
+            @Override
+            public Iterator<E> iterator() {
+                return new TableIterator<>(TinkerElementMap.this.table, (table, slot, value) -> (E) value);
+            }
+
+            @Override
+            public Spliterator<E> spliterator() {
+                final Table table = TinkerElementMap.this.table;
+                return new TableSpliterator(table, 0, table.values.length(), TinkerElementMap.this.size);
+            }
+
+            @Override
+            public int size() {
+                return TinkerElementMap.this.size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Object, E>> entrySet() {
+        return new AbstractSet<Entry<Object, E>>() {
+            @Override
+            public Iterator<Entry<Object, E>> iterator() {
+                return new TableIterator<>(TinkerElementMap.this.table,
+                        (table, slot, value) -> new SimpleImmutableEntry<>(TinkerElementMap.this.toKey(table.keys.get(slot)), (E) value));
+            }
+
+            @Override
+            public int size() {
+                return TinkerElementMap.this.size;
+            }
+        };
+    }
+
+    private E put(final long id, final E value, final boolean onlyIfAbsent) {
+        if (null == value) throw new NullPointerException();
+        Table table = this.table;
+        int slot = this.slot(table, id);
+        final Object previous = table.values.get(slot);
+        if (null != previous && REMOVED != previous) {
+            if (!onlyIfAbsent) table.values.set(slot, value);
+            return (E) previous;
+        }
+        if (null == previous) {
+            // a new slot is taken, so the table is grown first if that would make it too full to probe quickly
+            if ((this.used + 1) * 4L > table.values.length() * 3L) {
+                if (table.values.length() == MAXIMUM_CAPACITY && this.size + 1 >= MAXIMUM_CAPACITY)
+                    throw new IllegalStateException("The graph cannot hold any more elements with these identifiers");
+                table = this.resize(this.size + 1);
+                slot = this.slot(table, id);
+            }
+            this.used++;
+            table.keys.set(slot, id);
+        }
+        table.values.set(slot, value);
+        this.size++;
+        return null;
+    }
+
+    /**
+     * Gets the slot of the identifier in the table or the empty slot where it would be added.
+     */
+    private int slot(final Table table, final long id) {
+        final int mask = table.values.length() - 1;
+        for (int i = hash(id, mask); ; i = (i + 1) & mask) {
+            final Object value = table.values.get(i);
+            if (null == value || table.keys.get(i) == id)
+                return i;
+        }
+    }
+
+    private Table resize(final int minimumSize) {
+        final Table previous = this.table;
+        final Table table = new Table(capacityFor(Math.max(minimumSize, previous.values.length() / 2)));
+        final int mask = table.values.length() - 1;
+        this.used = 0;
+        for (int i = 0; i < previous.values.length(); i++) {
+            final Object value = previous.values.get(i);
+            if (null == value || REMOVED == value) continue;
+            final long id = previous.keys.get(i);
+            int slot = hash(id, mask);
+            while (null != table.values.get(slot)) {
+                slot = (slot + 1) & mask;
+            }
+            table.keys.set(slot, id);
+            table.values.set(slot, value);
+            this.used++;
+        }
+        this.table = table;
+        return table;
+    }
+
+    private boolean isKey(final Object key) {
+        return this.integerIds ? key instanceof Integer : key instanceof Long;
+    }
+
+    private long toId(final Object key) {
+        if (!this.isKey(key))
+            throw new IllegalArgumentException(String.format("Expected an id of type %s but received %s",
+                    this.integerIds ? "Integer" : "Long", null == key ? null : key.getClass()));
+        return ((Number) key).longValue();
+    }
+
+    private Object toKey(final long id) {
+        return this.integerIds ? Integer.valueOf((int) id) : Long.valueOf(id);
+    }
+
+    private static int hash(final long id, final int mask) {
+        // the slots are probed linearly, so identifiers that are a multiple of a power of two apart, which would all
+        // start in a few slots, are spread by the bits above the mask. the bits below it are kept as they are, so that
+        // identifiers which only differ in them never start in the same slot and sequential identifiers are iterated
+        // in order, as they are by the ConcurrentHashMap that is used for other identifiers
+        return (int) (id ^ HashUtil.mix(id >>> Integer.bitCount(mask))) & mask;
+    }
+
+    private static int capacityFor(final int expectedSize) {
+        final long capacity = Math.max(MINIMUM_CAPACITY, ((long) expectedSize * 4 + 2) / 3);
+        if (capacity > MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+        return Integer.highestOneBit((int) capacity - 1) << 1;
+    }
+
+    /**
+     * The slots of the map, where a slot is empty until a value is set, after the key, and the value is only ever
+     * replaced by another value or the removed marker.
+     */
+    private static final class Table {
+        private final AtomicLongArray keys;
+        private final AtomicReferenceArray<Object> values;
+
+        private Table(final int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SlotFunction<T> {
+        T apply(final Table table, final int slot, final Object value);
+    }
+
+    private static final class TableIterator<T> implements Iterator<T> {
+        private final Table table;
+        private final SlotFunction<T> function;
+        private int slot = -1;
+        private Object next = null;
+
+        private TableIterator(final Table table, final SlotFunction<T> function) {
+            this.table = table;
+            this.function = function;
+            this.advance();
+        }
+
+        private void advance() {
+            this.next = null;
+            while (++this.slot < this.table.values.length()) {
+                final Object value = this.table.values.get(this.slot);
+                if (null != value && REMOVED != value) {
+                    this.next = value;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return null != this.next;
+        }
+
+        @Override
+        public T next() {
+            if (null == this.next) throw new NoSuchElementException();
+            final T result = this.function.apply(this.table, this.slot, this.next);
+            this.advance();
+            return result;
+        }
+    }
+
+    /**
+     * Splits the slots of the table in halves so that a parallel stream of the elements, as used to build an index,
+     * is spread over threads.
+     */
+    private final class TableSpliterator implements Spliterator<E> {
+        private final Table table;
+        private int slot;
+        private final int end;
+        private long estimatedSize;
+
+        private TableSpliterator(final Table table, final int slot, final int end, final long estimatedSize) {
+            this.table = table;
+            this.slot = slot;
+            this.end = end;
+            this.estimatedSize = estimatedSize;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            while (this.slot < this.end) {
+                final Object value = this.table.values.get(this.slot++);
+                if (null != value && REMOVED != value) {
+                    action.accept((E) value);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            final int middle = (this.slot + this.end) >>> 1;
+            if (middle - this.slot < MINIMUM_CAPACITY) return null;
+            final Spliterator<E> prefix = new TableSpliterator(this.table, this.slot, middle, this.estimatedSize >>> 1);
+            this.slot = middle;
+            this.estimatedSize = this.estimatedSize >>> 1;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.CONCURRENT;
+        }
+    }
+}
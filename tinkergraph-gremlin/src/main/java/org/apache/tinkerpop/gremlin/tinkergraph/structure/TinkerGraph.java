@@ -42,12 +42,12 @@ import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optim
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -83,22 +83,33 @@ public final class TinkerGraph implements Graph {
     public static final String GREMLIN_TINKERGRAPH_DEFAULT_VERTEX_PROPERTY_CARDINALITY = "gremlin.tinkergraph.defaultVertexPropertyCardinality";
     public static final String GREMLIN_TINKERGRAPH_GRAPH_LOCATION = "gremlin.tinkergraph.graphLocation";
     public static final String GREMLIN_TINKERGRAPH_GRAPH_FORMAT = "gremlin.tinkergraph.graphFormat";
+    public static final String GREMLIN_TINKERGRAPH_ADJACENCY = "gremlin.tinkergraph.adjacency";
+    public static final String GREMLIN_TINKERGRAPH_LOG_COMPACTION_THRESHOLD = "gremlin.tinkergraph.logCompactionThreshold";
+    public static final String GREMLIN_TINKERGRAPH_LOG_SYNC = "gremlin.tinkergraph.logSync";
+    public static final String GREMLIN_TINKERGRAPH_TRANSACTIONS = "gremlin.tinkergraph.transactions";
 
     private final TinkerGraphFeatures features = new TinkerGraphFeatures();
 
     protected AtomicLong currentId = new AtomicLong(-1L);
-    protected Map<Object, Vertex> vertices = new ConcurrentHashMap<>();
-    protected Map<Object, Edge> edges = new ConcurrentHashMap<>();
+    protected Map<Object, Vertex> vertices;
+    protected Map<Object, Edge> edges;
 
     protected TinkerGraphVariables variables = null;
     protected TinkerGraphComputerView graphComputerView = null;
     protected TinkerIndex<TinkerVertex> vertexIndex = null;
     protected TinkerIndex<TinkerEdge> edgeIndex = null;
+    protected final TinkerLabelIndex<Vertex> vertexLabelIndex = new TinkerLabelIndex<>();
+    protected final TinkerLabelIndex<Edge> edgeLabelIndex = new TinkerLabelIndex<>();
+    protected final TinkerDictionary edgeLabelIds = new TinkerDictionary();
+    protected final TinkerDictionary propertyKeys = new TinkerDictionary();
+    protected TinkerWriteAheadLog writeAheadLog = null;
+    protected TinkerTransaction transaction = null;
 
     protected final IdManager<?> vertexIdManager;
     protected final IdManager<?> edgeIdManager;
     protected final IdManager<?> vertexPropertyIdManager;
     protected final VertexProperty.Cardinality defaultVertexPropertyCardinality;
+    protected final boolean compactAdjacency;
 
     private final Configuration configuration;
     private final String graphLocation;
@@ -112,9 +123,13 @@ public final class TinkerGraph implements Graph {
         vertexIdManager = selectIdManager(configuration, GREMLIN_TINKERGRAPH_VERTEX_ID_MANAGER, Vertex.class);
         edgeIdManager = selectIdManager(configuration, GREMLIN_TINKERGRAPH_EDGE_ID_MANAGER, Edge.class);
         vertexPropertyIdManager = selectIdManager(configuration, GREMLIN_TINKERGRAPH_VERTEX_PROPERTY_ID_MANAGER, VertexProperty.class);
+        vertices = createElementMap(vertexIdManager, 0);
+        edges = createElementMap(edgeIdManager, 0);
         defaultVertexPropertyCardinality = VertexProperty.Cardinality.valueOf(
                 configuration.getString(GREMLIN_TINKERGRAPH_DEFAULT_VERTEX_PROPERTY_CARDINALITY, VertexProperty.Cardinality.single.name()));
 
+        compactAdjacency = selectCompactAdjacency(configuration);
+
         graphLocation = configuration.getString(GREMLIN_TINKERGRAPH_GRAPH_LOCATION, null);
         graphFormat = configuration.getString(GREMLIN_TINKERGRAPH_GRAPH_FORMAT, null);
 
@@ -123,6 +138,10 @@ public final class TinkerGraph implements Graph {
                     GREMLIN_TINKERGRAPH_GRAPH_LOCATION, GREMLIN_TINKERGRAPH_GRAPH_FORMAT));
 
         if (graphLocation != null) loadGraph();
+
+        // the graph is loaded before transactions are enabled so that it does not have to be committed
+        if (configuration.getBoolean(GREMLIN_TINKERGRAPH_TRANSACTIONS, false))
+            transaction = new TinkerTransaction(this);
     }
 
     /**
@@ -161,6 +180,7 @@ public final class TinkerGraph implements Graph {
         ElementHelper.legalPropertyKeyValueArray(keyValues);
         Object idValue = vertexIdManager.convert(ElementHelper.getIdValue(keyValues).orElse(null));
         final String label = ElementHelper.getLabelValue(keyValues).orElse(Vertex.DEFAULT_LABEL);
+        if (null != this.transaction) this.transaction.lock();
 
         if (null != idValue) {
             if (this.vertices.containsKey(idValue))
@@ -169,8 +189,13 @@ public final class TinkerGraph implements Graph {
             idValue = vertexIdManager.getNextId(this);
         }
 
-        final Vertex vertex = new TinkerVertex(idValue, label, this);
+        final TinkerVertex vertex = new TinkerVertex(idValue, label, this);
+        if (null != this.transaction) this.transaction.add(vertex);
         this.vertices.put(vertex.id(), vertex);
+        if (null == this.transaction) {
+            this.vertexLabelIndex.add(vertex);
+            if (null != this.writeAheadLog) this.writeAheadLog.addVertex(vertex);
+        }
 
         ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
         return vertex;
@@ -217,22 +242,34 @@ public final class TinkerGraph implements Graph {
         this.currentId.set(-1L);
         this.vertexIndex = null;
         this.edgeIndex = null;
+        this.vertexLabelIndex.clear();
+        this.edgeLabelIndex.clear();
         this.graphComputerView = null;
+        if (null != this.writeAheadLog) this.writeAheadLog.clear();
     }
 
     /**
      * This method only has an effect if the {@link #GREMLIN_TINKERGRAPH_GRAPH_LOCATION} is set, in which case the
      * data in the graph is persisted to that location. This method may be called multiple times and does not release
-     * resources.
+     * resources. With the "log" {@link #GREMLIN_TINKERGRAPH_GRAPH_FORMAT} it writes a new snapshot of the graph in
+     * place of the log, which is started again by the next mutation. A transaction that the calling thread has open
+     * is rolled back first.
      */
     @Override
     public void close() {
-        if (graphLocation != null) saveGraph();
+        if (null != transaction && transaction.isOpen())
+            transaction.rollback();
+        if (null != writeAheadLog)
+            writeAheadLog.close();
+        else if (graphLocation != null)
+            saveGraph();
     }
 
     @Override
     public Transaction tx() {
-        throw Exceptions.transactionsNotSupported();
+        if (null == transaction)
+            throw Exceptions.transactionsNotSupported();
+        return transaction;
     }
 
     @Override
@@ -251,6 +288,20 @@ public final class TinkerGraph implements Graph {
     }
 
     private void loadGraph() {
+        if (graphFormat.equals("log")) {
+            final long compactionThreshold = configuration.getLong(GREMLIN_TINKERGRAPH_LOG_COMPACTION_THRESHOLD, 64L * 1024 * 1024);
+            if (compactionThreshold <= 0 || compactionThreshold > Integer.MAX_VALUE)
+                throw new IllegalStateException(String.format("The %s must be between 1 and %s bytes",
+                        GREMLIN_TINKERGRAPH_LOG_COMPACTION_THRESHOLD, Integer.MAX_VALUE));
+            try {
+                writeAheadLog = TinkerWriteAheadLog.open(this, new File(graphLocation), compactionThreshold,
+                        configuration.getBoolean(GREMLIN_TINKERGRAPH_LOG_SYNC, false));
+            } catch (Exception ex) {
+                throw new RuntimeException(String.format("Could not load graph at %s with %s", graphLocation, graphFormat), ex);
+            }
+            return;
+        }
+
         final File f = new File(graphLocation);
         if (f.exists() && f.isFile()) {
             try {
@@ -300,21 +351,28 @@ public final class TinkerGraph implements Graph {
     private <T extends Element> Iterator<T> createElementIterator(final Class<T> clazz, final Map<Object, T> elements,
                                                                   final IdManager idManager,
                                                                   final Object... ids) {
-        final Iterator<T> iterator;
+        if (null != transaction) transaction.readWrite();
+        Iterator<T> iterator;
         if (0 == ids.length) {
             iterator = elements.values().iterator();
         } else {
-            final List<Object> idList = Arrays.asList(ids);
-            validateHomogenousIds(idList);
+            validateHomogenousIds(Arrays.asList(ids));
 
             // if the type is of Element - have to look each up because it might be an Attachable instance or
             // other implementation. the assumption is that id conversion is not required for detached
             // stuff - doesn't seem likely someone would detach a Titan vertex then try to expect that
             // vertex to be findable in OrientDB
-            return clazz.isAssignableFrom(ids[0].getClass()) ?
-                    IteratorUtils.filter(IteratorUtils.map(idList, id -> elements.get(clazz.cast(id).id())).iterator(), Objects::nonNull)
-                    : IteratorUtils.filter(IteratorUtils.map(idList, id -> elements.get(idManager.convert(id))).iterator(), Objects::nonNull);
+            final boolean elementIds = clazz.isAssignableFrom(ids[0].getClass());
+            final List<T> found = new ArrayList<>(ids.length);
+            for (final Object id : ids) {
+                final T element = elementIds ? elements.get(clazz.cast(id).id()) : getElement(elements, idManager, id);
+                if (null != element && (null == transaction || transaction.isVisible(element)))
+                    found.add(element);
+            }
+            return found.iterator();
         }
+        if (null != transaction)
+            iterator = IteratorUtils.filter(iterator, transaction::isVisible);
         return TinkerHelper.inComputerMode(this) ?
                 (Iterator<T>) (clazz.equals(Vertex.class) ?
                         IteratorUtils.filter((Iterator<Vertex>) iterator, t -> this.graphComputerView.legalVertex(t)) :
@@ -322,6 +380,29 @@ public final class TinkerGraph implements Graph {
                 iterator;
     }
 
+    /**
+     * Gets the element with the identifier as the {@link IdManager} converts it, which a {@link TinkerElementMap} does
+     * without boxing a numeric identifier again.
+     */
+    static <E> E getElement(final Map<Object, E> elements, final IdManager<?> idManager, final Object id) {
+        return elements instanceof TinkerElementMap && id instanceof Number ?
+                ((TinkerElementMap<E>) elements).lookup((Number) id) :
+                elements.get(idManager.convert(id));
+    }
+
+    /**
+     * Creates the map from identifiers to elements for the {@link IdManager}, which keeps {@code long} and
+     * {@code int} identifiers in a {@link TinkerElementMap}.
+     */
+    static <E> Map<Object, E> createElementMap(final IdManager<?> idManager, final int expectedSize) {
+        if (idManager == DefaultIdManager.LONG)
+            return new TinkerElementMap<>(false, expectedSize);
+        else if (idManager == DefaultIdManager.INTEGER)
+            return new TinkerElementMap<>(true, expectedSize);
+        else
+            return new ConcurrentHashMap<>(expectedSize);
+    }
+
     /**
      * Return TinkerGraph feature set.
      * <p/>
@@ -434,7 +515,7 @@ public final class TinkerGraph implements Graph {
 
         @Override
         public boolean supportsTransactions() {
-            return false;
+            return null != transaction;
         }
 
         @Override
@@ -472,12 +553,25 @@ public final class TinkerGraph implements Graph {
      * @param <E>          The type of the element class
      */
     public <E extends Element> void createIndex(final String key, final Class<E> elementClass) {
+        this.createIndex(key, elementClass, IndexType.HASH);
+    }
+
+    /**
+     * Create an index of the specified {@link IndexType} for said element class ({@link Vertex} or {@link Edge}) and
+     * said property key. If the key is already indexed with a different {@link IndexType}, that index is replaced.
+     *
+     * @param key          the property key to index
+     * @param elementClass the element class to index
+     * @param indexType    the type of index to create
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void createIndex(final String key, final Class<E> elementClass, final IndexType indexType) {
         if (Vertex.class.isAssignableFrom(elementClass)) {
             if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
-            this.vertexIndex.createKeyIndex(key);
+            this.vertexIndex.createKeyIndex(key, indexType);
         } else if (Edge.class.isAssignableFrom(elementClass)) {
             if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
-            this.edgeIndex.createKeyIndex(key);
+            this.edgeIndex.createKeyIndex(key, indexType);
         } else {
             throw new IllegalArgumentException("Class is not indexable: " + elementClass);
         }
@@ -517,6 +611,97 @@ public final class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Create a composite index for said element class ({@link Vertex} or {@link Edge}) over the ordered tuple of
+     * property keys, which may include {@code T.label}. Such an index is used when a traversal has an equality
+     * predicate for every one of its keys. Whenever an element has one of the keys mutated, the index is updated.
+     * When the index is created, all existing elements are indexed to ensure that they are captured by the index.
+     *
+     * @param elementClass the element class to index
+     * @param keys         the property keys to index, at least two
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void createCompositeIndex(final Class<E> elementClass, final String... keys) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
+            this.vertexIndex.createCompositeIndex(Arrays.asList(keys));
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
+            this.edgeIndex.createCompositeIndex(Arrays.asList(keys));
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Drop the composite index for the specified element class ({@link Vertex} or {@link Edge}) and keys.
+     *
+     * @param elementClass the element class of the index to drop
+     * @param keys         the property keys of the index in the order they were given on creation
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void dropCompositeIndex(final Class<E> elementClass, final String... keys) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            if (null != this.vertexIndex) this.vertexIndex.dropCompositeIndex(Arrays.asList(keys));
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            if (null != this.edgeIndex) this.edgeIndex.dropCompositeIndex(Arrays.asList(keys));
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Return the key tuples of the composite indices for said element class ({@link Vertex} or {@link Edge}).
+     *
+     * @param elementClass the element class to get the composite indices for
+     * @param <E>          The type of the element class
+     * @return the set of key tuples currently being indexed
+     */
+    public <E extends Element> Set<List<String>> getCompositeIndexedKeys(final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return null == this.vertexIndex ? Collections.emptySet() : this.vertexIndex.getCompositeKeys();
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return null == this.edgeIndex ? Collections.emptySet() : this.edgeIndex.getCompositeKeys();
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Return the {@link IndexType} of the index on the key for said element class ({@link Vertex} or {@link Edge}).
+     *
+     * @param key          the property key of the index
+     * @param elementClass the element class of the index
+     * @param <E>          The type of the element class
+     * @return the type of the index or {@code null} if the key is not indexed
+     */
+    public <E extends Element> IndexType getIndexType(final String key, final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return null == this.vertexIndex ? null : this.vertexIndex.getIndexType(key);
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return null == this.edgeIndex ? null : this.edgeIndex.getIndexType(key);
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * The types of index that can be created with {@link #createIndex(String, Class, IndexType)}.
+     */
+    public enum IndexType {
+        /**
+         * An index that can only answer equality lookups. This is the type of index created by
+         * {@link #createIndex(String, Class)}.
+         */
+        HASH,
+
+        /**
+         * An index that keeps values in order so that it can also answer range lookups (e.g. {@code gt}, {@code lt},
+         * {@code between} and {@code inside}) and return elements in the order of their value for the key.
+         */
+        SORTED
+    }
+
     /**
      * Construct an {@link TinkerGraph.IdManager} from the TinkerGraph {@code Configuration}.
      */
@@ -533,6 +718,21 @@ public final class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Determine from the TinkerGraph {@code Configuration} if vertices should store their edges in
+     * {@link TinkerAdjacency} arrays rather than in the default label to {@code Set} maps.
+     */
+    private static boolean selectCompactAdjacency(final Configuration config) {
+        final String adjacency = config.getString(GREMLIN_TINKERGRAPH_ADJACENCY, "default");
+        if (adjacency.equals("compact"))
+            return true;
+        else if (adjacency.equals("default"))
+            return false;
+        else
+            throw new IllegalStateException(String.format("The %s must be one of 'default' or 'compact' but was '%s'",
+                    GREMLIN_TINKERGRAPH_ADJACENCY, adjacency));
+    }
+
     /**
      * TinkerGraph will use an implementation of this interface to generate identifiers when a user does not supply
      * them and to handle identifier conversions when querying to provide better flexibility with respect to
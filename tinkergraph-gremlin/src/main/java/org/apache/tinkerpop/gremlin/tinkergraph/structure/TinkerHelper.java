@@ -22,17 +22,20 @@ import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
 import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputerView;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,6 +53,7 @@ public final class TinkerHelper {
     protected static Edge addEdge(final TinkerGraph graph, final TinkerVertex outVertex, final TinkerVertex inVertex, final String label, final Object... keyValues) {
         ElementHelper.validateLabel(label);
         ElementHelper.legalPropertyKeyValueArray(keyValues);
+        if (null != graph.transaction) graph.transaction.lock();
 
         Object idValue = graph.edgeIdManager.convert(ElementHelper.getIdValue(keyValues).orElse(null));
 
@@ -62,15 +66,27 @@ public final class TinkerHelper {
         }
 
         edge = new TinkerEdge(idValue, outVertex, label, inVertex);
+        if (null != graph.transaction) graph.transaction.add((TinkerEdge) edge);
         ElementHelper.attachProperties(edge, keyValues);
         graph.edges.put(edge.id(), edge);
+        if (null == graph.transaction) {
+            graph.edgeLabelIndex.add(edge);
+            if (null != graph.writeAheadLog) graph.writeAheadLog.addEdge(edge);
+        }
         TinkerHelper.addOutEdge(outVertex, label, edge);
         TinkerHelper.addInEdge(inVertex, label, edge);
         return edge;
 
     }
 
-    protected static void addOutEdge(final TinkerVertex vertex, final String label, final Edge edge) {
+    protected static void addOutEdge(final TinkerVertex outVertex, final String label, final Edge edge) {
+        final TinkerGraph graph = (TinkerGraph) outVertex.graph();
+        final TinkerVertex vertex = null == graph.transaction ? outVertex : graph.transaction.copyOnWriteEdges(outVertex, Direction.OUT);
+        if (graph.compactAdjacency) {
+            if (null == vertex.outAdjacency) vertex.outAdjacency = new TinkerAdjacency();
+            vertex.outAdjacency.add(graph.edgeLabelIds.intern(label), edge);
+            return;
+        }
         if (null == vertex.outEdges) vertex.outEdges = new HashMap<>();
         Set<Edge> edges = vertex.outEdges.get(label);
         if (null == edges) {
@@ -80,7 +96,14 @@ public final class TinkerHelper {
         edges.add(edge);
     }
 
-    protected static void addInEdge(final TinkerVertex vertex, final String label, final Edge edge) {
+    protected static void addInEdge(final TinkerVertex inVertex, final String label, final Edge edge) {
+        final TinkerGraph graph = (TinkerGraph) inVertex.graph();
+        final TinkerVertex vertex = null == graph.transaction ? inVertex : graph.transaction.copyOnWriteEdges(inVertex, Direction.IN);
+        if (graph.compactAdjacency) {
+            if (null == vertex.inAdjacency) vertex.inAdjacency = new TinkerAdjacency();
+            vertex.inAdjacency.add(graph.edgeLabelIds.intern(label), edge);
+            return;
+        }
         if (null == vertex.inEdges) vertex.inEdges = new HashMap<>();
         Set<Edge> edges = vertex.inEdges.get(label);
         if (null == edges) {
@@ -90,6 +113,32 @@ public final class TinkerHelper {
         edges.add(edge);
     }
 
+    protected static void removeOutEdge(final TinkerVertex outVertex, final String label, final Edge edge) {
+        if (null == outVertex) return;
+        final TinkerGraph graph = (TinkerGraph) outVertex.graph();
+        final TinkerVertex vertex = null == graph.transaction ? outVertex : graph.transaction.copyOnWriteEdges(outVertex, Direction.OUT);
+        if (null != vertex.outAdjacency)
+            vertex.outAdjacency.remove(graph.edgeLabelIds.id(label), edge);
+        else if (null != vertex.outEdges) {
+            final Set<Edge> edges = vertex.outEdges.get(label);
+            if (null != edges)
+                edges.remove(edge);
+        }
+    }
+
+    protected static void removeInEdge(final TinkerVertex inVertex, final String label, final Edge edge) {
+        if (null == inVertex) return;
+        final TinkerGraph graph = (TinkerGraph) inVertex.graph();
+        final TinkerVertex vertex = null == graph.transaction ? inVertex : graph.transaction.copyOnWriteEdges(inVertex, Direction.IN);
+        if (null != vertex.inAdjacency)
+            vertex.inAdjacency.remove(graph.edgeLabelIds.id(label), edge);
+        else if (null != vertex.inEdges) {
+            final Set<Edge> edges = vertex.inEdges.get(label);
+            if (null != edges)
+                edges.remove(edge);
+        }
+    }
+
     public static List<TinkerVertex> queryVertexIndex(final TinkerGraph graph, final String key, final Object value) {
         return null == graph.vertexIndex ? Collections.emptyList() : graph.vertexIndex.get(key, value);
     }
@@ -98,6 +147,103 @@ public final class TinkerHelper {
         return null == graph.edgeIndex ? Collections.emptyList() : graph.edgeIndex.get(key, value);
     }
 
+    public static List<TinkerVertex> queryVertexIndex(final TinkerGraph graph, final String key,
+                                                      final Object from, final boolean fromInclusive,
+                                                      final Object to, final boolean toInclusive) {
+        return null == graph.vertexIndex ? Collections.emptyList() : graph.vertexIndex.getRange(key, from, fromInclusive, to, toInclusive);
+    }
+
+    public static List<TinkerEdge> queryEdgeIndex(final TinkerGraph graph, final String key,
+                                                  final Object from, final boolean fromInclusive,
+                                                  final Object to, final boolean toInclusive) {
+        return null == graph.edgeIndex ? Collections.emptyList() : graph.edgeIndex.getRange(key, from, fromInclusive, to, toInclusive);
+    }
+
+    public static Iterator<TinkerVertex> sortedVertexIndex(final TinkerGraph graph, final String key,
+                                                           final Object from, final boolean fromInclusive,
+                                                           final Object to, final boolean toInclusive,
+                                                           final boolean descending) {
+        return null == graph.vertexIndex ? Collections.emptyIterator() : graph.vertexIndex.getSorted(key, from, fromInclusive, to, toInclusive, descending);
+    }
+
+    public static Iterator<TinkerEdge> sortedEdgeIndex(final TinkerGraph graph, final String key,
+                                                       final Object from, final boolean fromInclusive,
+                                                       final Object to, final boolean toInclusive,
+                                                       final boolean descending) {
+        return null == graph.edgeIndex ? Collections.emptyIterator() : graph.edgeIndex.getSorted(key, from, fromInclusive, to, toInclusive, descending);
+    }
+
+    public static long countVertexIndex(final TinkerGraph graph, final String key) {
+        return null == graph.vertexIndex ? 0 : graph.vertexIndex.count(key);
+    }
+
+    public static long countEdgeIndex(final TinkerGraph graph, final String key) {
+        return null == graph.edgeIndex ? 0 : graph.edgeIndex.count(key);
+    }
+
+    /**
+     * Compares two property values in the order used by a {@link TinkerGraph.IndexType#SORTED} index.
+     */
+    public static int compareIndexValues(final Object a, final Object b) {
+        return TinkerIndex.SORTED_ORDER.compare(a, b);
+    }
+
+    public static <E extends Element> long countIndex(final TinkerGraph graph, final Class<E> elementClass, final String key, final Object value) {
+        final TinkerIndex<?> index = getIndex(graph, elementClass);
+        return null == index ? 0 : index.count(key, value);
+    }
+
+    public static <E extends Element> long countCompositeIndex(final TinkerGraph graph, final Class<E> elementClass,
+                                                               final List<String> keys, final List<Object> values) {
+        final TinkerIndex<?> index = getIndex(graph, elementClass);
+        return null == index ? 0 : index.countComposite(keys, values);
+    }
+
+    /**
+     * Gets the elements that have all of the key/value pairs from the single key indices where the keys are ordered
+     * from most to least selective.
+     */
+    public static <E extends Element> List<E> queryIndex(final TinkerGraph graph, final Class<E> elementClass,
+                                                         final List<String> keys, final List<Object> values) {
+        final TinkerIndex<?> index = getIndex(graph, elementClass);
+        return null == index ? Collections.emptyList() : (List<E>) index.getAll(keys, values);
+    }
+
+    public static <E extends Element> List<E> queryCompositeIndex(final TinkerGraph graph, final Class<E> elementClass,
+                                                                  final List<String> keys, final List<Object> values) {
+        final TinkerIndex<?> index = getIndex(graph, elementClass);
+        return null == index ? Collections.emptyList() : (List<E>) index.getComposite(keys, values);
+    }
+
+    /**
+     * Gets the elements that have any of the labels from the label index that is maintained for every graph.
+     */
+    public static <E extends Element> List<E> queryLabelIndex(final TinkerGraph graph, final Class<E> elementClass,
+                                                              final Set<String> labels) {
+        return (List<E>) (Vertex.class.isAssignableFrom(elementClass) ?
+                graph.vertexLabelIndex.get(labels) :
+                graph.edgeLabelIndex.get(labels));
+    }
+
+    public static <E extends Element> long countLabelIndex(final TinkerGraph graph, final Class<E> elementClass,
+                                                           final Set<String> labels) {
+        return Vertex.class.isAssignableFrom(elementClass) ?
+                graph.vertexLabelIndex.count(labels) :
+                graph.edgeLabelIndex.count(labels);
+    }
+
+    private static <E extends Element> TinkerIndex<?> getIndex(final TinkerGraph graph, final Class<E> elementClass) {
+        return Vertex.class.isAssignableFrom(elementClass) ? graph.vertexIndex : graph.edgeIndex;
+    }
+
+    /**
+     * Determines if the calling thread has changed the graph in a transaction that is not yet committed, in which case
+     * the indices do not reflect what it sees.
+     */
+    public static boolean hasUncommittedChanges(final TinkerGraph graph) {
+        return null != graph.transaction && graph.transaction.isWriter();
+    }
+
     public static boolean inComputerMode(final TinkerGraph graph) {
         return null != graph.graphComputerView;
     }
@@ -114,47 +260,90 @@ public final class TinkerHelper {
         graph.graphComputerView = null;
     }
 
-    public static Map<String, List<VertexProperty>> getProperties(final TinkerVertex vertex) {
-        return null == vertex.properties ? Collections.emptyMap() : vertex.properties;
+    public static Object getNextVertexPropertyId(final TinkerGraph graph) {
+        return graph.vertexPropertyIdManager.getNextId(graph);
+    }
+
+    public static int getOrdinal(final TinkerVertex vertex) {
+        return vertex.ordinal;
+    }
+
+    public static void setOrdinal(final TinkerVertex vertex, final int ordinal) {
+        vertex.ordinal = ordinal;
+    }
+
+    public static Map<String, List<VertexProperty>> getProperties(final TinkerVertex element) {
+        final TinkerVertex vertex = TinkerTransaction.read((TinkerGraph) element.graph(), element);
+        if (null == vertex.properties) return Collections.emptyMap();
+        final Map<String, List<VertexProperty>> properties = new LinkedHashMap<>();
+        vertex.properties.iterator().forEachRemaining(property ->
+                properties.computeIfAbsent(property.key(), key -> new ArrayList<>(1)).add(property));
+        return properties;
+    }
+
+    public static List<VertexProperty> getProperties(final TinkerVertex element, final String key) {
+        final TinkerVertex vertex = TinkerTransaction.read((TinkerGraph) element.graph(), element);
+        final int count = null == vertex.properties ? 0 : vertex.properties.count(key);
+        if (0 == count) return Collections.emptyList();
+        final List<VertexProperty> properties = new ArrayList<>(count);
+        vertex.properties.iterator(key).forEachRemaining(properties::add);
+        return properties;
     }
 
+    /**
+     * Gets the instance of the property key that is shared by all the properties of the graph with that key.
+     */
+    protected static String internKey(final TinkerGraph graph, final String key) {
+        return graph.propertyKeys.canonical(key);
+    }
+
+    /**
+     * Updates the index for the changed property of the edge, unless the graph has transactions, in which case the
+     * indices are updated when the changes are committed.
+     */
     public static void autoUpdateIndex(final TinkerEdge edge, final String key, final Object newValue, final Object oldValue) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
-        if (graph.edgeIndex != null)
+        if (graph.edgeIndex != null && null == graph.transaction)
             graph.edgeIndex.autoUpdate(key, newValue, oldValue, edge);
     }
 
     public static void autoUpdateIndex(final TinkerVertex vertex, final String key, final Object newValue, final Object oldValue) {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
-        if (graph.vertexIndex != null)
+        if (graph.vertexIndex != null && null == graph.transaction)
             graph.vertexIndex.autoUpdate(key, newValue, oldValue, vertex);
     }
 
     public static void removeElementIndex(final TinkerVertex vertex) {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
+        if (null != graph.transaction) return;
+        graph.vertexLabelIndex.remove(vertex);
         if (graph.vertexIndex != null)
             graph.vertexIndex.removeElement(vertex);
     }
 
     public static void removeElementIndex(final TinkerEdge edge) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
+        if (null != graph.transaction) return;
+        graph.edgeLabelIndex.remove(edge);
         if (graph.edgeIndex != null)
             graph.edgeIndex.removeElement(edge);
     }
 
     public static void removeIndex(final TinkerVertex vertex, final String key, final Object value) {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
-        if (graph.vertexIndex != null)
-            graph.vertexIndex.remove(key, value, vertex);
+        if (graph.vertexIndex != null && null == graph.transaction)
+            graph.vertexIndex.autoRemove(key, value, vertex);
     }
 
     public static void removeIndex(final TinkerEdge edge, final String key, final Object value) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
-        if (graph.edgeIndex != null)
-            graph.edgeIndex.remove(key, value, edge);
+        if (graph.edgeIndex != null && null == graph.transaction)
+            graph.edgeIndex.autoRemove(key, value, edge);
     }
 
     public static Iterator<TinkerEdge> getEdges(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
+        if (((TinkerGraph) vertex.graph()).compactAdjacency)
+            return (Iterator) getAdjacent(vertex, direction, edgeLabels, false);
         final List<Edge> edges = new ArrayList<>();
         if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH)) {
             if (vertex.outEdges != null) {
@@ -179,7 +368,31 @@ public final class TinkerHelper {
         return (Iterator) edges.iterator();
     }
 
+    /**
+     * Gets the number of edges of the vertex in both directions without collecting them.
+     */
+    public static int getDegree(final TinkerVertex element) {
+        final TinkerVertex vertex = TinkerTransaction.read((TinkerGraph) element.graph(), element);
+        if (((TinkerGraph) vertex.graph()).compactAdjacency)
+            return (null == vertex.outAdjacency ? 0 : vertex.outAdjacency.size()) +
+                    (null == vertex.inAdjacency ? 0 : vertex.inAdjacency.size());
+        int degree = 0;
+        if (null != vertex.outEdges) {
+            for (final Set<Edge> edges : vertex.outEdges.values()) {
+                degree += edges.size();
+            }
+        }
+        if (null != vertex.inEdges) {
+            for (final Set<Edge> edges : vertex.inEdges.values()) {
+                degree += edges.size();
+            }
+        }
+        return degree;
+    }
+
     public static Iterator<TinkerVertex> getVertices(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
+        if (((TinkerGraph) vertex.graph()).compactAdjacency)
+            return (Iterator) getAdjacent(vertex, direction, edgeLabels, true);
         final List<Vertex> vertices = new ArrayList<>();
         if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH)) {
             if (vertex.outEdges != null) {
@@ -204,6 +417,33 @@ public final class TinkerHelper {
         return (Iterator) vertices.iterator();
     }
 
+    /**
+     * Iterates the compact adjacency of the vertex without copying it, returning either the edges or the vertices at
+     * their other end.
+     */
+    private static Iterator<?> getAdjacent(final TinkerVertex vertex, final Direction direction, final String[] edgeLabels,
+                                           final boolean adjacentVertices) {
+        final int[] labelIds;
+        if (edgeLabels.length == 0)
+            labelIds = new int[0];
+        else {
+            final TinkerDictionary dictionary = ((TinkerGraph) vertex.graph()).edgeLabelIds;
+            labelIds = Stream.of(edgeLabels).mapToInt(dictionary::id).filter(id -> id != TinkerDictionary.NOT_FOUND).toArray();
+            if (labelIds.length == 0) return Collections.emptyIterator();
+        }
+        Iterator<?> out = Collections.emptyIterator();
+        Iterator<?> in = Collections.emptyIterator();
+        if ((direction.equals(Direction.OUT) || direction.equals(Direction.BOTH)) && null != vertex.outAdjacency)
+            out = adjacentVertices ?
+                    IteratorUtils.map(vertex.outAdjacency.iterator(labelIds), edge -> ((TinkerEdge) edge).inVertex) :
+                    vertex.outAdjacency.iterator(labelIds);
+        if ((direction.equals(Direction.IN) || direction.equals(Direction.BOTH)) && null != vertex.inAdjacency)
+            in = adjacentVertices ?
+                    IteratorUtils.map(vertex.inAdjacency.iterator(labelIds), edge -> ((TinkerEdge) edge).outVertex) :
+                    vertex.inAdjacency.iterator(labelIds);
+        return direction.equals(Direction.BOTH) ? IteratorUtils.concat((Iterator) out, (Iterator) in) : direction.equals(Direction.OUT) ? out : in;
+    }
+
     public static Map<Object, Vertex> getVertices(final TinkerGraph graph) {
         return graph.vertices;
     }
@@ -22,23 +22,44 @@ import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.NumberHelper;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 final class TinkerIndex<T extends Element> {
 
+    /**
+     * The order of the values in a {@link TinkerGraph.IndexType#SORTED} index. Numbers are compared by value
+     * regardless of their type (as with {@link org.apache.tinkerpop.gremlin.process.traversal.Compare}) and other
+     * values by their natural order. Values of mutually incomparable types are grouped by type name.
+     */
+    static final Comparator<Object> SORTED_ORDER = TinkerIndex::compareValues;
+
     protected Map<String, Map<Object, Set<T>>> index = new ConcurrentHashMap<>();
     protected final Class<T> indexClass;
     private final Set<String> indexedKeys = new HashSet<>();
+    private final Set<String> sortedKeys = new HashSet<>();
+    // the number of distinct elements and of value/element pairs per key, which differ for multi-valued vertices
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> pairs = new ConcurrentHashMap<>();
+    private final Map<List<String>, Map<List<Object>, Set<T>>> compositeIndex = new ConcurrentHashMap<>();
     private final TinkerGraph graph;
 
     public TinkerIndex(final TinkerGraph graph, final Class<T> indexClass) {
@@ -47,9 +68,16 @@ final class TinkerIndex<T extends Element> {
     }
 
     protected void put(final String key, final Object value, final T element) {
+        if (this.add(key, value, element) && !this.isIndexedWithOtherValue(key, value, element))
+            this.counts.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    private boolean add(final String key, final Object value, final T element) {
         Map<Object, Set<T>> keyMap = this.index.get(key);
         if (null == keyMap) {
-            this.index.putIfAbsent(key, new ConcurrentHashMap<Object, Set<T>>());
+            this.index.putIfAbsent(key, this.sortedKeys.contains(key) ?
+                    new ConcurrentSkipListMap<>(SORTED_ORDER) :
+                    new ConcurrentHashMap<Object, Set<T>>());
             keyMap = this.index.get(key);
         }
         Set<T> objects = keyMap.get(value);
@@ -57,7 +85,26 @@ final class TinkerIndex<T extends Element> {
             keyMap.putIfAbsent(value, ConcurrentHashMap.newKeySet());
             objects = keyMap.get(value);
         }
-        objects.add(element);
+        if (!objects.add(element)) return false;
+        this.pairs.computeIfAbsent(key, k -> new LongAdder()).increment();
+        return true;
+    }
+
+    /**
+     * Determines if the element is in the index for the key with a value other than the given one, which is only
+     * possible if it is a vertex with multiple properties for the key.
+     */
+    private boolean isIndexedWithOtherValue(final String key, final Object value, final T element) {
+        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        if (null == keyMap) return false;
+        for (final Object other : values(element, key)) {
+            if (!other.equals(value)) {
+                final Set<T> objects = keyMap.get(other);
+                if (null != objects && objects.contains(element))
+                    return true;
+            }
+        }
+        return false;
     }
 
     public List<T> get(final String key, final Object value) {
@@ -73,6 +120,40 @@ final class TinkerIndex<T extends Element> {
         }
     }
 
+    /**
+     * Gets the elements with a value for the key that falls between the two bounds, where a {@code null} bound
+     * is unbounded. This is only possible for a key with a {@link TinkerGraph.IndexType#SORTED} index.
+     */
+    public List<T> getRange(final String key, final Object from, final boolean fromInclusive,
+                            final Object to, final boolean toInclusive) {
+        // a vertex with multiple values for the key can be in more than one set
+        final Set<T> elements = new LinkedHashSet<>();
+        this.getSortedMap(key, from, fromInclusive, to, toInclusive).values().forEach(elements::addAll);
+        return new ArrayList<>(elements);
+    }
+
+    /**
+     * Gets the elements with a value for the key that falls between the two bounds in the order of that value. As
+     * with {@link #getRange}, a {@code null} bound is unbounded. A vertex with multiple values for the key is only
+     * returned at the first of them in that order.
+     */
+    public Iterator<T> getSorted(final String key, final Object from, final boolean fromInclusive,
+                                 final Object to, final boolean toInclusive, final boolean descending) {
+        final NavigableMap<Object, Set<T>> keyMap = this.getSortedMap(key, from, fromInclusive, to, toInclusive);
+        final Stream<T> elements = (descending ? keyMap.descendingMap() : keyMap).values().stream().flatMap(Set::stream);
+        if (sum(this.pairs.get(key)) == sum(this.counts.get(key)))
+            return elements.iterator();
+        final Set<T> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        return elements.filter(seen::add).iterator();
+    }
+
+    /**
+     * Gets the number of distinct elements in the index for the key.
+     */
+    public long count(final String key) {
+        return sum(this.counts.get(key));
+    }
+
     public long count(final String key, final Object value) {
         final Map<Object, Set<T>> keyMap = this.index.get(key);
         if (null == keyMap) {
@@ -86,23 +167,74 @@ final class TinkerIndex<T extends Element> {
         }
     }
 
-    public void remove(final String key, final Object value, final T element) {
-        final Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (null != keyMap) {
-            Set<T> objects = keyMap.get(value);
-            if (null != objects) {
-                objects.remove(element);
-                if (objects.size() == 0) {
-                    keyMap.remove(value);
-                }
+    /**
+     * Gets the elements that have all of the key/value pairs from the single key indices. The keys should be ordered
+     * from most to least selective as the elements for the first key are the ones that are checked against the rest.
+     */
+    public List<T> getAll(final List<String> keys, final List<Object> values) {
+        final List<Set<T>> sets = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            final Map<Object, Set<T>> keyMap = this.index.get(keys.get(i));
+            final Set<T> set = null == keyMap ? null : keyMap.get(values.get(i));
+            if (null == set) return Collections.emptyList();
+            sets.add(set);
+        }
+        final List<T> elements = new ArrayList<>();
+        for (final T element : sets.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < sets.size() && inAll; i++) {
+                inAll = sets.get(i).contains(element);
             }
+            if (inAll) elements.add(element);
         }
+        return elements;
+    }
+
+    public List<T> getComposite(final List<String> keys, final List<Object> values) {
+        final Map<List<Object>, Set<T>> tupleMap = this.compositeIndex.get(keys);
+        final Set<T> set = null == tupleMap ? null : tupleMap.get(values);
+        return null == set ? Collections.emptyList() : new ArrayList<>(set);
+    }
+
+    public long countComposite(final List<String> keys, final List<Object> values) {
+        final Map<List<Object>, Set<T>> tupleMap = this.compositeIndex.get(keys);
+        final Set<T> set = null == tupleMap ? null : tupleMap.get(values);
+        return null == set ? 0 : set.size();
+    }
+
+    public void remove(final String key, final Object value, final T element) {
+        if (this.delete(key, value, element) && !this.isIndexedWithOtherValue(key, value, element))
+            this.counts.get(key).decrement();
+    }
+
+    private boolean delete(final String key, final Object value, final T element) {
+        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        if (null == keyMap) return false;
+        final Set<T> objects = keyMap.get(value);
+        if (null == objects) return false;
+        final boolean removed = objects.remove(element);
+        if (removed)
+            this.pairs.get(key).decrement();
+        if (objects.size() == 0)
+            keyMap.remove(value);
+        return removed;
     }
 
     public void removeElement(final T element) {
         if (this.indexClass.isAssignableFrom(element.getClass())) {
-            for (Map<Object, Set<T>> map : index.values()) {
-                for (Set<T> set : map.values()) {
+            for (Map.Entry<String, Map<Object, Set<T>>> entry : index.entrySet()) {
+                boolean removed = false;
+                for (Set<T> set : entry.getValue().values()) {
+                    if (set.remove(element)) {
+                        this.pairs.get(entry.getKey()).decrement();
+                        removed = true;
+                    }
+                }
+                if (removed)
+                    this.counts.get(entry.getKey()).decrement();
+            }
+            for (Map<List<Object>, Set<T>> tupleMap : compositeIndex.values()) {
+                for (Set<T> set : tupleMap.values()) {
                     set.remove(element);
                 }
             }
@@ -115,26 +247,212 @@ final class TinkerIndex<T extends Element> {
                 this.remove(key, oldValue, element);
             this.put(key, newValue, element);
         }
+        if (!this.compositeIndex.isEmpty())
+            this.updateComposites(key, newValue, oldValue, element);
     }
 
     public void autoRemove(final String key, final Object oldValue, final T element) {
         if (this.indexedKeys.contains(key))
             this.remove(key, oldValue, element);
+        if (!this.compositeIndex.isEmpty())
+            this.updateComposites(key, null, oldValue, element);
+    }
+
+    /**
+     * Moves the element from the entries for the values that {@code previous} has to the ones for the values that
+     * {@code current} has, which are the states of the element before and after the changes of a transaction. Either
+     * may be {@code null} for an element that was added or removed.
+     */
+    public void update(final T element, final Element previous, final Element current) {
+        for (final String key : this.indexedKeys) {
+            final List<Object> previousValues = null == previous ? Collections.emptyList() : values(previous, key);
+            final List<Object> currentValues = null == current ? Collections.emptyList() : values(current, key);
+            // the element itself may not have either state yet, so it is only counted by whether it has values at all
+            for (final Object value : previousValues) {
+                if (!currentValues.contains(value))
+                    this.delete(key, value, element);
+            }
+            for (final Object value : currentValues) {
+                if (!previousValues.contains(value))
+                    this.add(key, value, element);
+            }
+            if (previousValues.isEmpty() && !currentValues.isEmpty())
+                this.counts.computeIfAbsent(key, k -> new LongAdder()).increment();
+            else if (!previousValues.isEmpty() && currentValues.isEmpty())
+                this.counts.computeIfAbsent(key, k -> new LongAdder()).decrement();
+        }
+        for (final Map.Entry<List<String>, Map<List<Object>, Set<T>>> entry : this.compositeIndex.entrySet()) {
+            final Set<List<Object>> previousTuples = null == previous ? Collections.emptySet() : tuples(entry.getKey(), previous);
+            final Set<List<Object>> currentTuples = null == current ? Collections.emptySet() : tuples(entry.getKey(), current);
+            for (final List<Object> tuple : previousTuples) {
+                if (!currentTuples.contains(tuple)) {
+                    final Set<T> set = entry.getValue().get(tuple);
+                    if (null != set) {
+                        set.remove(element);
+                        if (set.isEmpty()) entry.getValue().remove(tuple);
+                    }
+                }
+            }
+            for (final List<Object> tuple : currentTuples) {
+                if (!previousTuples.contains(tuple))
+                    entry.getValue().computeIfAbsent(tuple, t -> ConcurrentHashMap.newKeySet()).add(element);
+            }
+        }
+    }
+
+    /**
+     * Called after the value of the key on the element has changed, where {@code newValue} was added and
+     * {@code oldValue} was removed (either may be {@code null}), to move the element from the tuples it had to the
+     * ones it has now in every composite index that includes the key.
+     */
+    private void updateComposites(final String key, final Object newValue, final Object oldValue, final T element) {
+        for (final Map.Entry<List<String>, Map<List<Object>, Set<T>>> entry : this.compositeIndex.entrySet()) {
+            final List<String> keys = entry.getKey();
+            final int position = keys.indexOf(key);
+            if (-1 == position) continue;
+
+            final List<List<Object>> currentValues = new ArrayList<>(keys.size());
+            for (final String k : keys) {
+                currentValues.add(values(element, k));
+            }
+            final List<List<Object>> previousValues = new ArrayList<>(currentValues);
+            final List<Object> previous = new ArrayList<>(currentValues.get(position));
+            if (null != newValue) previous.remove(newValue);
+            if (null != oldValue) previous.add(oldValue);
+            previousValues.set(position, previous);
+
+            final Set<List<Object>> currentTuples = tuples(currentValues);
+            final Set<List<Object>> previousTuples = tuples(previousValues);
+            for (final List<Object> tuple : previousTuples) {
+                if (!currentTuples.contains(tuple)) {
+                    final Set<T> set = entry.getValue().get(tuple);
+                    if (null != set) {
+                        set.remove(element);
+                        if (set.isEmpty()) entry.getValue().remove(tuple);
+                    }
+                }
+            }
+            for (final List<Object> tuple : currentTuples) {
+                if (!previousTuples.contains(tuple))
+                    entry.getValue().computeIfAbsent(tuple, t -> ConcurrentHashMap.newKeySet()).add(element);
+            }
+        }
+    }
+
+    /**
+     * Adds an element that is not yet indexed to every key and composite index, as if it had been in the graph when
+     * the indices were created.
+     */
+    public void index(final T element) {
+        for (final String key : this.indexedKeys) {
+            for (final Object value : values(element, key)) {
+                this.put(key, value, element);
+            }
+        }
+        for (final Map.Entry<List<String>, Map<List<Object>, Set<T>>> entry : this.compositeIndex.entrySet()) {
+            for (final List<Object> tuple : tuples(entry.getKey(), element)) {
+                entry.getValue().computeIfAbsent(tuple, t -> ConcurrentHashMap.newKeySet()).add(element);
+            }
+        }
+    }
+
+    public void createCompositeIndex(final List<String> keys) {
+        if (null == keys)
+            throw Graph.Exceptions.argumentCanNotBeNull("keys");
+        if (keys.size() < 2)
+            throw new IllegalArgumentException("A composite index requires at least two keys");
+        for (final String key : keys) {
+            if (null == key)
+                throw Graph.Exceptions.argumentCanNotBeNull("key");
+            if (key.isEmpty())
+                throw new IllegalArgumentException("The key for the index cannot be an empty string");
+        }
+
+        if (this.compositeIndex.containsKey(keys))
+            return;
+        final Map<List<Object>, Set<T>> tupleMap = new ConcurrentHashMap<>();
+        this.compositeIndex.put(keys, tupleMap);
+
+        (Vertex.class.isAssignableFrom(this.indexClass) ?
+                this.graph.vertices.values().<T>parallelStream() :
+                this.graph.edges.values().<T>parallelStream())
+                .filter(e -> !((TinkerElement) e).pending)
+                .forEach(e -> {
+                    for (final List<Object> tuple : tuples(keys, (T) e)) {
+                        tupleMap.computeIfAbsent(tuple, t -> ConcurrentHashMap.newKeySet()).add((T) e);
+                    }
+                });
+    }
+
+    public void dropCompositeIndex(final List<String> keys) {
+        final Map<List<Object>, Set<T>> tupleMap = this.compositeIndex.remove(keys);
+        if (null != tupleMap) tupleMap.clear();
+    }
+
+    public Set<List<String>> getCompositeKeys() {
+        return this.compositeIndex.keySet();
+    }
+
+    private static List<Object> values(final Element element, final String key) {
+        if (key.equals(org.apache.tinkerpop.gremlin.structure.T.label.getAccessor()))
+            return Collections.singletonList(element.label());
+        final List<Object> values = new ArrayList<>(1);
+        element.properties(key).forEachRemaining(p -> values.add(p.value()));
+        return values;
+    }
+
+    private static Set<List<Object>> tuples(final List<String> keys, final Element element) {
+        final List<List<Object>> values = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            values.add(values(element, key));
+        }
+        return tuples(values);
+    }
+
+    /**
+     * Gets every combination of one value per key, of which there is more than one only if a vertex has multiple
+     * properties for a key.
+     */
+    private static Set<List<Object>> tuples(final List<List<Object>> values) {
+        Set<List<Object>> tuples = Collections.singleton(Collections.emptyList());
+        for (final List<Object> keyValues : values) {
+            if (keyValues.isEmpty()) return Collections.emptySet();
+            final Set<List<Object>> extended = new HashSet<>();
+            for (final List<Object> tuple : tuples) {
+                for (final Object value : keyValues) {
+                    final List<Object> extendedTuple = new ArrayList<>(tuple);
+                    extendedTuple.add(value);
+                    extended.add(extendedTuple);
+                }
+            }
+            tuples = extended;
+        }
+        return tuples;
     }
 
     public void createKeyIndex(final String key) {
+        this.createKeyIndex(key, TinkerGraph.IndexType.HASH);
+    }
+
+    public void createKeyIndex(final String key, final TinkerGraph.IndexType indexType) {
         if (null == key)
             throw Graph.Exceptions.argumentCanNotBeNull("key");
         if (key.isEmpty())
             throw new IllegalArgumentException("The key for the index cannot be an empty string");
 
-        if (this.indexedKeys.contains(key))
-            return;
+        if (this.indexedKeys.contains(key)) {
+            if (this.getIndexType(key) == indexType)
+                return;
+            this.dropKeyIndex(key);
+        }
         this.indexedKeys.add(key);
+        if (indexType == TinkerGraph.IndexType.SORTED)
+            this.sortedKeys.add(key);
 
         (Vertex.class.isAssignableFrom(this.indexClass) ?
                 this.graph.vertices.values().<T>parallelStream() :
                 this.graph.edges.values().<T>parallelStream())
+                .filter(e -> !((TinkerElement) e).pending)
                 .map(e -> new Object[]{((T) e).property(key), e})
                 .filter(a -> ((Property) a[0]).isPresent())
                 .forEach(a -> this.put(key, ((Property) a[0]).value(), (T) a[1]));
@@ -145,9 +463,63 @@ final class TinkerIndex<T extends Element> {
             this.index.remove(key).clear();
 
         this.indexedKeys.remove(key);
+        this.sortedKeys.remove(key);
+        this.counts.remove(key);
+        this.pairs.remove(key);
     }
 
     public Set<String> getIndexedKeys() {
         return this.indexedKeys;
     }
+
+    public Set<String> getSortedKeys() {
+        return this.sortedKeys;
+    }
+
+    public TinkerGraph.IndexType getIndexType(final String key) {
+        if (!this.indexedKeys.contains(key))
+            return null;
+        return this.sortedKeys.contains(key) ? TinkerGraph.IndexType.SORTED : TinkerGraph.IndexType.HASH;
+    }
+
+    private NavigableMap<Object, Set<T>> getSortedMap(final String key, final Object from, final boolean fromInclusive,
+                                                      final Object to, final boolean toInclusive) {
+        if (!this.sortedKeys.contains(key))
+            throw new IllegalStateException(String.format("The key %s does not have a %s index", key, TinkerGraph.IndexType.SORTED));
+        final NavigableMap<Object, Set<T>> keyMap = (NavigableMap<Object, Set<T>>) this.index.get(key);
+        if (null == keyMap || (null != from && null != to && SORTED_ORDER.compare(from, to) > 0))
+            return Collections.emptyNavigableMap();
+        else if (null != from && null != to)
+            return keyMap.subMap(from, fromInclusive, to, toInclusive);
+        else if (null != from)
+            return keyMap.tailMap(from, fromInclusive);
+        else if (null != to)
+            return keyMap.headMap(to, toInclusive);
+        else
+            return keyMap;
+    }
+
+    private static int compareValues(final Object a, final Object b) {
+        if (a instanceof Number && b instanceof Number)
+            return NumberHelper.compare((Number) a, (Number) b);
+        if (a instanceof Comparable && b instanceof Comparable && !(a instanceof Number) && !(b instanceof Number)) {
+            try {
+                return ((Comparable) a).compareTo(b);
+            } catch (final ClassCastException cce) {
+                // fall through to compare by type
+            }
+        }
+        final int byType = typeName(a).compareTo(typeName(b));
+        if (byType != 0 || a.equals(b)) return byType;
+        final int byHash = Integer.compare(a.hashCode(), b.hashCode());
+        return byHash != 0 ? byHash : Integer.compare(System.identityHashCode(a), System.identityHashCode(b));
+    }
+
+    private static long sum(final LongAdder adder) {
+        return null == adder ? 0 : adder.sum();
+    }
+
+    private static String typeName(final Object value) {
+        return value instanceof Number ? Number.class.getName() : value.getClass().getName();
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Element;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of the elements of a graph by their label. Unlike a {@link TinkerIndex} it is always present and is
+ * maintained as elements are added and removed, which is cheap as the label of an element never changes.
+ */
+final class TinkerLabelIndex<T extends Element> {
+
+    private final Map<String, Set<T>> index = new ConcurrentHashMap<>();
+
+    public void add(final T element) {
+        this.index.computeIfAbsent(element.label(), label -> ConcurrentHashMap.newKeySet()).add(element);
+    }
+
+    public void remove(final T element) {
+        final Set<T> elements = this.index.get(element.label());
+        if (null != elements)
+            elements.remove(element);
+    }
+
+    /**
+     * Gets the elements that have any of the labels.
+     */
+    public List<T> get(final Collection<?> labels) {
+        if (labels.size() == 1) {
+            final Set<T> elements = this.index.get(labels.iterator().next());
+            return null == elements ? Collections.emptyList() : new ArrayList<>(elements);
+        }
+        final List<T> elements = new ArrayList<>();
+        for (final Object label : labels) {
+            final Set<T> set = this.index.get(label);
+            if (null != set)
+                elements.addAll(set);
+        }
+        return elements;
+    }
+
+    /**
+     * Gets the number of elements that have any of the labels.
+     */
+    public long count(final Collection<?> labels) {
+        long count = 0;
+        for (final Object label : labels) {
+            final Set<T> elements = this.index.get(label);
+            if (null != elements)
+                count = count + elements.size();
+        }
+        return count;
+    }
+
+    public void clear() {
+        this.index.clear();
+    }
+}
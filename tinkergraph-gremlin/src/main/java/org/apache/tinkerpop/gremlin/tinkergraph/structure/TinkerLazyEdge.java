@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * An {@link Edge} of a {@link TinkerLazyGraph} that reads its vertices from the graph as they are needed.
+ */
+public final class TinkerLazyEdge implements Edge {
+
+    private final TinkerLazyGraph graph;
+    private final Edge starEdge;
+
+    TinkerLazyEdge(final TinkerLazyGraph graph, final Edge starEdge) {
+        this.graph = graph;
+        this.starEdge = starEdge;
+    }
+
+    @Override
+    public Object id() {
+        return this.starEdge.id();
+    }
+
+    @Override
+    public String label() {
+        return this.starEdge.label();
+    }
+
+    @Override
+    public Graph graph() {
+        return this.graph;
+    }
+
+    @Override
+    public Iterator<Vertex> vertices(final Direction direction) {
+        final Iterator<Object> ids;
+        switch (direction) {
+            case OUT:
+                ids = IteratorUtils.of(this.starEdge.outVertex().id());
+                break;
+            case IN:
+                ids = IteratorUtils.of(this.starEdge.inVertex().id());
+                break;
+            default:
+                ids = IteratorUtils.of(this.starEdge.outVertex().id(), this.starEdge.inVertex().id());
+        }
+        return IteratorUtils.filter(IteratorUtils.map(ids, id -> (Vertex) this.graph.vertex(id)), Objects::nonNull);
+    }
+
+    @Override
+    public <V> Property<V> property(final String key, final V value) {
+        throw Element.Exceptions.propertyAdditionNotSupported();
+    }
+
+    @Override
+    public <V> Iterator<Property<V>> properties(final String... propertyKeys) {
+        return IteratorUtils.map(this.starEdge.<V>properties(propertyKeys), property -> new TinkerLazyProperty<>(this, property));
+    }
+
+    @Override
+    public void remove() {
+        throw Edge.Exceptions.edgeRemovalNotSupported();
+    }
+
+    @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+    @Override
+    public boolean equals(final Object object) {
+        return ElementHelper.areEqual(this, object);
+    }
+
+    @Override
+    public int hashCode() {
+        return ElementHelper.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.edgeString(this);
+    }
+}
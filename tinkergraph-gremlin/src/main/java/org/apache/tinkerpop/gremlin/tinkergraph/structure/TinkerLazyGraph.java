@@ -0,0 +1,507 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoMapper;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.structure.util.star.StarGraph;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only graph over a Gryo adjacency list file, as written by {@link TinkerGraph#close()} with the "gryo"
+ * format or by {@link org.apache.tinkerpop.gremlin.structure.io.gryo.GryoWriter#writeGraph}, that only reads a
+ * vertex from the memory-mapped file when it is first needed. Opening the graph builds an index of the file offset of
+ * each vertex and edge, which is saved next to the file so that the graph opens from that index the next time. The
+ * most recently used vertices are kept in a cache of {@link #GREMLIN_TINKERGRAPH_LAZY_CACHE_SIZE} entries.
+ * <p/>
+ * As with {@link TinkerGraph}, identifiers must be given with the type that was written to the file, so that
+ * {@code g.V(1)} and {@code g.V(1L)} do not find the same vertex.
+ */
+public final class TinkerLazyGraph implements Graph {
+
+    private static final Logger logger = LoggerFactory.getLogger(TinkerLazyGraph.class);
+
+    public static final String GREMLIN_TINKERGRAPH_LAZY_CACHE_SIZE = "gremlin.tinkergraph.lazyCacheSize";
+
+    private static final int CHUNK_SIZE = 1 << 30;
+    private static final String INDEX_EXTENSION = ".idx";
+
+    private final Configuration configuration;
+    private final File file;
+    private final FileChannel channel;
+    private final ByteBuffer[] chunks;
+    private final long length;
+    private final Kryo kryo;
+    private final Map<Object, Long> vertexOffsets = new HashMap<>();
+    private final Map<Object, Long> edgeOffsets = new HashMap<>();
+    private final Map<Object, TinkerLazyVertex> cache;
+
+    private TinkerLazyGraph(final Configuration configuration) throws IOException {
+        this.configuration = configuration;
+        final String location = configuration.getString(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, null);
+        if (null == location)
+            throw new IllegalStateException(String.format("The %s must be specified", TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION));
+        final int cacheSize = configuration.getInt(GREMLIN_TINKERGRAPH_LAZY_CACHE_SIZE, 10000);
+        this.cache = new LinkedHashMap<Object, TinkerLazyVertex>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Object, TinkerLazyVertex> eldest) {
+                return this.size() > cacheSize;
+            }
+        };
+
+        this.file = new File(location);
+        this.kryo = GryoMapper.build().addRegistry(TinkerIoRegistryV3d0.instance()).create().createMapper();
+        this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ);
+        this.length = this.channel.size();
+        this.chunks = new ByteBuffer[(int) ((this.length + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+        for (int i = 0; i < this.chunks.length; i++) {
+            final long position = (long) i * CHUNK_SIZE;
+            this.chunks[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, this.length - position));
+        }
+
+        if (!this.readIndex())
+            this.buildIndex();
+    }
+
+    /**
+     * Open a new {@link TinkerLazyGraph} over the file at the {@link TinkerGraph#GREMLIN_TINKERGRAPH_GRAPH_LOCATION}.
+     */
+    public static TinkerLazyGraph open(final Configuration configuration) {
+        try {
+            return new TinkerLazyGraph(configuration);
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Could not open graph at %s",
+                    configuration.getString(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION)), ex);
+        }
+    }
+
+    @Override
+    public Vertex addVertex(final Object... keyValues) {
+        throw Exceptions.vertexAdditionsNotSupported();
+    }
+
+    @Override
+    public <C extends GraphComputer> C compute(final Class<C> graphComputerClass) {
+        throw Exceptions.graphComputerNotSupported();
+    }
+
+    @Override
+    public GraphComputer compute() {
+        throw Exceptions.graphComputerNotSupported();
+    }
+
+    /**
+     * Gets the vertices with the identifiers, reading those that are not cached from the file, or all the vertices
+     * in the order of the file if there are no identifiers, in which case the cache is bypassed.
+     */
+    @Override
+    public Iterator<Vertex> vertices(final Object... vertexIds) {
+        if (0 == vertexIds.length)
+            return (Iterator) new VertexIterator();
+        final List<Vertex> vertices = new ArrayList<>(vertexIds.length);
+        for (final Object id : vertexIds) {
+            final Vertex vertex = this.vertex(id instanceof Vertex ? ((Vertex) id).id() : id);
+            if (null != vertex)
+                vertices.add(vertex);
+        }
+        return vertices.iterator();
+    }
+
+    @Override
+    public Iterator<Edge> edges(final Object... edgeIds) {
+        if (0 == edgeIds.length)
+            return IteratorUtils.flatMap(new VertexIterator(), vertex -> vertex.edges(Direction.OUT));
+        final List<Edge> edges = new ArrayList<>(edgeIds.length);
+        for (final Object id : edgeIds) {
+            final Object edgeId = id instanceof Edge ? ((Edge) id).id() : id;
+            final Long offset = this.edgeOffsets.get(edgeId);
+            if (null == offset)
+                continue;
+            this.vertexAt(offset).edges(Direction.OUT).forEachRemaining(edge -> {
+                if (edge.id().equals(edgeId))
+                    edges.add(edge);
+            });
+        }
+        return edges.iterator();
+    }
+
+    @Override
+    public Transaction tx() {
+        throw Exceptions.transactionsNotSupported();
+    }
+
+    @Override
+    public Variables variables() {
+        throw Exceptions.variablesNotSupported();
+    }
+
+    @Override
+    public Configuration configuration() {
+        return this.configuration;
+    }
+
+    @Override
+    public Features features() {
+        return TinkerLazyGraphFeatures.INSTANCE;
+    }
+
+    @Override
+    public void close() throws Exception {
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+        this.channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.graphString(this, "vertices:" + this.vertexOffsets.size() + " edges:" + this.edgeOffsets.size());
+    }
+
+    /**
+     * Gets the vertex from the cache or reads it from the file, returning {@code null} if it is not in the file.
+     */
+    TinkerLazyVertex vertex(final Object id) {
+        synchronized (this.cache) {
+            final TinkerLazyVertex vertex = this.cache.get(id);
+            if (null != vertex)
+                return vertex;
+        }
+        final Long offset = this.vertexOffsets.get(id);
+        return null == offset ? null : this.vertexAt(offset);
+    }
+
+    private TinkerLazyVertex vertexAt(final long offset) {
+        final Input input = new Input(new MappedInputStream(offset), 4096);
+        final TinkerLazyVertex vertex = new TinkerLazyVertex(this, this.readStarGraph(input).getStarVertex());
+        synchronized (this.cache) {
+            final TinkerLazyVertex cached = this.cache.putIfAbsent(vertex.id(), vertex);
+            return null == cached ? vertex : cached;
+        }
+    }
+
+    private StarGraph readStarGraph(final Input input) {
+        synchronized (this.kryo) {
+            if (!Arrays.equals(GryoMapper.GIO, input.readBytes(3)))
+                throw new IllegalStateException(String.format("Invalid format at offset %s of %s", input.total() - 3, this.file));
+            // skip the rest of the header and the terminator that follows the vertex
+            input.readBytes(13);
+            final StarGraph starGraph = this.kryo.readObject(input, StarGraph.class);
+            this.kryo.readClassAndObject(input);
+            return starGraph;
+        }
+    }
+
+    private void buildIndex() {
+        final Input input = new Input(new MappedInputStream(0), 65536);
+        while (!input.eof()) {
+            final long offset = input.total();
+            final StarGraph.StarVertex vertex = this.readStarGraph(input).getStarVertex();
+            this.vertexOffsets.put(vertex.id(), offset);
+            vertex.edges(Direction.OUT).forEachRemaining(edge -> this.edgeOffsets.put(edge.id(), offset));
+        }
+        this.writeIndex();
+    }
+
+    /**
+     * Saves the index next to the file. A graph that cannot write there simply builds the index each time it opens.
+     */
+    private void writeIndex() {
+        final File indexFile = new File(this.file.getPath() + INDEX_EXTENSION);
+        try (final Output output = new Output(new FileOutputStream(indexFile))) {
+            output.writeLong(this.length);
+            writeOffsets(output, this.vertexOffsets);
+            writeOffsets(output, this.edgeOffsets);
+        } catch (Exception ex) {
+            logger.warn(String.format("Could not save the index of %s to %s", this.file, indexFile), ex);
+            indexFile.delete();
+        }
+    }
+
+    private void writeOffsets(final Output output, final Map<Object, Long> offsets) {
+        output.writeInt(offsets.size(), true);
+        for (final Map.Entry<Object, Long> entry : offsets.entrySet()) {
+            this.kryo.writeClassAndObject(output, entry.getKey());
+            output.writeLong(entry.getValue(), true);
+        }
+    }
+
+    /**
+     * Reads the index that was saved next to the file if it is no older than the file and was built from a file of
+     * the same length.
+     */
+    private boolean readIndex() {
+        final File indexFile = new File(this.file.getPath() + INDEX_EXTENSION);
+        if (!indexFile.exists() || indexFile.lastModified() < this.file.lastModified())
+            return false;
+        try (final Input input = new Input(new FileInputStream(indexFile), 65536)) {
+            if (input.readLong() != this.length)
+                return false;
+            readOffsets(input, this.vertexOffsets);
+            readOffsets(input, this.edgeOffsets);
+            return true;
+        } catch (Exception ex) {
+            logger.warn(String.format("Could not read the index of %s from %s", this.file, indexFile), ex);
+            this.vertexOffsets.clear();
+            this.edgeOffsets.clear();
+            return false;
+        }
+    }
+
+    private void readOffsets(final Input input, final Map<Object, Long> offsets) {
+        final int size = input.readInt(true);
+        for (int i = 0; i < size; i++) {
+            offsets.put(this.kryo.readClassAndObject(input), input.readLong(true));
+        }
+    }
+
+    /**
+     * Reads all the vertices in the order of the file.
+     */
+    private final class VertexIterator implements Iterator<TinkerLazyVertex> {
+
+        private final Input input = new Input(new MappedInputStream(0), 65536);
+
+        @Override
+        public boolean hasNext() {
+            return !this.input.eof();
+        }
+
+        @Override
+        public TinkerLazyVertex next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            return new TinkerLazyVertex(TinkerLazyGraph.this, readStarGraph(this.input).getStarVertex());
+        }
+    }
+
+    /**
+     * Reads the memory-mapped file from an offset, crossing from one mapped chunk to the next as needed.
+     */
+    private final class MappedInputStream extends InputStream {
+
+        private long position;
+
+        private MappedInputStream(final long position) {
+            this.position = position;
+        }
+
+        @Override
+        public int read() {
+            if (this.position >= length)
+                return -1;
+            final int b = chunks[(int) (this.position / CHUNK_SIZE)].get((int) (this.position % CHUNK_SIZE)) & 0xff;
+            this.position++;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int count) {
+            if (this.position >= length)
+                return -1;
+            final ByteBuffer chunk = chunks[(int) (this.position / CHUNK_SIZE)].duplicate();
+            chunk.position((int) (this.position % CHUNK_SIZE));
+            final int read = Math.min(count, chunk.remaining());
+            chunk.get(bytes, offset, read);
+            this.position = this.position + read;
+            return read;
+        }
+    }
+
+    public static class TinkerLazyGraphFeatures implements Features {
+        public static final TinkerLazyGraphFeatures INSTANCE = new TinkerLazyGraphFeatures();
+
+        private TinkerLazyGraphFeatures() {
+        }
+
+        @Override
+        public GraphFeatures graph() {
+            return TinkerLazyGraphGraphFeatures.INSTANCE;
+        }
+
+        @Override
+        public EdgeFeatures edge() {
+            return TinkerLazyGraphEdgeFeatures.INSTANCE;
+        }
+
+        @Override
+        public VertexFeatures vertex() {
+            return TinkerLazyGraphVertexFeatures.INSTANCE;
+        }
+
+        @Override
+        public String toString() {
+            return StringFactory.featureString(this);
+        }
+    }
+
+    static class TinkerLazyGraphGraphFeatures implements Features.GraphFeatures {
+        public static final TinkerLazyGraphGraphFeatures INSTANCE = new TinkerLazyGraphGraphFeatures();
+
+        private TinkerLazyGraphGraphFeatures() {
+        }
+
+        @Override
+        public boolean supportsComputer() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsTransactions() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsThreadedTransactions() {
+            return false;
+        }
+
+        @Override
+        public Features.VariableFeatures variables() {
+            return TinkerLazyGraphVariableFeatures.INSTANCE;
+        }
+    }
+
+    static class TinkerLazyGraphVariableFeatures implements Features.VariableFeatures {
+        public static final TinkerLazyGraphVariableFeatures INSTANCE = new TinkerLazyGraphVariableFeatures();
+
+        private TinkerLazyGraphVariableFeatures() {
+        }
+
+        @Override
+        public boolean supportsVariables() {
+            return false;
+        }
+    }
+
+    static class TinkerLazyGraphVertexFeatures implements Features.VertexFeatures {
+        public static final TinkerLazyGraphVertexFeatures INSTANCE = new TinkerLazyGraphVertexFeatures();
+
+        private TinkerLazyGraphVertexFeatures() {
+        }
+
+        @Override
+        public Features.VertexPropertyFeatures properties() {
+            return TinkerLazyGraphVertexPropertyFeatures.INSTANCE;
+        }
+
+        @Override
+        public boolean supportsAddVertices() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsRemoveVertices() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsAddProperty() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsRemoveProperty() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsUserSuppliedIds() {
+            return false;
+        }
+    }
+
+    static class TinkerLazyGraphEdgeFeatures implements Features.EdgeFeatures {
+        public static final TinkerLazyGraphEdgeFeatures INSTANCE = new TinkerLazyGraphEdgeFeatures();
+
+        private TinkerLazyGraphEdgeFeatures() {
+        }
+
+        @Override
+        public boolean supportsAddEdges() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsRemoveEdges() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsAddProperty() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsRemoveProperty() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsUserSuppliedIds() {
+            return false;
+        }
+    }
+
+    static class TinkerLazyGraphVertexPropertyFeatures implements Features.VertexPropertyFeatures {
+        public static final TinkerLazyGraphVertexPropertyFeatures INSTANCE = new TinkerLazyGraphVertexPropertyFeatures();
+
+        private TinkerLazyGraphVertexPropertyFeatures() {
+        }
+
+        @Override
+        public boolean supportsRemoveProperty() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsUserSuppliedIds() {
+            return false;
+        }
+    }
+}
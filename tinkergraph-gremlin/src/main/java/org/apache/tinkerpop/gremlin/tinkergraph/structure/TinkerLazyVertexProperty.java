@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Iterator;
+
+/**
+ * A read-only {@link VertexProperty} of a {@link TinkerLazyVertex}.
+ */
+public final class TinkerLazyVertexProperty<V> implements VertexProperty<V> {
+
+    private final TinkerLazyVertex vertex;
+    private final VertexProperty<V> starVertexProperty;
+
+    TinkerLazyVertexProperty(final TinkerLazyVertex vertex, final VertexProperty<V> starVertexProperty) {
+        this.vertex = vertex;
+        this.starVertexProperty = starVertexProperty;
+    }
+
+    @Override
+    public Object id() {
+        return this.starVertexProperty.id();
+    }
+
+    @Override
+    public String key() {
+        return this.starVertexProperty.key();
+    }
+
+    @Override
+    public V value() {
+        return this.starVertexProperty.value();
+    }
+
+    @Override
+    public boolean isPresent() {
+        return true;
+    }
+
+    @Override
+    public Vertex element() {
+        return this.vertex;
+    }
+
+    @Override
+    public <U> Property<U> property(final String key, final U value) {
+        throw Element.Exceptions.propertyAdditionNotSupported();
+    }
+
+    @Override
+    public <U> Iterator<Property<U>> properties(final String... propertyKeys) {
+        return IteratorUtils.map(this.starVertexProperty.<U>properties(propertyKeys), property -> new TinkerLazyProperty<>(this, property));
+    }
+
+    @Override
+    public void remove() {
+        throw Property.Exceptions.propertyRemovalNotSupported();
+    }
+
+    @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+    @Override
+    public boolean equals(final Object object) {
+        return ElementHelper.areEqual(this, object);
+    }
+
+    @Override
+    public int hashCode() {
+        return ElementHelper.hashCode((Element) this);
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.propertyString(this);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The properties of a {@link TinkerVertex}, a {@link TinkerEdge} or a {@link TinkerVertexProperty}, which are held
+ * in a single array where the properties with the same key are next to each other, in the order in which their keys
+ * were first added. Keys are interned by the graph, so they are mostly found by reference while the array is scanned.
+ * Once there are more than {@link #INLINE_CAPACITY} properties, the position of each key is also kept in a map. The
+ * map is never changed once it is shared either, so a change that moves a key or adds one shares a new map.
+ * <p/>
+ * The array is never changed where it may already have been read, so an iterator over the properties does not need
+ * a copy of them to allow them to be changed while it is used. A property is only ever written in place to the first
+ * unused slot of the array, and a change to the other slots makes a new array.
+ */
+final class TinkerProperties<P extends Property> {
+
+    static final int INLINE_CAPACITY = 8;
+
+    private Property[] properties;
+    private int size = 0;
+    // the positions are read by the workers of a graph computer at once, so a change shares a new map of them
+    private volatile Map<String, Integer> positions = null;
+
+    TinkerProperties() {
+        this.properties = new Property[1];
+    }
+
+    TinkerProperties(final TinkerProperties<P> other) {
+        this.properties = Arrays.copyOf(other.properties, Math.max(1, other.size));
+        this.size = other.size;
+        this.positions = other.positions;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == this.size;
+    }
+
+    /**
+     * Gets the first property with the key or {@code null} if there is none.
+     */
+    public P get(final String key) {
+        final int position = this.positionOf(key);
+        return -1 == position ? null : (P) this.properties[position];
+    }
+
+    /**
+     * Gets the number of properties with the key.
+     */
+    public int count(final String key) {
+        final int position = this.positionOf(key);
+        return -1 == position ? 0 : this.endOf(position) - position;
+    }
+
+    public Set<String> keys() {
+        if (0 == this.size) return Collections.emptySet();
+        final Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < this.size; i++) {
+            keys.add(this.properties[i].key());
+        }
+        return keys;
+    }
+
+    public Iterator<P> iterator(final String... keys) {
+        if (0 == this.size) return Collections.emptyIterator();
+        if (0 == keys.length) return new RangeIterator<>(this.properties, 0, this.size);
+        if (1 == keys.length) {
+            final int position = this.positionOf(keys[0]);
+            if (-1 == position) return Collections.emptyIterator();
+            final int end = this.endOf(position);
+            return end - position == 1 ?
+                    IteratorUtils.of((P) this.properties[position]) :
+                    new RangeIterator<>(this.properties, position, end);
+        }
+        return IteratorUtils.filter(new RangeIterator<>(this.properties, 0, this.size),
+                property -> ElementHelper.keyExists(property.key(), keys));
+    }
+
+    /**
+     * Adds the property after any others with the same key.
+     */
+    public void add(final P property) {
+        final int position = this.positionOf(property.key());
+        if (-1 == position)
+            this.append(property);
+        else
+            this.insert(this.endOf(position), property);
+    }
+
+    /**
+     * Replaces the properties with the key of the property by the property and gets the one that was replaced.
+     */
+    public P put(final P property) {
+        final int position = this.positionOf(property.key());
+        if (-1 == position) {
+            this.append(property);
+            return null;
+        }
+        final int end = this.endOf(position);
+        final Property[] properties = new Property[Math.max(1, this.size - (end - position) + 1)];
+        System.arraycopy(this.properties, 0, properties, 0, position);
+        properties[position] = property;
+        System.arraycopy(this.properties, end, properties, position + 1, this.size - end);
+        final P previous = (P) this.properties[position];
+        this.replace(properties, this.size - (end - position) + 1);
+        return previous;
+    }
+
+    /**
+     * Removes the property, which is found by equality, and gets whether it was there.
+     */
+    public boolean remove(final P property) {
+        final int position = this.positionOf(property.key());
+        if (-1 == position) return false;
+        final int end = this.endOf(position);
+        for (int i = position; i < end; i++) {
+            if (this.properties[i].equals(property)) {
+                this.removeRange(i, i + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the properties with the key and gets the first of them.
+     */
+    public P remove(final String key) {
+        final int position = this.positionOf(key);
+        if (-1 == position) return null;
+        final P previous = (P) this.properties[position];
+        this.removeRange(position, this.endOf(position));
+        return previous;
+    }
+
+    private int positionOf(final String key) {
+        final Map<String, Integer> positions = this.positions;
+        if (null != positions) {
+            final Integer position = positions.get(key);
+            return null == position ? -1 : position;
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (key.equals(this.properties[i].key())) return i;
+        }
+        return -1;
+    }
+
+    private int endOf(final int position) {
+        final String key = this.properties[position].key();
+        int end = position + 1;
+        while (end < this.size && this.properties[end].key().equals(key)) {
+            end++;
+        }
+        return end;
+    }
+
+    private void append(final P property) {
+        if (this.size == this.properties.length)
+            this.properties = Arrays.copyOf(this.properties, this.size < INLINE_CAPACITY ? this.size + 1 : this.size + (this.size >> 1));
+        this.properties[this.size] = property;
+        this.size++;
+        if (this.size > INLINE_CAPACITY) {
+            if (null == this.positions) {
+                this.positions = positionsOf(this.properties, this.size);
+            } else if (!this.positions.containsKey(property.key())) {
+                // a property that is appended after the others with its key, which are the last ones, moves no key
+                final Map<String, Integer> positions = new HashMap<>(this.positions);
+                positions.put(property.key(), this.size - 1);
+                this.positions = positions;
+            }
+        }
+    }
+
+    private void insert(final int position, final P property) {
+        // the properties of the last key can still be appended in place without any positions changing
+        if (position == this.size) {
+            this.append(property);
+            return;
+        }
+        final Property[] properties = new Property[this.size < INLINE_CAPACITY ? this.size + 1 : this.size + (this.size >> 1)];
+        System.arraycopy(this.properties, 0, properties, 0, position);
+        properties[position] = property;
+        System.arraycopy(this.properties, position, properties, position + 1, this.size - position);
+        this.replace(properties, this.size + 1);
+    }
+
+    private void removeRange(final int start, final int end) {
+        final Property[] properties = new Property[Math.max(1, this.size - (end - start))];
+        System.arraycopy(this.properties, 0, properties, 0, start);
+        System.arraycopy(this.properties, end, properties, start, this.size - end);
+        this.replace(properties, this.size - (end - start));
+    }
+
+    private void replace(final Property[] properties, final int size) {
+        this.properties = properties;
+        this.size = size;
+        this.positions = size > INLINE_CAPACITY ? positionsOf(properties, size) : null;
+    }
+
+    private static Map<String, Integer> positionsOf(final Property[] properties, final int size) {
+        final Map<String, Integer> positions = new HashMap<>();
+        for (int i = size - 1; i >= 0; i--) {
+            positions.put(properties[i].key(), i);
+        }
+        return positions;
+    }
+
+    private static final class RangeIterator<P> implements Iterator<P> {
+        private final Property[] properties;
+        private int position;
+        private final int end;
+
+        private RangeIterator(final Property[] properties, final int start, final int end) {
+            this.properties = properties;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.position < this.end;
+        }
+
+        @Override
+        public P next() {
+            if (this.position >= this.end) throw FastNoSuchElementException.instance();
+            return (P) this.properties[this.position++];
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
@@ -76,11 +77,16 @@ public final class TinkerProperty<V> implements Property<V> {
 
     @Override
     public void remove() {
+        final TinkerGraph graph = (TinkerGraph) this.element.graph();
         if (this.element instanceof Edge) {
-            ((TinkerEdge) this.element).properties.remove(this.key);
+            final TinkerEdge edge = TinkerTransaction.write(graph, (TinkerEdge) this.element);
+            if (null != edge.properties) edge.properties.remove(this.key);
             TinkerHelper.removeIndex((TinkerEdge) this.element, this.key, this.value);
+            if (null != graph.writeAheadLog && null == graph.transaction) graph.writeAheadLog.removeEdgeProperty((Edge) this.element, this.key);
         } else {
-            ((TinkerVertexProperty) this.element).properties.remove(this.key);
+            final TinkerVertexProperty<?> vertexProperty = TinkerTransaction.write(graph, (TinkerVertexProperty<?>) this.element);
+            if (null != vertexProperty.properties) vertexProperty.properties.remove(this.key);
+            if (null != graph.writeAheadLog && null == graph.transaction) graph.writeAheadLog.removeMetaProperty((VertexProperty) this.element, this.key);
         }
     }
 }
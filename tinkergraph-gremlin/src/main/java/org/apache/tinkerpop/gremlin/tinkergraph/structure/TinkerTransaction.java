@@ -0,0 +1,459 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.util.AbstractThreadLocalTransaction;
+import org.apache.tinkerpop.gremlin.structure.util.TransactionException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The transactions of a {@link TinkerGraph} that is opened with {@link TinkerGraph#GREMLIN_TINKERGRAPH_TRANSACTIONS}.
+ * One transaction at a time writes to the graph and it does so without blocking readers. The first change that it
+ * makes to an element is made to a {@link TinkerElement#working} copy of the latest committed state of the element
+ * that only the writing thread sees and the elements that it adds are hidden from other threads, until
+ * {@link #commit()} stamps the copies with a new version and links each in front of the {@link TinkerElement#committed}
+ * states of its element. A committed state is never changed after that, so any thread can read it without locking.
+ * The indices and the write-ahead log are brought up to date on commit from the differences between the states.
+ * <p/>
+ * A transaction that is opened, which happens when the graph is first read or changed, reads the graph as of the
+ * last commit before it was opened. It sees each element in the state of that commit and does not see the elements
+ * that were added after it, so all of its reads are consistent with each other until it is committed or rolled back.
+ * The committed states that no open transaction can read any more are let go of by the next commit, so a thread that
+ * only reads should still end its transaction once it is done. An element that is removed is no longer found in the
+ * graph once its removal is committed, though a reference to it still reads as of the transaction.
+ * <p/>
+ * A transaction takes the write lock with its first change and holds it until it is committed or rolled back, so a
+ * thread that starts changing the graph while another one is doing so waits for it to finish. It reads the latest
+ * committed state of the elements that it has not changed.
+ */
+final class TinkerTransaction extends AbstractThreadLocalTransaction {
+
+    private final TinkerGraph graph;
+    private final ThreadLocal<Snapshot> snapshot = ThreadLocal.withInitial(Snapshot::new);
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // the version of the last commit and the snapshots of the open transactions, which are let go of with their thread
+    private volatile long version = 0;
+    private final Map<Snapshot, Boolean> snapshots = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // the elements that were changed and added by the transaction that holds the write lock
+    private final List<TinkerElement> changed = new ArrayList<>();
+    private final List<TinkerElement> added = new ArrayList<>();
+
+    TinkerTransaction(final TinkerGraph graph) {
+        super(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Gets the state of the element that the calling thread reads, which is its {@link TinkerElement#working} copy
+     * if the thread is the one that is changing it, or else the state that was committed as of the transaction of the
+     * thread, if it has one open.
+     */
+    static <E extends TinkerElement> E read(final TinkerGraph graph, final E element) {
+        if (null == graph.transaction || null != element.original) return element;
+        if (graph.transaction.isWriter())
+            return null == element.working ? latest(element) : (E) element.working;
+        final Snapshot snapshot = graph.transaction.snapshot.get();
+        return snapshot.open ? asOf(element, snapshot.version) : latest(element);
+    }
+
+    private static <E extends TinkerElement> E latest(final E element) {
+        final TinkerElement committed = element.committed;
+        return null == committed ? element : (E) committed;
+    }
+
+    private static <E extends TinkerElement> E asOf(final E element, final long version) {
+        TinkerElement state = element.committed;
+        while (null != state && state.version > version) {
+            state = state.committed;
+        }
+        return null == state ? element : (E) state;
+    }
+
+    /**
+     * Gets the element whose state is to be changed, which is the {@link TinkerElement#working} copy of the element
+     * when the graph has transactions.
+     */
+    static <E extends TinkerElement> E write(final TinkerGraph graph, final E element) {
+        return null == graph.transaction ? element : graph.transaction.copyOnWrite(element);
+    }
+
+    /**
+     * Pins the transaction to the last commit. The version is read again once the snapshot is registered, so that a
+     * commit that is being made at the same time either sees the snapshot or is the one that the snapshot is of.
+     */
+    @Override
+    protected void doOpen() {
+        final Snapshot snapshot = this.snapshot.get();
+        long version;
+        do {
+            version = this.version;
+            snapshot.version = version;
+            this.snapshots.put(snapshot, Boolean.TRUE);
+        } while (version != this.version);
+        snapshot.open = true;
+    }
+
+    @Override
+    protected void doCommit() throws TransactionException {
+        try {
+            if (this.isWriter())
+                this.publish();
+        } finally {
+            this.end();
+        }
+    }
+
+    @Override
+    protected void doRollback() throws TransactionException {
+        try {
+            if (this.isWriter())
+                this.discard();
+        } finally {
+            this.end();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.snapshot.get().open;
+    }
+
+    /**
+     * Determines if the calling thread has made changes that are not committed.
+     */
+    boolean isWriter() {
+        return this.writeLock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Determines if the element can be seen by the calling thread, which is not the case for an element that was
+     * added by another thread that has not committed or that was removed by the calling thread.
+     */
+    boolean isVisible(final Element element) {
+        final TinkerElement tinkerElement = (TinkerElement) element;
+        if (this.isWriter()) return !read(this.graph, tinkerElement).removed;
+        if (tinkerElement.pending) return false;
+        final Snapshot snapshot = this.snapshot.get();
+        return !snapshot.open || (tinkerElement.version <= snapshot.version && !asOf(tinkerElement, snapshot.version).removed);
+    }
+
+    /**
+     * Opens a transaction if the calling thread has none and makes it the one that writes to the graph, which waits
+     * for the transaction of another thread to end if there is one.
+     */
+    void lock() {
+        this.readWrite();
+        if (!this.writeLock.isHeldByCurrentThread())
+            this.writeLock.lock();
+    }
+
+    /**
+     * Hides an element that was just created from other threads until the transaction commits. The calling thread
+     * must have called {@link #lock()}.
+     */
+    void add(final TinkerElement element) {
+        element.pending = true;
+        element.version = Long.MAX_VALUE;
+        this.added.add(element);
+    }
+
+    /**
+     * Gets the {@link TinkerElement#working} copy of the element, creating it from the latest committed state of the
+     * element on the first change to it.
+     */
+    <E extends TinkerElement> E copyOnWrite(final E element) {
+        this.lock();
+        if (element.pending || null != element.original)
+            return element;
+        if (null == element.working) {
+            element.working = latest(element).copy();
+            element.working.original = element;
+            this.changed.add(element);
+        }
+        return (E) element.working;
+    }
+
+    /**
+     * Gets the {@link TinkerElement#working} copy of the vertex with edges in the direction that can be changed.
+     * They are shared with the committed vertex until then, as there might be a great many of them.
+     */
+    TinkerVertex copyOnWriteEdges(final TinkerVertex vertex, final Direction direction) {
+        final TinkerVertex copy = this.copyOnWrite(vertex);
+        if (null == copy.original) return copy;
+        // the state that the copy was made from, as nothing else is committed while the write lock is held
+        final TinkerVertex original = latest((TinkerVertex) copy.original);
+        if (direction == Direction.OUT) {
+            if (null != copy.outEdges && copy.outEdges == original.outEdges)
+                copy.outEdges = copyEdges(copy.outEdges);
+            if (null != copy.outAdjacency && copy.outAdjacency == original.outAdjacency)
+                copy.outAdjacency = copy.outAdjacency.copy();
+        } else {
+            if (null != copy.inEdges && copy.inEdges == original.inEdges)
+                copy.inEdges = copyEdges(copy.inEdges);
+            if (null != copy.inAdjacency && copy.inAdjacency == original.inAdjacency)
+                copy.inAdjacency = copy.inAdjacency.copy();
+        }
+        return copy;
+    }
+
+    private static Map<String, Set<Edge>> copyEdges(final Map<String, Set<Edge>> edges) {
+        final Map<String, Set<Edge>> copy = new HashMap<>(edges.size());
+        edges.forEach((label, set) -> copy.put(label, new HashSet<>(set)));
+        return copy;
+    }
+
+    private void publish() {
+        // detach the copies and keep the states that they replace to work out what changed
+        final List<TinkerElement> previous = new ArrayList<>(this.changed.size());
+        final List<TinkerElement> copies = new ArrayList<>(this.changed.size());
+        for (final TinkerElement element : this.changed) {
+            previous.add(latest(element));
+            copies.add(element.working);
+            element.working = null;
+        }
+
+        if (null != this.graph.writeAheadLog) {
+            try {
+                this.log(previous, copies);
+            } catch (RuntimeException ex) {
+                this.discard();
+                throw new TransactionException(ex);
+            }
+        }
+
+        for (int i = 0; i < this.changed.size(); i++) {
+            final TinkerElement state = previous.get(i);
+            final TinkerElement copy = copies.get(i);
+            this.index(this.changed.get(i), state.removed ? null : state, copy.removed ? null : copy);
+        }
+        for (final TinkerElement element : this.added) {
+            if (!element.removed)
+                this.index(element, null, element);
+        }
+
+        final long version = this.version + 1;
+        final long oldest = this.oldestSnapshot();
+        for (int i = 0; i < this.changed.size(); i++) {
+            final TinkerElement element = this.changed.get(i);
+            final TinkerElement copy = copies.get(i);
+            copy.version = version;
+            copy.committed = element.committed;
+            prune(copy, oldest);
+            element.committed = copy;
+        }
+        for (final TinkerElement element : this.added) {
+            element.version = version;
+            element.pending = false;
+        }
+        for (int i = 0; i < this.changed.size(); i++) {
+            if (copies.get(i).removed) this.unmap(this.changed.get(i));
+        }
+        for (final TinkerElement element : this.added) {
+            if (element.removed) this.unmap(element);
+        }
+        this.version = version;
+
+        // the log is compacted while the write lock keeps the graph as it is now
+        if (null != this.graph.writeAheadLog)
+            this.graph.writeAheadLog.checkpoint();
+    }
+
+    /**
+     * Gets the version of the last commit that an open transaction reads the graph as of.
+     */
+    private long oldestSnapshot() {
+        long oldest = this.version;
+        synchronized (this.snapshots) {
+            for (final Snapshot snapshot : this.snapshots.keySet()) {
+                oldest = Math.min(oldest, snapshot.version);
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Lets go of the states before the first one that is as old as the oldest snapshot, as no transaction reads them.
+     */
+    private static void prune(final TinkerElement state, final long oldest) {
+        TinkerElement current = state;
+        while (current.version > oldest && null != current.committed) {
+            current = current.committed;
+        }
+        current.committed = null;
+    }
+
+    private void discard() {
+        for (final TinkerElement element : this.changed) {
+            element.working = null;
+        }
+        for (final TinkerElement element : this.added) {
+            element.removed = true;
+            this.unmap(element);
+        }
+    }
+
+    private void end() {
+        final Snapshot snapshot = this.snapshot.get();
+        snapshot.open = false;
+        this.snapshots.remove(snapshot);
+        // the changes belong to the thread that holds the write lock and a thread that only read has none to clear
+        if (this.writeLock.isHeldByCurrentThread()) {
+            this.changed.clear();
+            this.added.clear();
+            this.writeLock.unlock();
+        }
+    }
+
+    private void unmap(final TinkerElement element) {
+        if (element instanceof TinkerVertex)
+            this.graph.vertices.remove(element.id, element);
+        else if (element instanceof TinkerEdge)
+            this.graph.edges.remove(element.id, element);
+    }
+
+    /**
+     * Moves the element in the indices from the values it had to the ones it has, where {@code previous} is
+     * {@code null} for an element that was added and {@code current} is {@code null} for one that was removed.
+     */
+    private void index(final TinkerElement element, final TinkerElement previous, final TinkerElement current) {
+        if (previous == current) return;
+        if (element instanceof TinkerVertex) {
+            if (null != this.graph.vertexIndex)
+                this.graph.vertexIndex.update((TinkerVertex) element, previous, current);
+            if (null == previous)
+                this.graph.vertexLabelIndex.add((TinkerVertex) element);
+            else if (null == current)
+                this.graph.vertexLabelIndex.remove((TinkerVertex) element);
+        } else if (element instanceof TinkerEdge) {
+            if (null != this.graph.edgeIndex)
+                this.graph.edgeIndex.update((TinkerEdge) element, previous, current);
+            if (null == previous)
+                this.graph.edgeLabelIndex.add((TinkerEdge) element);
+            else if (null == current)
+                this.graph.edgeLabelIndex.remove((TinkerEdge) element);
+        }
+    }
+
+    /**
+     * Appends the changes to the write-ahead log with the vertices added first and removed last, so that the records
+     * of the edges and properties always refer to vertices that are in the graph when the log is replayed.
+     */
+    private void log(final List<TinkerElement> previous, final List<TinkerElement> copies) {
+        final TinkerWriteAheadLog log = this.graph.writeAheadLog;
+        for (final TinkerElement element : this.added) {
+            if (element instanceof TinkerVertex && !element.removed) {
+                log.addVertex((TinkerVertex) element);
+                element.properties().forEachRemaining(vertexProperty -> this.logVertexProperty((VertexProperty<?>) vertexProperty));
+            }
+        }
+        for (int i = 0; i < this.changed.size(); i++) {
+            final TinkerElement element = this.changed.get(i);
+            final TinkerElement state = previous.get(i);
+            final TinkerElement copy = copies.get(i);
+            if (state.removed || copy.removed) continue;
+            if (element instanceof TinkerVertex) {
+                final Set<VertexProperty> before = Collections.newSetFromMap(new IdentityHashMap<>());
+                TinkerHelper.getProperties((TinkerVertex) state).values().forEach(before::addAll);
+                final Set<VertexProperty> after = Collections.newSetFromMap(new IdentityHashMap<>());
+                TinkerHelper.getProperties((TinkerVertex) copy).values().forEach(after::addAll);
+                for (final VertexProperty<?> vertexProperty : before) {
+                    if (!after.contains(vertexProperty)) log.removeVertexProperty(vertexProperty);
+                }
+                for (final VertexProperty<?> vertexProperty : after) {
+                    if (!before.contains(vertexProperty)) this.logVertexProperty(vertexProperty);
+                }
+            } else if (element instanceof TinkerVertexProperty) {
+                final VertexProperty<?> vertexProperty = (VertexProperty<?>) element;
+                diff(((TinkerVertexProperty) state).properties, ((TinkerVertexProperty) copy).properties,
+                        key -> log.removeMetaProperty(vertexProperty, key),
+                        property -> log.addMetaProperty(vertexProperty, property.key(), property.value()));
+            } else if (element instanceof TinkerEdge) {
+                final Edge edge = (Edge) element;
+                diff(((TinkerEdge) state).properties, ((TinkerEdge) copy).properties,
+                        key -> log.removeEdgeProperty(edge, key),
+                        property -> log.addEdgeProperty(edge, property.key(), property.value()));
+            }
+        }
+        for (final TinkerElement element : this.added) {
+            if (element instanceof TinkerEdge && !element.removed)
+                log.addEdge((TinkerEdge) element);
+        }
+        for (int i = 0; i < this.changed.size(); i++) {
+            final TinkerElement element = this.changed.get(i);
+            if (element instanceof TinkerEdge && !previous.get(i).removed && copies.get(i).removed)
+                log.removeEdge((TinkerEdge) element);
+        }
+        for (int i = 0; i < this.changed.size(); i++) {
+            final TinkerElement element = this.changed.get(i);
+            if (element instanceof TinkerVertex && !previous.get(i).removed && copies.get(i).removed)
+                log.removeVertex((TinkerVertex) element);
+        }
+    }
+
+    private void logVertexProperty(final VertexProperty<?> vertexProperty) {
+        this.graph.writeAheadLog.addVertexProperty(vertexProperty);
+        vertexProperty.properties().forEachRemaining(property ->
+                this.graph.writeAheadLog.addMetaProperty(vertexProperty, property.key(), property.value()));
+    }
+
+    /**
+     * Calls back with the keys that are only in the properties from before and the properties that are new after.
+     * Properties are never changed in place, so a property that is not the same object as before is new.
+     */
+    private static void diff(final TinkerProperties<Property> before, final TinkerProperties<Property> after,
+                             final Consumer<String> removed,
+                             final Consumer<Property> added) {
+        if (null != before) {
+            before.iterator().forEachRemaining(property -> {
+                if (null == after || null == after.get(property.key())) removed.accept(property.key());
+            });
+        }
+        if (null != after) {
+            after.iterator().forEachRemaining(property -> {
+                if (null == before || before.get(property.key()) != property) added.accept(property);
+            });
+        }
+    }
+
+    /**
+     * The commit that the transaction of a thread reads the graph as of, while it is open.
+     */
+    private static final class Snapshot {
+        private volatile long version;
+        private boolean open = false;
+    }
+}
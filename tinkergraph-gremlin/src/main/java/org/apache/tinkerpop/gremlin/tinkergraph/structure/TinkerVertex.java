@@ -25,26 +25,32 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputerView;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public final class TinkerVertex extends TinkerElement implements Vertex {
 
-    protected Map<String, List<VertexProperty>> properties;
+    protected TinkerProperties<VertexProperty> properties;
     protected Map<String, Set<Edge>> outEdges;
     protected Map<String, Set<Edge>> inEdges;
+    protected TinkerAdjacency outAdjacency;
+    protected TinkerAdjacency inAdjacency;
+    /**
+     * The position of the vertex in the vertices of the {@link TinkerGraphComputerView} of the graph, which is only
+     * meaningful while the view is in use.
+     */
+    protected int ordinal = -1;
     private final TinkerGraph graph;
 
     protected TinkerVertex(final Object id, final String label, final TinkerGraph graph) {
@@ -59,6 +65,8 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public <V> VertexProperty<V> property(final String key) {
+        final TinkerVertex vertex = TinkerTransaction.read(this.graph, this);
+        if (vertex != this) return vertex.property(key);
         if (this.removed) return VertexProperty.empty();
         if (TinkerHelper.inComputerMode(this.graph)) {
             final List<VertexProperty> list = (List) this.graph.graphComputerView.getProperty(this, key);
@@ -69,19 +77,18 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
             else
                 throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
         } else {
-            if (this.properties != null && this.properties.containsKey(key)) {
-                final List<VertexProperty> list = (List) this.properties.get(key);
-                if (list.size() > 1)
-                    throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
-                else
-                    return list.get(0);
-            } else
-                return VertexProperty.<V>empty();
+            final int count = null == this.properties ? 0 : this.properties.count(key);
+            if (count > 1)
+                throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
+            else
+                return 0 == count ? VertexProperty.<V>empty() : this.properties.get(key);
         }
     }
 
     @Override
     public <V> VertexProperty<V> property(final VertexProperty.Cardinality cardinality, final String key, final V value, final Object... keyValues) {
+        final TinkerVertex vertex = TinkerTransaction.write(this.graph, this);
+        if (vertex != this) return vertex.property(cardinality, key, value, keyValues);
         if (this.removed) throw elementAlreadyRemoved(Vertex.class, id);
         ElementHelper.legalPropertyKeyValueArray(keyValues);
         ElementHelper.validateProperty(key, value);
@@ -98,13 +105,13 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
                     graph.vertexPropertyIdManager.convert(optionalId.get()) :
                     graph.vertexPropertyIdManager.getNextId(graph);
 
-            final VertexProperty<V> vertexProperty = new TinkerVertexProperty<V>(idValue, this, key, value);
+            final TinkerVertexProperty<V> vertexProperty = new TinkerVertexProperty<V>(idValue, (TinkerVertex) this.canonical(), TinkerHelper.internKey(this.graph, key), value);
+            if (null != this.graph.transaction) this.graph.transaction.add(vertexProperty);
 
-            if (null == this.properties) this.properties = new HashMap<>();
-            final List<VertexProperty> list = this.properties.getOrDefault(key, new ArrayList<>());
-            list.add(vertexProperty);
-            this.properties.put(key, list);
+            if (null == this.properties) this.properties = new TinkerProperties<>();
+            this.properties.add(vertexProperty);
             TinkerHelper.autoUpdateIndex(this, key, value, null);
+            if (null != this.graph.writeAheadLog && null == this.graph.transaction) this.graph.writeAheadLog.addVertexProperty(vertexProperty);
             ElementHelper.attachProperties(vertexProperty, keyValues);
             return vertexProperty;
         }
@@ -112,28 +119,50 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public Set<String> keys() {
+        final TinkerVertex vertex = TinkerTransaction.read(this.graph, this);
+        if (vertex != this) return vertex.keys();
         if (null == this.properties) return Collections.emptySet();
         return TinkerHelper.inComputerMode((TinkerGraph) graph()) ?
                 Vertex.super.keys() :
-                this.properties.keySet();
+                this.properties.keys();
     }
 
     @Override
     public Edge addEdge(final String label, final Vertex vertex, final Object... keyValues) {
         if (null == vertex) throw Graph.Exceptions.argumentCanNotBeNull("vertex");
-        if (this.removed) throw elementAlreadyRemoved(Vertex.class, this.id);
+        if (TinkerTransaction.read(this.graph, this).removed) throw elementAlreadyRemoved(Vertex.class, this.id);
         return TinkerHelper.addEdge(this.graph, this, (TinkerVertex) vertex, label, keyValues);
     }
 
     @Override
     public void remove() {
+        final TinkerVertex vertex = TinkerTransaction.write(this.graph, this);
+        if (vertex != this) {
+            vertex.remove();
+            return;
+        }
         final List<Edge> edges = new ArrayList<>();
         this.edges(Direction.BOTH).forEachRemaining(edges::add);
-        edges.stream().filter(edge -> !((TinkerEdge) edge).removed).forEach(Edge::remove);
+        edges.stream().filter(edge -> !TinkerTransaction.read(this.graph, (TinkerEdge) edge).removed).forEach(Edge::remove);
         this.properties = null;
         TinkerHelper.removeElementIndex(this);
-        this.graph.vertices.remove(this.id);
+        // with transactions the vertex stays in the graph for other threads until the removal is committed
+        if (null == this.graph.transaction) this.graph.vertices.remove(this.id);
         this.removed = true;
+        if (null != this.graph.writeAheadLog && null == this.graph.transaction) this.graph.writeAheadLog.removeVertex(this);
+    }
+
+    @Override
+    protected TinkerVertex copy() {
+        final TinkerVertex copy = new TinkerVertex(this.id, this.label, this.graph);
+        if (null != this.properties) copy.properties = new TinkerProperties<>(this.properties);
+        // the edges are only copied once they change
+        copy.outEdges = this.outEdges;
+        copy.inEdges = this.inEdges;
+        copy.outAdjacency = this.outAdjacency;
+        copy.inAdjacency = this.inAdjacency;
+        copy.removed = this.removed;
+        return copy;
     }
 
     @Override
@@ -143,6 +172,8 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public Iterator<Edge> edges(final Direction direction, final String... edgeLabels) {
+        final TinkerVertex vertex = TinkerTransaction.read(this.graph, this);
+        if (vertex != this) return vertex.edges(direction, edgeLabels);
         final Iterator<Edge> edgeIterator = (Iterator) TinkerHelper.getEdges(this, direction, edgeLabels);
         return TinkerHelper.inComputerMode(this.graph) ?
                 IteratorUtils.filter(edgeIterator, edge -> this.graph.graphComputerView.legalEdge(this, edge)) :
@@ -151,6 +182,8 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public Iterator<Vertex> vertices(final Direction direction, final String... edgeLabels) {
+        final TinkerVertex vertex = TinkerTransaction.read(this.graph, this);
+        if (vertex != this) return vertex.vertices(direction, edgeLabels);
         return TinkerHelper.inComputerMode(this.graph) ?
                 direction.equals(Direction.BOTH) ?
                         IteratorUtils.concat(
@@ -162,22 +195,13 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public <V> Iterator<VertexProperty<V>> properties(final String... propertyKeys) {
+        final TinkerVertex vertex = TinkerTransaction.read(this.graph, this);
+        if (vertex != this) return vertex.properties(propertyKeys);
         if (this.removed) return Collections.emptyIterator();
         if (TinkerHelper.inComputerMode((TinkerGraph) graph()))
             return (Iterator) ((TinkerGraph) graph()).graphComputerView.getProperties(TinkerVertex.this).stream().filter(p -> ElementHelper.keyExists(p.key(), propertyKeys)).iterator();
         else {
-            if (null == this.properties) return Collections.emptyIterator();
-            if (propertyKeys.length == 1) {
-                final List<VertexProperty> properties = this.properties.getOrDefault(propertyKeys[0], Collections.emptyList());
-                if (properties.size() == 1) {
-                    return IteratorUtils.of(properties.get(0));
-                } else if (properties.isEmpty()) {
-                    return Collections.emptyIterator();
-                } else {
-                    return (Iterator) new ArrayList<>(properties).iterator();
-                }
-            } else
-                return (Iterator) this.properties.entrySet().stream().filter(entry -> ElementHelper.keyExists(entry.getKey(), propertyKeys)).flatMap(entry -> entry.getValue().stream()).collect(Collectors.toList()).iterator();
+            return null == this.properties ? Collections.emptyIterator() : (Iterator) this.properties.iterator(propertyKeys);
         }
     }
 }
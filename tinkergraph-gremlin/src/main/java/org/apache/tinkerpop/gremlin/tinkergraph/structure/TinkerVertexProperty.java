@@ -26,24 +26,19 @@ import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputerView;
-import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class TinkerVertexProperty<V> extends TinkerElement implements VertexProperty<V> {
 
-    protected Map<String, Property> properties;
+    protected TinkerProperties<Property> properties;
     private final TinkerVertex vertex;
-    private final String key;
     private final V value;
 
     /**
@@ -54,7 +49,6 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
     public TinkerVertexProperty(final TinkerVertex vertex, final String key, final V value, final Object... propertyKeyValues) {
         super(((TinkerGraph) vertex.graph()).vertexPropertyIdManager.getNextId((TinkerGraph) vertex.graph()), key);
         this.vertex = vertex;
-        this.key = key;
         this.value = value;
         ElementHelper.legalPropertyKeyValueArray(propertyKeyValues);
         ElementHelper.attachProperties(this, propertyKeyValues);
@@ -67,7 +61,6 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
     public TinkerVertexProperty(final Object id, final TinkerVertex vertex, final String key, final V value, final Object... propertyKeyValues) {
         super(id, key);
         this.vertex = vertex;
-        this.key = key;
         this.value = value;
         ElementHelper.legalPropertyKeyValueArray(propertyKeyValues);
         ElementHelper.attachProperties(this, propertyKeyValues);
@@ -75,7 +68,8 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
 
     @Override
     public String key() {
-        return this.key;
+        // the key is the label of the vertex property
+        return this.label;
     }
 
     @Override
@@ -106,23 +100,40 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
 
     @Override
     public Set<String> keys() {
-        return null == this.properties ? Collections.emptySet() : this.properties.keySet();
+        final TinkerVertexProperty<V> vertexProperty = TinkerTransaction.read((TinkerGraph) this.vertex.graph(), this);
+        if (vertexProperty != this) return vertexProperty.keys();
+        return null == this.properties ? Collections.emptySet() : this.properties.keys();
     }
 
     @Override
     public <U> Property<U> property(final String key) {
-        return null == this.properties ? Property.<U>empty() : this.properties.getOrDefault(key, Property.<U>empty());
+        final TinkerVertexProperty<V> vertexProperty = TinkerTransaction.read((TinkerGraph) this.vertex.graph(), this);
+        if (vertexProperty != this) return vertexProperty.property(key);
+        final Property<U> property = null == this.properties ? null : this.properties.get(key);
+        return null == property ? Property.<U>empty() : property;
     }
 
     @Override
     public <U> Property<U> property(final String key, final U value) {
+        final TinkerGraph graph = (TinkerGraph) this.vertex.graph();
+        final TinkerVertexProperty<V> vertexProperty = TinkerTransaction.write(graph, this);
+        if (vertexProperty != this) return vertexProperty.property(key, value);
         if (this.removed) throw elementAlreadyRemoved(VertexProperty.class, id);
-        final Property<U> property = new TinkerProperty<>(this, key, value);
-        if (this.properties == null) this.properties = new HashMap<>();
-        this.properties.put(key, property);
+        final Property<U> property = new TinkerProperty<>(this.canonical(), TinkerHelper.internKey(graph, key), value);
+        if (this.properties == null) this.properties = new TinkerProperties<>();
+        this.properties.put(property);
+        if (null != graph.writeAheadLog && null == graph.transaction && !TinkerHelper.inComputerMode(graph)) graph.writeAheadLog.addMetaProperty(this, key, value);
         return property;
     }
 
+    @Override
+    protected TinkerVertexProperty<V> copy() {
+        final TinkerVertexProperty<V> copy = new TinkerVertexProperty<>(this.id, this.vertex, this.label, this.value);
+        if (null != this.properties) copy.properties = new TinkerProperties<>(this.properties);
+        copy.removed = this.removed;
+        return copy;
+    }
+
     @Override
     public Vertex element() {
         return this.vertex;
@@ -130,30 +141,37 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
 
     @Override
     public void remove() {
-        if (null != this.vertex.properties && this.vertex.properties.containsKey(this.key)) {
-            this.vertex.properties.get(this.key).remove(this);
-            if (this.vertex.properties.get(this.key).size() == 0) {
-                this.vertex.properties.remove(this.key);
-                TinkerHelper.removeIndex(this.vertex, this.key, this.value);
-            }
+        final TinkerGraph graph = (TinkerGraph) this.vertex.graph();
+        if (TinkerHelper.inComputerMode(graph)) {
+            // the graph is left as it is while it is computed over, where the computed values hide this property
+            graph.graphComputerView.removeProperty(this.vertex, this.label, this);
+            return;
+        }
+        final TinkerVertexProperty<V> vertexProperty = TinkerTransaction.write(graph, this);
+        if (vertexProperty != this) {
+            vertexProperty.remove();
+            return;
+        }
+        final TinkerVertex vertex = TinkerTransaction.write(graph, this.vertex);
+        if (null != vertex.properties && vertex.properties.remove(this)) {
+            if (0 == vertex.properties.count(this.label))
+                TinkerHelper.removeIndex(this.vertex, this.label, this.value);
             final AtomicBoolean delete = new AtomicBoolean(true);
-            this.vertex.properties(this.key).forEachRemaining(property -> {
+            this.vertex.properties(this.label).forEachRemaining(property -> {
                 if (property.value().equals(this.value))
                     delete.set(false);
             });
-            if (delete.get()) TinkerHelper.removeIndex(this.vertex, this.key, this.value);
+            if (delete.get()) TinkerHelper.removeIndex(this.vertex, this.label, this.value);
             this.properties = null;
             this.removed = true;
+            if (null != graph.writeAheadLog && null == graph.transaction) graph.writeAheadLog.removeVertexProperty(this);
         }
     }
 
     @Override
     public <U> Iterator<Property<U>> properties(final String... propertyKeys) {
-        if (null == this.properties) return Collections.emptyIterator();
-        if (propertyKeys.length == 1) {
-            final Property<U> property = this.properties.get(propertyKeys[0]);
-            return null == property ? Collections.emptyIterator() : IteratorUtils.of(property);
-        } else
-            return (Iterator) this.properties.entrySet().stream().filter(entry -> ElementHelper.keyExists(entry.getKey(), propertyKeys)).map(entry -> entry.getValue()).collect(Collectors.toList()).iterator();
+        final TinkerVertexProperty<V> vertexProperty = TinkerTransaction.read((TinkerGraph) this.vertex.graph(), this);
+        if (vertexProperty != this) return vertexProperty.properties(propertyKeys);
+        return null == this.properties ? Collections.emptyIterator() : (Iterator) this.properties.iterator(propertyKeys);
     }
 }
@@ -0,0 +1,552 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Persists a {@link TinkerGraph} to a directory as a Gryo snapshot of the graph and an append-only log of the
+ * mutations made since that snapshot was written. Each mutation is appended to the log after it is applied to the
+ * graph, so the graph survives a crash between calls to {@link TinkerGraph#close()}. The log is split into segments
+ * that are memory-mapped and replayed on top of the snapshot when the graph is opened.
+ * <p/>
+ * Once the current segment grows past the compaction threshold a new segment is started and the graph is written to
+ * a snapshot in memory by the thread that holds the graph, which is the one that makes the next mutation or, with
+ * transactions, the one that commits while it still holds the write lock. A background thread then writes the
+ * snapshot to disk and deletes the segments that preceded it, so nothing that it replaces can change while it is
+ * taken. The mutation that is being made as the snapshot is taken is in the new segment, so replaying a record must
+ * leave the graph the same whether or not the snapshot already reflects it.
+ */
+final class TinkerWriteAheadLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(TinkerWriteAheadLog.class);
+
+    private static final String SNAPSHOT = "tinkergraph.kryo";
+    private static final Pattern SEGMENT = Pattern.compile("tinkergraph\\.(\\d+)\\.wal");
+    private static final int HEADER_LENGTH = 8;
+
+    private static final byte CLEAR = 0;
+    private static final byte ADD_VERTEX = 1;
+    private static final byte REMOVE_VERTEX = 2;
+    private static final byte ADD_EDGE = 3;
+    private static final byte REMOVE_EDGE = 4;
+    private static final byte ADD_VERTEX_PROPERTY = 5;
+    private static final byte REMOVE_VERTEX_PROPERTY = 6;
+    private static final byte ADD_META_PROPERTY = 7;
+    private static final byte REMOVE_META_PROPERTY = 8;
+    private static final byte ADD_EDGE_PROPERTY = 9;
+    private static final byte REMOVE_EDGE_PROPERTY = 10;
+
+    private final TinkerGraph graph;
+    private final File directory;
+    private final long compactionThreshold;
+    private final boolean sync;
+    private final Kryo kryo;
+    private final Output output = new Output(4096, -1);
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+    private final CRC32 crc = new CRC32();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+    private FileChannel channel = null;
+    private long segment = 0;
+    private long segmentSize = 0;
+    private ExecutorService compactor = null;
+
+    private TinkerWriteAheadLog(final TinkerGraph graph, final File directory, final long compactionThreshold, final boolean sync) {
+        this.graph = graph;
+        this.directory = directory;
+        this.compactionThreshold = compactionThreshold;
+        this.sync = sync;
+        this.kryo = graph.io(IoCore.gryo()).mapper().create().createMapper();
+    }
+
+    /**
+     * Loads the snapshot and replays the log segments in the directory into the graph, which must be empty, and
+     * returns the log that the mutations to the graph should be appended to from then on.
+     */
+    public static TinkerWriteAheadLog open(final TinkerGraph graph, final File directory, final long compactionThreshold,
+                                           final boolean sync) throws IOException {
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IOException(String.format("Could not create the directory %s", directory));
+        if (!directory.isDirectory())
+            throw new IOException(String.format("The location %s is not a directory", directory));
+
+        final TinkerWriteAheadLog log = new TinkerWriteAheadLog(graph, directory, compactionThreshold, sync);
+        final File snapshot = new File(directory, SNAPSHOT);
+        if (snapshot.exists()) {
+            try (final InputStream inputStream = new BufferedInputStream(new FileInputStream(snapshot))) {
+                graph.io(IoCore.gryo()).reader().create().readGraph(inputStream, graph);
+            }
+        }
+        final TreeMap<Long, File> segments = log.segments();
+        for (final File file : segments.values()) {
+            log.replay(file);
+        }
+        log.segment = segments.isEmpty() ? 0 : segments.lastKey();
+        return log;
+    }
+
+    public void clear() {
+        this.append(output -> output.writeByte(CLEAR));
+    }
+
+    public void addVertex(final Vertex vertex) {
+        this.append(output -> {
+            output.writeByte(ADD_VERTEX);
+            this.kryo.writeClassAndObject(output, vertex.id());
+            output.writeString(vertex.label());
+        });
+    }
+
+    public void removeVertex(final Vertex vertex) {
+        this.append(output -> {
+            output.writeByte(REMOVE_VERTEX);
+            this.kryo.writeClassAndObject(output, vertex.id());
+        });
+    }
+
+    /**
+     * Appends the edge along with its properties as they are attached before the edge is added to the graph.
+     */
+    public void addEdge(final Edge edge) {
+        this.append(output -> {
+            output.writeByte(ADD_EDGE);
+            this.kryo.writeClassAndObject(output, edge.id());
+            output.writeString(edge.label());
+            this.kryo.writeClassAndObject(output, edge.outVertex().id());
+            this.kryo.writeClassAndObject(output, edge.inVertex().id());
+            final List<Property<Object>> properties = new ArrayList<>();
+            edge.properties().forEachRemaining(properties::add);
+            output.writeInt(properties.size(), true);
+            for (final Property<Object> property : properties) {
+                output.writeString(property.key());
+                this.kryo.writeClassAndObject(output, property.value());
+            }
+        });
+    }
+
+    public void removeEdge(final Edge edge) {
+        this.append(output -> {
+            output.writeByte(REMOVE_EDGE);
+            this.kryo.writeClassAndObject(output, edge.id());
+        });
+    }
+
+    public void addVertexProperty(final VertexProperty<?> vertexProperty) {
+        this.append(output -> {
+            output.writeByte(ADD_VERTEX_PROPERTY);
+            this.writeVertexProperty(output, vertexProperty);
+            this.kryo.writeClassAndObject(output, vertexProperty.value());
+        });
+    }
+
+    public void removeVertexProperty(final VertexProperty<?> vertexProperty) {
+        this.append(output -> {
+            output.writeByte(REMOVE_VERTEX_PROPERTY);
+            this.writeVertexProperty(output, vertexProperty);
+        });
+    }
+
+    public void addMetaProperty(final VertexProperty<?> vertexProperty, final String key, final Object value) {
+        this.append(output -> {
+            output.writeByte(ADD_META_PROPERTY);
+            this.writeVertexProperty(output, vertexProperty);
+            output.writeString(key);
+            this.kryo.writeClassAndObject(output, value);
+        });
+    }
+
+    public void removeMetaProperty(final VertexProperty<?> vertexProperty, final String key) {
+        this.append(output -> {
+            output.writeByte(REMOVE_META_PROPERTY);
+            this.writeVertexProperty(output, vertexProperty);
+            output.writeString(key);
+        });
+    }
+
+    public void addEdgeProperty(final Edge edge, final String key, final Object value) {
+        this.append(output -> {
+            output.writeByte(ADD_EDGE_PROPERTY);
+            this.kryo.writeClassAndObject(output, edge.id());
+            output.writeString(key);
+            this.kryo.writeClassAndObject(output, value);
+        });
+    }
+
+    public void removeEdgeProperty(final Edge edge, final String key) {
+        this.append(output -> {
+            output.writeByte(REMOVE_EDGE_PROPERTY);
+            this.kryo.writeClassAndObject(output, edge.id());
+            output.writeString(key);
+        });
+    }
+
+    /**
+     * Writes a new snapshot of the graph and deletes the log segments that it replaces, after a compaction that is
+     * already running in the background. The log is closed afterwards and is reopened by the next mutation to the
+     * graph. With transactions the snapshot is taken while holding the write lock.
+     */
+    public void close() {
+        final ExecutorService compactor = this.compactor();
+        final TinkerTransaction transaction = this.graph.transaction;
+        try {
+            final Future<?> compaction;
+            if (null != transaction) transaction.lock();
+            try {
+                this.compacting.set(true);
+                compaction = this.startCompaction();
+            } finally {
+                if (null != transaction) transaction.rollback();
+            }
+            compaction.get();
+        } catch (IOException | RuntimeException ex) {
+            this.compacting.set(false);
+            throw new RuntimeException(String.format("Could not write a snapshot to %s", this.directory), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(String.format("Could not write a snapshot to %s", this.directory), ex.getCause());
+        } finally {
+            synchronized (this) {
+                compactor.shutdown();
+                this.compactor = null;
+                if (null != this.channel) {
+                    this.closeSegment();
+                    if (0 == this.segmentSize)
+                        this.segmentFile(this.segment).delete();
+                }
+            }
+        }
+    }
+
+    private void writeVertexProperty(final Output output, final VertexProperty<?> vertexProperty) {
+        this.kryo.writeClassAndObject(output, vertexProperty.element().id());
+        this.kryo.writeClassAndObject(output, vertexProperty.id());
+        output.writeString(vertexProperty.key());
+    }
+
+    /**
+     * Compacts the log if the current segment has grown past the compaction threshold and no compaction is running.
+     * The calling thread must keep the graph from being changed by others and every record that is in the log must
+     * be reflected in the graph, which holds between mutations and, with transactions, once a commit is published.
+     */
+    synchronized void checkpoint() {
+        if (this.segmentSize < this.compactionThreshold || !this.compacting.compareAndSet(false, true))
+            return;
+        try {
+            this.startCompaction();
+        } catch (Exception ex) {
+            this.compacting.set(false);
+            logger.warn(String.format("Could not compact the log in %s", this.directory), ex);
+        }
+    }
+
+    /**
+     * Determines if a compaction is running in the background.
+     */
+    boolean isCompacting() {
+        return this.compacting.get();
+    }
+
+    private synchronized void append(final Consumer<Output> record) {
+        // without transactions the graph is never changed by another thread while this one changes it
+        if (null == this.graph.transaction)
+            this.checkpoint();
+        try {
+            if (null == this.channel)
+                this.openSegment(this.segment + 1);
+
+            this.output.clear();
+            record.accept(this.output);
+            final int length = this.output.position();
+            this.crc.reset();
+            this.crc.update(this.output.getBuffer(), 0, length);
+            this.header.clear();
+            this.header.putInt(length).putInt((int) this.crc.getValue()).flip();
+            final ByteBuffer payload = ByteBuffer.wrap(this.output.getBuffer(), 0, length);
+            while (this.header.hasRemaining() || payload.hasRemaining()) {
+                this.channel.write(new ByteBuffer[]{this.header, payload});
+            }
+            if (this.sync)
+                this.channel.force(false);
+            this.segmentSize = this.segmentSize + HEADER_LENGTH + length;
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Could not append to the log in %s", this.directory), ex);
+        }
+
+        // the segment is not compacted while a compaction is running, but is still kept from growing any further
+        if (this.segmentSize >= this.compactionThreshold && this.compacting.get())
+            this.closeSegment();
+    }
+
+    /**
+     * Starts a new log segment, writes the graph to a snapshot in memory and leaves it to the background thread to
+     * write the snapshot to disk in place of the segments that preceded the new one. The snapshots are written in the
+     * order that they are taken in, as they are handed to the single background thread while holding the log.
+     */
+    private synchronized Future<?> startCompaction() throws IOException {
+        this.closeSegment();
+        this.openSegment(this.segment + 1);
+        final long boundary = this.segment;
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        this.graph.io(IoCore.gryo()).writer().create().writeGraph(snapshot, this.graph);
+        return this.compactor().submit(() -> this.compact(boundary, snapshot));
+    }
+
+    /**
+     * Writes the snapshot and deletes the log segments before the boundary, which it makes redundant. The segments
+     * are left in place if the snapshot cannot be written, so that nothing is lost and the next compaction can try
+     * again.
+     */
+    private void compact(final long boundary, final ByteArrayOutputStream bytes) {
+        try {
+            final File snapshot = new File(this.directory, SNAPSHOT);
+            final File temporary = new File(this.directory, SNAPSHOT + ".tmp");
+            try (final FileOutputStream fileOutputStream = new FileOutputStream(temporary)) {
+                bytes.writeTo(fileOutputStream);
+                fileOutputStream.getFD().sync();
+            }
+            Files.move(temporary.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            for (final File file : this.segments().headMap(boundary).values()) {
+                Files.delete(file.toPath());
+            }
+        } catch (Exception ex) {
+            logger.warn(String.format("Could not compact the log in %s", this.directory), ex);
+        } finally {
+            this.compacting.set(false);
+        }
+    }
+
+    private void openSegment(final long segment) throws IOException {
+        this.channel = FileChannel.open(this.segmentFile(segment).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.segment = segment;
+        this.segmentSize = this.channel.size();
+    }
+
+    private File segmentFile(final long segment) {
+        return new File(this.directory, String.format("tinkergraph.%d.wal", segment));
+    }
+
+    private synchronized void closeSegment() {
+        if (null == this.channel)
+            return;
+        try {
+            this.channel.close();
+        } catch (IOException ex) {
+            logger.warn(String.format("Could not close the log segment %s in %s", this.segment, this.directory), ex);
+        }
+        this.channel = null;
+    }
+
+    private synchronized ExecutorService compactor() {
+        if (null == this.compactor)
+            this.compactor = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                    .namingPattern("tinkergraph-log-compactor-%d").daemon(true).build());
+        return this.compactor;
+    }
+
+    private TreeMap<Long, File> segments() {
+        final TreeMap<Long, File> segments = new TreeMap<>();
+        final File[] files = this.directory.listFiles();
+        if (null != files) {
+            for (final File file : files) {
+                final Matcher matcher = SEGMENT.matcher(file.getName());
+                if (matcher.matches())
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Applies the records in the segment to the graph. The records that follow one that is incomplete or corrupt,
+     * as the last one might be after a crash, are ignored.
+     */
+    private void replay(final File file) throws IOException {
+        try (final FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            while (buffer.remaining() >= HEADER_LENGTH) {
+                final int length = buffer.getInt();
+                final int checksum = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    logger.warn("Ignoring an incomplete record at the end of the log segment {}", file);
+                    return;
+                }
+                final byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                this.crc.reset();
+                this.crc.update(bytes, 0, length);
+                if ((int) this.crc.getValue() != checksum) {
+                    logger.warn("Ignoring a corrupt record and those after it in the log segment {}", file);
+                    return;
+                }
+                this.apply(new Input(bytes));
+            }
+        }
+    }
+
+    private void apply(final Input input) {
+        final byte operation = input.readByte();
+        switch (operation) {
+            case CLEAR:
+                this.graph.clear();
+                break;
+            case ADD_VERTEX: {
+                final Object id = this.kryo.readClassAndObject(input);
+                final String label = input.readString();
+                if (!this.graph.vertices.containsKey(id))
+                    this.graph.addVertex(T.id, id, T.label, label);
+                break;
+            }
+            case REMOVE_VERTEX: {
+                final Vertex vertex = this.graph.vertices.get(this.kryo.readClassAndObject(input));
+                if (null != vertex)
+                    vertex.remove();
+                break;
+            }
+            case ADD_EDGE: {
+                final Object id = this.kryo.readClassAndObject(input);
+                final String label = input.readString();
+                final Vertex outVertex = this.graph.vertices.get(this.kryo.readClassAndObject(input));
+                final Vertex inVertex = this.graph.vertices.get(this.kryo.readClassAndObject(input));
+                final int size = input.readInt(true);
+                final Object[] keyValues = new Object[size * 2 + 2];
+                keyValues[0] = T.id;
+                keyValues[1] = id;
+                for (int i = 0; i < size; i++) {
+                    keyValues[i * 2 + 2] = input.readString();
+                    keyValues[i * 2 + 3] = this.kryo.readClassAndObject(input);
+                }
+                if (null != outVertex && null != inVertex && !this.graph.edges.containsKey(id))
+                    outVertex.addEdge(label, inVertex, keyValues);
+                break;
+            }
+            case REMOVE_EDGE: {
+                final Edge edge = this.graph.edges.get(this.kryo.readClassAndObject(input));
+                if (null != edge)
+                    edge.remove();
+                break;
+            }
+            case ADD_VERTEX_PROPERTY: {
+                final Vertex vertex = this.graph.vertices.get(this.kryo.readClassAndObject(input));
+                final Object id = this.kryo.readClassAndObject(input);
+                final String key = input.readString();
+                final Object value = this.kryo.readClassAndObject(input);
+                if (null != vertex && null == findVertexProperty(vertex, id, key))
+                    vertex.property(VertexProperty.Cardinality.list, key, value, T.id, id);
+                break;
+            }
+            case REMOVE_VERTEX_PROPERTY: {
+                final VertexProperty<?> vertexProperty = this.readVertexProperty(input);
+                if (null != vertexProperty)
+                    vertexProperty.remove();
+                break;
+            }
+            case ADD_META_PROPERTY: {
+                final VertexProperty<?> vertexProperty = this.readVertexProperty(input);
+                final String key = input.readString();
+                final Object value = this.kryo.readClassAndObject(input);
+                if (null != vertexProperty)
+                    vertexProperty.property(key, value);
+                break;
+            }
+            case REMOVE_META_PROPERTY: {
+                final VertexProperty<?> vertexProperty = this.readVertexProperty(input);
+                final String key = input.readString();
+                if (null != vertexProperty)
+                    vertexProperty.property(key).remove();
+                break;
+            }
+            case ADD_EDGE_PROPERTY: {
+                final Edge edge = this.graph.edges.get(this.kryo.readClassAndObject(input));
+                final String key = input.readString();
+                final Object value = this.kryo.readClassAndObject(input);
+                if (null != edge)
+                    edge.property(key, value);
+                break;
+            }
+            case REMOVE_EDGE_PROPERTY: {
+                final Edge edge = this.graph.edges.get(this.kryo.readClassAndObject(input));
+                final String key = input.readString();
+                if (null != edge)
+                    edge.property(key).remove();
+                break;
+            }
+            default:
+                throw new IllegalStateException(String.format("Unknown log record type %s", operation));
+        }
+    }
+
+    private VertexProperty<?> readVertexProperty(final Input input) {
+        final Vertex vertex = this.graph.vertices.get(this.kryo.readClassAndObject(input));
+        final Object id = this.kryo.readClassAndObject(input);
+        final String key = input.readString();
+        return null == vertex ? null : findVertexProperty(vertex, id, key);
+    }
+
+    private static VertexProperty<?> findVertexProperty(final Vertex vertex, final Object id, final String key) {
+        final Iterator<VertexProperty<Object>> vertexProperties = vertex.properties(key);
+        while (vertexProperties.hasNext()) {
+            final VertexProperty<Object> vertexProperty = vertexProperties.next();
+            if (vertexProperty.id().equals(id))
+                return vertexProperty;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
+import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the values of the compute keys that {@link TinkerGraphComputerView} holds for each vertex, which are held as
+ * plain values until a vertex has more than one value for a key or a vertex property is given properties of its own.
+ */
+public class TinkerGraphComputerViewTest {
+
+    private TinkerGraph graph;
+    private TinkerGraphComputerView view;
+    private Vertex vertex;
+
+    @Before
+    public void openView() {
+        this.graph = TinkerGraph.open();
+        this.vertex = this.graph.addVertex(T.id, 1l, "name", "marko", "rank", -1);
+        this.graph.addVertex(T.id, 2l, "name", "vadas");
+        this.view = TinkerHelper.createGraphComputerView(this.graph, new GraphFilter(), new HashSet<>(Arrays.asList(
+                VertexComputeKey.of("rank", true), VertexComputeKey.of("count", false))));
+    }
+
+    @After
+    public void dropView() {
+        TinkerHelper.dropGraphComputerView(this.graph);
+    }
+
+    @Test
+    public void shouldReadTheSameVertexPropertyOfASingleValue() {
+        final VertexProperty<Integer> written = this.vertex.property("count", 1);
+        final VertexProperty<Integer> read = this.vertex.property("count");
+        assertEquals(1, (int) read.value());
+        assertEquals(written.id(), read.id());
+        assertEquals(written, read);
+        assertEquals(read, this.vertex.property("count"));
+        assertEquals(Collections.singletonList(1), values(this.vertex, "count"));
+    }
+
+    @Test
+    public void shouldReplaceASingleValue() {
+        this.vertex.property("count", 1);
+        this.vertex.property(VertexProperty.Cardinality.single, "count", 2);
+        assertEquals(Collections.singletonList(2), values(this.vertex, "count"));
+        this.vertex.property("count").remove();
+        assertFalse(this.vertex.property("count").isPresent());
+        assertFalse(this.vertex.properties("count").hasNext());
+    }
+
+    @Test
+    public void shouldHoldVertexPropertiesOfMultipleValues() {
+        this.vertex.property(VertexProperty.Cardinality.list, "count", 1);
+        this.vertex.property(VertexProperty.Cardinality.list, "count", 2);
+        final VertexProperty<Integer> third = this.vertex.property(VertexProperty.Cardinality.list, "count", 3);
+        assertEquals(Arrays.asList(1, 2, 3), values(this.vertex, "count"));
+        assertEquals(3, IteratorUtils.count(this.vertex.properties("count")));
+        try {
+            this.vertex.property("count");
+            fail("A vertex with more than one value for a key should not have a single vertex property for it");
+        } catch (final IllegalStateException e) {
+            // the vertex properties are held as they are once there is more than one of them
+        }
+
+        third.remove();
+        assertEquals(Arrays.asList(1, 2), values(this.vertex, "count"));
+        this.vertex.properties("count").forEachRemaining(VertexProperty::remove);
+        assertFalse(this.vertex.properties("count").hasNext());
+
+        // once all of them are removed the key holds a single value again
+        this.vertex.property("count", 4);
+        assertEquals(Collections.singletonList(4), values(this.vertex, "count"));
+    }
+
+    @Test
+    public void shouldReplaceMultipleValuesWithASingleValue() {
+        this.vertex.property(VertexProperty.Cardinality.list, "count", 1);
+        this.vertex.property(VertexProperty.Cardinality.list, "count", 2);
+        this.vertex.property(VertexProperty.Cardinality.single, "count", 3);
+        assertEquals(Collections.singletonList(3), values(this.vertex, "count"));
+        assertEquals(3, (int) this.vertex.value("count"));
+    }
+
+    @Test
+    public void shouldHoldVertexPropertiesWithPropertiesOfTheirOwn() {
+        this.vertex.property(VertexProperty.Cardinality.single, "count", 1, "since", 2010);
+        assertEquals(2010, (int) this.vertex.property("count").value("since"));
+
+        // a property that is added to a vertex property that was read is kept as well
+        this.vertex.property("count").property("until", 2012);
+        final VertexProperty<Integer> count = this.vertex.property("count");
+        assertEquals(1, (int) count.value());
+        assertEquals(2010, (int) count.value("since"));
+        assertEquals(2012, (int) count.value("until"));
+
+        count.remove();
+        assertFalse(this.vertex.property("count").isPresent());
+        this.vertex.property("count", 2);
+        assertFalse(this.vertex.property("count").properties().hasNext());
+    }
+
+    @Test
+    public void shouldNotChangeOtherVerticesOrTheGraph() {
+        final Vertex other = this.graph.vertices(2l).next();
+        this.vertex.property(VertexProperty.Cardinality.list, "count", 1);
+        this.vertex.property(VertexProperty.Cardinality.list, "count", 2, "since", 2010);
+        assertFalse(other.properties("count").hasNext());
+        other.property("count", 3);
+        assertEquals(Collections.singletonList(3), values(other, "count"));
+        assertEquals(Arrays.asList(1, 2), values(this.vertex, "count"));
+
+        TinkerHelper.dropGraphComputerView(this.graph);
+        assertFalse(this.vertex.properties("count").hasNext());
+        assertFalse(other.properties("count").hasNext());
+    }
+
+    @Test
+    public void shouldHideTheValuesOfTheGraphForAComputedKey() {
+        assertEquals(Collections.singletonList(-1), values(this.vertex, "rank"));
+        this.vertex.property("rank", 1.0d);
+        assertEquals(Collections.singletonList(1.0d), values(this.vertex, "rank"));
+        final List<Object> all = IteratorUtils.list(IteratorUtils.map(this.vertex.properties(), VertexProperty::value));
+        assertEquals(2, all.size());
+        assertTrue(all.containsAll(Arrays.asList("marko", 1.0d)));
+    }
+
+    @Test
+    public void shouldClearTransientKeysWhenTheIterationIsComplete() {
+        final Vertex other = this.graph.vertices(2l).next();
+        this.vertex.property("rank", 1.0d);
+        this.vertex.property("count", 1);
+        other.property(VertexProperty.Cardinality.list, "rank", 2.0d);
+        other.property(VertexProperty.Cardinality.list, "rank", 3.0d, "since", 2010);
+        other.property("count", 2);
+        this.view.complete();
+
+        // the values of the graph are read again once the computed ones are removed
+        assertEquals(Collections.singletonList(-1), values(this.vertex, "rank"));
+        assertFalse(other.properties("rank").hasNext());
+        assertEquals(Collections.singletonList(1), values(this.vertex, "count"));
+        assertEquals(Collections.singletonList(2), values(other, "count"));
+
+        // the next iteration starts from a single value again
+        other.property("rank", 4.0d);
+        assertEquals(Collections.singletonList(4.0d), values(other, "rank"));
+        assertFalse(other.property("rank").properties().hasNext());
+        this.view.complete();
+        assertFalse(other.properties("rank").hasNext());
+    }
+
+    @Test
+    public void shouldOnlyWriteComputeKeys() {
+        try {
+            this.vertex.property("age", 29);
+            fail("Only compute keys may be written to in the view of a graph computer");
+        } catch (final IllegalArgumentException e) {
+            // the key is not a compute key of the vertex program
+        }
+    }
+
+    private static List<Object> values(final Vertex vertex, final String key) {
+        return IteratorUtils.list(IteratorUtils.map(vertex.properties(key), VertexProperty::value));
+    }
+}
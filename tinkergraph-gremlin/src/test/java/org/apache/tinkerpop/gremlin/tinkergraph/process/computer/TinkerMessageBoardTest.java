@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.TestHelper;
+import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the inboxes that {@link TinkerMessageBoard} holds the messages of each iteration in, and the delivery of the
+ * messages that are sent through a {@link TinkerMessenger}.
+ */
+public class TinkerMessageBoardTest {
+
+    private static final MessageCombiner<Integer> SUM = (a, b) -> a + b;
+    private static final MessageScope.Local<Integer> OUT = MessageScope.Local.of(__::outE);
+
+    @Test
+    public void shouldCombineMessagesToAVertex() {
+        final TinkerGraphComputerView view = view(3);
+        final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+        final TinkerVertex[] vertices = view.getVertices();
+        board.sendMessage(MessageScope.Global.instance(), vertices[1], 1, SUM);
+        board.sendMessage(MessageScope.Global.instance(), vertices[1], 2, SUM);
+        board.sendMessage(MessageScope.Global.instance(), vertices[1], 4, SUM);
+        board.sendMessage(MessageScope.Global.instance(), vertices[2], 8, SUM);
+        board.completeIteration();
+
+        assertEquals(Collections.emptyList(), receive(board, MessageScope.Global.instance(), vertices[0]));
+        assertEquals(Collections.singletonList(7), receive(board, MessageScope.Global.instance(), vertices[1]));
+        assertEquals(Collections.singletonList(8), receive(board, MessageScope.Global.instance(), vertices[2]));
+    }
+
+    @Test
+    public void shouldCombineMessagesSentAtOnceToVerticesOfEveryStripe() throws Exception {
+        // more vertices than stripes, so that vertices which share the lock of a stripe are sent messages at once
+        final TinkerGraphComputerView view = view(1000);
+        final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+        final TinkerVertex[] vertices = view.getVertices();
+        sendAtOnce(4, 100, worker -> {
+            for (final TinkerVertex vertex : vertices) {
+                board.sendMessage(MessageScope.Global.instance(), vertex, 1, SUM);
+            }
+        });
+        board.completeIteration();
+
+        for (final TinkerVertex vertex : vertices) {
+            assertEquals(Collections.singletonList(400), receive(board, MessageScope.Global.instance(), vertex));
+        }
+    }
+
+    @Test
+    public void shouldBufferMessagesToAVertexInTheOrderTheyWereSent() {
+        final TinkerGraphComputerView view = view(3);
+        final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+        final TinkerVertex[] vertices = view.getVertices();
+        board.sendMessage(MessageScope.Global.instance(), vertices[2], 3, null);
+        board.sendMessage(MessageScope.Global.instance(), vertices[0], 1, null);
+        board.sendMessage(MessageScope.Global.instance(), vertices[2], 2, null);
+        board.sendMessage(MessageScope.Global.instance(), vertices[2], 1, null);
+        board.completeIteration();
+
+        assertEquals(Collections.singletonList(1), receive(board, MessageScope.Global.instance(), vertices[0]));
+        assertEquals(Collections.emptyList(), receive(board, MessageScope.Global.instance(), vertices[1]));
+        assertEquals(Arrays.asList(3, 2, 1), receive(board, MessageScope.Global.instance(), vertices[2]));
+    }
+
+    @Test
+    public void shouldBufferMessagesSentAtOnceByWorkers() throws Exception {
+        final TinkerGraphComputerView view = view(100);
+        final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+        final TinkerVertex[] vertices = view.getVertices();
+        sendAtOnce(4, 1, worker -> {
+            for (final TinkerVertex vertex : vertices) {
+                board.sendMessage(MessageScope.Global.instance(), vertex, worker, null);
+            }
+        });
+        board.completeIteration();
+
+        for (final TinkerVertex vertex : vertices) {
+            final List<Integer> messages = receive(board, MessageScope.Global.instance(), vertex);
+            Collections.sort(messages);
+            assertEquals(Arrays.asList(0, 1, 2, 3), messages);
+        }
+    }
+
+    @Test
+    public void shouldGroupBufferedMessagesThatWereSpilled() throws Exception {
+        final TinkerGraph graph = graph(10);
+        final TinkerGraphComputerView view = new TinkerGraphComputerView(graph, new GraphFilter(), Collections.emptySet());
+        final File location = new File(TestHelper.makeTestDataDirectory(TinkerMessageBoardTest.class, "spill"));
+        try (final TinkerSpill spill = new TinkerSpill(graph, location, 4, 1)) {
+            final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, spill);
+            final TinkerVertex[] vertices = view.getVertices();
+            for (int i = 0; i < 50; i++) {
+                board.sendMessage(MessageScope.Global.instance(), vertices[i % 3], i, null);
+            }
+            board.completeIteration();
+
+            for (int i = 0; i < 3; i++) {
+                final List<Integer> expected = new ArrayList<>();
+                for (int j = i; j < 50; j = j + 3) {
+                    expected.add(j);
+                }
+                // the runs are merged by vertex, so the messages to a vertex are no longer in the order they were sent
+                final List<Integer> messages = receive(board, MessageScope.Global.instance(), vertices[i]);
+                Collections.sort(messages);
+                assertEquals(expected, messages);
+            }
+            assertEquals(Collections.emptyList(), receive(board, MessageScope.Global.instance(), vertices[3]));
+        }
+    }
+
+    @Test
+    public void shouldOnlyReceiveMessagesOfTheLastIteration() {
+        for (final MessageCombiner<Integer> combiner : Arrays.asList(SUM, null)) {
+            final TinkerGraphComputerView view = view(3);
+            final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+            final TinkerVertex[] vertices = view.getVertices();
+            board.sendMessage(MessageScope.Global.instance(), vertices[0], 1, combiner);
+            assertEquals(Collections.emptyList(), receive(board, MessageScope.Global.instance(), vertices[0]));
+            board.completeIteration();
+            assertEquals(Collections.singletonList(1), receive(board, MessageScope.Global.instance(), vertices[0]));
+
+            board.completeIteration();
+            assertFalse(board.receiveMessageScopes().contains(MessageScope.Global.instance()));
+            assertEquals(Collections.emptyList(), receive(board, MessageScope.Global.instance(), vertices[0]));
+        }
+    }
+
+    @Test
+    public void shouldClearSpareCombiningInboxesThatAreUsedAgain() {
+        final TinkerGraphComputerView view = view(3);
+        final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+        final TinkerVertex[] vertices = view.getVertices();
+        // each iteration uses the inbox that was read in the iteration before, which still holds what it was sent
+        for (int i = 0; i < 6; i++) {
+            board.sendMessage(MessageScope.Global.instance(), vertices[i % 3], i, SUM);
+            board.sendMessage(MessageScope.Global.instance(), vertices[i % 3], 1, SUM);
+            board.completeIteration();
+            for (int j = 0; j < 3; j++) {
+                assertEquals(j == i % 3 ? Collections.singletonList(i + 1) : Collections.emptyList(),
+                        receive(board, MessageScope.Global.instance(), vertices[j]));
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotReceiveSpareMessagesOfABufferedInbox() {
+        final TinkerGraphComputerView view = view(3);
+        final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+        final TinkerVertex[] vertices = view.getVertices();
+        for (int i = 0; i < 6; i++) {
+            board.sendMessage(MessageScope.Global.instance(), vertices[i % 3], i, null);
+            board.completeIteration();
+            for (int j = 0; j < 3; j++) {
+                assertEquals(j == i % 3 ? Collections.singletonList(i) : Collections.emptyList(),
+                        receive(board, MessageScope.Global.instance(), vertices[j]));
+            }
+        }
+    }
+
+    @Test
+    public void shouldDeliverLocalMessagesThroughMessengersWithAndWithoutACombiner() {
+        for (final MessageCombiner<Integer> combiner : Arrays.asList(SUM, null)) {
+            // a -> c <- b
+            final TinkerGraph graph = TinkerGraph.open();
+            final Vertex a = graph.addVertex(T.id, 1l);
+            final Vertex b = graph.addVertex(T.id, 2l);
+            final Vertex c = graph.addVertex(T.id, 3l);
+            a.addEdge("next", c);
+            b.addEdge("next", c);
+            final TinkerGraphComputerView view = new TinkerGraphComputerView(graph, new GraphFilter(), Collections.emptySet());
+            final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+
+            for (int iteration = 1; iteration <= 3; iteration++) {
+                messenger(a, board, combiner).sendMessage(OUT, iteration);
+                messenger(a, board, combiner).sendMessage(OUT, 10 * iteration);
+                messenger(b, board, combiner).sendMessage(OUT, 100 * iteration);
+                board.completeIteration();
+
+                final List<Integer> messages = IteratorUtils.list(messenger(c, board, combiner).receiveMessages());
+                Collections.sort(messages);
+                assertEquals(null == combiner ?
+                        Arrays.asList(iteration, 10 * iteration, 100 * iteration) :
+                        Arrays.asList(11 * iteration, 100 * iteration), messages);
+                assertFalse(messenger(a, board, combiner).receiveMessages().hasNext());
+                assertFalse(messenger(b, board, combiner).receiveMessages().hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void shouldDeliverGlobalMessagesThroughMessengersWithAndWithoutACombiner() {
+        for (final MessageCombiner<Integer> combiner : Arrays.asList(SUM, null)) {
+            final TinkerGraphComputerView view = view(3);
+            final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+            final TinkerVertex[] vertices = view.getVertices();
+            board.trackActiveVertices();
+
+            for (int iteration = 1; iteration <= 3; iteration++) {
+                messenger(vertices[0], board, combiner).sendMessage(MessageScope.Global.of(vertices[1], vertices[2]), iteration);
+                messenger(vertices[1], board, combiner).sendMessage(MessageScope.Global.of(vertices[2]), 10 * iteration);
+                board.completeIteration();
+
+                assertFalse(messenger(vertices[0], board, combiner).receiveMessages().hasNext());
+                assertEquals(Collections.singletonList(iteration), IteratorUtils.list(messenger(vertices[1], board, combiner).receiveMessages()));
+                final List<Integer> messages = IteratorUtils.list(messenger(vertices[2], board, combiner).receiveMessages());
+                Collections.sort(messages);
+                assertEquals(null == combiner ? Arrays.asList(iteration, 10 * iteration) : Collections.singletonList(11 * iteration), messages);
+                // only the vertices that were sent messages are active in the next iteration
+                assertEquals(Arrays.asList(vertices[1], vertices[2]), Arrays.asList(board.getActiveVertices(Collections.emptyIterator())));
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotSendMessagesToVerticesOutsideOfTheView() {
+        final TinkerGraph graph = graph(2);
+        final TinkerGraphComputerView view = new TinkerGraphComputerView(graph, new GraphFilter(), Collections.emptySet());
+        final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(view, null);
+        final Vertex outside = graph.addVertex(T.id, 100l);
+        board.sendMessage(MessageScope.Global.instance(), outside, 1, null);
+        board.completeIteration();
+        assertTrue(board.receiveMessageScopes().isEmpty());
+        assertEquals(Collections.emptyList(), receive(board, MessageScope.Global.instance(), outside));
+    }
+
+    private static TinkerGraph graph(final int size) {
+        final TinkerGraph graph = TinkerGraph.open();
+        for (long i = 0; i < size; i++) {
+            graph.addVertex(T.id, i);
+        }
+        return graph;
+    }
+
+    private static TinkerGraphComputerView view(final int size) {
+        return new TinkerGraphComputerView(graph(size), new GraphFilter(), Collections.emptySet());
+    }
+
+    private static TinkerMessenger<Integer> messenger(final Vertex vertex, final TinkerMessageBoard<Integer> board, final MessageCombiner<Integer> combiner) {
+        return new TinkerMessenger<>(vertex, board, Optional.ofNullable(combiner));
+    }
+
+    private static List<Integer> receive(final TinkerMessageBoard<Integer> board, final MessageScope messageScope, final Vertex vertex) {
+        return IteratorUtils.list(board.receiveMessages(messageScope, vertex));
+    }
+
+    private static void sendAtOnce(final int workers, final int rounds, final Worker worker) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < rounds; j++) {
+                        worker.send(index);
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Worker {
+        public void send(final int worker);
+    }
+}
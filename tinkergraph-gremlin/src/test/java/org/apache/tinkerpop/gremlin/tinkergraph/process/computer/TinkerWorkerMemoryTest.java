@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.MemoryComputeKey;
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that the unboxed reductions of {@link TinkerWorkerMemory} give the same values, of the same types, as the
+ * reducers of the keys would have.
+ */
+public class TinkerWorkerMemoryTest {
+
+    private static final Operator[] NUMBER_OPERATORS = {Operator.sum, Operator.min, Operator.max};
+
+    @Test
+    public void shouldReduceIntegerValues() {
+        for (final Operator operator : NUMBER_OPERATORS) {
+            assertSameReduction(operator, 3);
+            assertSameReduction(operator, 3, -7, 12, 0, 5);
+        }
+    }
+
+    @Test
+    public void shouldReduceLongValues() {
+        for (final Operator operator : NUMBER_OPERATORS) {
+            assertSameReduction(operator, 3l);
+            assertSameReduction(operator, 3l, -7l, 12l, 0l, Long.MAX_VALUE - 20l);
+        }
+        assertSameReduction(Operator.sumLong, 3l, -7l, 12l, 0l, 5l);
+    }
+
+    @Test
+    public void shouldReduceMixedValues() {
+        for (final Operator operator : NUMBER_OPERATORS) {
+            assertSameReduction(operator, 3, 4, 5l, 6, 7l);
+            assertSameReduction(operator, 5l, 6l, 3, 4);
+            assertSameReduction(operator, 3, 4, 2.5d, 5l);
+            assertSameReduction(operator, 2.5d, 3, 4, 5l, 6l);
+            assertSameReduction(operator, 3l, 4l, 1.5f, 2);
+        }
+    }
+
+    @Test
+    public void shouldWrapOverflowingIntegerSums() {
+        assertSameReduction(Operator.sum, Integer.MAX_VALUE, 1);
+        assertSameReduction(Operator.sum, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertSameReduction(Operator.sum, Integer.MIN_VALUE, -1, 2);
+        assertSameReduction(Operator.sum, Integer.MAX_VALUE, 1, 1l);
+    }
+
+    @Test
+    public void shouldNotReduceIntegerValuesWithSumLong() {
+        assertSameReduction(Operator.sumLong, 3);
+        try {
+            reduceInWorker(Operator.sumLong, 3, 4);
+            fail("sumLong should not reduce Integer values");
+        } catch (final ClassCastException e) {
+            // sumLong casts its operands to long just as it does without the worker memory
+        }
+    }
+
+    @Test
+    public void shouldReduceBooleanValues() {
+        for (final Operator operator : new Operator[]{Operator.and, Operator.or}) {
+            assertSameReduction(operator, true);
+            assertSameReduction(operator, false);
+            assertSameReduction(operator, true, true, true);
+            assertSameReduction(operator, false, false, false);
+            assertSameReduction(operator, true, false, true);
+            assertSameReduction(operator, false, true, false);
+        }
+    }
+
+    @Test
+    public void shouldReduceAgainAfterCompleting() {
+        final TinkerMemory memory = memory(Operator.sum);
+        final TinkerWorkerMemory workerMemory = new TinkerWorkerMemory(memory);
+        workerMemory.add("key", 1);
+        workerMemory.add("key", 2);
+        workerMemory.complete();
+        workerMemory.add("key", 3l);
+        workerMemory.add("key", 4l);
+        workerMemory.complete();
+        assertSameValue(Operator.sum.apply(3, 7l), memory.currentMap.get("key"));
+    }
+
+    private static void assertSameReduction(final Operator operator, final Object... values) {
+        assertSameValue(Arrays.stream(values).reduce(operator).get(), reduceInWorker(operator, values));
+    }
+
+    private static void assertSameValue(final Object expected, final Object actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.getClass(), actual.getClass());
+    }
+
+    private static Object reduceInWorker(final Operator operator, final Object... values) {
+        final TinkerMemory memory = memory(operator);
+        final TinkerWorkerMemory workerMemory = new TinkerWorkerMemory(memory);
+        for (final Object value : values) {
+            workerMemory.add("key", value);
+        }
+        workerMemory.complete();
+        return memory.currentMap.get("key");
+    }
+
+    private static TinkerMemory memory(final Operator operator) {
+        final TinkerMemory memory = new TinkerMemory(null, Collections.emptySet());
+        memory.memoryKeys.put("key", MemoryComputeKey.of("key", operator, false, false));
+        // enters the execute sub-round, in which values may be added to the memory
+        memory.completeSubRound();
+        return memory;
+    }
+}
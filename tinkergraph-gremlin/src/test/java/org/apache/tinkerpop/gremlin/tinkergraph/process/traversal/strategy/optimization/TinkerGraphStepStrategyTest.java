@@ -18,6 +18,7 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
@@ -50,6 +51,7 @@ import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.filter
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.has;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.not;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.properties;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.values;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -98,6 +100,12 @@ public class TinkerGraphStepStrategyTest {
         return graphStep;
     }
 
+    private static GraphTraversal.Admin<?, ?> orderLimit(final GraphTraversal.Admin<?, ?> traversal, final String orderKey,
+                                                          final boolean orderDescending, final long orderLimit) {
+        ((TinkerGraphStep<?, ?>) traversal.getStartStep()).setOrderLimit(orderKey, orderDescending, orderLimit);
+        return traversal;
+    }
+
     @Parameterized.Parameters(name = "{0}")
     public static Iterable<Object[]> generateTestParameters() {
         final int LAZY_SIZE = 2500;
@@ -130,6 +138,13 @@ public class TinkerGraphStepStrategyTest {
                         g_V("name", eq("marko"), "name", eq("bob"), "name", eq("stephen")).out("knows"), Collections.emptyList()},
                 {__.V().has("name", P.eq("marko").and(P.eq("bob").or(P.eq("stephen")))).out("knows"),
                         g_V("name", eq("marko"), "name", P.eq("bob").or(eq("stephen"))).out("knows"), Collections.emptyList()},
+                {__.V().has("age", gt(30)).order().by("age", Order.decr).limit(10),
+                        orderLimit(g_V("age", gt(30)), "age", true, 10).order().by("age", Order.decr).limit(10), Collections.emptyList()},
+                {__.V().order().by("age").range(5, 15),
+                        orderLimit(g_V(), "age", false, 15).order().by("age").range(5, 15), Collections.emptyList()},
+                {__.V().order().by("age").by("name").limit(10), g_V().order().by("age").by("name").limit(10), Collections.emptyList()},
+                {__.V().order().by(values("age")).limit(10), g_V().order().by(values("age")).limit(10), Collections.emptyList()},
+                {__.V().order().by("age").dedup().limit(10), g_V().order().by("age").dedup().limit(10), Collections.emptyList()},
                 ///////
                 {__.V().out().out().V().has("name", "marko").out(), g_V().out().barrier(LAZY_SIZE).out().barrier(LAZY_SIZE).asAdmin().addStep(V("name", eq("marko"))).barrier(LAZY_SIZE).out(), Arrays.asList(InlineFilterStrategy.instance(), FilterRankingStrategy.instance(), LazyBarrierStrategy.instance())},
                 {__.V().out().out().V().has("name", "marko").as("a").out(), g_V().out().barrier(LAZY_SIZE).out().barrier(LAZY_SIZE).asAdmin().addStep(V("name", eq("marko"))).barrier(LAZY_SIZE).as("a").out(), Arrays.asList(InlineFilterStrategy.instance(), FilterRankingStrategy.instance(), LazyBarrierStrategy.instance())},
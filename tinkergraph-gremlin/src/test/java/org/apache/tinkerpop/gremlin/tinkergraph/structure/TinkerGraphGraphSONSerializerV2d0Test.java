@@ -520,10 +520,14 @@ public class TinkerGraphGraphSONSerializerV2d0Test {
      */
     private boolean approximateGraphsCheck(Graph g1, Graph g2) {
         final Iterator<Vertex> itV = g1.vertices();
-        final Iterator<Vertex> itVRead = g2.vertices();
 
+        // the graphs may hold their elements in a different order, so each element is found by its id
         while (itV.hasNext()) {
             final Vertex v = itV.next();
+            final Iterator<Vertex> itVRead = g2.vertices(v.id());
+            if (!itVRead.hasNext()) {
+                return false;
+            }
             final Vertex vRead = itVRead.next();
 
             // Will only check IDs but that's 'good' enough.
@@ -544,10 +548,13 @@ public class TinkerGraphGraphSONSerializerV2d0Test {
         }
 
         final Iterator<Edge> itE = g1.edges();
-        final Iterator<Edge> itERead = g2.edges();
 
         while (itE.hasNext()) {
             final Edge e = itE.next();
+            final Iterator<Edge> itERead = g2.edges(e.id());
+            if (!itERead.hasNext()) {
+                return false;
+            }
             final Edge eRead = itERead.next();
             // Will only check IDs but that's good enough.
             if (!e.equals(eRead)) {
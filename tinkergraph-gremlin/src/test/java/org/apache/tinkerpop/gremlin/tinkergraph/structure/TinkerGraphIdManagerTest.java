@@ -104,6 +104,28 @@ public class TinkerGraphIdManagerTest {
             assertEquals(200, e.id());
             assertEquals(300, vp.id());
         }
+
+        @Test
+        public void shouldUseLongIdManagerToFindElements() {
+            final Graph graph = TinkerGraph.open(longIdManagerConfig);
+            final Vertex v = graph.addVertex(T.id, 100l);
+            final Edge e = v.addEdge("self", v, T.id, 200l);
+
+            assertEquals(v, graph.vertices(vertexIdValue).next());
+            assertEquals(e, graph.edges(edgeIdValue).next());
+            assertEquals(false, graph.vertices(edgeIdValue).hasNext());
+        }
+
+        @Test
+        public void shouldUseIntegerIdManagerToFindElements() {
+            final Graph graph = TinkerGraph.open(integerIdManagerConfig);
+            final Vertex v = graph.addVertex(T.id, 100);
+            final Edge e = v.addEdge("self", v, T.id, 200);
+
+            assertEquals(v, graph.vertices(vertexIdValue).next());
+            assertEquals(e, graph.edges(edgeIdValue).next());
+            assertEquals(false, graph.vertices(edgeIdValue).hasNext());
+        }
     }
 
 
@@ -22,8 +22,28 @@ import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.tinkerpop.gremlin.GraphHelper;
 import org.apache.tinkerpop.gremlin.TestHelper;
+import org.apache.tinkerpop.gremlin.process.computer.Computer;
+import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.KeyValue;
+import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
+import org.apache.tinkerpop.gremlin.process.computer.Memory;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.computer.Messenger;
+import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.clustering.peerpressure.ClusterPopulationMapReduce;
+import org.apache.tinkerpop.gremlin.process.computer.clustering.peerpressure.PeerPressureVertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankMapReduce;
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.traversal.step.map.PageRankVertexProgramStep;
+import org.apache.tinkerpop.gremlin.process.computer.traversal.step.map.PeerPressureVertexProgramStep;
+import org.apache.tinkerpop.gremlin.process.computer.util.StaticMapReduce;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.T;
@@ -42,6 +62,7 @@ import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoClassResolverV1d0;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoMapper;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoVersion;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoWriter;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputer;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import org.apache.tinkerpop.shaded.jackson.databind.ObjectMapper;
 import org.apache.tinkerpop.shaded.kryo.ClassResolver;
@@ -61,17 +82,36 @@ import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -302,6 +342,253 @@ public class TinkerGraphTest {
         }, 0.5)).has("oid", "1").count().next());
     }
 
+    @Test
+    public void shouldManageSortedIndices() {
+        final TinkerGraph g = TinkerGraph.open();
+        assertNull(g.getIndexType("age", Vertex.class));
+
+        g.createIndex("age", Vertex.class);
+        assertEquals(TinkerGraph.IndexType.HASH, g.getIndexType("age", Vertex.class));
+
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.SORTED);
+        assertEquals(TinkerGraph.IndexType.SORTED, g.getIndexType("age", Vertex.class));
+        assertEquals(1, g.getIndexedKeys(Vertex.class).size());
+
+        g.dropIndex("age", Vertex.class);
+        assertNull(g.getIndexType("age", Vertex.class));
+        assertEquals(0, g.getIndexedKeys(Vertex.class).size());
+    }
+
+    @Test
+    public void shouldUseSortedVertexIndexForRanges() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.SORTED);
+
+        g.addVertex("name", "marko", "age", 29);
+        g.addVertex("name", "vadas", "age", 27L);
+        g.addVertex("name", "josh", "age", 32);
+        g.addVertex("name", "peter", "age", 35.0d);
+        g.addVertex("name", "lop", "lang", "java");
+
+        // a tricky way to evaluate if indices are actually being used is to pass a fake BiPredicate to has()
+        // to get into the Pipeline and evaluate what's going through it.  in this case, we know that the index
+        // is used because only names of people older than 30 should pass through the pipeline due to the inclusion
+        // of the sorted index lookup on "age".
+        final List<String> names = new ArrayList<>();
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            names.add((String) t);
+            return true;
+        }, "x")).has("age", P.gt(30)).count().next());
+        assertEquals(Arrays.asList("josh", "peter"), names);
+
+        assertEquals(Arrays.asList("marko", "josh"), g.traversal().V().has("age", P.between(28, 35)).values("name").toList());
+        assertEquals(Arrays.asList("vadas", "marko"), g.traversal().V().has("age", P.inside(20L, 32)).values("name").toList());
+        assertEquals(Arrays.asList("josh", "peter"), g.traversal().V().has("age", P.gte(32)).has("age", P.gt(30)).values("name").toList());
+        assertEquals(Arrays.asList("vadas", "marko"), g.traversal().V().has("age", P.lte(29.0d)).values("name").toList());
+        assertEquals(0, g.traversal().V().has("age", P.gt(35)).has("age", P.lt(20)).count().next().intValue());
+    }
+
+    @Test
+    public void shouldUseSortedEdgeIndexForOrderLimit() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("ts", Edge.class, TinkerGraph.IndexType.SORTED);
+
+        final Vertex v = g.addVertex();
+        for (int i = 0; i < 100; i++) {
+            v.addEdge("tick", v, "ts", (long) (i * 7 % 100), "i", i);
+        }
+
+        final List<Object> seen = new ArrayList<>();
+        assertEquals(Arrays.asList(99L, 98L, 97L), g.traversal().E().has("i", P.test((t, u) -> {
+            seen.add(t);
+            return true;
+        }, 0)).order().by("ts", Order.decr).limit(3).values("ts").toList());
+        assertEquals(3, seen.size());
+
+        assertEquals(Arrays.asList(13L, 14L), g.traversal().E().has("ts", P.gt(12L)).order().by("ts").limit(2).values("ts").toList());
+        assertEquals(Arrays.asList(3L, 4L, 5L), g.traversal().E().order().by("ts").range(3, 6).values("ts").toList());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotUseSortedVertexIndexForOrderLimitIfSomeElementsLackTheKey() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.SORTED);
+
+        g.addVertex("name", "marko", "age", 29);
+        g.addVertex("name", "lop", "lang", "java");
+
+        // order() fails on "lop" without the index, so it should fail with it too
+        g.traversal().V().order().by("age").limit(1).toList();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotUseSortedVertexIndexForOrderLimitIfMultiplePropertiesHideElementsThatLackTheKey() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.SORTED);
+
+        g.addVertex("name", "marko", "age", 29);
+        final Vertex stephen = g.addVertex("name", "stephen");
+        stephen.property(VertexProperty.Cardinality.list, "age", 27);
+        stephen.property(VertexProperty.Cardinality.list, "age", 40);
+        g.addVertex("name", "lop", "lang", "java");
+
+        // there are as many values in the index as there are vertices, but "lop" is not one of them
+        assertEquals(2, TinkerHelper.countVertexIndex(g, "age"));
+        g.traversal().V().has("name", P.within("marko", "lop")).order().by("age").limit(1).toList();
+    }
+
+    @Test
+    public void shouldReturnVertexWithMultiplePropertiesOnceFromSortedVertexIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.SORTED);
+
+        g.addVertex("name", "marko", "age", 29);
+        final Vertex stephen = g.addVertex("name", "stephen");
+        stephen.property(VertexProperty.Cardinality.list, "age", 27);
+        stephen.property(VertexProperty.Cardinality.list, "age", 40);
+        g.addVertex("name", "josh", "age", 32);
+        assertEquals(3, TinkerHelper.countVertexIndex(g, "age"));
+
+        final List<Object> names = new ArrayList<>();
+        TinkerHelper.sortedVertexIndex(g, "age", null, false, null, false, false).forEachRemaining(v -> names.add(v.value("name")));
+        assertEquals(Arrays.asList("stephen", "marko", "josh"), names);
+        names.clear();
+        TinkerHelper.sortedVertexIndex(g, "age", null, false, null, false, true).forEachRemaining(v -> names.add(v.value("name")));
+        assertEquals(Arrays.asList("stephen", "josh", "marko"), names);
+
+        // the vertex is still counted once it only has one of its values and is no longer counted without either
+        stephen.properties("age").forEachRemaining(p -> {
+            if (p.value().equals(40)) p.remove();
+        });
+        assertEquals(3, TinkerHelper.countVertexIndex(g, "age"));
+        stephen.property("age").remove();
+        assertEquals(2, TinkerHelper.countVertexIndex(g, "age"));
+        stephen.property(VertexProperty.Cardinality.list, "age", 50);
+        stephen.property(VertexProperty.Cardinality.list, "age", 51);
+        assertEquals(3, TinkerHelper.countVertexIndex(g, "age"));
+        stephen.remove();
+        assertEquals(2, TinkerHelper.countVertexIndex(g, "age"));
+    }
+
+    @Test
+    public void shouldManageCompositeIndices() {
+        final TinkerGraph g = TinkerGraph.open();
+        assertEquals(0, g.getCompositeIndexedKeys(Vertex.class).size());
+
+        g.createCompositeIndex(Vertex.class, T.label.getAccessor(), "tenant", "status");
+        g.createCompositeIndex(Edge.class, "tenant", "status");
+        assertEquals(Collections.singleton(Arrays.asList(T.label.getAccessor(), "tenant", "status")), g.getCompositeIndexedKeys(Vertex.class));
+        assertEquals(Collections.singleton(Arrays.asList("tenant", "status")), g.getCompositeIndexedKeys(Edge.class));
+        assertEquals(0, g.getIndexedKeys(Vertex.class).size());
+
+        g.dropCompositeIndex(Vertex.class, T.label.getAccessor(), "tenant", "status");
+        assertEquals(0, g.getCompositeIndexedKeys(Vertex.class).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateCompositeIndexWithOneKey() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createCompositeIndex(Vertex.class, "tenant");
+    }
+
+    @Test
+    public void shouldUpdateCompositeVertexIndices() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.addVertex(T.label, "job", "tenant", "a", "status", "done", "name", "one");
+        g.createCompositeIndex(Vertex.class, T.label.getAccessor(), "tenant", "status");
+        final Vertex two = g.addVertex(T.label, "job", "tenant", "a", "status", "new", "name", "two");
+        g.addVertex(T.label, "job", "tenant", "b", "status", "new", "name", "three");
+        g.addVertex(T.label, "task", "tenant", "a", "status", "new", "name", "four");
+
+        // a tricky way to evaluate if indices are actually being used is to pass a fake BiPredicate to has()
+        // to get into the Pipeline and evaluate what's going through it.  in this case, we know that the composite
+        // index is used because only the name of the matching job should pass through the pipeline.
+        final List<Object> names = new ArrayList<>();
+        assertEquals(new Long(1), g.traversal().V().hasLabel("job").has("name", P.test((t, u) -> {
+            names.add(t);
+            return true;
+        }, "x")).has("tenant", "a").has("status", "new").count().next());
+        assertEquals(Collections.singletonList("two"), names);
+
+        two.property("status", "done");
+        assertEquals(Arrays.asList("one", "two"), g.traversal().V().hasLabel("job").has("tenant", "a").has("status", "done").values("name").toList());
+        assertEquals(0, g.traversal().V().hasLabel("job").has("tenant", "a").has("status", "new").count().next().intValue());
+
+        two.property("status").remove();
+        assertEquals(Collections.singletonList("one"), g.traversal().V().hasLabel("job").has("tenant", "a").has("status", "done").values("name").toList());
+
+        g.traversal().V().has("name", "one").drop().iterate();
+        assertEquals(0, g.traversal().V().hasLabel("job").has("tenant", "a").has("status", "done").count().next().intValue());
+    }
+
+    @Test
+    public void shouldUpdateCompositeEdgeIndices() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createCompositeIndex(Edge.class, "tenant", "status");
+        final Vertex v = g.addVertex();
+        final Edge e = v.addEdge("link", v, "tenant", "a", "status", "new");
+        v.addEdge("link", v, "tenant", "a", "status", "done");
+
+        assertEquals(1, g.traversal().E().has("tenant", "a").has("status", "new").count().next().intValue());
+        e.property("status", "done");
+        assertEquals(0, g.traversal().E().has("tenant", "a").has("status", "new").count().next().intValue());
+        assertEquals(2, g.traversal().E().has("tenant", "a").has("status", "done").count().next().intValue());
+        e.remove();
+        assertEquals(1, g.traversal().E().has("tenant", "a").has("status", "done").count().next().intValue());
+    }
+
+    @Test
+    public void shouldIntersectVertexIndices() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("tenant", Vertex.class);
+        g.createIndex("status", Vertex.class);
+        for (int i = 0; i < 20; i++) {
+            g.addVertex("tenant", i % 2 == 0 ? "a" : "b", "status", i % 5 == 0 ? "new" : "done", "i", i);
+        }
+
+        // only elements in both index lookups should reach the pipeline
+        final List<Object> seen = new ArrayList<>();
+        assertEquals(Arrays.asList(0, 10), g.traversal().V().has("i", P.test((t, u) -> {
+            seen.add(t);
+            return true;
+        }, 0)).has("tenant", "a").has("status", "new").values("i").order().toList());
+        assertEquals(2, seen.size());
+
+        assertEquals(0, g.traversal().V().has("tenant", "a").has("status", "missing").count().next().intValue());
+    }
+
+    @Test
+    public void shouldUseLabelIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        for (int i = 0; i < 20; i++) {
+            final Vertex v = g.addVertex(T.label, i % 4 == 0 ? "person" : "software", "i", i);
+            v.addEdge(i % 2 == 0 ? "knows" : "created", v, "i", i);
+        }
+
+        // only the elements with the label should reach the pipeline
+        final List<Object> seen = new ArrayList<>();
+        assertEquals(Arrays.asList(0, 4, 8, 12, 16), g.traversal().V().has("i", P.test((t, u) -> {
+            seen.add(t);
+            return true;
+        }, 0)).hasLabel("person").values("i").order().toList());
+        assertEquals(5, seen.size());
+
+        assertEquals(5, g.traversal().V().hasLabel("person").count().next().intValue());
+        assertEquals(20, g.traversal().V().hasLabel("person", "software", "missing").count().next().intValue());
+        assertEquals(0, g.traversal().V().hasLabel("person").hasLabel("software").count().next().intValue());
+        assertEquals(10, g.traversal().E().hasLabel("knows").count().next().intValue());
+        assertEquals(10, g.traversal().E().hasLabel("created").toList().size());
+
+        g.traversal().V().hasLabel("person").has("i", P.lt(10)).drop().iterate();
+        assertEquals(2, g.traversal().V().hasLabel("person").count().next().intValue());
+        assertEquals(2, g.traversal().V().hasLabel("person").toList().size());
+        assertEquals(7, g.traversal().E().hasLabel("knows").count().next().intValue());
+
+        g.clear();
+        assertEquals(0, g.traversal().V().hasLabel("software").count().next().intValue());
+        assertEquals(0, g.traversal().E().hasLabel("created").toList().size());
+    }
+
     @Test
     public void shouldSerializeTinkerGraphToGryo() throws Exception {
         final TinkerGraph graph = TinkerFactory.createModern();
@@ -488,6 +775,149 @@ public class TinkerGraphTest {
         reloadedGraph.close();
     }
 
+    @Test
+    public void shouldPersistToLogWithoutClose() {
+        final Configuration conf = logConfiguration("shouldPersistToLogWithoutClose", 64L * 1024 * 1024);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        final Vertex extra = graph.addVertex(T.label, "person", "name", "extra");
+        extra.addEdge("knows", graph.vertices(1).next(), "weight", 1.0d).property("weight", 0.1d);
+        extra.remove();
+
+        // the graph is never closed so everything has to come from the log
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        IoTest.assertModernGraph(reloadedGraph, true, false);
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldPersistToLogAndHandleMultiProperties() {
+        final Configuration conf = logConfiguration("shouldPersistToLogAndHandleMultiProperties", 64L * 1024 * 1024);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_DEFAULT_VERTEX_PROPERTY_CARDINALITY, VertexProperty.Cardinality.list.toString());
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateTheCrew(graph);
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        IoTest.assertCrewGraph(reloadedGraph, false);
+
+        final Vertex marko = reloadedGraph.traversal().V().has("name", "marko").next();
+        marko.property(VertexProperty.Cardinality.single, "location", "santa cruz", "startTime", 2017);
+        marko.properties("location").next().property("startTime").remove();
+        reloadedGraph.close();
+
+        final TinkerGraph closedGraph = TinkerGraph.open(conf);
+        final VertexProperty<String> location = closedGraph.traversal().V().has("name", "marko").next().property("location");
+        assertEquals("santa cruz", location.value());
+        assertEquals(0, IteratorUtils.count(location.properties()));
+        assertEquals(6, IteratorUtils.count(closedGraph.vertices()));
+        assertEquals(14, IteratorUtils.count(closedGraph.edges()));
+        closedGraph.close();
+    }
+
+    @Test
+    public void shouldCompactLogInBackground() throws Exception {
+        final Configuration conf = logConfiguration("shouldCompactLogInBackground", 1024);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        for (int i = 0; i < 1000; i++) {
+            graph.addVertex(T.id, (long) i, "i", i).property("i", i * 2);
+        }
+        graph.close();
+
+        final File directory = new File(conf.getString(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION));
+        assertEquals(Collections.singletonList("tinkergraph.kryo"), Arrays.asList(directory.list()));
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(1000, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(1998, (int) reloadedGraph.vertices(999L).next().value("i"));
+        reloadedGraph.vertices(0L).next().remove();
+        reloadedGraph.clear();
+        reloadedGraph.addVertex(T.id, 1L);
+
+        final TinkerGraph clearedGraph = TinkerGraph.open(conf);
+        assertEquals(1, IteratorUtils.count(clearedGraph.vertices()));
+        clearedGraph.close();
+    }
+
+    @Test
+    public void shouldCompactLogWhileTheGraphIsChanged() throws Exception {
+        final Configuration conf = logConfiguration("shouldCompactLogWhileTheGraphIsChanged", 4096);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        Vertex previous = graph.addVertex(T.id, 0L, "i", 0L);
+        for (long i = 1; i < 5000; i++) {
+            final Vertex vertex = graph.addVertex(T.id, i, "i", i);
+            previous.addEdge("next", vertex, "i", i);
+            previous.property("i").remove();
+            previous = vertex;
+        }
+        while (graph.writeAheadLog.isCompacting()) {
+            Thread.sleep(10);
+        }
+
+        // the graph is not closed, so the last snapshot that was compacted has to have every element it replaced
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(5000, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(4999, IteratorUtils.count(reloadedGraph.edges()));
+        assertEquals(4999L, (long) reloadedGraph.vertices(4999L).next().edges(Direction.IN).next().value("i"));
+        assertEquals(1, IteratorUtils.count(reloadedGraph.traversal().V().has("i")));
+        graph.close();
+    }
+
+    @Test
+    public void shouldCompactLogWhileTransactionsCommit() throws Exception {
+        final Configuration conf = logConfiguration("shouldCompactLogWhileTransactionsCommit", 4096);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONS, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> writes = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int thread = t;
+                writes.add(executor.submit(() -> {
+                    Vertex previous = graph.addVertex(T.label, "thread" + thread);
+                    graph.tx().commit();
+                    for (int i = 1; i < 500; i++) {
+                        final Vertex vertex = graph.addVertex(T.label, "thread" + thread, "i", i);
+                        previous.addEdge("next", vertex);
+                        graph.tx().commit();
+                        previous = vertex;
+                    }
+                }));
+            }
+            for (final Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        while (graph.writeAheadLog.isCompacting()) {
+            Thread.sleep(10);
+        }
+
+        // the graph is not closed, so the last snapshot that was compacted has to have every element it replaced
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(2000, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(1996, IteratorUtils.count(reloadedGraph.edges()));
+        for (int t = 0; t < 4; t++) {
+            assertEquals(499L, reloadedGraph.traversal().V().hasLabel("thread" + t).outE().count().next().longValue());
+        }
+        reloadedGraph.close();
+        graph.close();
+    }
+
+    private static Configuration logConfiguration(final String name, final long compactionThreshold) {
+        final File directory = new File(TestHelper.makeTestDataDirectory(TinkerGraphTest.class), name);
+        if (directory.exists()) {
+            for (final File file : directory.listFiles()) {
+                file.delete();
+            }
+        }
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "log");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, directory.getAbsolutePath());
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_LOG_COMPACTION_THRESHOLD, compactionThreshold);
+        return conf;
+    }
+
     @Test
     public void shouldPersistWithRelativePath() {
         final String graphLocation = TestHelper.convertToRelative(TinkerGraphTest.class,
@@ -624,6 +1054,906 @@ public class TinkerGraphTest {
             clone.traversal().V().has("name", "stephen").next());
     }
 
+    @Test
+    public void shouldTraverseWithCompactAdjacency() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ADJACENCY, "compact");
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        final GraphTraversalSource g = graph.traversal();
+
+        assertEquals(6, g.E().count().next().intValue());
+        assertEquals(3, g.V().has("name", "marko").out().count().next().intValue());
+        assertEquals(2, g.V().has("name", "marko").out("knows").count().next().intValue());
+        assertEquals(3, g.V().has("name", "marko").outE("knows", "created").count().next().intValue());
+        assertEquals(3, g.V().has("name", "lop").in("created").count().next().intValue());
+        assertEquals(3, g.V().has("name", "josh").both().count().next().intValue());
+        assertEquals(0, g.V().has("name", "marko").out("likes").count().next().intValue());
+        assertEquals(Arrays.asList("lop", "ripple"), g.V().has("name", "josh").out("created").values("name").order().toList());
+    }
+
+    @Test
+    public void shouldRemoveEdgesWithCompactAdjacency() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ADJACENCY, "compact");
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final Vertex a = graph.addVertex();
+        final Vertex b = graph.addVertex();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            edges.add(a.addEdge(i % 2 == 0 ? "even" : "odd", b));
+        }
+
+        edges.get(4).remove();
+        edges.get(5).remove();
+        assertEquals(8, IteratorUtils.count(a.edges(Direction.OUT)));
+        assertEquals(4, IteratorUtils.count(b.vertices(Direction.IN, "even")));
+        assertEquals(4, IteratorUtils.count(b.vertices(Direction.IN, "odd")));
+
+        b.remove();
+        assertEquals(0, IteratorUtils.count(a.edges(Direction.BOTH)));
+        assertEquals(0, IteratorUtils.count(graph.edges()));
+    }
+
+    @Test
+    public void shouldDropEdgesWhileIteratingCompactAdjacency() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ADJACENCY, "compact");
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final Vertex a = graph.addVertex();
+        final Vertex b = graph.addVertex();
+        for (int i = 0; i < 6; i++) {
+            a.addEdge("knows", graph.addVertex());
+            graph.addVertex().addEdge(i % 2 == 0 ? "knows" : "likes", b);
+        }
+        final GraphTraversalSource g = graph.traversal();
+
+        g.V(a).outE().drop().iterate();
+        assertEquals(0, IteratorUtils.count(a.edges(Direction.OUT)));
+
+        g.V(b).inE().drop().iterate();
+        assertEquals(0, IteratorUtils.count(b.edges(Direction.IN)));
+        assertEquals(0, IteratorUtils.count(graph.edges()));
+    }
+
+    @Test
+    public void shouldIterateCompactAdjacencyAsItWasWhileEdgesAreRemoved() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ADJACENCY, "compact");
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final Vertex a = graph.addVertex();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            edges.add(a.addEdge("knows", graph.addVertex()));
+        }
+
+        final Iterator<Edge> iterator = a.edges(Direction.OUT);
+        assertEquals(edges.get(0), iterator.next());
+        // removes from the front, the back and the middle so that both sides of the array are shifted
+        final List<Edge> removed = Arrays.asList(edges.get(0), edges.get(1), edges.get(19), edges.get(10), edges.get(5));
+        removed.forEach(Edge::remove);
+        final List<Edge> iterated = new ArrayList<>();
+        iterator.forEachRemaining(iterated::add);
+        assertEquals(edges.subList(1, 20), iterated);
+
+        final List<Edge> remaining = new ArrayList<>(edges);
+        remaining.removeAll(removed);
+        assertEquals(remaining, IteratorUtils.list(a.edges(Direction.OUT)));
+        final Edge added = a.addEdge("knows", graph.addVertex());
+        remaining.add(added);
+        assertEquals(remaining, IteratorUtils.list(a.edges(Direction.OUT)));
+
+        a.remove();
+        assertEquals(0, IteratorUtils.count(graph.edges()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotOpenWithUnknownAdjacency() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ADJACENCY, "sparse");
+        TinkerGraph.open(conf);
+    }
+
+    @Test
+    public void shouldHideUncommittedChangesFromOtherThreads() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open(transactionConfiguration());
+        graph.createIndex("name", Vertex.class);
+        TinkerFactory.generateModern(graph);
+        graph.tx().commit();
+        final GraphTraversalSource g = graph.traversal();
+
+        final Vertex marko = g.V().has("name", "marko").next();
+        marko.property("age", 30);
+        marko.addEdge("knows", graph.addVertex(T.label, "person", "name", "stephen"));
+        g.V().has("name", "vadas").next().remove();
+
+        assertEquals(30, (int) marko.value("age"));
+        assertEquals(6, g.V().count().next().intValue());
+        assertEquals(1, g.V().has("name", "stephen").count().next().intValue());
+        assertEquals(0, g.V().has("name", "vadas").count().next().intValue());
+        assertEquals(Arrays.asList("josh", "stephen"), g.V(marko).out("knows").<String>values("name").order().toList());
+
+        assertEquals(29, (int) inAnotherThread(graph, () -> marko.value("age")));
+        assertEquals(6L, (long) inAnotherThread(graph, () -> g.V().count().next()));
+        assertEquals(0L, (long) inAnotherThread(graph, () -> g.V().has("name", "stephen").count().next()));
+        assertEquals(1L, (long) inAnotherThread(graph, () -> g.V().has("name", "vadas").count().next()));
+        assertEquals(Arrays.asList("josh", "vadas"), inAnotherThread(graph, () -> g.V(marko).out("knows").<String>values("name").order().toList()));
+
+        graph.tx().commit();
+
+        assertEquals(30, (int) inAnotherThread(graph, () -> marko.value("age")));
+        assertEquals(6L, (long) inAnotherThread(graph, () -> g.V().count().next()));
+        assertEquals(1L, (long) inAnotherThread(graph, () -> g.V().has("name", "stephen").count().next()));
+        assertEquals(0L, (long) inAnotherThread(graph, () -> g.V().has("name", "vadas").count().next()));
+        assertEquals(Arrays.asList("josh", "stephen"), inAnotherThread(graph, () -> g.V(marko).out("knows").<String>values("name").order().toList()));
+    }
+
+    @Test
+    public void shouldRollbackTransaction() {
+        final Configuration conf = transactionConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ADJACENCY, "compact");
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        graph.createIndex("weight", Edge.class);
+        TinkerFactory.generateModern(graph);
+        graph.tx().commit();
+        final GraphTraversalSource g = graph.traversal();
+
+        final Vertex marko = g.V().has("name", "marko").next();
+        marko.property("age", 30);
+        marko.properties("name").next().property("since", 2010);
+        marko.addEdge("knows", graph.addVertex(T.label, "person", "name", "stephen"), "weight", 0.7d);
+        g.E().has("weight", 0.4d).drop().iterate();
+        g.V().has("name", "vadas").drop().iterate();
+        graph.tx().rollback();
+
+        IoTest.assertModernGraph(graph, false, true);
+        assertEquals(0, IteratorUtils.count(marko.properties("name").next().properties()));
+        assertEquals(2L, g.E().has("weight", 0.4d).count().next().longValue());
+        assertEquals(0L, g.E().has("weight", 0.7d).count().next().longValue());
+    }
+
+    @Test
+    public void shouldReadWhileTransactionsCommit() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open(transactionConfiguration());
+        final Vertex vertex = graph.addVertex();
+        graph.tx().commit();
+
+        final Future<Long> reads = Executors.newSingleThreadExecutor().submit(() -> {
+            long keys = 0;
+            while (keys < 100) {
+                // every commit adds two properties to the vertex and an edge to itself, and the reads of a
+                // transaction all see the vertex as of the same commit
+                graph.tx().open();
+                keys = IteratorUtils.count(vertex.properties());
+                assertEquals(0, keys % 2);
+                assertEquals(keys / 2, IteratorUtils.count(vertex.edges(Direction.OUT)));
+                graph.tx().rollback();
+            }
+            return keys;
+        });
+        for (int i = 0; i < 50; i++) {
+            vertex.property("a" + i, i);
+            vertex.property("b" + i, i);
+            vertex.addEdge("self", vertex);
+            graph.tx().commit();
+        }
+        assertEquals(100L, reads.get().longValue());
+    }
+
+    @Test
+    public void shouldReadAsOfTheStartOfTheTransaction() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open(transactionConfiguration());
+        TinkerFactory.generateModern(graph);
+        graph.tx().commit();
+        final GraphTraversalSource g = graph.traversal();
+        final Vertex marko = g.V().has("name", "marko").next();
+        graph.tx().commit();
+
+        final CountDownLatch opened = new CountDownLatch(1);
+        final CountDownLatch committed = new CountDownLatch(1);
+        final Future<List<Object>> reads = Executors.newSingleThreadExecutor().submit(() -> {
+            final List<Object> values = new ArrayList<>();
+            graph.tx().open();
+            values.add(marko.value("age"));
+            opened.countDown();
+            committed.await();
+            values.add(marko.value("age"));
+            values.add(g.V().count().next());
+            values.add(IteratorUtils.count(marko.edges(Direction.OUT)));
+            values.add(g.V().has("name", "vadas").count().next());
+            graph.tx().rollback();
+            values.add(marko.value("age"));
+            values.add(g.V().count().next());
+            values.add(IteratorUtils.count(marko.edges(Direction.OUT)));
+            graph.tx().rollback();
+            return values;
+        });
+
+        opened.await();
+        marko.property("age", 30);
+        marko.addEdge("knows", graph.addVertex(T.label, "person", "name", "stephen"));
+        g.V().has("name", "vadas").next().property("age", 28);
+        graph.tx().commit();
+        committed.countDown();
+
+        assertEquals(Arrays.asList(29, 29, 6L, 3L, 1L, 30, 7L, 4L), reads.get());
+    }
+
+    @Test
+    public void shouldPersistCommittedTransactionsToLog() {
+        final Configuration conf = logConfiguration("shouldPersistCommittedTransactionsToLog", 64L * 1024 * 1024);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONS, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.tx().commit();
+        final Vertex marko = graph.traversal().V().has("name", "marko").next();
+        marko.property("age", 30);
+        marko.properties("name").next().property("since", 2010);
+        graph.addVertex(T.label, "person", "name", "stephen");
+        graph.tx().rollback();
+        marko.property("age", 31);
+        graph.vertices(2).next().remove();
+        graph.tx().commit();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        final GraphTraversalSource g = reloadedGraph.traversal();
+        assertEquals(5L, g.V().count().next().longValue());
+        assertEquals(5L, g.E().count().next().longValue());
+        assertEquals(31, (int) g.V().has("name", "marko").next().value("age"));
+        assertEquals(0L, g.V().has("name", "marko").properties("name").properties().count().next().longValue());
+        reloadedGraph.close();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotSupportTransactionsByDefault() {
+        TinkerGraph.open().tx();
+    }
+
+    @Test
+    public void shouldAddAndRemoveManyElementsWithLongIds() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_VERTEX_ID_MANAGER, TinkerGraph.DefaultIdManager.LONG.name());
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        for (long i = 0; i < 10000; i++) {
+            graph.addVertex(T.id, i * 1024);
+        }
+        for (long i = 0; i < 10000; i += 2) {
+            graph.vertices(i * 1024).next().remove();
+        }
+        for (long i = 0; i < 10000; i += 4) {
+            graph.addVertex(T.id, i * 1024);
+        }
+
+        assertEquals(7500, IteratorUtils.count(graph.vertices()));
+        assertEquals(7500, graph.traversal().V().count().next().intValue());
+        assertEquals(3, IteratorUtils.count(graph.vertices(0, 1024, 2048, 3072)));
+        assertEquals(0, IteratorUtils.count(graph.vertices("2048")));
+        assertEquals(Long.class, graph.vertices().next().id().getClass());
+    }
+
+    @Test
+    public void shouldExecuteVertexProgramOnEveryVertexOfSkewedGraph() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex hub = graph.addVertex();
+        Vertex previous = hub;
+        for (int i = 0; i < 2000; i++) {
+            final Vertex vertex = graph.addVertex();
+            vertex.addEdge("knows", hub);
+            if (i % 2 == 0) previous.addEdge("next", vertex);
+            previous = vertex;
+        }
+
+        final Graph single = graph.compute().program(PageRankVertexProgram.build().create(graph)).workers(1).submit().get().graph();
+        final int workers = Math.min(4, graph.compute().features().getMaxWorkers());
+        final Graph many = graph.compute().program(PageRankVertexProgram.build().create(graph)).workers(workers).submit().get().graph();
+        assertEquals(2001, IteratorUtils.count(many.vertices()));
+        many.vertices().forEachRemaining(vertex -> {
+            final double expected = single.vertices(vertex.id()).next().value(PageRankVertexProgram.PAGE_RANK);
+            assertEquals(expected, vertex.<Double>value(PageRankVertexProgram.PAGE_RANK), 0.000001d);
+        });
+    }
+
+    @Test
+    public void shouldResumeVertexProgramFromCheckpoint() throws Exception {
+        final File directory = new File(TestHelper.makeTestDataDirectory(TinkerGraphTest.class), "shouldResumeVertexProgramFromCheckpoint");
+        if (directory.exists()) {
+            for (final File file : directory.listFiles()) {
+                file.delete();
+            }
+        }
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final AtomicBoolean failing = new AtomicBoolean(false);
+        final AtomicLong steps = new AtomicLong(0);
+        final Supplier<GraphTraversal<Vertex, Map<Object, Long>>> traversal = () -> graph.traversal()
+                .withComputer(Computer.compute(TinkerGraphComputer.class)
+                        .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_LOCATION, directory.getAbsolutePath())
+                        .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL, 1)
+                        .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_FORCE_RESUME, true))
+                .V().repeat(__.both().sideEffect(t -> steps.incrementAndGet())).times(4)
+                .filter(t -> {
+                    if (failing.get()) throw new IllegalStateException("failed after the repeat");
+                    return true;
+                }).<Object>values("name").groupCount();
+
+        final Map<Object, Long> expected = traversal.get().next();
+        final long stepsOfComputation = steps.getAndSet(0);
+        assertEquals(graph.traversal().V().repeat(__.both()).times(4).values("name").groupCount().next(), expected);
+        assertEquals(0, directory.listFiles().length);
+
+        failing.set(true);
+        try {
+            traversal.get().next();
+            fail("The traversal should have failed after the repeat");
+        } catch (Exception ex) {
+            // the checkpoints of the iterations that completed remain
+        }
+        assertTrue(directory.listFiles().length > 1);
+
+        failing.set(false);
+        steps.set(0);
+        assertEquals(expected, traversal.get().next());
+        assertTrue(steps.get() < stepsOfComputation);
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldNotResumeCheckpointOfAnotherConfiguration() throws Exception {
+        final File directory = new File(TestHelper.makeTestDataDirectory(TinkerGraphTest.class), "shouldNotResumeCheckpointOfAnotherConfiguration");
+        if (directory.exists()) {
+            for (final File file : directory.listFiles()) {
+                file.delete();
+            }
+        }
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final Function<Boolean, Computer> computer = forceResume -> Computer.compute(TinkerGraphComputer.class)
+                .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_LOCATION, directory.getAbsolutePath())
+                .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_INTERVAL, 1)
+                .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_CHECKPOINT_FORCE_RESUME, forceResume);
+        final AtomicBoolean failing = new AtomicBoolean(true);
+        final Function<Boolean, GraphTraversal<Vertex, Map<Object, Long>>> traversal = forceResume -> graph.traversal()
+                .withComputer(computer.apply(forceResume))
+                .V().repeat(__.both()).times(4)
+                .filter(t -> {
+                    if (failing.get()) throw new IllegalStateException("failed after the repeat");
+                    return true;
+                }).<Object>values("name").groupCount();
+
+        try {
+            traversal.apply(true).next();
+            fail("The traversal should have failed after the repeat");
+        } catch (Exception ex) {
+            // the checkpoints of the iterations that completed remain
+        }
+        final int checkpoints = directory.listFiles().length;
+        assertTrue(checkpoints > 1);
+
+        // the traversal has a lambda so its configuration can not be compared unless resuming is forced
+        failing.set(false);
+        assertCheckpointRefused(() -> traversal.apply(false).next());
+        // a traversal without lambdas has another configuration than the one that the checkpoints were written for
+        assertCheckpointRefused(() -> graph.traversal().withComputer(computer.apply(true))
+                .V().repeat(__.both()).times(4).values("name").groupCount().next());
+        assertEquals(checkpoints, directory.listFiles().length);
+    }
+
+    private static void assertCheckpointRefused(final Runnable runnable) {
+        try {
+            runnable.run();
+            fail("The checkpoints should have been refused");
+        } catch (Exception ex) {
+            Throwable cause = ex;
+            while (!(cause instanceof IllegalStateException) && null != cause.getCause()) {
+                cause = cause.getCause();
+            }
+            assertTrue(cause instanceof IllegalStateException);
+            assertTrue(cause.getMessage().contains("checkpoint"));
+        }
+    }
+
+    @Test
+    public void shouldExecuteVertexProgramAsynchronously() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open();
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            vertices.add(graph.addVertex("community", i / 20));
+        }
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 40; j++) {
+                if (i != j && i / 20 == j / 20 && (i + j) % 3 != 0)
+                    vertices.get(i).addEdge("knows", vertices.get(j));
+            }
+        }
+        vertices.get(0).addEdge("knows", vertices.get(20));
+
+        final ComputerResult synchronous = graph.compute().program(PeerPressureVertexProgram.build().create(graph)).submit().get();
+        final ComputerResult asynchronous = graph.compute().program(PeerPressureVertexProgram.build().create(graph))
+                .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_ASYNCHRONOUS, true).submit().get();
+        assertTrue(asynchronous.memory().getIteration() <= synchronous.memory().getIteration());
+        final List<Map<Object, List<Object>>> clusters = new ArrayList<>();
+        for (final ComputerResult result : Arrays.asList(synchronous, asynchronous)) {
+            clusters.add(result.graph().traversal().V().<Object, List<Object>>group().by("community")
+                    .by(__.values(PeerPressureVertexProgram.CLUSTER).dedup().fold()).next());
+        }
+        assertEquals(1, clusters.get(1).get(0).size());
+        assertEquals(1, clusters.get(1).get(1).size());
+        assertNotEquals(clusters.get(1).get(0), clusters.get(1).get(1));
+        assertEquals(clusters.get(0), clusters.get(1));
+    }
+
+    @Test
+    public void shouldSpillMessagesAndMapEmits() throws Exception {
+        final File directory = new File(TestHelper.makeTestDataDirectory(TinkerGraphTest.class), "shouldSpillMessagesAndMapEmits");
+        final TinkerGraph graph = TinkerGraph.open();
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            vertices.add(graph.addVertex(T.id, i));
+        }
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 40; j++) {
+                if (i != j && i / 20 == j / 20 && (i + j) % 3 != 0)
+                    vertices.get(i).addEdge("knows", vertices.get(j));
+            }
+        }
+
+        // peer pressure does not combine its messages, while the map emits of page rank are not reduced
+        final List<Map<Object, Object>> clusters = new ArrayList<>();
+        final List<Map<Object, Object>> populations = new ArrayList<>();
+        final List<Map<Object, Double>> ranks = new ArrayList<>();
+        for (final long threshold : new long[]{0, 10}) {
+            final ComputerResult peerPressure = graph.compute().program(PeerPressureVertexProgram.build().create(graph))
+                    .mapReduce(ClusterPopulationMapReduce.build().create())
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD, threshold)
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_SPILL_LOCATION, directory.getAbsolutePath()).submit().get();
+            clusters.add(peerPressure.graph().traversal().V().group().by(T.id).by(PeerPressureVertexProgram.CLUSTER).next());
+            populations.add(peerPressure.memory().get(ClusterPopulationMapReduce.DEFAULT_MEMORY_KEY));
+            final ComputerResult pageRank = graph.compute().program(PageRankVertexProgram.build().create(graph))
+                    .mapReduce(PageRankMapReduce.build().create())
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD, threshold)
+                    .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_SPILL_LOCATION, directory.getAbsolutePath()).submit().get();
+            final Map<Object, Double> rank = new HashMap<>();
+            pageRank.memory().<Iterator<KeyValue<Object, Double>>>get(PageRankMapReduce.DEFAULT_MEMORY_KEY)
+                    .forEachRemaining(keyValue -> rank.put(keyValue.getKey(), keyValue.getValue()));
+            ranks.add(rank);
+        }
+        assertEquals(40, clusters.get(1).size());
+        assertEquals(clusters.get(0), clusters.get(1));
+        assertEquals(populations.get(0), populations.get(1));
+        assertEquals(40, ranks.get(1).size());
+        assertEquals(ranks.get(0), ranks.get(1));
+        // the spilled runs are deleted once the computation completes
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldCombineAndReduceMapEmitsInPartitions() throws Exception {
+        final File directory = new File(TestHelper.makeTestDataDirectory(TinkerGraphTest.class), "shouldCombineAndReduceMapEmitsInPartitions");
+        final TinkerGraph graph = TinkerGraph.open();
+        for (int i = 0; i < 200; i++) {
+            graph.addVertex(T.id, i);
+        }
+        final AtomicLong combines = new AtomicLong();
+        final AtomicLong reduces = new AtomicLong();
+        for (final boolean sorted : new boolean[]{false, true}) {
+            for (final long threshold : new long[]{0, 10}) {
+                combines.set(0);
+                reduces.set(0);
+                // counts the vertices by the last digit of their id
+                final MapReduce<Integer, Long, Integer, Long, Map<Integer, Long>> count = new StaticMapReduce<Integer, Long, Integer, Long, Map<Integer, Long>>() {
+                    @Override
+                    public boolean doStage(final Stage stage) {
+                        return true;
+                    }
+
+                    @Override
+                    public void map(final Vertex vertex, final MapEmitter<Integer, Long> emitter) {
+                        emitter.emit((Integer) vertex.id() % 10, 1L);
+                    }
+
+                    @Override
+                    public void combine(final Integer key, final Iterator<Long> values, final ReduceEmitter<Integer, Long> emitter) {
+                        combines.incrementAndGet();
+                        this.reduce(key, values, emitter);
+                    }
+
+                    @Override
+                    public void reduce(final Integer key, final Iterator<Long> values, final ReduceEmitter<Integer, Long> emitter) {
+                        reduces.incrementAndGet();
+                        long sum = 0;
+                        while (values.hasNext()) {
+                            sum = sum + values.next();
+                        }
+                        emitter.emit(key, sum);
+                    }
+
+                    @Override
+                    public Optional<Comparator<Integer>> getMapKeySort() {
+                        return sorted ? Optional.of(Comparator.reverseOrder()) : Optional.empty();
+                    }
+
+                    @Override
+                    public Map<Integer, Long> generateFinalResult(final Iterator<KeyValue<Integer, Long>> keyValues) {
+                        final Map<Integer, Long> result = new HashMap<>();
+                        keyValues.forEachRemaining(keyValue -> result.put(keyValue.getKey(), keyValue.getValue()));
+                        return result;
+                    }
+
+                    @Override
+                    public String getMemoryKey() {
+                        return "count";
+                    }
+                };
+                final Map<Integer, Long> result = graph.compute().mapReduce(count)
+                        .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD, threshold)
+                        .configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_SPILL_LOCATION, directory.getAbsolutePath())
+                        .submit().get().memory().get("count");
+                assertEquals(10, result.size());
+                for (int i = 0; i < 10; i++) {
+                    assertEquals(20L, result.get(i).longValue());
+                }
+                // the values that a worker still holds are combined before they are reduced once for each key
+                assertEquals(0 == threshold, combines.get() > 0);
+                assertEquals(10, reduces.get() - combines.get());
+            }
+        }
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldRecomputePageRankAndPeerPressureIncrementally() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open();
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            vertices.add(graph.addVertex(T.id, i));
+        }
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 40; j++) {
+                if (i != j && i / 20 == j / 20 && (i + j) % 3 != 0)
+                    vertices.get(i).addEdge("knows", vertices.get(j));
+            }
+        }
+        vertices.get(0).addEdge("knows", vertices.get(20));
+        graph.compute().program(PageRankVertexProgram.build().property("pageRank").iterations(100).create(graph))
+                .result(GraphComputer.ResultGraph.ORIGINAL).persist(GraphComputer.Persist.VERTEX_PROPERTIES).submit().get();
+        graph.compute().program(PeerPressureVertexProgram.build().property("cluster").create(graph))
+                .result(GraphComputer.ResultGraph.ORIGINAL).persist(GraphComputer.Persist.VERTEX_PROPERTIES).submit().get();
+        assertEquals(2L, graph.traversal().V().values("cluster").dedup().count().next().longValue());
+
+        // vertex 5 leaves its community for the other one
+        final Vertex moved = vertices.get(5);
+        moved.property("changed", true);
+        moved.edges(Direction.BOTH).forEachRemaining(edge -> {
+            edge.outVertex().property("changed", true);
+            edge.inVertex().property("changed", true);
+            edge.remove();
+        });
+        for (int i = 21; i < 40; i = i + 2) {
+            moved.addEdge("knows", vertices.get(i));
+            vertices.get(i).addEdge("knows", moved);
+            vertices.get(i).property("changed", true);
+        }
+
+        final GraphTraversalSource g = graph.traversal().withComputer();
+        final Map<Object, Double> ranks = new HashMap<>();
+        g.V().pageRank().with(PageRankVertexProgramStep.CHANGED, __.has("changed")).by("pageRank")
+                .project("id", "rank").by(T.id).by("pageRank").toList()
+                .forEach(map -> ranks.put(map.get("id"), (Double) map.get("rank")));
+        g.V().pageRank().by("fresh").times(100).project("id", "rank").by(T.id).by("fresh").toList()
+                .forEach(map -> assertEquals((Double) map.get("rank"), ranks.get(map.get("id")), 0.0001d));
+        assertEquals(40, ranks.size());
+        assertTrue(Math.abs(graph.traversal().V(5).<Double>values("pageRank").next() - ranks.get(5)) > 0.001d);
+
+        final Map<Object, Object> clusters = new HashMap<>();
+        g.V().peerPressure().with(PeerPressureVertexProgramStep.CHANGED, __.has("changed")).by("cluster")
+                .project("id", "cluster").by(T.id).by("cluster").toList()
+                .forEach(map -> clusters.put(map.get("id"), map.get("cluster")));
+        assertEquals(40, clusters.size());
+        assertEquals(2, new HashSet<>(clusters.values()).size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(clusters.get(i < 20 && i != 5 ? 0 : 20), clusters.get(i));
+        }
+    }
+
+    @Test
+    public void shouldOnlyExecuteActiveVertices() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open();
+        final List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            vertices.add(graph.addVertex(T.id, i));
+            if (i > 0) vertices.get(i - 1).addEdge("next", vertices.get(i));
+        }
+        // walks the chain from its first vertex, so after the first iteration only the vertex walked to has work to do
+        final Map<Integer, AtomicLong> executions = new ConcurrentHashMap<>();
+        final VertexProgram<Boolean> walk = new VertexProgram<Boolean>() {
+            @Override
+            public void setup(final Memory memory) {
+            }
+
+            @Override
+            public void execute(final Vertex vertex, final Messenger<Boolean> messenger, final Memory memory) {
+                executions.computeIfAbsent(memory.getIteration(), iteration -> new AtomicLong()).incrementAndGet();
+                if ((memory.isInitialIteration() && vertex.id().equals(0)) || messenger.receiveMessages().hasNext())
+                    vertex.vertices(Direction.OUT).forEachRemaining(next -> messenger.sendMessage(MessageScope.Global.of(next), true));
+            }
+
+            @Override
+            public boolean terminate(final Memory memory) {
+                return memory.getIteration() == 9;
+            }
+
+            @Override
+            public Set<MessageScope> getMessageScopes(final Memory memory) {
+                return Collections.singleton(MessageScope.Global.instance());
+            }
+
+            @Override
+            public VertexProgram<Boolean> clone() {
+                return this;
+            }
+
+            @Override
+            public GraphComputer.ResultGraph getPreferredResultGraph() {
+                return GraphComputer.ResultGraph.ORIGINAL;
+            }
+
+            @Override
+            public GraphComputer.Persist getPreferredPersist() {
+                return GraphComputer.Persist.NOTHING;
+            }
+
+            @Override
+            public Features getFeatures() {
+                return new Features() {
+                    @Override
+                    public boolean supportsActiveVertices() {
+                        return true;
+                    }
+                };
+            }
+        };
+        graph.compute().program(walk).submit().get();
+        assertEquals(50, executions.get(0).get());
+        for (int i = 1; i < 10; i++) {
+            assertEquals(1, executions.get(i).get());
+        }
+
+        // the vertices that hold traversers at a local barrier are kept active
+        final GraphTraversalSource g = graph.traversal();
+        assertEquals(Collections.singletonList(10), g.withComputer().V(0).repeat(__.out().barrier()).times(10).id().toList());
+        assertEquals(g.V().repeat(__.out()).times(3).id().order().toList(),
+                g.withComputer().V().repeat(__.out()).times(3).id().order().toList());
+    }
+
+    @Test
+    public void shouldKeepManyPropertiesOnVertex() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex vertex = graph.addVertex();
+        for (int i = 0; i < 20; i++) {
+            vertex.property(VertexProperty.Cardinality.list, "k" + i, i);
+        }
+        vertex.property(VertexProperty.Cardinality.list, "k3", 30);
+        vertex.property(VertexProperty.Cardinality.list, "k19", 190);
+        vertex.property(VertexProperty.Cardinality.single, "k5", 50);
+
+        assertEquals(20, vertex.keys().size());
+        assertEquals(22, IteratorUtils.count(vertex.properties()));
+        assertEquals(Arrays.asList(3, 30), IteratorUtils.list(vertex.values("k3")));
+        assertEquals(Arrays.asList(19, 190), IteratorUtils.list(vertex.values("k19")));
+        assertEquals(50, (int) vertex.value("k5"));
+        assertEquals(3, IteratorUtils.count(vertex.properties("k3", "k5")));
+
+        vertex.properties().forEachRemaining(VertexProperty::remove);
+        assertEquals(0, vertex.keys().size());
+        assertEquals(0, IteratorUtils.count(vertex.properties()));
+    }
+
+    @Test
+    public void shouldFindPropertiesOfKeysThatMovedOnVertexWithManyProperties() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex vertex = graph.addVertex();
+        for (int i = 0; i < 12; i++) {
+            vertex.property(VertexProperty.Cardinality.list, "k" + i, i);
+        }
+        // each change moves the keys after the one that it is made to
+        vertex.property(VertexProperty.Cardinality.list, "k0", 100);
+        assertEquals(Arrays.asList(0, 100), IteratorUtils.list(vertex.values("k0")));
+        assertEquals(11, (int) vertex.value("k11"));
+        vertex.property("k1").remove();
+        assertFalse(vertex.property("k1").isPresent());
+        assertEquals(2, (int) vertex.value("k2"));
+        vertex.property(VertexProperty.Cardinality.single, "k0", 0);
+        vertex.property(VertexProperty.Cardinality.list, "k12", 12);
+        vertex.property(VertexProperty.Cardinality.list, "k12", 120);
+        for (int i = 0; i < 12; i++) {
+            if (1 == i) continue;
+            assertEquals(i, (int) vertex.value("k" + i));
+        }
+        assertEquals(Arrays.asList(12, 120), IteratorUtils.list(vertex.values("k12")));
+
+        // with fewer keys they are found without the positions
+        for (int i = 2; i < 10; i++) {
+            vertex.property("k" + i).remove();
+        }
+        assertEquals(Arrays.asList(10, 11, 0, 12, 120), IteratorUtils.list(vertex.values()));
+        assertEquals(11, (int) vertex.value("k11"));
+    }
+
+    @Test
+    public void shouldShareInstanceOfPropertyKey() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex v1 = graph.addVertex(new String("name"), "marko");
+        final Vertex v2 = graph.addVertex(new String("name"), "vadas");
+        final Edge edge = v1.addEdge("knows", v2, new String("name"), "friends");
+        v1.property("name").property(new String("name"), "first");
+        assertSame(v1.property("name").key(), v2.property("name").key());
+        assertSame(v1.property("name").key(), edge.property("name").key());
+        assertSame(v1.property("name").key(), v1.property("name").property("name").key());
+    }
+
+    @Test
+    public void shouldBulkLoadColumnarBatches() {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.createIndex("name", Vertex.class);
+        graph.createIndex("weight", Edge.class, TinkerGraph.IndexType.SORTED);
+
+        final int count = 1000;
+        final Object[] ids = new Object[count];
+        final String[] labels = new String[count];
+        final Object[] names = new Object[count];
+        final Object[] ages = new Object[count];
+        final String[] edgeLabels = new String[count];
+        final Object[] inIds = new Object[count];
+        final Object[] weights = new Object[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = (long) i;
+            labels[i] = i % 2 == 0 ? "person" : "software";
+            names[i] = "v" + i;
+            ages[i] = i % 2 == 0 ? i : null;
+            edgeLabels[i] = "next";
+            inIds[i] = (long) ((i + 1) % count);
+            weights[i] = i / (double) count;
+        }
+        final Map<String, Object[]> vertexProperties = new HashMap<>();
+        vertexProperties.put("name", names);
+        vertexProperties.put("age", ages);
+
+        try (final TinkerBulkLoader loader = TinkerBulkLoader.build().expectedVertices(count).expectedEdges(count).workers(4).create(graph)) {
+            loader.addVertices(ids, labels, vertexProperties);
+            loader.addEdges(null, edgeLabels, ids, inIds, Collections.singletonMap("weight", weights));
+        }
+
+        final GraphTraversalSource g = graph.traversal();
+        assertEquals(count, IteratorUtils.count(graph.vertices()));
+        assertEquals(count, IteratorUtils.count(graph.edges()));
+        assertEquals(count / 2, g.V().has("age").count().next().intValue());
+        assertEquals(count / 2, g.V().hasLabel("software").count().next().intValue());
+        assertEquals("v1", g.V().has("name", "v0").out("next").values("name").next());
+        assertEquals("v999", g.V().has("name", "v0").in("next").values("name").next());
+        assertEquals(1, TinkerHelper.queryVertexIndex(graph, "name", "v10").size());
+        assertEquals(10, g.E().has("weight", P.lt(0.01)).count().next().intValue());
+    }
+
+    @Test
+    public void shouldBulkLoadFromGraphReader() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createTheCrew();
+        try (final ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            graph.io(IoCore.gryo()).writer().create().writeGraph(out, graph);
+            final Configuration conf = new BaseConfiguration();
+            conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ADJACENCY, "compact");
+            final TinkerGraph target = TinkerGraph.open(conf);
+            target.createIndex("location", Vertex.class);
+            try (final TinkerBulkLoader loader = TinkerBulkLoader.build().workers(3).batchSize(2).create(target);
+                 final ByteArrayInputStream inputStream = new ByteArrayInputStream(out.toByteArray())) {
+                loader.readGraph(inputStream, target.io(IoCore.gryo()).reader().create());
+            }
+            IoTest.assertCrewGraph(target, false);
+            assertEquals(1, TinkerHelper.queryVertexIndex(target, "location", "purcellville").size());
+        }
+    }
+
+    @Test
+    public void shouldBulkLoadEdgesToVerticesOfEarlierAndLaterBatchesFromGraphReader() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open();
+        final int count = 500;
+        for (int i = 0; i < count; i++) {
+            graph.addVertex(T.id, (long) i, "i", i);
+        }
+        for (int i = 0; i < count; i++) {
+            final Vertex vertex = graph.vertices((long) i).next();
+            vertex.addEdge("next", graph.vertices((long) ((i + 1) % count)).next(), "i", i);
+            vertex.addEdge("previous", graph.vertices((long) ((i + count - 1) % count)).next(), "i", i);
+        }
+
+        for (final String idManager : Arrays.asList("ANY", "UUID")) {
+            try (final ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                graph.io(IoCore.gryo()).writer().create().writeGraph(out, graph);
+                // the identifiers of the vertices are replaced when the graph does not allow them
+                final Configuration conf = new BaseConfiguration();
+                conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_VERTEX_ID_MANAGER, idManager);
+                final TinkerGraph target = TinkerGraph.open(conf);
+                try (final TinkerBulkLoader loader = TinkerBulkLoader.build().workers(2).batchSize(7).create(target);
+                     final ByteArrayInputStream inputStream = new ByteArrayInputStream(out.toByteArray())) {
+                    loader.readGraph(inputStream, target.io(IoCore.gryo()).reader().create());
+                }
+
+                final GraphTraversalSource g = target.traversal();
+                assertEquals(count, IteratorUtils.count(target.vertices()));
+                assertEquals(count * 2, IteratorUtils.count(target.edges()));
+                for (int i = 0; i < count; i++) {
+                    final Vertex vertex = g.V().has("i", i).next();
+                    assertEquals((i + 1) % count, (int) g.V(vertex).out("next").values("i").next());
+                    assertEquals((i + count - 1) % count, (int) g.V(vertex).out("previous").values("i").next());
+                    assertEquals(i, (int) g.V(vertex).outE().values("i").dedup().next());
+                    assertEquals(2L, g.V(vertex).inE().count().next().longValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldAttachAndIndexEdgesLoadedBeforeABulkLoadedRowFailed() {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.createIndex("weight", Edge.class);
+
+        final int count = 100;
+        final Object[] ids = new Object[count];
+        final String[] labels = new String[count];
+        final String[] edgeLabels = new String[count];
+        final Object[] inIds = new Object[count];
+        final Object[] weights = new Object[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = (long) i;
+            labels[i] = "person";
+            edgeLabels[i] = "next";
+            inIds[i] = (long) ((i + 1) % count);
+            weights[i] = 1.0d;
+        }
+        // the edge in the middle of the last partition goes to a vertex that does not exist
+        inIds[90] = -1L;
+
+        try (final TinkerBulkLoader loader = TinkerBulkLoader.build().workers(4).create(graph)) {
+            loader.addVertices(ids, labels, Collections.emptyMap());
+            try {
+                loader.addEdges(null, edgeLabels, ids, inIds, Collections.singletonMap("weight", weights));
+                fail("The edge to a vertex that does not exist should have failed the batch");
+            } catch (IllegalStateException ex) {
+                // the edges that were loaded by then remain in the graph
+            }
+        }
+
+        final GraphTraversalSource g = graph.traversal();
+        final long edges = IteratorUtils.count(graph.edges());
+        assertTrue(edges >= 90 && edges < count);
+        assertEquals(edges, g.V().outE().count().next().longValue());
+        assertEquals(edges, g.V().inE().count().next().longValue());
+        assertEquals(edges, g.E().hasLabel("next").count().next().longValue());
+        assertEquals(edges, g.E().has("weight", 1.0d).count().next().longValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotBulkLoadGraphWithTransactions() {
+        TinkerBulkLoader.build().create(TinkerGraph.open(transactionConfiguration()));
+    }
+
+    private static Configuration transactionConfiguration() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONS, true);
+        return conf;
+    }
+
+    /**
+     * Reads in a pooled thread, which ends the transaction that the read opens so that the next read does not see
+     * the graph as of this one.
+     */
+    private static <T> T inAnotherThread(final Graph graph, final Supplier<T> supplier) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return supplier.get();
+            } finally {
+                if (graph.tx().isOpen()) graph.tx().rollback();
+            }
+        }).get();
+    }
+
     /**
      * Coerces a {@code Color} to a {@link TinkerGraph} during serialization.  Demonstrates how custom serializers
      * can be developed that can coerce one value to another during serialization.
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.TestHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link TinkerLazyGraph} over the Gryo files that {@link TinkerGraph} writes.
+ */
+public class TinkerLazyGraphTest {
+
+    @Test
+    public void shouldTraverseModernGraph() throws Exception {
+        final Configuration conf = writeGraph(TinkerFactory.createModern(), "shouldTraverseModernGraph.kryo");
+        conf.setProperty(TinkerLazyGraph.GREMLIN_TINKERGRAPH_LAZY_CACHE_SIZE, 1);
+        final TinkerLazyGraph graph = TinkerLazyGraph.open(conf);
+        final GraphTraversalSource g = graph.traversal();
+
+        assertEquals(6, g.V().count().next().intValue());
+        assertEquals(6, g.E().count().next().intValue());
+        assertEquals(Arrays.asList("josh", "vadas"), g.V(1).out("knows").<String>values("name").order().toList());
+        assertEquals(Arrays.asList("lop", "ripple"), g.V(1).out("knows").out("created").<String>values("name").order().toList());
+        assertEquals(Arrays.asList("josh", "marko", "peter"), g.V(3).in().<String>values("name").order().toList());
+        assertEquals(Arrays.asList(1, 4, 6), g.V(3).inE().outV().id().order().toList());
+        assertEquals(0.4d, g.E(11).<Double>values("weight").next(), 0.0d);
+        assertEquals("josh", g.E(11).outV().values("name").next());
+        assertEquals(2, g.V(1, 2, 100).count().next().intValue());
+        assertEquals(3, g.V().hasLabel("person").has("age", 29).out().count().next().intValue());
+        graph.close();
+    }
+
+    @Test
+    public void shouldTraverseCrewGraph() throws Exception {
+        final Configuration conf = writeGraph(TinkerFactory.createTheCrew(), "shouldTraverseCrewGraph.kryo");
+        final TinkerLazyGraph graph = TinkerLazyGraph.open(conf);
+        final GraphTraversalSource g = graph.traversal();
+
+        assertEquals(4, g.V().has("name", "marko").properties("location").count().next().intValue());
+        assertEquals(Arrays.asList(1997, 2001, 2004, 2005), g.V().has("name", "marko").properties("location").values("startTime").order().toList());
+        assertEquals("marko", g.V().has("name", "marko").properties("location").next().element().value("name"));
+        graph.close();
+    }
+
+    @Test
+    public void shouldReuseSavedIndex() throws Exception {
+        final Configuration conf = writeGraph(TinkerFactory.createModern(), "shouldReuseSavedIndex.kryo");
+        final File index = new File(conf.getString(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION) + ".idx");
+        assertFalse(index.exists());
+        TinkerLazyGraph.open(conf).close();
+        assertTrue(index.exists());
+
+        final TinkerLazyGraph graph = TinkerLazyGraph.open(conf);
+        assertEquals("marko", graph.vertices(1).next().value("name"));
+        assertEquals(7, graph.edges(7).next().id());
+        assertEquals(6, IteratorUtils.count(graph.vertices()));
+        graph.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAllowPropertyAdditions() throws Exception {
+        final Configuration conf = writeGraph(TinkerFactory.createModern(), "shouldNotAllowPropertyAdditions.kryo");
+        final TinkerLazyGraph graph = TinkerLazyGraph.open(conf);
+        final Vertex vertex = graph.vertices(1).next();
+        try {
+            vertex.property(VertexProperty.Cardinality.single, "name", "marko a. rodriguez");
+        } finally {
+            graph.close();
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAllowVertexAdditions() throws Exception {
+        final Configuration conf = writeGraph(TinkerFactory.createModern(), "shouldNotAllowVertexAdditions.kryo");
+        final TinkerLazyGraph graph = TinkerLazyGraph.open(conf);
+        try {
+            graph.addVertex(T.label, "person");
+        } finally {
+            graph.close();
+        }
+    }
+
+    private static Configuration writeGraph(final TinkerGraph source, final String name) throws Exception {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerLazyGraphTest.class) + name;
+        new File(graphLocation + ".idx").delete();
+        source.io(IoCore.gryo()).writeGraph(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        return conf;
+    }
+}